@@ -92,6 +92,27 @@ struct PruneJobUpdateHistory {
   2: i64 historyPruneThresholdMs
 }
 
+// A ScheduledTask with its assignedTask.task field set to null. Deserializers must fill in
+// assignedTask.task with the TaskConfig identified by taskConfigId (which is an index into the
+// taskConfigs list of the enclosing DeduplicatedSnapshot or SavePartialTasks).
+struct DeduplicatedScheduledTask {
+  1: api.ScheduledTask partialScheduledTask
+  2: i32 taskConfigId
+}
+
+// A taskConfigId in SavePartialTasks referencing the TaskConfig of the stored task with the same
+// task ID, which the task retains.
+const i32 STORED_TASK_CONFIG_ID = -1
+
+// Equivalent to SaveTasks, but each distinct TaskConfig is written at most once, and not at all for
+// tasks that retain their stored TaskConfig.
+struct SavePartialTasks {
+  1: list<DeduplicatedScheduledTask> partialTasks
+  // Ordered list of taskConfigs. The taskConfigId field of DeduplicatedScheduledTask is an index
+  // into this, or STORED_TASK_CONFIG_ID.
+  2: list<api.TaskConfig> taskConfigs
+}
+
 union Op {
   1: SaveFrameworkId saveFrameworkId
   2: SaveCronJob saveCronJob
@@ -108,6 +129,7 @@ union Op {
   15: SaveJobUpdateEvent saveJobUpdateEvent
   16: SaveJobInstanceUpdateEvent saveJobInstanceUpdateEvent
   17: PruneJobUpdateHistory pruneJobUpdateHistory
+  18: SavePartialTasks savePartialTasks
 }
 
 // The current schema version ID.  This should be incremented each time the
@@ -188,14 +210,6 @@ union Frame {
   2: FrameChunk chunk
 }
 
-// A ScheduledTask with its assignedTask.task field set to null. Deserializers must fill in
-// assignedTask.task with the TaskConfig identified by taskConfigId (which is an index into the
-// DeduplicatedSnapshot's taskConfigs list).
-struct DeduplicatedScheduledTask {
-  1: api.ScheduledTask partialScheduledTask
-  2: i32 taskConfigId
-}
-
 // A Snapshot that has had duplicate TaskConfig structs removed to save space. The
 // partialSnapshot field is a normal Snapshot with the tasks field set to null. To create the
 // full Snapshot deserializers must fill in this field with the result of recreating each
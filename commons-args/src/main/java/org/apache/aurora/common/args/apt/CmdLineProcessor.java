@@ -44,6 +44,7 @@ import javax.lang.model.util.SimpleTypeVisitor6;
 import javax.lang.model.util.Types;
 import javax.tools.Diagnostic.Kind;
 import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
 import javax.tools.StandardLocation;
 
 import com.google.common.base.Function;
@@ -96,6 +97,8 @@ public class CmdLineProcessor extends AbstractProcessor {
 
   private static final Function<Class<?>, String> GET_NAME = Class::getName;
 
+  private static final int MAIN_RESOURCE_INDEX = 0;
+
   private final Supplier<Configuration> configSupplier =
       Suppliers.memoize(new Supplier<Configuration>() {
         @Override public Configuration get() {
@@ -194,13 +197,13 @@ public class CmdLineProcessor extends AbstractProcessor {
         if (classpathConfiguration != null
             && (!classpathConfiguration.isEmpty() || !configBuilder.isEmpty())) {
 
+          Configuration configuration = configBuilder.build(classpathConfiguration);
           @Nullable Resource cmdLinePropertiesResource =
               openCmdLinePropertiesResource(classpathConfiguration);
           if (cmdLinePropertiesResource != null) {
             Writer writer = cmdLinePropertiesResource.getWriter();
             try {
-              configBuilder.build(classpathConfiguration).store(writer,
-                  "Generated via apt by " + getClass().getName());
+              configuration.store(writer, "Generated via apt by " + getClass().getName());
             } finally {
               closeQuietly(writer);
             }
@@ -208,6 +211,9 @@ public class CmdLineProcessor extends AbstractProcessor {
             writeResourceMapping(contributingClassNamesBuilder.build(),
                 cmdLinePropertiesResource.getResource());
           }
+
+          writeRegistry(configuration,
+              isMain ? MAIN_RESOURCE_INDEX : classpathConfiguration.nextResourceIndex());
         }
       }
     // TODO(John Sirois): Investigate narrowing this catch - its not clear there is any need to be
@@ -247,6 +253,38 @@ public class CmdLineProcessor extends AbstractProcessor {
     }
   }
 
+  private void writeRegistry(Configuration configuration, int index) {
+    String registryClassName = Configuration.getRegistryClassName(index);
+    Writer sourceWriter;
+    try {
+      JavaFileObject source = processingEnv.getFiler().createSourceFile(registryClassName);
+      log(Kind.NOTE, "Writing %s", source.toUri());
+      sourceWriter = source.openWriter();
+    } catch (IOException e) {
+      error("Failed to create registry source %s: %s",
+          registryClassName, Throwables.getStackTraceAsString(e));
+      return;
+    }
+    try {
+      configuration.storeRegistry(sourceWriter, index,
+          "Generated via apt by " + getClass().getName());
+    } finally {
+      closeQuietly(sourceWriter);
+    }
+
+    // Register the generated class for discovery via ServiceLoader in Configuration.load().
+    @Nullable Resource service =
+        openResource("", "META-INF/services/" + CmdLineRegistry.class.getName());
+    if (service != null) {
+      PrintWriter writer = new PrintWriter(service.getWriter());
+      try {
+        writer.println(registryClassName);
+      } finally {
+        closeQuietly(writer);
+      }
+    }
+  }
+
   private static final Function<Element, Element> EXTRACT_ENCLOSING_CLASS =
       Element::getEnclosingElement;
 
@@ -0,0 +1,59 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.common.args.apt;
+
+import org.apache.aurora.common.args.apt.Configuration.ArgInfo;
+import org.apache.aurora.common.args.apt.Configuration.ParserInfo;
+import org.apache.aurora.common.args.apt.Configuration.VerifierInfo;
+
+/**
+ * {@literal @CmdLine} configuration data compiled into a class by {@link CmdLineProcessor}.
+ *
+ * <p>Every compilation processed by {@link CmdLineProcessor} generates an implementation holding
+ * the same data as the {@code cmdline.arg.info.txt} resource it stores, registered as a
+ * {@link java.util.ServiceLoader} service.  This allows {@link Configuration#load()} to discover
+ * all configuration data with a single classpath lookup instead of probing for and parsing every
+ * indexed resource.
+ */
+public interface CmdLineRegistry {
+
+  /**
+   * Returns the index of the {@code cmdline.arg.info.txt} resource this registry was generated
+   * alongside.
+   *
+   * @return The resource index.
+   */
+  int getIndex();
+
+  /**
+   * Returns the {@literal @CmdLine} annotated fields known to this registry.
+   *
+   * @return The field info.
+   */
+  Iterable<ArgInfo> getArgInfos();
+
+  /**
+   * Returns the {@literal @ArgParser} annotated parsers known to this registry.
+   *
+   * @return The parser info.
+   */
+  Iterable<ParserInfo> getParserInfos();
+
+  /**
+   * Returns the {@literal @VerifierFor} annotated verifiers known to this registry.
+   *
+   * @return The verifier info.
+   */
+  Iterable<VerifierInfo> getVerifierInfos();
+}
@@ -19,12 +19,16 @@ import java.io.Reader;
 import java.io.Writer;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.logging.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
@@ -81,6 +85,8 @@ public final class Configuration {
 
   private static final String DEFAULT_RESOURCE_NAME = "cmdline.arg.info.txt";
 
+  private static final String REGISTRY_CLASS_PREFIX = "GeneratedCmdLineRegistry";
+
   private int nextResourceIndex;
   private final ImmutableSet<ArgInfo> cmdLineInfos;
   private final ImmutableSet<ParserInfo> parserInfos;
@@ -305,6 +311,19 @@ public final class Configuration {
       this.nextResourceIndex = nextResourceIndex;
       this.resources = resources;
     }
+
+    @VisibleForTesting
+    int nextResourceIndex() {
+      return nextResourceIndex;
+    }
+  }
+
+  /**
+   * Finds the configuration resources stored at a resource index.
+   */
+  @VisibleForTesting
+  interface ResourceLookup {
+    Iterator<URL> getResources(int index) throws IOException;
   }
 
   /**
@@ -315,24 +334,87 @@ public final class Configuration {
    * @throws IOException if the configuration data can not be read from the classpath.
    */
   public static Configuration load() throws ConfigurationException, IOException {
-    ConfigurationResources allResources = getAllResources();
+    List<CmdLineRegistry> registries = loadRegistries();
+    if (!registries.isEmpty()) {
+      LOG.info("Loading @CmdLine config from generated registries: " + registries);
+    }
+
+    // Jars built by processors that predate generated registries only store their configuration
+    // in resources, so indexes without a registry are still probed and parsed.  Current jars store
+    // both, and the registry makes the resource of its index redundant.
+    ConfigurationResources allResources = getAllResources(
+        ImmutableSet.copyOf(Iterables.transform(registries, CmdLineRegistry::getIndex)),
+        Configuration::getResources);
     List<URL> configs = ImmutableList.copyOf(allResources.resources);
-    if (configs.isEmpty()) {
-      LOG.info("No @CmdLine arg configs found on the classpath");
-    } else {
+    if (!configs.isEmpty()) {
       LOG.info("Loading @CmdLine config from: " + configs);
+    } else if (registries.isEmpty()) {
+      LOG.info("No @CmdLine arg configs found on the classpath");
     }
-    return load(allResources.nextResourceIndex, configs);
+    return merge(load(registries), load(allResources.nextResourceIndex, configs));
   }
 
-  private static ConfigurationResources getAllResources() throws IOException {
+  @VisibleForTesting
+  static Configuration merge(Configuration first, Configuration second) {
+    return new Configuration(
+        Math.max(first.nextResourceIndex, second.nextResourceIndex),
+        Iterables.concat(first.cmdLineInfos, second.cmdLineInfos),
+        Iterables.concat(first.parserInfos, second.parserInfos),
+        Iterables.concat(first.verifierInfos, second.verifierInfos));
+  }
+
+  private static List<CmdLineRegistry> loadRegistries() throws ConfigurationException {
+    try {
+      return ImmutableList.copyOf(
+          ServiceLoader.load(CmdLineRegistry.class, Configuration.class.getClassLoader()));
+    } catch (ServiceConfigurationError e) {
+      throw new ConfigurationException(e);
+    }
+  }
+
+  private static Configuration load(List<CmdLineRegistry> registries) {
     int maxResourceIndex = 0;
-    Iterator<URL> allResources = getResources(0); // Try for a main
-    // Probe for resource files with index up to 10 (or more, while resources at the
+    ImmutableList.Builder<ArgInfo> argInfos = ImmutableList.builder();
+    ImmutableList.Builder<ParserInfo> parserInfos = ImmutableList.builder();
+    ImmutableList.Builder<VerifierInfo> verifierInfos = ImmutableList.builder();
+    for (CmdLineRegistry registry : registries) {
+      maxResourceIndex = Math.max(maxResourceIndex, registry.getIndex());
+      argInfos.addAll(registry.getArgInfos());
+      parserInfos.addAll(registry.getParserInfos());
+      verifierInfos.addAll(registry.getVerifierInfos());
+    }
+    return new Configuration(
+        maxResourceIndex + 1,
+        argInfos.build(),
+        parserInfos.build(),
+        verifierInfos.build());
+  }
+
+  /**
+   * Probes for the configuration resources at indexes not covered by a generated registry.
+   *
+   * @param registryIndexes Indexes covered by a generated registry, which are not probed.
+   * @param lookup Resource lookup.
+   * @return The configuration resources found.
+   * @throws IOException if the resources can not be looked up.
+   */
+  @VisibleForTesting
+  static ConfigurationResources getAllResources(
+      Set<Integer> registryIndexes,
+      ResourceLookup lookup) throws IOException {
+
+    int maxResourceIndex = registryIndexes.isEmpty() ? 0 : Collections.max(registryIndexes);
+    Iterator<URL> allResources = registryIndexes.contains(0)
+        ? Collections.emptyIterator()
+        : lookup.getResources(0); // Try for a main
+    // Probe for resource files with index up to 10 (or more, while resources or registries at the
     // given index can be found)
     for (int nextResourceIndex = 1; nextResourceIndex <= maxResourceIndex + 10;
          nextResourceIndex++) {
-      Iterator<URL> resources = getResources(nextResourceIndex);
+      if (registryIndexes.contains(nextResourceIndex)) {
+        continue;
+      }
+      Iterator<URL> resources = lookup.getResources(nextResourceIndex);
       if (resources.hasNext()) {
         allResources = Iterators.concat(allResources, resources);
         maxResourceIndex = nextResourceIndex;
@@ -452,6 +534,14 @@ public final class Configuration {
     return getResourceName(nextResourceIndex);
   }
 
+  int nextResourceIndex() {
+    return nextResourceIndex;
+  }
+
+  static String getRegistryClassName(int index) {
+    return String.format("%s.%s%d", DEFAULT_RESOURCE_PACKAGE, REGISTRY_CLASS_PREFIX, index);
+  }
+
   void store(Writer output, String message) {
     PrintWriter writer = new PrintWriter(output);
     writer.printf("# %s\n", new Date());
@@ -473,4 +563,66 @@ public final class Configuration {
           info.verifiedType, info.verifyingAnnotation, info.verifierClass);
     }
   }
+
+  /**
+   * Stores this configuration as the source of a {@link CmdLineRegistry} implementation named by
+   * {@link #getRegistryClassName(int)}.
+   *
+   * @param output The writer to store the source to.
+   * @param index The index of the resource the registry accompanies.
+   * @param message A message to include in the source header.
+   */
+  void storeRegistry(Writer output, int index, String message) {
+    String className = getRegistryClassName(index);
+    PrintWriter writer = new PrintWriter(output);
+    writer.printf("// %s\n", message);
+    writer.printf("package %s;\n\n", DEFAULT_RESOURCE_PACKAGE);
+    writer.println("import java.util.Arrays;");
+    writer.println();
+    writer.printf("public final class %s implements %s {\n",
+        className.substring(DEFAULT_RESOURCE_PACKAGE.length() + 1),
+        CmdLineRegistry.class.getSimpleName());
+    writer.println("  @Override");
+    writer.println("  public int getIndex() {");
+    writer.printf("    return %d;\n", index);
+    writer.println("  }");
+
+    writer.println();
+    writer.println("  @Override");
+    writer.println("  public Iterable<Configuration.ArgInfo> getArgInfos() {");
+    writer.println("    return Arrays.<Configuration.ArgInfo>asList(");
+    storeRegistryEntries(writer, Iterables.transform(cmdLineInfos,
+        info -> String.format("new Configuration.ArgInfo(\"%s\", \"%s\")",
+            info.className, info.fieldName)));
+    writer.println("  }");
+
+    writer.println();
+    writer.println("  @Override");
+    writer.println("  public Iterable<Configuration.ParserInfo> getParserInfos() {");
+    writer.println("    return Arrays.<Configuration.ParserInfo>asList(");
+    storeRegistryEntries(writer, Iterables.transform(parserInfos,
+        info -> String.format("new Configuration.ParserInfo(\"%s\", \"%s\")",
+            info.parsedType, info.parserClass)));
+    writer.println("  }");
+
+    writer.println();
+    writer.println("  @Override");
+    writer.println("  public Iterable<Configuration.VerifierInfo> getVerifierInfos() {");
+    writer.println("    return Arrays.<Configuration.VerifierInfo>asList(");
+    storeRegistryEntries(writer, Iterables.transform(verifierInfos,
+        info -> String.format("new Configuration.VerifierInfo(\"%s\", \"%s\", \"%s\")",
+            info.verifiedType, info.verifyingAnnotation, info.verifierClass)));
+    writer.println("  }");
+    writer.println("}");
+    writer.flush();
+  }
+
+  private static void storeRegistryEntries(PrintWriter writer, Iterable<String> entries) {
+    // Identifiers are validated on construction, so entries never need escaping.
+    List<String> lines = ImmutableList.copyOf(entries);
+    for (int i = 0; i < lines.size(); i++) {
+      writer.printf("        %s%s\n", lines.get(i), i < lines.size() - 1 ? "," : "");
+    }
+    writer.println("    );");
+  }
 }
@@ -21,8 +21,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 import com.google.common.reflect.TypeToken;
 
 import org.apache.aurora.common.args.apt.Configuration;
@@ -42,15 +43,6 @@ public final class Parsers implements ParserOracle {
   public static final Splitter MULTI_VALUE_SPLITTER =
       Splitter.on(",").trimResults().omitEmptyStrings();
 
-  private static final Function<ParserInfo, Class<?>> INFO_TO_PARSED_TYPE =
-      parserInfo -> {
-        try {
-          return Class.forName(parserInfo.parsedType);
-        } catch (ClassNotFoundException e) {
-          throw new ConfigurationException(e);
-        }
-      };
-
   @VisibleForTesting
   static final Function<ParserInfo, Parser<?>> INFO_TO_PARSER =
       parserInfo -> {
@@ -72,7 +64,9 @@ public final class Parsers implements ParserOracle {
         }
       };
 
-  private final ImmutableMap<Class<?>, Parser<?>> registry;
+  // Keyed by parsed type name so that neither parsed types nor parsers need to be loaded until an
+  // argument of the type is parsed.
+  private final ImmutableMap<String, Supplier<Parser<?>>> registry;
 
   /**
    * Creates a new parser registry over the specified {@code parsers}.
@@ -81,30 +75,41 @@ public final class Parsers implements ParserOracle {
    */
   public Parsers(Map<Class<?>, Parser<?>> parsers) {
     Preconditions.checkNotNull(parsers);
-    registry = ImmutableMap.copyOf(parsers);
+    ImmutableMap.Builder<String, Supplier<Parser<?>>> builder = ImmutableMap.builder();
+    for (Map.Entry<Class<?>, Parser<?>> entry : parsers.entrySet()) {
+      builder.put(entry.getKey().getName(), Suppliers.ofInstance(entry.getValue()));
+    }
+    registry = builder.build();
+  }
+
+  private Parsers(ImmutableMap<String, Supplier<Parser<?>>> registry) {
+    this.registry = registry;
   }
 
   @Override
   public <T> Parser<T> get(TypeToken<T> type) throws IllegalArgumentException {
-    Parser<?> parser;
+    Supplier<Parser<?>> parser = null;
     Class<?> explicitClass = type.getRawType();
-    while (((parser = registry.get(explicitClass)) == null) && (explicitClass != null)) {
+    while ((explicitClass != null)
+        && ((parser = registry.get(explicitClass.getName())) == null)) {
       explicitClass = explicitClass.getSuperclass();
     }
     checkArgument(parser != null, "No parser found for " + type);
 
     // We control loading of the registry which ensures a proper mapping of class -> parser
     @SuppressWarnings("unchecked")
-    Parser<T> parserT = (Parser<T>) parser;
+    Parser<T> parserT = (Parser<T>) parser.get();
 
     return parserT;
   }
 
   static Parsers fromConfiguration(Configuration configuration) {
-    Map<Class<?>, Parser<?>> parsers =
-        Maps.transformValues(
-            Maps.uniqueIndex(configuration.parserInfo(), INFO_TO_PARSED_TYPE),
-            INFO_TO_PARSER);
-    return new Parsers(parsers);
+    ImmutableMap.Builder<String, Supplier<Parser<?>>> parsers = ImmutableMap.builder();
+    for (ParserInfo parserInfo : configuration.parserInfo()) {
+      parsers.put(
+          parserInfo.parsedType,
+          Suppliers.memoize(() -> INFO_TO_PARSER.apply(parserInfo)));
+    }
+    return new Parsers(parsers.build());
   }
 }
@@ -14,15 +14,15 @@
 package org.apache.aurora.common.args;
 
 import java.lang.annotation.Annotation;
-import java.util.Map;
 
 import javax.annotation.Nullable;
 
-import com.google.common.collect.ImmutableMap;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.reflect.TypeToken;
 
 import org.apache.aurora.common.args.apt.Configuration;
-import org.apache.aurora.common.collections.Pair;
 
 /**
  * Utility class to manage relationships between constraints and types.
@@ -31,25 +31,21 @@ import org.apache.aurora.common.collections.Pair;
  */
 public final class Verifiers {
 
-  private final ImmutableMap<Pair<Class<?>, Class<? extends Annotation>>,
-                             Verifier<?>> registry;
+  // Keyed by verifying annotation name so that only the verified types and verifiers for the
+  // constraints actually in use are loaded.
+  private final ImmutableListMultimap<String, LazyVerifier> registry;
 
-  private Verifiers(Map<Pair<Class<?>, Class<? extends Annotation>>,
-                        Verifier<?>> registry) {
-
-    this.registry = ImmutableMap.copyOf(registry);
+  private Verifiers(ImmutableListMultimap<String, LazyVerifier> registry) {
+    this.registry = registry;
   }
 
   @Nullable
   <T> Verifier<T> get(TypeToken<T> type, Annotation constraint) {
-    for (Map.Entry<Pair<Class<?>, Class<? extends Annotation>>, Verifier<?>> entry
-        : registry.entrySet()) {
-      if (entry.getKey().getSecond() == constraint.annotationType()
-          && entry.getKey().getFirst().isAssignableFrom(type.getRawType())) {
-
+    for (LazyVerifier entry : registry.get(constraint.annotationType().getName())) {
+      if (entry.verifiedType.get().isAssignableFrom(type.getRawType())) {
         // We control the registry which ensures a proper mapping of class -> verifier.
         @SuppressWarnings("unchecked")
-        Verifier<T> verifier = (Verifier<T>) entry.getValue();
+        Verifier<T> verifier = (Verifier<T>) entry.verifier.get();
         return verifier;
       }
     }
@@ -58,26 +54,32 @@ public final class Verifiers {
   }
 
   static Verifiers fromConfiguration(Configuration configuration) {
-    ImmutableMap.Builder<Pair<Class<?>, Class<? extends Annotation>>,
-                         Verifier<?>> registry = ImmutableMap.builder();
-
+    ImmutableListMultimap.Builder<String, LazyVerifier> registry = ImmutableListMultimap.builder();
     for (Configuration.VerifierInfo info : configuration.verifierInfo()) {
-      Class<?> verifiedType = forName(info.verifiedType);
-      Class<? extends Annotation> verifyingAnnotation = forName(info.verifyingAnnotation);
-      Class<? extends Verifier<?>> verifierClass = forName(info.verifierClass);
-      try {
-        registry.put(
-            Pair.<Class<?>, Class<? extends Annotation>>of(verifiedType, verifyingAnnotation),
-          verifierClass.newInstance());
-      } catch (InstantiationException e) {
-        throw new Configuration.ConfigurationException(e);
-      } catch (IllegalAccessException e) {
-        throw new Configuration.ConfigurationException(e);
-      }
+      registry.put(info.verifyingAnnotation, new LazyVerifier(info));
     }
     return new Verifiers(registry.build());
   }
 
+  private static final class LazyVerifier {
+    private final Supplier<Class<?>> verifiedType;
+    private final Supplier<Verifier<?>> verifier;
+
+    LazyVerifier(Configuration.VerifierInfo info) {
+      verifiedType = Suppliers.memoize(() -> forName(info.verifiedType));
+      verifier = Suppliers.memoize(() -> {
+        Class<? extends Verifier<?>> verifierClass = forName(info.verifierClass);
+        try {
+          return verifierClass.newInstance();
+        } catch (InstantiationException e) {
+          throw new Configuration.ConfigurationException(e);
+        } catch (IllegalAccessException e) {
+          throw new Configuration.ConfigurationException(e);
+        }
+      });
+    }
+  }
+
   @SuppressWarnings("unchecked")
   private static <T> Class<T> forName(String name) {
     try {
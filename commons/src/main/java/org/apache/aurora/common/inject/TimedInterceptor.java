@@ -18,16 +18,19 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
+import com.google.common.collect.Maps;
 import com.google.inject.Binder;
+import com.google.inject.matcher.AbstractMatcher;
 import com.google.inject.matcher.Matchers;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.apache.aurora.common.stats.LatencyHistogram;
 import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.common.stats.TimeSeriesRepository;
 import org.apache.commons.lang.StringUtils;
@@ -35,6 +38,10 @@ import org.apache.commons.lang.StringUtils;
 /**
  * A method interceptor that exports timing information for methods annotated with
  * {@literal @Timed}.
+ * <p>
+ * In addition to the total time and event count, a {@link LatencyHistogram} of the invocation
+ * times is exported for each timed method.  Stats are created when guice matches a method for
+ * interception, rather than when the method is first invoked.
  *
  * @author John Sirois
  */
@@ -51,38 +58,87 @@ public final class TimedInterceptor implements MethodInterceptor {
      * The base name to export timing data with; empty to use the annotated method's name.
      */
     String value() default "";
+
+    /**
+     * The fraction of invocations to time, in (0, 1].  Sampling avoids the cost of reading the
+     * clock on every invocation of extremely hot methods.  The exported total and event counts
+     * are scaled up to estimate all invocations.  Methods timed under the same name must use the
+     * same sample rate.
+     */
+    double sampleRate() default 1.0;
   }
 
-  private final LoadingCache<Method, SlidingStats> stats =
-      CacheBuilder.newBuilder().build(new CacheLoader<Method, SlidingStats>() {
-        @Override public SlidingStats load(Method method) {
-          return createStats(method);
-        }
-      });
+  // Populated as guice matches methods, after which invocations only read from the map.
+  private final Map<Method, MethodStats> statsByMethod = Maps.newConcurrentMap();
+  private final Map<String, MethodStats> statsByName = Maps.newConcurrentMap();
 
-  private TimedInterceptor() {
+  @VisibleForTesting
+  TimedInterceptor() {
     // preserve for guice
   }
 
-  private SlidingStats createStats(Method method) {
+  @VisibleForTesting
+  static final class MethodStats {
+    private final SlidingStats stats;
+    private final LatencyHistogram histogram;
+    private final int samplePeriod;
+
+    MethodStats(String statName, int samplePeriod) {
+      this.stats = new SlidingStats(statName, "nanos");
+      this.histogram = new LatencyHistogram(statName, "nanos");
+      this.samplePeriod = samplePeriod;
+    }
+
+    boolean select() {
+      return samplePeriod == 1 || ThreadLocalRandom.current().nextInt(samplePeriod) == 0;
+    }
+
+    void record(long elapsedNanos) {
+      stats.getTotalCounter().addAndGet(elapsedNanos * samplePeriod);
+      stats.getEventCounter().addAndGet(samplePeriod);
+      histogram.record(elapsedNanos);
+    }
+  }
+
+  @VisibleForTesting
+  MethodStats register(Method method) {
+    return statsByMethod.computeIfAbsent(method, this::createStats);
+  }
+
+  private MethodStats createStats(Method method) {
     Timed timed = method.getAnnotation(Timed.class);
     Preconditions.checkArgument(timed != null,
         "TimedInterceptor can only be applied to @Timed methods");
+    Preconditions.checkArgument(timed.sampleRate() > 0 && timed.sampleRate() <= 1,
+        "Sample rate must be in (0, 1]: " + method);
 
     String name = timed.value();
     String statName = !StringUtils.isEmpty(name) ? name : method.getName();
-    return new SlidingStats(statName, "nanos");
+    int samplePeriod = (int) Math.round(1 / timed.sampleRate());
+    // Methods timed under the same name (e.g. bridge methods) must share the exported counters.
+    MethodStats stats =
+        statsByName.computeIfAbsent(statName, key -> new MethodStats(key, samplePeriod));
+    Preconditions.checkState(stats.samplePeriod == samplePeriod,
+        "Methods timed as %s must use the same sample rate: %s", statName, method);
+    return stats;
   }
 
   @Override
   public Object invoke(MethodInvocation methodInvocation) throws Throwable {
     // TODO(John Sirois): consider including a SlidingRate tracking thrown exceptions
-    SlidingStats stat = stats.get(methodInvocation.getMethod());
+    MethodStats stat = statsByMethod.get(methodInvocation.getMethod());
+    if (stat == null) {
+      stat = register(methodInvocation.getMethod());
+    }
+    if (!stat.select()) {
+      return methodInvocation.proceed();
+    }
+
     long start = System.nanoTime();
     try {
       return methodInvocation.proceed();
     } finally {
-      stat.accumulate(System.nanoTime() - start);
+      stat.record(System.nanoTime() - start);
     }
   }
 
@@ -100,6 +156,20 @@ public final class TimedInterceptor implements MethodInterceptor {
 
     TimedInterceptor interceptor = new TimedInterceptor();
     binder.requestInjection(interceptor);
-    binder.bindInterceptor(Matchers.any(), Matchers.annotatedWith(Timed.class), interceptor);
+    binder.bindInterceptor(
+        Matchers.any(),
+        new AbstractMatcher<Method>() {
+          @Override
+          public boolean matches(Method method) {
+            if (method.isAnnotationPresent(Timed.class)) {
+              // Resolve stats while the interceptor is bound, keeping invocations free of
+              // stat creation.
+              interceptor.register(method);
+              return true;
+            }
+            return false;
+          }
+        },
+        interceptor);
   }
 }
@@ -0,0 +1,166 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.common.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+
+import org.apache.aurora.common.base.MorePreconditions;
+
+/**
+ * A lock-free histogram of non-negative values, exporting the median, 99th percentile and
+ * maximum of the values recorded between consecutive samples of the exported stats.
+ * <p>
+ * Values are counted in log-linear buckets: each power of two is split into
+ * {@value #SUB_BUCKETS} equally sized buckets, which bounds the relative error of a reported
+ * percentile to 1/{@value #SUB_BUCKETS} while keeping recording to a single atomic increment.
+ * Unlike {@link Percentile}, no individual values are retained, so recording cost and memory
+ * are constant regardless of the event rate.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  @VisibleForTesting
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  @VisibleForTesting
+  static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+  private final AtomicLong max = new AtomicLong();
+
+  private final SampledStat<Long> p50;
+  private final SampledStat<Long> p99;
+  private final SampledStat<Long> maxStat;
+
+  /**
+   * Creates and exports a new histogram.
+   *
+   * @param name Name for the histogram stats.
+   * @param unitDisplay String to display for the unit of recorded values.
+   */
+  public LatencyHistogram(String name, String unitDisplay) {
+    MorePreconditions.checkNotBlank(name);
+    MorePreconditions.checkNotBlank(unitDisplay);
+
+    String prefix = name + "_" + unitDisplay;
+    p50 = new PercentileStat(prefix + "_p50", 50);
+    p99 = new PercentileStat(prefix + "_p99", 99);
+    maxStat = new SampledStat<Long>(prefix + "_max", 0L) {
+      @Override
+      public Long doSample() {
+        return max.getAndSet(0L);
+      }
+    };
+    Stats.export(p50);
+    Stats.export(p99);
+    Stats.export(maxStat);
+  }
+
+  /**
+   * Records a value.  Negative values are recorded as zero.
+   *
+   * @param value The value to record.
+   */
+  public void record(long value) {
+    long sanitized = Math.max(0L, value);
+    counts.incrementAndGet(bucketIndex(sanitized));
+    long currentMax = max.get();
+    while (sanitized > currentMax && !max.compareAndSet(currentMax, sanitized)) {
+      currentMax = max.get();
+    }
+  }
+
+  @VisibleForTesting
+  SampledStat<Long> getP50() {
+    return p50;
+  }
+
+  @VisibleForTesting
+  SampledStat<Long> getP99() {
+    return p99;
+  }
+
+  @VisibleForTesting
+  SampledStat<Long> getMax() {
+    return maxStat;
+  }
+
+  @VisibleForTesting
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Gets a representative value for a bucket, the midpoint of the values it counts.
+   */
+  @VisibleForTesting
+  static long bucketValue(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowerBound + ((1L << shift) >> 1);
+  }
+
+  /**
+   * A percentile over the values recorded since this stat was last sampled.  Every percentile
+   * keeps its own copy of the bucket counts at its previous sample, so that percentiles may be
+   * sampled in any order without resetting the shared counts.
+   */
+  private class PercentileStat extends SampledStat<Long> {
+    private final double percentile;
+    private final long[] previous = new long[NUM_BUCKETS];
+
+    PercentileStat(String name, double percentile) {
+      super(name, 0L);
+      Preconditions.checkArgument(percentile > 0 && percentile <= 100);
+      this.percentile = percentile;
+    }
+
+    @Override
+    public synchronized Long doSample() {
+      long[] window = new long[NUM_BUCKETS];
+      long total = 0;
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+        long current = counts.get(i);
+        window[i] = current - previous[i];
+        previous[i] = current;
+        total += window[i];
+      }
+
+      if (total == 0) {
+        return 0L;
+      }
+
+      long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100));
+      long seen = 0;
+      for (int i = 0; i < NUM_BUCKETS; i++) {
+        seen += window[i];
+        if (seen >= rank) {
+          return bucketValue(i);
+        }
+      }
+      throw new IllegalStateException("Rank " + rank + " exceeds total count " + total);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.common.args.apt;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import com.google.common.collect.ContiguousSet;
+import com.google.common.collect.DiscreteDomain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Range;
+
+import org.apache.aurora.common.args.apt.Configuration.ParserInfo;
+import org.apache.aurora.common.args.parsers.ShortParser;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConfigurationTest {
+
+  @Test
+  public void testGeneratedRegistriesDiscovered() throws IOException {
+    assertFalse(ImmutableList.copyOf(ServiceLoader.load(CmdLineRegistry.class)).isEmpty());
+
+    assertTrue(ImmutableList.copyOf(Configuration.load().parserInfo())
+        .contains(new ParserInfo(Short.class.getName(), ShortParser.class.getName())));
+  }
+
+  @Test
+  public void testMergeRegistryAndResourceConfigurations() throws IOException {
+    Configuration base = Configuration.load();
+    Configuration.Builder registry = new Configuration.Builder();
+    registry.addCmdLineArg(new Configuration.ArgInfo("com.example.Options", "flag"));
+    registry.addParser("com.example.Value", "com.example.ValueParser");
+    Configuration.Builder legacy = new Configuration.Builder();
+    legacy.addCmdLineArg(new Configuration.ArgInfo("com.example.Options", "flag"));
+    legacy.addCmdLineArg(new Configuration.ArgInfo("com.example.LegacyOptions", "legacyFlag"));
+
+    // The legacy configuration is built one resource index further to check the larger is kept.
+    Configuration merged = Configuration.merge(
+        registry.build(base),
+        legacy.build(legacy.build(base)));
+
+    assertEquals(
+        ImmutableSet.of(
+            new Configuration.ArgInfo("com.example.Options", "flag"),
+            new Configuration.ArgInfo("com.example.LegacyOptions", "legacyFlag")),
+        ImmutableSet.copyOf(merged.optionInfo()));
+    assertEquals(
+        ImmutableList.of(new ParserInfo("com.example.Value", "com.example.ValueParser")),
+        ImmutableList.copyOf(merged.parserInfo()));
+    assertEquals(base.nextResourceIndex() + 2, merged.nextResourceIndex());
+  }
+
+  @Test
+  public void testResourcesSkippedForRegistryIndexes() throws IOException {
+    URL legacyResource = new URL("file:/cmdline.arg.info.txt.3");
+    List<Integer> probed = Lists.newArrayList();
+    Configuration.ConfigurationResources resources = Configuration.getAllResources(
+        ImmutableSet.of(0, 1, 2),
+        index -> {
+          probed.add(index);
+          return index == 3
+              ? Iterators.singletonIterator(legacyResource)
+              : Collections.emptyIterator();
+        });
+
+    assertEquals(ContiguousSet.create(Range.closed(3, 13), DiscreteDomain.integers()).asList(),
+        probed);
+    assertEquals(4, resources.nextResourceIndex());
+  }
+
+  @Test
+  public void testStoreRegistry() throws IOException {
+    Configuration.Builder builder = new Configuration.Builder();
+    builder.addCmdLineArg(new Configuration.ArgInfo("com.example.Options", "flag"));
+    builder.addParser("com.example.Value", "com.example.ValueParser");
+    builder.addVerifier("com.example.Value", "com.example.Valid", "com.example.ValueVerifier");
+
+    StringWriter writer = new StringWriter();
+    builder.build(Configuration.load()).storeRegistry(writer, 3, "test");
+    String source = writer.toString();
+
+    assertTrue(source.contains("package org.apache.aurora.common.args.apt;"));
+    assertTrue(
+        source.contains("public final class GeneratedCmdLineRegistry3 implements CmdLineRegistry"));
+    assertTrue(source.contains("return 3;"));
+    assertTrue(source.contains("new Configuration.ArgInfo(\"com.example.Options\", \"flag\")"));
+    assertTrue(source.contains(
+        "new Configuration.ParserInfo(\"com.example.Value\", \"com.example.ValueParser\")"));
+    assertTrue(source.contains("new Configuration.VerifierInfo(\"com.example.Value\", "
+        + "\"com.example.Valid\", \"com.example.ValueVerifier\")"));
+  }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.common.inject;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import org.apache.aurora.common.inject.TimedInterceptor.Timed;
+import org.apache.aurora.common.stats.Stats;
+import org.apache.aurora.common.stats.TimeSeriesRepository;
+import org.apache.aurora.common.testing.easymock.EasyMockTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TimedInterceptorTest extends EasyMockTest {
+
+  private Target target;
+
+  @Before
+  public void setUp() {
+    TimeSeriesRepository timeSeriesRepository = createMock(TimeSeriesRepository.class);
+
+    control.replay();
+
+    Injector injector = Guice.createInjector(new AbstractModule() {
+      @Override
+      protected void configure() {
+        bind(TimeSeriesRepository.class).toInstance(timeSeriesRepository);
+        TimedInterceptor.bind(binder());
+      }
+    });
+    target = injector.getInstance(Target.class);
+  }
+
+  @After
+  public void tearDown() {
+    Stats.flush();
+  }
+
+  @Test
+  public void testStatsExportedBeforeInvocation() {
+    assertEquals(0L, Stats.getVariable("timed_method_events").read());
+    assertNotNull(Stats.getVariable("timed_method_nanos_total"));
+    assertNotNull(Stats.getVariable("timed_method_nanos_p50"));
+    assertNotNull(Stats.getVariable("timed_method_nanos_p99"));
+    assertNotNull(Stats.getVariable("timed_method_nanos_max"));
+    assertNotNull(Stats.getVariable("defaultName_events"));
+  }
+
+  @Test
+  public void testInvocationsTimed() {
+    for (int i = 0; i < 10; i++) {
+      assertEquals(i, target.timed(i));
+    }
+    target.defaultName();
+
+    assertEquals(10L, Stats.getVariable("timed_method_events").read());
+    assertEquals(1L, Stats.getVariable("defaultName_events").read());
+  }
+
+  @Test
+  public void testSampledInvocations() {
+    for (int i = 0; i < 1000; i++) {
+      target.sampled();
+    }
+
+    // Each sampled invocation stands for 4 invocations.
+    long events = (Long) Stats.getVariable("sampled_method_events").read();
+    assertEquals(0L, events % 4);
+    assertTrue(events < 4000);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testConflictingSampleRates() throws Exception {
+    TimedInterceptor interceptor = new TimedInterceptor();
+    interceptor.register(ConflictingTarget.class.getMethod("sampled"));
+    interceptor.register(ConflictingTarget.class.getMethod("unsampled"));
+  }
+
+  public static class Target {
+    @Timed("timed_method")
+    public int timed(int value) {
+      return value;
+    }
+
+    @Timed
+    public void defaultName() {
+      // Exported under the method name.
+    }
+
+    @Timed(value = "sampled_method", sampleRate = 0.25)
+    public void sampled() {
+      // Noop.
+    }
+  }
+
+  public static class ConflictingTarget {
+    @Timed(value = "conflicting_method", sampleRate = 0.5)
+    public void sampled() {
+      // Noop.
+    }
+
+    @Timed("conflicting_method")
+    public void unsampled() {
+      // Noop.
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.common.stats;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+  private LatencyHistogram histogram;
+
+  @Before
+  public void setUp() {
+    histogram = new LatencyHistogram("test", "nanos");
+  }
+
+  @After
+  public void tearDown() {
+    Stats.flush();
+  }
+
+  @Test
+  public void testExported() {
+    assertEquals(0L, Stats.getVariable("test_nanos_p50").read());
+    assertEquals(0L, Stats.getVariable("test_nanos_p99").read());
+    assertEquals(0L, Stats.getVariable("test_nanos_max").read());
+  }
+
+  @Test
+  public void testNoData() {
+    assertEquals(0L, (long) histogram.getP50().sample());
+    assertEquals(0L, (long) histogram.getP99().sample());
+    assertEquals(0L, (long) histogram.getMax().sample());
+  }
+
+  @Test
+  public void testBucketBounds() {
+    int previous = -1;
+    for (long value : new long[] {0, 1, 7, 8, 15, 16, 18, 1000, 1L << 40, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.bucketIndex(value);
+      assertTrue(index > previous);
+      assertTrue(index < LatencyHistogram.NUM_BUCKETS);
+      previous = index;
+
+      // The representative value of a bucket must fall in the same bucket.
+      assertEquals(index, LatencyHistogram.bucketIndex(LatencyHistogram.bucketValue(index)));
+      long representative = LatencyHistogram.bucketValue(index);
+      assertTrue(Math.abs(representative - value) <= value / LatencyHistogram.SUB_BUCKETS);
+    }
+    assertEquals(LatencyHistogram.NUM_BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testPercentiles() {
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i);
+    }
+
+    assertWithinBucket(500, histogram.getP50().sample());
+    assertWithinBucket(990, histogram.getP99().sample());
+    assertEquals(1000L, (long) histogram.getMax().sample());
+  }
+
+  @Test
+  public void testSampleWindows() {
+    for (int i = 0; i < 100; i++) {
+      histogram.record(10);
+    }
+    assertWithinBucket(10, histogram.getP50().sample());
+    assertEquals(10L, (long) histogram.getMax().sample());
+
+    // Only values recorded after the previous sample are reflected.
+    histogram.record(5000);
+    assertWithinBucket(5000, histogram.getP50().sample());
+    assertEquals(5000L, (long) histogram.getMax().sample());
+
+    // The p99 stat has not been sampled yet, so its window spans all values.
+    assertWithinBucket(10, histogram.getP99().sample());
+    assertEquals(0L, (long) histogram.getP99().sample());
+    assertEquals(0L, (long) histogram.getP50().sample());
+    assertEquals(0L, (long) histogram.getMax().sample());
+  }
+
+  @Test
+  public void testNegativeValue() {
+    histogram.record(-5);
+    assertEquals(0L, (long) histogram.getP50().sample());
+    assertEquals(0L, (long) histogram.getMax().sample());
+  }
+
+  private static void assertWithinBucket(long expected, long actual) {
+    assertEquals(LatencyHistogram.bucketIndex(expected), LatencyHistogram.bucketIndex(actual));
+  }
+}
@@ -0,0 +1,72 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.aurora.common.args.ArgFilters;
+import org.apache.aurora.common.args.Args;
+import org.apache.aurora.common.args.Args.ArgsInfo;
+import org.apache.aurora.common.args.apt.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance benchmarks for discovering the scheduler's {@literal @CmdLine} arguments, the work
+ * done before any argument value is parsed at scheduler startup.
+ */
+public class ArgScannerBenchmarks {
+
+  /**
+   * Measures the first discovery of all arguments in a fresh JVM, which includes the class
+   * loading a restarting scheduler pays for.
+   */
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  @Fork(10)
+  @State(Scope.Benchmark)
+  public static class ColdStartBenchmark {
+    @Benchmark
+    public ArgsInfo run() throws IOException {
+      return Args.from(ArgFilters.SELECT_ALL);
+    }
+  }
+
+  /**
+   * Measures repeated discovery of the {@literal @CmdLine} configuration data, isolating the cost
+   * of finding and reading it from the classpath.
+   */
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @State(Scope.Benchmark)
+  public static class ConfigurationLoadBenchmark {
+    @Benchmark
+    public Configuration run() throws IOException {
+      return Configuration.load();
+    }
+  }
+}
@@ -0,0 +1,127 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.Multimap;
+
+import org.apache.aurora.benchmark.fakes.FakeDriver;
+import org.apache.aurora.benchmark.fakes.FakeStatsProvider;
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.util.testing.FakeClock;
+import org.apache.aurora.scheduler.HostOffer;
+import org.apache.aurora.scheduler.offers.OfferManager;
+import org.apache.aurora.scheduler.offers.OfferManager.OfferManagerImpl;
+import org.apache.aurora.scheduler.offers.OfferSettings;
+import org.apache.mesos.Protos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance benchmarks for the driver calls {@link OfferManager} makes when launching tasks on
+ * and returning offers.
+ */
+public class OfferManagerBenchmarks {
+
+  private static final Amount<Long, Time> RETURN_DELAY = Amount.of(1L, Time.MINUTES);
+
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @State(Scope.Thread)
+  public abstract static class AbstractBase {
+    @Param({"1", "10", "100"})
+    protected int batchSize;
+
+    protected FakeClock clock;
+    protected OfferManagerImpl offerManager;
+    protected Set<HostOffer> offers;
+
+    @Setup(Level.Trial)
+    public void setUpOffers() {
+      offers = new Offers.Builder().build(new Hosts.Builder().build(batchSize));
+    }
+
+    /**
+     * Creates an offer manager holding one offer per host, so that every invocation works on a
+     * full batch.
+     */
+    @Setup(Level.Invocation)
+    public void setUpOfferManager() {
+      clock = new FakeClock();
+      offerManager = new OfferManagerImpl(
+          new FakeDriver(),
+          new OfferSettings(Amount.of(5L, Time.SECONDS), () -> RETURN_DELAY),
+          new FakeStatsProvider(),
+          clock);
+      Offers.addOffers(offerManager, offers);
+    }
+  }
+
+  /**
+   * Launches one task on each held offer in a single round.
+   */
+  public static class LaunchTasksBenchmark extends AbstractBase {
+    private Multimap<Protos.OfferID, Protos.TaskInfo> tasks;
+
+    @Setup(Level.Trial)
+    public void setUpTasks() {
+      ImmutableListMultimap.Builder<Protos.OfferID, Protos.TaskInfo> builder =
+          ImmutableListMultimap.builder();
+      for (HostOffer offer : offers) {
+        builder.put(
+            offer.getOffer().getId(),
+            Protos.TaskInfo.newBuilder()
+                .setName("task")
+                .setTaskId(Protos.TaskID.newBuilder()
+                    .setValue("task-" + offer.getOffer().getId().getValue()))
+                .setSlaveId(offer.getOffer().getSlaveId())
+                .build());
+      }
+      tasks = builder.build();
+    }
+
+    @Benchmark
+    public Set<Protos.OfferID> runBenchmark() throws OfferManager.LaunchException {
+      return offerManager.launchTasks(tasks);
+    }
+  }
+
+  /**
+   * Returns all held offers on a single tick.
+   */
+  public static class ReturnOffersBenchmark extends AbstractBase {
+    @Benchmark
+    public void runBenchmark() {
+      clock.advance(RETURN_DELAY);
+      offerManager.returnExpiredOffers();
+    }
+  }
+}
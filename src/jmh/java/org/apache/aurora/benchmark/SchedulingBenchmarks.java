@@ -47,7 +47,7 @@ import org.apache.aurora.scheduler.async.DelayExecutor;
 import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
 import org.apache.aurora.scheduler.events.EventSink;
-import org.apache.aurora.scheduler.filter.SchedulingFilter;
+import org.apache.aurora.scheduler.events.PubsubEventModule;
 import org.apache.aurora.scheduler.filter.SchedulingFilterImpl;
 import org.apache.aurora.scheduler.mesos.Driver;
 import org.apache.aurora.scheduler.mesos.TestExecutorSettings;
@@ -155,7 +155,8 @@ public class SchedulingBenchmarks {
                   .annotatedWith(ReservationDuration.class)
                   .toInstance(DELAY_FOREVER);
               bind(TaskIdGenerator.class).to(TaskIdGenerator.TaskIdGeneratorImpl.class);
-              bind(SchedulingFilter.class).to(SchedulingFilterImpl.class);
+              PubsubEventModule.bindSchedulingFilterDelegate(binder())
+                  .to(SchedulingFilterImpl.class);
               bind(SchedulingFilterImpl.class).in(Singleton.class);
               bind(ExecutorSettings.class).toInstance(TestExecutorSettings.THERMOS_EXECUTOR);
               bind(Storage.class).toInstance(storage);
@@ -37,6 +37,7 @@ import org.apache.aurora.scheduler.mesos.Driver;
 import org.apache.aurora.scheduler.scheduling.RescheduleCalculator;
 import org.apache.aurora.scheduler.state.StateManager;
 import org.apache.aurora.scheduler.state.StateManagerImpl;
+import org.apache.aurora.scheduler.state.StateManagerImpl.MaxTaskEvents;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.TaskStore;
 import org.apache.aurora.scheduler.storage.db.DbModule;
@@ -181,6 +182,7 @@ public class StateManagerBenchmarks {
             bind(TaskIdGenerator.class).to(TaskIdGenerator.TaskIdGeneratorImpl.class);
             // This is what we want to benchmark
             bind(StateManager.class).to(StateManagerImpl.class);
+            bind(Integer.class).annotatedWith(MaxTaskEvents.class).toInstance(50);
             // This is needed for storage
             bind(StatsProvider.class).toInstance(new FakeStatsProvider());
           }
@@ -0,0 +1,115 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.RateLimiter;
+
+import org.apache.aurora.benchmark.fakes.FakeRescheduleCalculator;
+import org.apache.aurora.benchmark.fakes.FakeStatsProvider;
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.util.TruncatedBinaryBackoff;
+import org.apache.aurora.scheduler.async.DelayExecutor;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
+import org.apache.aurora.scheduler.scheduling.TaskGroups;
+import org.apache.aurora.scheduler.scheduling.TaskGroups.TaskGroupBatchWorker;
+import org.apache.aurora.scheduler.scheduling.TaskGroups.TaskGroupsSettings;
+import org.apache.aurora.scheduler.storage.db.DbUtil;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance benchmarks for pending task group bookkeeping.
+ */
+public class TaskGroupsBenchmarks {
+
+  /**
+   * Measures the cost of removing a pending task from, and re-adding it to, a single large task
+   * group.  Asynchronous group evaluation is disabled so that the group remains populated.
+   */
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @State(Scope.Thread)
+  public static class PendingTaskChurnBenchmark {
+    @Param({"10000", "100000"})
+    private int numPendingTasks;
+
+    private TaskGroups taskGroups;
+    private List<IScheduledTask> tasks;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      DelayExecutor noopExecutor = new DelayExecutor() {
+        @Override
+        public void execute(Runnable work, Amount<Long, Time> minDelay) {
+          // No-op.
+        }
+
+        @Override
+        public void execute(Runnable command) {
+          // No-op.
+        }
+      };
+
+      taskGroups = new TaskGroups(
+          noopExecutor,
+          new TaskGroupsSettings(
+              Amount.of(1L, Time.MILLISECONDS),
+              new TruncatedBinaryBackoff(
+                  Amount.of(1L, Time.SECONDS),
+                  Amount.of(1L, Time.MINUTES),
+                  false),
+              RateLimiter.create(1000),
+              5),
+          (storeProvider, taskIds) -> ImmutableSet.of(),
+          new FakeRescheduleCalculator(),
+          new TaskGroupBatchWorker(DbUtil.createStorage(), new FakeStatsProvider(), 5));
+
+      // All tasks share the same job and config and therefore land in a single group.
+      tasks = ImmutableList.copyOf(new Tasks.Builder().build(numPendingTasks));
+      for (IScheduledTask task : tasks) {
+        taskGroups.taskChangedState(TaskStateChange.initialized(task));
+      }
+    }
+
+    @Benchmark
+    public void removeAndReAdd() {
+      IScheduledTask task = tasks.get(next);
+      next = (next + 1) % tasks.size();
+      taskGroups.tasksDeleted(new TasksDeleted(ImmutableSet.of(task)));
+      taskGroups.taskChangedState(TaskStateChange.initialized(task));
+    }
+  }
+}
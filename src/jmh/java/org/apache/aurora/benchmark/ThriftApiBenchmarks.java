@@ -15,9 +15,15 @@ package org.apache.aurora.benchmark;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
+import javax.ws.rs.HttpMethod;
+
 import com.google.common.collect.ImmutableSet;
+import com.google.common.primitives.Bytes;
 import com.google.gson.Gson;
 import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
@@ -35,6 +41,7 @@ import org.apache.aurora.scheduler.async.AsyncModule;
 import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.configuration.ConfigurationManager;
 import org.apache.aurora.scheduler.cron.CronPredictor;
+import org.apache.aurora.scheduler.http.api.ApiModule;
 import org.apache.aurora.scheduler.quota.QuotaManager;
 import org.apache.aurora.scheduler.state.LockManager;
 import org.apache.aurora.scheduler.storage.Storage;
@@ -42,9 +49,19 @@ import org.apache.aurora.scheduler.storage.db.DbModule;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.thrift.ThriftModule;
 import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TJSONProtocol;
+import org.apache.thrift.protocol.TProtocolFactory;
+import org.apache.thrift.transport.TMemoryBuffer;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
@@ -52,6 +69,7 @@ import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.annotations.Warmup;
 
 public class ThriftApiBenchmarks {
@@ -128,6 +146,93 @@ public class ThriftApiBenchmarks {
     }
   }
 
+  /**
+   * Measures serving {@code getTasksStatus} over HTTP, from parsing the request through writing
+   * the (optionally gzipped) response, using the same servlet and gzip handling as the scheduler.
+   */
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 5, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @State(Scope.Thread)
+  public static class GetAllTasksHttpBenchmark {
+    private Server server;
+    private LocalConnector connector;
+    private ByteBuffer request;
+
+    @Param({
+        "{\"instances\": 100}",
+        "{\"instances\": 1000}",
+        "{\"instances\": 10000}"})
+    private String testConfiguration;
+
+    @Param({"application/vnd.apache.thrift.binary", "application/vnd.apache.thrift.json"})
+    private String contentType;
+
+    @Param({"identity", "gzip"})
+    private String acceptEncoding;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+      ReadOnlyScheduler.Iface api = createPopulatedApi(testConfiguration);
+
+      ServletContextHandler context = new ServletContextHandler();
+      context.addServlet(
+          new ServletHolder(
+              ApiModule.createThriftServlet(new ReadOnlyScheduler.Processor<>(api))),
+          ApiModule.API_PATH);
+      GzipHandler gzip = new GzipHandler();
+      gzip.addIncludedMethods(HttpMethod.POST);
+      gzip.setHandler(context);
+
+      server = new Server();
+      connector = new LocalConnector(server);
+      server.addConnector(connector);
+      server.setHandler(gzip);
+      server.start();
+
+      TProtocolFactory protocolFactory = contentType.endsWith("binary")
+          ? new TBinaryProtocol.Factory()
+          : new TJSONProtocol.Factory();
+      request = ByteBuffer.wrap(createHttpRequest(
+          contentType,
+          acceptEncoding,
+          createGetTasksStatusCall(protocolFactory)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      server.stop();
+    }
+
+    @Benchmark
+    public ByteBuffer run() throws Exception {
+      return connector.getResponses(request.duplicate());
+    }
+  }
+
+  private static byte[] createGetTasksStatusCall(TProtocolFactory protocolFactory)
+      throws TException {
+
+    TMemoryBuffer buffer = new TMemoryBuffer(128);
+    new ReadOnlyScheduler.Client(protocolFactory.getProtocol(buffer))
+        .send_getTasksStatus(new TaskQuery());
+    return Arrays.copyOf(buffer.getArray(), buffer.length());
+  }
+
+  private static byte[] createHttpRequest(String contentType, String acceptEncoding, byte[] body) {
+    String headers = "POST " + ApiModule.API_PATH + " HTTP/1.1\r\n"
+        + "Host: localhost\r\n"
+        + "Content-Type: " + contentType + "\r\n"
+        + "Accept: " + contentType + "\r\n"
+        + "Accept-Encoding: " + acceptEncoding + "\r\n"
+        + "Content-Length: " + body.length + "\r\n"
+        + "Connection: close\r\n"
+        + "\r\n";
+    return Bytes.concat(headers.getBytes(StandardCharsets.ISO_8859_1), body);
+  }
+
   private static ReadOnlyScheduler.Iface createPopulatedApi(String testConfiguration) {
     TestConfiguration config = new Gson().fromJson(testConfiguration, TestConfiguration.class);
 
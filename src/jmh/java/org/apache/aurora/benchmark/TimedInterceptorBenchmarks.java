@@ -0,0 +1,133 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+
+import org.apache.aurora.common.inject.TimedInterceptor;
+import org.apache.aurora.common.inject.TimedInterceptor.Timed;
+import org.apache.aurora.common.stats.Stats;
+import org.apache.aurora.common.stats.TimeSeries;
+import org.apache.aurora.common.stats.TimeSeriesRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Performance benchmarks for the overhead {@link TimedInterceptor} adds to a method invocation.
+ */
+public class TimedInterceptorBenchmarks {
+
+  /**
+   * Invokes a trivial method without interception, with full timing and with sampled timing.
+   * Multiple threads are used so that contention on shared stats is reflected.
+   */
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  @Warmup(iterations = 1, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Measurement(iterations = 5, time = 10, timeUnit = TimeUnit.SECONDS)
+  @Fork(1)
+  @Threads(4)
+  @State(Scope.Benchmark)
+  public static class InterceptionOverheadBenchmark {
+    private Target target;
+
+    /**
+     * Per-thread input, keeping the shared benchmark state read-only.
+     */
+    @State(Scope.Thread)
+    public static class Input {
+      private long next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      target = Guice.createInjector(new AbstractModule() {
+        @Override
+        protected void configure() {
+          // Stats are never sampled during the benchmark, so time series are not retained.
+          bind(TimeSeriesRepository.class).toInstance(new TimeSeriesRepository() {
+            @Override
+            public Set<String> getAvailableSeries() {
+              return ImmutableSet.of();
+            }
+
+            @Override
+            public TimeSeries get(String name) {
+              return null;
+            }
+
+            @Override
+            public Iterable<Number> getTimestamps() {
+              return ImmutableList.of();
+            }
+          });
+          TimedInterceptor.bind(binder());
+        }
+      }).getInstance(Target.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      Stats.flush();
+    }
+
+    @Benchmark
+    public long untimed(Input input) {
+      return target.untimed(input.next++);
+    }
+
+    @Benchmark
+    public long timed(Input input) {
+      return target.timed(input.next++);
+    }
+
+    @Benchmark
+    public long sampled(Input input) {
+      return target.sampled(input.next++);
+    }
+  }
+
+  public static class Target {
+    public long untimed(long value) {
+      return value + 1;
+    }
+
+    @Timed("benchmark_timed")
+    public long timed(long value) {
+      return value + 1;
+    }
+
+    @Timed(value = "benchmark_sampled", sampleRate = 0.01)
+    public long sampled(long value) {
+      return value + 1;
+    }
+  }
+}
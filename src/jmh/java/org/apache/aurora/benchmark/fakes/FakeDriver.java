@@ -14,6 +14,8 @@
 package org.apache.aurora.benchmark.fakes;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 import com.google.common.util.concurrent.AbstractIdleService;
 
@@ -32,11 +34,24 @@ public class FakeDriver extends AbstractIdleService implements Driver {
     // no-op
   }
 
+  @Override
+  public void acceptOffers(
+      Map<Protos.OfferID, List<Protos.Offer.Operation>> operations,
+      Protos.Filters filter) {
+
+    // no-op
+  }
+
   @Override
   public void declineOffer(Protos.OfferID offerId, Protos.Filters filters) {
     // no-op
   }
 
+  @Override
+  public void declineOffers(Collection<Protos.OfferID> offerIds, Protos.Filters filter) {
+    // no-op
+  }
+
   @Override
   public void killTask(String taskId) {
     // no-op
@@ -13,7 +13,10 @@
  */
 package org.apache.aurora.benchmark.fakes;
 
+import java.util.Set;
+
 import com.google.common.base.Optional;
+import com.google.common.collect.Multimap;
 
 import org.apache.aurora.scheduler.HostOffer;
 import org.apache.aurora.scheduler.base.TaskGroupKey;
@@ -33,8 +36,10 @@ public class FakeOfferManager implements OfferManager {
   }
 
   @Override
-  public void launchTask(Protos.OfferID offerId, Protos.TaskInfo taskInfo) throws LaunchException {
-    // no-op
+  public Set<Protos.OfferID> launchTasks(Multimap<Protos.OfferID, Protos.TaskInfo> tasks)
+      throws LaunchException {
+
+    return tasks.keySet();
   }
 
   @Override
@@ -17,10 +17,12 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -31,7 +33,9 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
+import com.google.common.collect.Maps;
 import com.google.common.eventbus.Subscribe;
 import com.google.common.util.concurrent.Atomics;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -105,6 +109,7 @@ public class SchedulerLifecycle implements EventSubscriber {
   private final LeadershipListener leadershipListener;
   private final AtomicBoolean registrationAcked = new AtomicBoolean(false);
   private final AtomicReference<LeaderControl> leaderControl = Atomics.newReference();
+  private final Map<State, AtomicLong> initTimes = Maps.newEnumMap(State.class);
   private final StateMachine<State> stateMachine;
 
   @Inject
@@ -177,6 +182,11 @@ public class SchedulerLifecycle implements EventSubscriber {
     return "scheduler_lifecycle_" + state;
   }
 
+  @VisibleForTesting
+  static String initTimeGaugeName(State state) {
+    return stateGaugeName(state) + "_init_ms";
+  }
+
   @VisibleForTesting
   SchedulerLifecycle(
       final NonVolatileStorage storage,
@@ -210,6 +220,9 @@ public class SchedulerLifecycle implements EventSubscriber {
               return (state == stateMachine.getState()) ? 1 : 0;
             }
           });
+      AtomicLong initTime = new AtomicLong();
+      initTimes.put(state, initTime);
+      statsProvider.makeGauge(initTimeGaugeName(state), initTime::get);
     }
 
     shutdownRegistry.addAction(new ExceptionalCommand<TimeoutException>() {
@@ -313,18 +326,18 @@ public class SchedulerLifecycle implements EventSubscriber {
         .initialState(State.IDLE)
         .logTransitions()
         .addState(
-            dieOnError(Consumers.filter(NOT_DEAD, prepareStorage)),
+            dieOnError(Consumers.filter(NOT_DEAD, timed(prepareStorage))),
             State.IDLE,
             State.PREPARING_STORAGE, State.DEAD)
         .addState(
             State.PREPARING_STORAGE,
             State.STORAGE_PREPARED, State.DEAD)
         .addState(
-            dieOnError(Consumers.filter(NOT_DEAD, handleLeading)),
+            dieOnError(Consumers.filter(NOT_DEAD, timed(handleLeading))),
             State.STORAGE_PREPARED,
             State.LEADER_AWAITING_REGISTRATION, State.DEAD)
         .addState(
-            dieOnError(Consumers.filter(NOT_DEAD, handleRegistered)),
+            dieOnError(Consumers.filter(NOT_DEAD, timed(handleRegistered))),
             State.LEADER_AWAITING_REGISTRATION,
             State.ACTIVE, State.DEAD)
         .addState(
@@ -342,6 +355,21 @@ public class SchedulerLifecycle implements EventSubscriber {
     this.leadershipListener = new SchedulerCandidateImpl(stateMachine, leaderControl);
   }
 
+  /**
+   * Records how long the work to enter a state takes, which breaks down the time for a restarted
+   * scheduler to become ready into storage preparation, recovery and service startup.
+   */
+  private Consumer<Transition<State>> timed(final Consumer<Transition<State>> closure) {
+    return transition -> {
+      Stopwatch watch = Stopwatch.createStarted();
+      try {
+        closure.accept(transition);
+      } finally {
+        initTimes.get(transition.getTo()).set(watch.elapsed(TimeUnit.MILLISECONDS));
+      }
+    };
+  }
+
   private Consumer<Transition<State>> dieOnError(final Consumer<Transition<State>> closure) {
     return transition -> {
       try {
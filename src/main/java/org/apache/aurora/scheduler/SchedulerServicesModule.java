@@ -17,6 +17,8 @@ import java.util.Set;
 
 import javax.inject.Singleton;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Strings;
 import com.google.common.util.concurrent.Service;
 import com.google.common.util.concurrent.ServiceManager;
 import com.google.inject.AbstractModule;
@@ -28,6 +30,7 @@ import com.google.inject.multibindings.Multibinder;
 import org.apache.aurora.GuavaUtils;
 import org.apache.aurora.GuavaUtils.LifecycleShutdownListener;
 import org.apache.aurora.GuavaUtils.ServiceManagerIface;
+import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.scheduler.SchedulerLifecycle.SchedulerActive;
 
 /**
@@ -71,10 +74,12 @@ public class SchedulerServicesModule extends AbstractModule {
   @AppStartup
   ServiceManagerIface provideAppStartupServiceManager(
       @AppStartup Set<Service> services,
-      LifecycleShutdownListener listener) {
+      LifecycleShutdownListener listener,
+      StatsProvider statsProvider) {
 
     ServiceManager manager = new ServiceManager(services);
     manager.addListener(listener);
+    exportStartupTimes("app_startup", services, manager, statsProvider);
     return GuavaUtils.serviceManager(manager);
   }
 
@@ -83,10 +88,46 @@ public class SchedulerServicesModule extends AbstractModule {
   @SchedulerActive
   ServiceManagerIface provideSchedulerActiveServiceManager(
       @SchedulerActive Set<Service> services,
-      LifecycleShutdownListener listener) {
+      LifecycleShutdownListener listener,
+      StatsProvider statsProvider) {
 
     ServiceManager manager = new ServiceManager(services);
     manager.addListener(listener);
+    exportStartupTimes("scheduler_active", services, manager, statsProvider);
     return GuavaUtils.serviceManager(manager);
   }
+
+  @VisibleForTesting
+  static String startupTimeStatName(String group, Service service) {
+    Class<?> type = service.getClass();
+    // Name stats after the declared class rather than a subclass generated for interception.
+    while (type.getName().contains("$$")) {
+      type = type.getSuperclass();
+    }
+    String name = Strings.isNullOrEmpty(type.getSimpleName())
+        ? type.getName()
+        : type.getSimpleName();
+    return "startup_" + group + "_" + name + "_ms";
+  }
+
+  /**
+   * Exports how long each service took to start.  Services of a group start concurrently, so the
+   * slowest service bounds the startup time of the group.  Values are zero until a service is
+   * running.
+   */
+  private static void exportStartupTimes(
+      String group,
+      Set<Service> services,
+      ServiceManager manager,
+      StatsProvider statsProvider) {
+
+    for (Service service : services) {
+      statsProvider.makeGauge(
+          startupTimeStatName(group, service),
+          () -> {
+            Long startupMs = manager.startupTimes().get(service);
+            return startupMs == null ? 0L : startupMs;
+          });
+    }
+  }
 }
@@ -15,7 +15,6 @@ package org.apache.aurora.scheduler.app;
 
 import java.net.InetSocketAddress;
 import java.util.Arrays;
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
@@ -23,7 +22,6 @@ import java.util.concurrent.atomic.AtomicLong;
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.net.HostAndPort;
 import com.google.inject.AbstractModule;
@@ -110,9 +108,13 @@ public class SchedulerMain {
   void run() {
     startupServices.startAsync();
     Runtime.getRuntime().addShutdownHook(new Thread(SchedulerMain.this::stop, "ShutdownHook"));
-    startupServices.awaitHealthy();
 
+    // Storage preparation does not depend on startup services, so it overlaps with them starting.
     LeadershipListener leaderListener = schedulerLifecycle.prepare();
+    StartupTrace.time("startup_services_await_ms", () -> {
+      startupServices.awaitHealthy();
+      return null;
+    });
 
     HostAndPort httpAddress = httpService.getAddress();
     InetSocketAddress httpSocketAddress =
@@ -134,7 +136,7 @@ public class SchedulerMain {
 
   @VisibleForTesting
   static Module getUniversalModule() {
-    return Modules.combine(
+    return StartupTrace.traced(
         new LifecycleModule(),
         new StatsModule(),
         new AppModule(ALLOW_GPU_RESOURCE.get()),
@@ -161,9 +163,10 @@ public class SchedulerMain {
     Module module = Modules.combine(
         appEnvironmentModule,
         getUniversalModule(),
-        new ServiceDiscoveryModule(FlaggedZooKeeperConfig.create(), SERVERSET_PATH.get()),
-        new BackupModule(SnapshotStoreImpl.class),
-        new ExecutorModule(),
+        StartupTrace.traced(
+            new ServiceDiscoveryModule(FlaggedZooKeeperConfig.create(), SERVERSET_PATH.get()),
+            new BackupModule(SnapshotStoreImpl.class),
+            new ExecutorModule()),
         new AbstractModule() {
           @Override
           protected void configure() {
@@ -177,7 +180,8 @@ public class SchedulerMain {
 
     Lifecycle lifecycle = null;
     try {
-      Injector injector = Guice.createInjector(module);
+      Injector injector =
+          StartupTrace.time("startup_injector_create_ms", () -> Guice.createInjector(module));
       lifecycle = injector.getInstance(Lifecycle.class);
       SchedulerMain scheduler = new SchedulerMain();
       injector.injectMembers(scheduler);
@@ -196,17 +200,13 @@ public class SchedulerMain {
   public static void main(String... args) {
     applyStaticArgumentValues(args);
 
-    List<Module> modules = ImmutableList.<Module>builder()
-        .add(
-            new CommandLineDriverSettingsModule(ALLOW_GPU_RESOURCE.get()),
-            new LibMesosLoadingModule(),
-            new MesosLogStreamModule(FlaggedZooKeeperConfig.create()),
-            new LogStorageModule(),
-            new TierModule(),
-            new WebhookModule()
-        )
-        .build();
-    flagConfiguredMain(Modules.combine(modules));
+    flagConfiguredMain(StartupTrace.traced(
+        new CommandLineDriverSettingsModule(ALLOW_GPU_RESOURCE.get()),
+        new LibMesosLoadingModule(),
+        new MesosLogStreamModule(FlaggedZooKeeperConfig.create()),
+        new LogStorageModule(),
+        new TierModule(),
+        new WebhookModule()));
   }
 
   private static void exit(String message, Exception error) {
@@ -0,0 +1,101 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.app;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Strings;
+import com.google.common.collect.Maps;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
+
+import org.apache.aurora.common.stats.StatImpl;
+import org.apache.aurora.common.stats.Stats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records the time taken by phases of scheduler startup that run before the injector exists, such
+ * as module configuration and injector creation.  Times are logged and exported as stats, since no
+ * {@link org.apache.aurora.common.stats.StatsProvider} is available yet.
+ */
+final class StartupTrace {
+  private static final Logger LOG = LoggerFactory.getLogger(StartupTrace.class);
+
+  // Stat name -> duration of the most recent run of the phase.
+  private static final Map<String, AtomicLong> PHASE_MS = Maps.newConcurrentMap();
+
+  private StartupTrace() {
+    // Utility class.
+  }
+
+  @VisibleForTesting
+  static String moduleStatName(Module module) {
+    Class<?> type = module.getClass();
+    String name = Strings.isNullOrEmpty(type.getSimpleName())
+        ? type.getName()
+        : type.getSimpleName();
+    return "startup_module_" + name + "_ms";
+  }
+
+  /**
+   * Combines modules such that the time taken to configure each of them is recorded.
+   *
+   * @param modules Modules to combine.
+   * @return A module installing all {@code modules}.
+   */
+  static Module traced(Module... modules) {
+    Module[] traced = new Module[modules.length];
+    for (int i = 0; i < modules.length; i++) {
+      Module module = modules[i];
+      traced[i] = binder -> time(moduleStatName(module), () -> {
+        binder.install(module);
+        return null;
+      });
+    }
+    return Modules.combine(traced);
+  }
+
+  /**
+   * Runs a startup phase, recording how long it takes.
+   *
+   * @param statName Name of the stat to export the phase duration in milliseconds as.
+   * @param phase Work to perform.
+   * @param <T> Phase result type.
+   * @return The result of {@code phase}.
+   */
+  static <T> T time(String statName, Supplier<T> phase) {
+    Stopwatch watch = Stopwatch.createStarted();
+    try {
+      return phase.get();
+    } finally {
+      long elapsedMs = watch.elapsed(TimeUnit.MILLISECONDS);
+      AtomicLong phaseMs = PHASE_MS.computeIfAbsent(statName, name -> new AtomicLong());
+      phaseMs.set(elapsedMs);
+      // Exporting a name again yields the stat registered first, which reads the same value.
+      Stats.export(new StatImpl<Long>(statName) {
+        @Override
+        public Long read() {
+          return phaseMs.get();
+        }
+      });
+      LOG.info(statName + ": " + elapsedMs);
+    }
+  }
+}
@@ -100,6 +100,12 @@ public class AsyncModule extends AbstractModule {
     @VisibleForTesting
     static final String DELAY_QUEUE_GAUGE = "delay_executor_queue_size";
 
+    @VisibleForTesting
+    static final String DELAY_FLUSHES_GAUGE = "delay_executor_flushes";
+
+    @VisibleForTesting
+    static final String DELAY_FLUSH_NANOS_GAUGE = "delay_executor_flush_nanos_total";
+
     private final StatsProvider statsProvider;
     private final ScheduledThreadPoolExecutor executor;
     private final GatingDelayExecutor delayExecutor;
@@ -122,6 +128,8 @@ public class AsyncModule extends AbstractModule {
       // Using a lambda rather than method ref to sidestep a bug in PMD that makes it think
       // delayExecutor is unused.
       statsProvider.makeGauge(DELAY_QUEUE_GAUGE, delayExecutor::getQueueSize);
+      statsProvider.makeGauge(DELAY_FLUSHES_GAUGE, delayExecutor::getFlushCount);
+      statsProvider.makeGauge(DELAY_FLUSH_NANOS_GAUGE, delayExecutor::getFlushNanos);
     }
 
     @Override
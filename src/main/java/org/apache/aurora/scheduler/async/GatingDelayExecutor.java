@@ -13,14 +13,14 @@
  */
 package org.apache.aurora.scheduler.async;
 
+import java.util.ArrayDeque;
 import java.util.Queue;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
-
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 
@@ -30,11 +30,17 @@ import static java.util.Objects.requireNonNull;
  * An executor that may be temporarily gated with {@link #closeDuring(GatedOperation)}.  When the
  * executor is gated, newly-submitted work will be enqueued and executed once the gate is opened as
  * a result of {@link #closeDuring(GatedOperation)} returning.
+ * <p>
+ * Gates are thread-specific, and so are the queues of work deferred while a gate is closed.  A
+ * thread opening its gate hands its own deferred work to the delegate executor without
+ * coordinating with other threads, which may be enqueueing or flushing their own work.
  */
 class GatingDelayExecutor implements DelayExecutor, GatedWorkQueue {
 
   private final ScheduledExecutorService gated;
-  private final Queue<Runnable> queue = Lists.newLinkedList();
+  private final AtomicInteger queueSize = new AtomicInteger();
+  private final AtomicLong flushCount = new AtomicLong();
+  private final AtomicLong flushNanos = new AtomicLong();
 
   /**
    * Creates a gating delay executor that will gate work from the provided executor.
@@ -46,53 +52,97 @@ class GatingDelayExecutor implements DelayExecutor, GatedWorkQueue {
     this.gated = requireNonNull(gated);
   }
 
-  private final ThreadLocal<Boolean> isOpen = new ThreadLocal<Boolean>() {
-    @Override
-    protected Boolean initialValue() {
-      return true;
+  /**
+   * The gate of a single thread, only ever accessed by that thread.
+   */
+  private static class Gate {
+    private int closedDepth;
+    private final Queue<Runnable> deferred = new ArrayDeque<>();
+
+    boolean isOpen() {
+      return closedDepth == 0;
     }
-  };
+  }
+
+  private final ThreadLocal<Gate> gate = ThreadLocal.withInitial(Gate::new);
 
   @Override
   public <T, E extends Exception> T closeDuring(GatedOperation<T, E> operation) throws E {
-    boolean startedOpen = isOpen.get();
-    isOpen.set(false);
+    Gate threadGate = gate.get();
+    threadGate.closedDepth++;
 
     try {
       return operation.doWithGateClosed();
     } finally {
-      if (startedOpen) {
-        isOpen.set(true);
-        flush();
+      threadGate.closedDepth--;
+      if (threadGate.isOpen()) {
+        flush(threadGate);
       }
     }
   }
 
-  synchronized int getQueueSize() {
-    return queue.size();
+  /**
+   * Gets the number of work items deferred by all currently-closed gates.
+   *
+   * @return Deferred work count.
+   */
+  int getQueueSize() {
+    return queueSize.get();
   }
 
-  private synchronized void enqueue(Runnable work) {
-    if (isOpen.get()) {
+  /**
+   * Gets the number of times a gate was opened with deferred work.
+   *
+   * @return Flush count.
+   */
+  long getFlushCount() {
+    return flushCount.get();
+  }
+
+  /**
+   * Gets the total time spent handing deferred work to the delegate executor.
+   *
+   * @return Cumulative flush time, in nanoseconds.
+   */
+  long getFlushNanos() {
+    return flushNanos.get();
+  }
+
+  private void enqueue(Runnable work) {
+    Gate threadGate = gate.get();
+    if (threadGate.isOpen()) {
       work.run();
     } else {
-      queue.add(work);
+      threadGate.deferred.add(work);
+      queueSize.incrementAndGet();
     }
   }
 
-  private synchronized void flush() {
-    for (Runnable work : Iterables.consumingIterable(queue)) {
-      work.run();
+  private void flush(Gate threadGate) {
+    if (threadGate.deferred.isEmpty()) {
+      return;
+    }
+
+    long start = System.nanoTime();
+    try {
+      Runnable work;
+      while ((work = threadGate.deferred.poll()) != null) {
+        queueSize.decrementAndGet();
+        work.run();
+      }
+    } finally {
+      flushCount.incrementAndGet();
+      flushNanos.addAndGet(System.nanoTime() - start);
     }
   }
 
   @Override
-  public synchronized void execute(Runnable command) {
+  public void execute(Runnable command) {
     enqueue(() -> gated.execute(command));
   }
 
   @Override
-  public synchronized void execute(Runnable work, Amount<Long, Time> minDelay) {
+  public void execute(Runnable work, Amount<Long, Time> minDelay) {
     enqueue(() -> gated.schedule(work, minDelay.getValue(), minDelay.getUnit().getTimeUnit()));
   }
 }
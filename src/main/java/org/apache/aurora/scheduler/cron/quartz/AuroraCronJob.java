@@ -70,8 +70,9 @@ import static org.apache.aurora.gen.ScheduleStatus.KILLING;
  * concurrently but only a single instance will be active at a time per job key.
  *
  * <p>
- * Executions may block for long periods of time when waiting for a kill to complete. The Quartz
- * scheduler should therefore be configured with a large number of threads.
+ * Triggers that fire together are applied in a single storage transaction by the cron batch
+ * worker, and an execution only waits for its batch to complete. Waiting for a kill to complete
+ * before launching replacement tasks happens asynchronously, without holding a Quartz thread.
  */
 @DisallowConcurrentExecution
 @PersistJobDataAfterExecution
@@ -211,7 +212,7 @@ class AuroraCronJob implements Job, EventSubscriber {
               delayedStartBackoff.getBackoffStrategy(),
               store -> {
                 Query.Builder query = Query.taskScoped(activeTasks).active();
-                if (Iterables.isEmpty(storeProvider.getTaskStore().fetchTasks(query))) {
+                if (Iterables.isEmpty(store.getTaskStore().fetchTasksLazily(query))) {
                   LOG.info("Initiating delayed launch of cron " + path);
                   stateManager.insertPendingTasks(store, task, instanceIds);
                   return new BatchWorker.Result<>(true, null);
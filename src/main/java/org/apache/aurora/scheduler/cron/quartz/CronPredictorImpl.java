@@ -16,9 +16,13 @@ package org.apache.aurora.scheduler.cron.quartz;
 import java.util.Date;
 import java.util.TimeZone;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import com.google.common.base.Optional;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 
 import org.apache.aurora.common.util.Clock;
 import org.apache.aurora.scheduler.cron.CronPredictor;
@@ -27,20 +31,55 @@ import org.quartz.CronExpression;
 
 import static java.util.Objects.requireNonNull;
 
+/**
+ * Predicts cron runs with Quartz.  Schedules are parsed into cron expressions once, and the next
+ * run of each schedule is remembered until it has passed, since the next run after any time
+ * before it is the same.
+ */
 class CronPredictorImpl implements CronPredictor {
+
+  private static final int MAX_CACHED_SCHEDULES = 10000;
+
   private final Clock clock;
-  private final TimeZone timeZone;
+  private final LoadingCache<CrontabEntry, Prediction> predictions;
 
   @Inject
   CronPredictorImpl(Clock clock, TimeZone timeZone) {
     this.clock = requireNonNull(clock);
-    this.timeZone = requireNonNull(timeZone);
+    requireNonNull(timeZone);
+    this.predictions = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_SCHEDULES)
+        .build(new CacheLoader<CrontabEntry, Prediction>() {
+          @Override
+          public Prediction load(CrontabEntry schedule) {
+            return new Prediction(Quartz.cronExpression(schedule, timeZone));
+          }
+        });
   }
 
   @Override
   public Optional<Date> predictNextRun(CrontabEntry schedule) {
-    CronExpression cronExpression = Quartz.cronExpression(schedule, timeZone);
-    // The getNextValidTimeAfter call may return null; eg: if the date is too far in the future.
-    return Optional.fromNullable(cronExpression.getNextValidTimeAfter(new Date(clock.nowMillis())));
+    return predictions.getUnchecked(schedule).nextRunAfter(clock.nowMillis());
+  }
+
+  private static final class Prediction {
+    private final CronExpression cronExpression;
+    private long predictedAtMs;
+    @Nullable
+    private Date nextRun;
+
+    Prediction(CronExpression cronExpression) {
+      this.cronExpression = cronExpression;
+    }
+
+    synchronized Optional<Date> nextRunAfter(long nowMs) {
+      if (nextRun == null || nowMs < predictedAtMs || nowMs >= nextRun.getTime()) {
+        // The getNextValidTimeAfter call may return null; eg: if the date is too far in the future.
+        nextRun = cronExpression.getNextValidTimeAfter(new Date(nowMs));
+        predictedAtMs = nowMs;
+      }
+      // Dates are mutable, so callers get their own copy.
+      return Optional.fromNullable(nextRun).transform(date -> new Date(date.getTime()));
+    }
   }
 }
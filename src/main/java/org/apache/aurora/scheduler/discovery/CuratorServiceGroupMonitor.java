@@ -15,9 +15,11 @@ package org.apache.aurora.scheduler.discovery;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import org.apache.aurora.GuavaUtils;
@@ -40,6 +42,13 @@ class CuratorServiceGroupMonitor implements ServiceGroupMonitor {
   private final Predicate<String> memberSelector;
   private final Codec<ServiceInstance> codec;
 
+  /**
+   * The most recently extracted group membership.  Curator replaces a {@link ChildData} whenever
+   * the node it describes changes, so membership only needs to be extracted again when the cache
+   * hands back different {@link ChildData} instances.
+   */
+  private volatile Membership membership = new Membership(ImmutableList.of(), ImmutableSet.of());
+
   /**
    * Creates a {@code ServiceGroupMonitor} backed by Curator.
    *
@@ -94,9 +103,25 @@ class CuratorServiceGroupMonitor implements ServiceGroupMonitor {
     groupCache.close();
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * <p>The same set instance is returned for as long as group membership remains unchanged, which
+   * allows callers to cheaply detect membership changes.
+   */
   @Override
   public ImmutableSet<ServiceInstance> get() {
-    return groupCache.getCurrentData().stream()
+    List<ChildData> groupData = groupCache.getCurrentData();
+    Membership current = membership;
+    if (!current.isExtractedFrom(groupData)) {
+      current = new Membership(groupData, extractMembers(groupData));
+      membership = current;
+    }
+    return current.members;
+  }
+
+  private ImmutableSet<ServiceInstance> extractMembers(List<ChildData> groupData) {
+    return groupData.stream()
         .filter(cd -> memberSelector.test(ZKPaths.getNodeFromPath(cd.getPath())))
         .map(this::extractServiceInstance)
         .filter(Optional::isPresent)
@@ -113,4 +138,26 @@ class CuratorServiceGroupMonitor implements ServiceGroupMonitor {
       return Optional.empty();
     }
   }
+
+  private static final class Membership {
+    private final List<ChildData> groupData;
+    private final ImmutableSet<ServiceInstance> members;
+
+    Membership(List<ChildData> groupData, ImmutableSet<ServiceInstance> members) {
+      this.groupData = groupData;
+      this.members = members;
+    }
+
+    boolean isExtractedFrom(List<ChildData> currentGroupData) {
+      if (groupData.size() != currentGroupData.size()) {
+        return false;
+      }
+      for (int i = 0; i < groupData.size(); i++) {
+        if (groupData.get(i) != currentGroupData.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
 }
@@ -15,11 +15,18 @@ package org.apache.aurora.scheduler.events;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
 import javax.inject.Qualifier;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Maps;
+
+import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.events.PubsubEvent.Vetoed;
 import org.apache.aurora.scheduler.filter.SchedulingFilter;
@@ -32,8 +39,12 @@ import static java.util.Objects.requireNonNull;
 
 /**
  * A decorating scheduling filter that sends an event when a scheduling assignment is vetoed.
+ * <p>
+ * Within a scheduling round, only the nearest fit of each task group is sent once the round
+ * completes, as a round may evaluate thousands of offers that would otherwise each produce an
+ * event.
  */
-class NotifyingSchedulingFilter implements SchedulingFilter {
+class NotifyingSchedulingFilter implements SchedulingFilter, VetoAggregator {
 
   /**
    * Binding annotation that the underlying {@link SchedulingFilter} must be bound with.
@@ -42,25 +53,73 @@ class NotifyingSchedulingFilter implements SchedulingFilter {
   @Target({FIELD, PARAMETER, METHOD}) @Retention(RUNTIME)
   public @interface NotifyDelegate { }
 
+  @VisibleForTesting
+  static final String VETO_EVENTS_SUPPRESSED = "scheduling_veto_events_suppressed";
+
   private final SchedulingFilter delegate;
   private final EventSink eventSink;
+  private final AtomicLong vetoEventsSuppressed;
+
+  // Nearest fit of each task group vetoed in the scheduling round of the current thread, or null
+  // outside of a round.
+  private final ThreadLocal<Map<TaskGroupKey, Set<Veto>>> roundVetoes = new ThreadLocal<>();
 
   @Inject
   NotifyingSchedulingFilter(
       @NotifyDelegate SchedulingFilter delegate,
-      EventSink eventSink) {
+      EventSink eventSink,
+      StatsProvider statsProvider) {
 
     this.delegate = requireNonNull(delegate);
     this.eventSink = requireNonNull(eventSink);
+    this.vetoEventsSuppressed = statsProvider.makeCounter(VETO_EVENTS_SUPPRESSED);
+  }
+
+  private static int score(Set<Veto> vetoes) {
+    int total = 0;
+    for (Veto veto : vetoes) {
+      total += veto.getScore();
+    }
+    return total;
   }
 
   @Override
   public Set<Veto> filter(UnusedResource resource, ResourceRequest request) {
     Set<Veto> vetoes = delegate.filter(resource, request);
     if (!vetoes.isEmpty()) {
-      eventSink.post(new Vetoed(TaskGroupKey.from(request.getTask()), vetoes));
+      TaskGroupKey groupKey = TaskGroupKey.from(request.getTask());
+      Map<TaskGroupKey, Set<Veto>> round = roundVetoes.get();
+      if (round == null) {
+        eventSink.post(new Vetoed(groupKey, vetoes));
+      } else {
+        Set<Veto> nearestFit = round.get(groupKey);
+        if (nearestFit == null) {
+          round.put(groupKey, vetoes);
+        } else {
+          vetoEventsSuppressed.incrementAndGet();
+          if (score(vetoes) < score(nearestFit)) {
+            round.put(groupKey, vetoes);
+          }
+        }
+      }
     }
 
     return vetoes;
   }
+
+  @Override
+  public <T> T aggregate(Supplier<T> round) {
+    if (roundVetoes.get() != null) {
+      return round.get();
+    }
+
+    Map<TaskGroupKey, Set<Veto>> vetoes = Maps.newLinkedHashMap();
+    roundVetoes.set(vetoes);
+    try {
+      return round.get();
+    } finally {
+      roundVetoes.remove();
+      vetoes.forEach((groupKey, nearestFit) -> eventSink.post(new Vetoed(groupKey, nearestFit)));
+    }
+  }
 }
@@ -202,6 +202,44 @@ public interface PubsubEvent {
     }
   }
 
+  /**
+   * Event sent when stored data of a role other than task state changes, such as its cron jobs,
+   * quota, job updates or task configs.
+   */
+  class RoleDataChanged implements PubsubEvent {
+    private final String role;
+
+    public RoleDataChanged(String role) {
+      this.role = requireNonNull(role);
+    }
+
+    public String getRole() {
+      return role;
+    }
+
+    @Override
+    public int hashCode() {
+      return role.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof RoleDataChanged)) {
+        return false;
+      }
+
+      RoleDataChanged other = (RoleDataChanged) o;
+      return Objects.equals(role, other.role);
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("role", role)
+          .toString();
+    }
+  }
+
   /**
    * Event sent when a scheduling assignment was vetoed.
    */
@@ -272,23 +310,30 @@ public interface PubsubEvent {
   }
 
   class TaskStatusReceived implements PubsubEvent {
+    private final String taskId;
     private final Protos.TaskState state;
     private final Optional<TaskStatus.Source> source;
     private final Optional<TaskStatus.Reason> reason;
     private final Optional<Long> epochTimestampMicros;
 
     public TaskStatusReceived(
+        String taskId,
         Protos.TaskState state,
         Optional<TaskStatus.Source> source,
         Optional<TaskStatus.Reason> reason,
         Optional<Long> epochTimestampMicros) {
 
+      this.taskId = requireNonNull(taskId);
       this.state = requireNonNull(state);
       this.source = requireNonNull(source);
       this.reason = requireNonNull(reason);
       this.epochTimestampMicros = requireNonNull(epochTimestampMicros);
     }
 
+    public String getTaskId() {
+      return taskId;
+    }
+
     public Protos.TaskState getState() {
       return state;
     }
@@ -312,7 +357,8 @@ public interface PubsubEvent {
       }
 
       TaskStatusReceived other = (TaskStatusReceived) o;
-      return Objects.equals(state, other.state)
+      return Objects.equals(taskId, other.taskId)
+          && Objects.equals(state, other.state)
           && Objects.equals(source, other.source)
           && Objects.equals(reason, other.reason)
           && Objects.equals(epochTimestampMicros, other.epochTimestampMicros);
@@ -320,7 +366,7 @@ public interface PubsubEvent {
 
     @Override
     public int hashCode() {
-      return Objects.hash(state, source, reason, epochTimestampMicros);
+      return Objects.hash(taskId, state, source, reason, epochTimestampMicros);
     }
   }
 }
@@ -129,13 +129,15 @@ public final class PubsubEventModule extends AbstractModule {
 
   /**
    * Gets a binding builder that must be used to wire up the scheduling filter implementation
-   * that backs the delegating scheduling filter that fires pubsub events.
+   * that backs the delegating scheduling filter that fires pubsub events.  The delegating filter
+   * is also bound as the {@link VetoAggregator}.
    *
    * @param binder Binder to create a binding against.
    * @return A linked binding builder that may be used to wire up the scheduling filter.
    */
   public static LinkedBindingBuilder<SchedulingFilter> bindSchedulingFilterDelegate(Binder binder) {
     binder.bind(SchedulingFilter.class).to(NotifyingSchedulingFilter.class);
+    binder.bind(VetoAggregator.class).to(NotifyingSchedulingFilter.class);
     binder.bind(NotifyingSchedulingFilter.class).in(Singleton.class);
     return binder.bind(SchedulingFilter.class).annotatedWith(NotifyDelegate.class);
   }
@@ -0,0 +1,36 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.events;
+
+import java.util.function.Supplier;
+
+import org.apache.aurora.scheduler.events.PubsubEvent.Vetoed;
+
+/**
+ * Aggregates the vetoes issued during a scheduling round, so that the round publishes at most one
+ * {@link Vetoed} event per task group rather than one event per vetoed offer.
+ */
+public interface VetoAggregator {
+
+  /**
+   * Performs a scheduling round.  Vetoes issued on the calling thread while the round runs are
+   * reduced to the nearest fit of each task group, which is published once the round completes.
+   * A round started within another round joins the enclosing round.
+   *
+   * @param round Work to perform.
+   * @param <T> Result type of the round.
+   * @return The result of {@code round}.
+   */
+  <T> T aggregate(Supplier<T> round);
+}
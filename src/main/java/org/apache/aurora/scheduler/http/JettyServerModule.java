@@ -55,6 +55,7 @@ import com.sun.jersey.guice.spi.container.servlet.GuiceContainer;
 
 import org.apache.aurora.common.args.Arg;
 import org.apache.aurora.common.args.CmdLine;
+import org.apache.aurora.common.args.constraints.Positive;
 import org.apache.aurora.common.net.http.handlers.AbortHandler;
 import org.apache.aurora.common.net.http.handlers.ContentionPrinter;
 import org.apache.aurora.common.net.http.handlers.HealthHandler;
@@ -63,11 +64,17 @@ import org.apache.aurora.common.net.http.handlers.ThreadStackPrinter;
 import org.apache.aurora.common.net.http.handlers.TimeSeriesDataSource;
 import org.apache.aurora.common.net.http.handlers.VarsHandler;
 import org.apache.aurora.common.net.http.handlers.VarsJsonHandler;
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.scheduler.SchedulerServicesModule;
 import org.apache.aurora.scheduler.app.ServiceGroupMonitor.MonitorException;
 import org.apache.aurora.scheduler.http.api.ApiModule;
 import org.apache.aurora.scheduler.http.api.security.HttpSecurityModule;
 import org.apache.aurora.scheduler.thrift.ThriftModule;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.eclipse.jetty.rewrite.handler.RewriteHandler;
 import org.eclipse.jetty.rewrite.handler.RewriteRegexRule;
 import org.eclipse.jetty.server.Handler;
@@ -115,6 +122,30 @@ public class JettyServerModule extends AbstractModule {
       help = "The ip address to listen. If not set, the scheduler will listen on all interfaces.")
   protected static final Arg<String> LISTEN_IP = Arg.create();
 
+  @CmdLine(name = "enable_leader_proxy",
+      help = "If true, a scheduler that is not leading forwards API requests to the leading "
+          + "scheduler rather than redirecting clients to it.")
+  private static final Arg<Boolean> ENABLE_LEADER_PROXY = Arg.create(false);
+
+  @Positive
+  @CmdLine(name = "leader_proxy_max_connections",
+      help = "Maximum number of connections kept open to the leading scheduler for forwarding "
+          + "API requests when -enable_leader_proxy is set.")
+  private static final Arg<Integer> LEADER_PROXY_MAX_CONNECTIONS = Arg.create(32);
+
+  @CmdLine(name = "leader_proxy_connect_timeout",
+      help = "Maximum time to wait for a connection to the leading scheduler, including waiting "
+          + "for a pooled connection, when forwarding API requests. Requests that time out are "
+          + "redirected to the leader instead.")
+  private static final Arg<Amount<Long, Time>> LEADER_PROXY_CONNECT_TIMEOUT =
+      Arg.create(Amount.of(5L, Time.SECONDS));
+
+  @CmdLine(name = "leader_proxy_socket_timeout",
+      help = "Maximum time to wait for data from the leading scheduler when forwarding API "
+          + "requests.")
+  private static final Arg<Amount<Long, Time>> LEADER_PROXY_SOCKET_TIMEOUT =
+      Arg.create(Amount.of(60L, Time.SECONDS));
+
   public static final Map<String, String> GUICE_CONTAINER_PARAMS = ImmutableMap.of(
       FEATURE_POJO_MAPPING, Boolean.TRUE.toString());
 
@@ -177,6 +208,31 @@ public class JettyServerModule extends AbstractModule {
     }
   }
 
+  @Provides
+  @Singleton
+  Optional<LeaderProxy> provideLeaderProxy(StatsProvider statsProvider) {
+    if (!ENABLE_LEADER_PROXY.get()) {
+      return Optional.absent();
+    }
+
+    int connectTimeoutMs = LEADER_PROXY_CONNECT_TIMEOUT.get().as(Time.MILLISECONDS).intValue();
+    RequestConfig config = RequestConfig.custom()
+        .setConnectTimeout(connectTimeoutMs)
+        .setConnectionRequestTimeout(connectTimeoutMs)
+        .setSocketTimeout(LEADER_PROXY_SOCKET_TIMEOUT.get().as(Time.MILLISECONDS).intValue())
+        .build();
+    CloseableHttpClient client = HttpClientBuilder.create()
+        .setDefaultRequestConfig(config)
+        .setMaxConnPerRoute(LEADER_PROXY_MAX_CONNECTIONS.get())
+        .setMaxConnTotal(LEADER_PROXY_MAX_CONNECTIONS.get())
+        // Responses from the leader, including redirects, are relayed to clients unmodified.
+        .disableContentCompression()
+        .disableRedirectHandling()
+        .disableCookieManagement()
+        .build();
+    return Optional.of(new LeaderProxy(client, statsProvider));
+  }
+
   private static final Module PRODUCTION_SERVLET_CONTEXT_LISTENER = new AbstractModule() {
     @Override
     protected void configure() {
@@ -284,10 +340,12 @@ public class JettyServerModule extends AbstractModule {
 
   static class RedirectMonitor extends AbstractIdleService {
     private final LeaderRedirect redirector;
+    private final Optional<LeaderProxy> proxy;
 
     @Inject
-    RedirectMonitor(LeaderRedirect redirector) {
+    RedirectMonitor(LeaderRedirect redirector, Optional<LeaderProxy> proxy) {
       this.redirector = requireNonNull(redirector);
+      this.proxy = requireNonNull(proxy);
     }
 
     @Override
@@ -298,6 +356,9 @@ public class JettyServerModule extends AbstractModule {
     @Override
     protected void shutDown() throws IOException {
       redirector.close();
+      if (proxy.isPresent()) {
+        proxy.get().close();
+      }
     }
   }
 
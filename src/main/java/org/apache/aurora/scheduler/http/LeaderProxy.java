@@ -0,0 +1,170 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.http;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.aurora.common.stats.SlidingStats;
+import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Forwards requests to the leading scheduler on behalf of a scheduler that is not leading, so
+ * that clients are answered without having to follow a redirect.  Connections to the leader are
+ * pooled and kept alive across requests.
+ */
+class LeaderProxy implements Closeable {
+
+  /**
+   * Header added to forwarded requests.  A scheduler that receives a forwarded request while not
+   * leading redirects it rather than forwarding it again.
+   */
+  @VisibleForTesting
+  static final String PROXIED_HEADER_NAME = "X-Aurora-Proxied";
+
+  @VisibleForTesting
+  static final String PROXY_FAILURES = "leader_proxy_failures";
+
+  // Headers that describe a single connection (RFC 7230, section 6.1), or that the HTTP client and
+  // servlet container manage on their own.
+  private static final Set<String> UNFORWARDED_HEADERS = ImmutableSet.of(
+      "connection",
+      "keep-alive",
+      "proxy-authenticate",
+      "proxy-authorization",
+      "te",
+      "trailer",
+      "transfer-encoding",
+      "upgrade",
+      "host",
+      "content-length");
+
+  private final CloseableHttpClient client;
+  private final SlidingStats latency = new SlidingStats("leader_proxy_requests", "nanos");
+  private final AtomicLong failures;
+
+  LeaderProxy(CloseableHttpClient client, StatsProvider statsProvider) {
+    this.client = requireNonNull(client);
+    this.failures = statsProvider.makeCounter(PROXY_FAILURES);
+  }
+
+  private static boolean isForwarded(String header) {
+    return !UNFORWARDED_HEADERS.contains(header.toLowerCase(Locale.ENGLISH));
+  }
+
+  /**
+   * Checks whether a request was already forwarded by another scheduler.
+   *
+   * @param request HTTP request.
+   * @return {@code true} if the request arrived through a proxying scheduler.
+   */
+  static boolean isProxied(HttpServletRequest request) {
+    return request.getHeader(PROXIED_HEADER_NAME) != null;
+  }
+
+  /**
+   * Thrown when a request could not be forwarded because no connection to the leader was
+   * established, which guarantees that the leader has not seen the request.
+   */
+  static class LeaderUnreachableException extends IOException {
+    LeaderUnreachableException(IOException cause) {
+      super(cause);
+    }
+  }
+
+  private CloseableHttpResponse execute(HttpUriRequest request) throws IOException {
+    try {
+      return client.execute(request);
+    } catch (ConnectException | ConnectTimeoutException | UnknownHostException e) {
+      // Covers refused and timed out connections as well as timeouts leasing a pooled connection,
+      // all of which fail before any part of the request is sent.
+      throw new LeaderUnreachableException(e);
+    }
+  }
+
+  /**
+   * Forwards a request to the leading scheduler and copies the leader's response back.
+   *
+   * @param target URI of the request on the leading scheduler.
+   * @param request Request to forward.
+   * @param response Response to populate with the leader's response.
+   * @throws LeaderUnreachableException If no connection to the leader could be obtained.  Nothing
+   *                                    has been written to {@code response} in that case.
+   * @throws IOException If the request failed after it may have reached the leader.
+   */
+  void proxy(String target, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+
+    long start = System.nanoTime();
+    RequestBuilder forwarded = RequestBuilder.create(request.getMethod()).setUri(target);
+    for (String name : Collections.list(request.getHeaderNames())) {
+      if (isForwarded(name)) {
+        for (String value : Collections.list(request.getHeaders(name))) {
+          forwarded.addHeader(name, value);
+        }
+      }
+    }
+    forwarded.addHeader(PROXIED_HEADER_NAME, Boolean.TRUE.toString());
+    if (request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null) {
+      forwarded.setEntity(
+          new InputStreamEntity(request.getInputStream(), request.getContentLengthLong()));
+    }
+
+    try (CloseableHttpResponse leaderResponse = execute(forwarded.build())) {
+      response.setStatus(leaderResponse.getStatusLine().getStatusCode());
+      for (Header header : leaderResponse.getAllHeaders()) {
+        if (isForwarded(header.getName())) {
+          response.addHeader(header.getName(), header.getValue());
+        }
+      }
+      HttpEntity entity = leaderResponse.getEntity();
+      if (entity != null) {
+        // Reading the entity to its end returns the connection to the pool.
+        entity.writeTo(response.getOutputStream());
+      }
+    } catch (IOException e) {
+      failures.incrementAndGet();
+      throw e;
+    } finally {
+      latency.accumulate(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    client.close();
+  }
+}
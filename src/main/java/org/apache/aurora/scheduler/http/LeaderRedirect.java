@@ -16,6 +16,7 @@ package org.apache.aurora.scheduler.http;
 import java.io.Closeable;
 import java.io.IOException;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.servlet.http.HttpServletRequest;
 
@@ -62,6 +63,14 @@ class LeaderRedirect implements Closeable {
   private final HttpService httpService;
   private final ServiceGroupMonitor serviceGroupMonitor;
 
+  /**
+   * The leader found in the most recently seen service group membership.  Membership changes
+   * rarely relative to the rate of HTTP requests, so the leader is only looked up again once the
+   * membership changes.
+   */
+  @Nullable
+  private volatile LeaderSnapshot leaderSnapshot;
+
   @Inject
   LeaderRedirect(HttpService httpService, ServiceGroupMonitor serviceGroupMonitor) {
     this.httpService = requireNonNull(httpService);
@@ -82,20 +91,6 @@ class LeaderRedirect implements Closeable {
     serviceGroupMonitor.close();
   }
 
-  private Optional<HostAndPort> getLeaderHttp() {
-    Optional<ServiceInstance> leadingScheduler = getLeader();
-
-    if (leadingScheduler.isPresent() && leadingScheduler.get().isSetServiceEndpoint()) {
-      Endpoint leaderHttp = leadingScheduler.get().getServiceEndpoint();
-      if (leaderHttp != null && leaderHttp.isSetHost() && leaderHttp.isSetPort()) {
-        return Optional.of(HostAndPort.fromParts(leaderHttp.getHost(), leaderHttp.getPort()));
-      }
-    }
-
-    LOG.warn("Leader service instance seems to be incomplete: " + leadingScheduler);
-    return Optional.absent();
-  }
-
   private Optional<HostAndPort> getLocalHttp() {
     HostAndPort localHttp = httpService.getAddress();
     return (localHttp == null) ? Optional.absent()
@@ -110,7 +105,7 @@ class LeaderRedirect implements Closeable {
    */
   @VisibleForTesting
   Optional<HostAndPort> getRedirect() {
-    Optional<HostAndPort> leaderHttp = getLeaderHttp();
+    Optional<HostAndPort> leaderHttp = getLeaderSnapshot().leaderHttp;
     Optional<HostAndPort> localHttp = getLocalHttp();
 
     if (leaderHttp.isPresent()) {
@@ -132,17 +127,12 @@ class LeaderRedirect implements Closeable {
    * this instance is the leader).
    */
   LeaderStatus getLeaderStatus() {
-    Optional<ServiceInstance> leadingScheduler = getLeader();
-    if (!leadingScheduler.isPresent()) {
+    LeaderSnapshot snapshot = getLeaderSnapshot();
+    if (!snapshot.leader.isPresent() || !snapshot.leader.get().isSetServiceEndpoint()) {
       return LeaderStatus.NO_LEADER;
     }
 
-    if (!leadingScheduler.get().isSetServiceEndpoint()) {
-      LOG.warn("Leader service instance seems to be incomplete: " + leadingScheduler);
-      return LeaderStatus.NO_LEADER;
-    }
-
-    Optional<HostAndPort> leaderHttp = getLeaderHttp();
+    Optional<HostAndPort> leaderHttp = snapshot.leaderHttp;
     Optional<HostAndPort> localHttp = getLocalHttp();
 
     if (leaderHttp.isPresent() && leaderHttp.equals(localHttp)) {
@@ -187,8 +177,17 @@ class LeaderRedirect implements Closeable {
     }
   }
 
-  private Optional<ServiceInstance> getLeader() {
+  private LeaderSnapshot getLeaderSnapshot() {
     ImmutableSet<ServiceInstance> hostSet = serviceGroupMonitor.get();
+    LeaderSnapshot snapshot = leaderSnapshot;
+    if (snapshot == null || !snapshot.hostSet.equals(hostSet)) {
+      snapshot = new LeaderSnapshot(hostSet);
+      leaderSnapshot = snapshot;
+    }
+    return snapshot;
+  }
+
+  private static Optional<ServiceInstance> findLeader(ImmutableSet<ServiceInstance> hostSet) {
     switch (hostSet.size()) {
       case 0:
         LOG.warn("No serviceGroupMonitor in host set, will not redirect despite not being leader.");
@@ -201,4 +200,31 @@ class LeaderRedirect implements Closeable {
         return Optional.absent();
     }
   }
+
+  private static Optional<HostAndPort> findLeaderHttp(Optional<ServiceInstance> leadingScheduler) {
+    if (leadingScheduler.isPresent() && leadingScheduler.get().isSetServiceEndpoint()) {
+      Endpoint leaderHttp = leadingScheduler.get().getServiceEndpoint();
+      if (leaderHttp != null && leaderHttp.isSetHost() && leaderHttp.isSetPort()) {
+        return Optional.of(HostAndPort.fromParts(leaderHttp.getHost(), leaderHttp.getPort()));
+      }
+    }
+
+    LOG.warn("Leader service instance seems to be incomplete: " + leadingScheduler);
+    return Optional.absent();
+  }
+
+  /**
+   * The leader derived from a service group membership set.
+   */
+  private static final class LeaderSnapshot {
+    private final ImmutableSet<ServiceInstance> hostSet;
+    private final Optional<ServiceInstance> leader;
+    private final Optional<HostAndPort> leaderHttp;
+
+    LeaderSnapshot(ImmutableSet<ServiceInstance> hostSet) {
+      this.hostSet = hostSet;
+      this.leader = findLeader(hostSet);
+      this.leaderHttp = findLeaderHttp(leader);
+    }
+  }
 }
@@ -31,10 +31,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static org.apache.aurora.gen.apiConstants.BYPASS_LEADER_REDIRECT_HEADER_NAME;
+import static org.apache.aurora.scheduler.http.LeaderProxy.LeaderUnreachableException;
 import static org.apache.aurora.scheduler.http.LeaderRedirect.LeaderStatus;
 
 /**
- * An HTTP filter that will redirect the request to the leading scheduler.
+ * An HTTP filter that will redirect the request to the leading scheduler.  When a
+ * {@link LeaderProxy} is available, API requests are instead forwarded to the leading scheduler.
  */
 public class LeaderRedirectFilter extends AbstractFilter {
   private static final Logger LOG = LoggerFactory.getLogger(LeaderRedirectFilter.class);
@@ -42,11 +44,26 @@ public class LeaderRedirectFilter extends AbstractFilter {
   @VisibleForTesting
   static final String NO_LEADER_PAGE = "no-leader.html";
 
+  @VisibleForTesting
+  static final String PROXIED_PATH = "/api";
+
   private final LeaderRedirect redirector;
+  private final Optional<LeaderProxy> proxy;
 
   @Inject
-  LeaderRedirectFilter(LeaderRedirect redirector) {
+  LeaderRedirectFilter(LeaderRedirect redirector, Optional<LeaderProxy> proxy) {
     this.redirector = Objects.requireNonNull(redirector);
+    this.proxy = Objects.requireNonNull(proxy);
+  }
+
+  private boolean shouldProxy(HttpServletRequest request) {
+    return proxy.isPresent()
+        && !LeaderProxy.isProxied(request)
+        && isProxiedPath(request.getRequestURI());
+  }
+
+  private static boolean isProxiedPath(String uri) {
+    return uri.equals(PROXIED_PATH) || uri.startsWith(PROXIED_PATH + "/");
   }
 
   private void sendServiceUnavailable(HttpServletResponse response) throws IOException {
@@ -77,6 +94,25 @@ public class LeaderRedirectFilter extends AbstractFilter {
       case NOT_LEADING:
         Optional<String> leaderRedirect = redirector.getRedirectTarget(request);
         if (leaderRedirect.isPresent()) {
+          if (shouldProxy(request)) {
+            try {
+              proxy.get().proxy(leaderRedirect.get(), request, response);
+              return;
+            } catch (LeaderUnreachableException e) {
+              // The leader has not seen the request, so the client may safely send it again.
+              LOG.warn("Failed to connect to leader, redirecting instead: " + e);
+              response.reset();
+            } catch (IOException e) {
+              // The leader may have already executed the request, which must not be retried.
+              if (response.isCommitted()) {
+                throw e;
+              }
+              LOG.warn("Failed to proxy request to leader: " + e);
+              response.reset();
+              response.sendError(HttpServletResponse.SC_BAD_GATEWAY);
+              return;
+            }
+          }
           response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
           response.setHeader(HttpHeaders.LOCATION, leaderRedirect.get());
           return;
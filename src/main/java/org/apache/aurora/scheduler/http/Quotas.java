@@ -15,6 +15,7 @@ package org.apache.aurora.scheduler.http;
 
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.ws.rs.GET;
@@ -27,12 +28,21 @@ import javax.ws.rs.core.Response;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 
+import org.apache.aurora.scheduler.quota.ConsumptionCache;
+import org.apache.aurora.scheduler.quota.QuotaInfo;
+import org.apache.aurora.scheduler.quota.QuotaManager.QuotaManagerImpl;
+import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.entities.IResourceAggregate;
 import org.codehaus.jackson.annotate.JsonProperty;
 
+import static org.apache.aurora.scheduler.resources.ResourceType.CPUS;
+import static org.apache.aurora.scheduler.resources.ResourceType.DISK_MB;
+import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
+
 /**
  * Servlet that exposes allocated resource quotas.
  */
@@ -40,10 +50,14 @@ import org.codehaus.jackson.annotate.JsonProperty;
 public class Quotas {
 
   private final Storage storage;
+  private final QuotaManagerImpl quotaManager;
+  private final ConsumptionCache consumptionCache;
 
   @Inject
-  Quotas(Storage storage) {
+  Quotas(Storage storage, QuotaManagerImpl quotaManager, ConsumptionCache consumptionCache) {
     this.storage = Objects.requireNonNull(storage);
+    this.quotaManager = Objects.requireNonNull(quotaManager);
+    this.consumptionCache = Objects.requireNonNull(consumptionCache);
   }
 
   /**
@@ -71,6 +85,32 @@ public class Quotas {
     });
   }
 
+  /**
+   * Compares cached quota consumption against consumption recomputed from storage.  Intended for
+   * debugging the quota consumption cache.
+   *
+   * @param role Optional role to compare, defaults to all cached roles.
+   * @return HTTP response.
+   */
+  @GET
+  @Path("/consumption")
+  @Produces(MediaType.APPLICATION_JSON)
+  public Response getConsumption(@QueryParam("role") final String role) {
+    return storage.read(storeProvider -> {
+      Set<String> roles = role == null
+          ? consumptionCache.getCachedRoles()
+          : ImmutableSet.of(role);
+
+      ImmutableMap.Builder<String, ConsumptionBean> consumption = ImmutableMap.builder();
+      for (String cachedRole : roles) {
+        consumption.put(cachedRole, new ConsumptionBean(
+            quotaManager.getQuotaInfo(cachedRole, storeProvider),
+            quotaManager.getUncachedQuotaInfo(cachedRole, storeProvider)));
+      }
+      return Response.ok(consumption.build()).build();
+    });
+  }
+
   private static final Function<IResourceAggregate, ResourceAggregateBean> TO_BEAN =
       quota -> new ResourceAggregateBean(quota.getNumCpus(), quota.getRamMb(), quota.getDiskMb());
 
@@ -100,4 +140,46 @@ public class Quotas {
       return diskMb;
     }
   }
+
+  private static final class ConsumptionBean {
+    private final Map<String, ResourceAggregateBean> cached;
+    private final Map<String, ResourceAggregateBean> computed;
+    private final boolean consistent;
+
+    ConsumptionBean(QuotaInfo cached, QuotaInfo computed) {
+      this.cached = toBeans(cached);
+      this.computed = toBeans(computed);
+      this.consistent = cached.equals(computed);
+    }
+
+    private static Map<String, ResourceAggregateBean> toBeans(QuotaInfo info) {
+      return ImmutableMap.of(
+          "prod_shared", toBean(info.getProdSharedConsumption()),
+          "prod_dedicated", toBean(info.getProdDedicatedConsumption()),
+          "non_prod_shared", toBean(info.getNonProdSharedConsumption()),
+          "non_prod_dedicated", toBean(info.getNonProdDedicatedConsumption()));
+    }
+
+    private static ResourceAggregateBean toBean(ResourceBag bag) {
+      return new ResourceAggregateBean(
+          bag.valueOf(CPUS),
+          bag.valueOf(RAM_MB).longValue(),
+          bag.valueOf(DISK_MB).longValue());
+    }
+
+    @JsonProperty("cached")
+    public Map<String, ResourceAggregateBean> getCached() {
+      return cached;
+    }
+
+    @JsonProperty("computed")
+    public Map<String, ResourceAggregateBean> getComputed() {
+      return computed;
+    }
+
+    @JsonProperty("consistent")
+    public boolean isConsistent() {
+      return consistent;
+    }
+  }
 }
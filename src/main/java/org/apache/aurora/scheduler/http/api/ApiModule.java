@@ -16,6 +16,7 @@ package org.apache.aurora.scheduler.http.api;
 import javax.inject.Singleton;
 import javax.ws.rs.core.MediaType;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.inject.Provides;
 import com.google.inject.servlet.ServletModule;
@@ -31,6 +32,7 @@ import org.apache.aurora.scheduler.http.api.TContentAwareServlet.ContentFactoryP
 import org.apache.aurora.scheduler.http.api.TContentAwareServlet.InputConfig;
 import org.apache.aurora.scheduler.http.api.TContentAwareServlet.OutputConfig;
 import org.apache.aurora.scheduler.thrift.aop.AnnotatedAuroraAdmin;
+import org.apache.thrift.TProcessor;
 import org.apache.thrift.protocol.TBinaryProtocol;
 import org.apache.thrift.protocol.TJSONProtocol;
 import org.eclipse.jetty.servlet.DefaultServlet;
@@ -81,6 +83,17 @@ public class ApiModule extends ServletModule {
   @Provides
   @Singleton
   TContentAwareServlet provideApiThriftServlet(AnnotatedAuroraAdmin schedulerThriftInterface) {
+    return createThriftServlet(new AuroraAdmin.Processor<>(schedulerThriftInterface));
+  }
+
+  /**
+   * Creates the servlet that serves the thrift API.
+   *
+   * @param processor Processor for thrift calls.
+   * @return A servlet that dispatches requests to {@code processor}.
+   */
+  @VisibleForTesting
+  public static TContentAwareServlet createThriftServlet(TProcessor processor) {
     /*
      * For backwards compatibility the servlet is configured to assume `application/x-thrift` and
      * `application/json` have TJSON bodies.
@@ -120,9 +133,6 @@ public class ApiModule extends ServletModule {
         ));
 
     // A request without a Content-Type (like from curl) should be treated as GENERIC_THRIFT
-    return new TContentAwareServlet(
-        new AuroraAdmin.Processor<>(schedulerThriftInterface),
-        inputConfig,
-        outputConfig);
+    return new TContentAwareServlet(processor, inputConfig, outputConfig);
   }
 }
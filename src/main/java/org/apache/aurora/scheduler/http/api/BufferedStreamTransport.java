@@ -0,0 +1,167 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.http.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import org.apache.thrift.transport.TTransport;
+import org.apache.thrift.transport.TTransportException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A transport over a pair of streams that buffers reads and writes.
+ * <p>
+ * Protocols write many small fields, each of which would otherwise be a call into the underlying
+ * stream.  Writes are instead gathered into a buffer that is passed on whenever it fills, so large
+ * messages are streamed out in buffer-sized pieces as they are serialized.  Reads expose their
+ * buffer through {@link #getBuffer()}, which lets protocols decode directly from it.
+ * <p>
+ * The buffers are reused by all transports created on the same thread, so a thread may only use
+ * one transport at a time.
+ */
+final class BufferedStreamTransport extends TTransport {
+
+  @VisibleForTesting
+  static final int READ_BUFFER_SIZE = 8 * 1024;
+
+  @VisibleForTesting
+  static final int WRITE_BUFFER_SIZE = 32 * 1024;
+
+  private static final ThreadLocal<byte[]> READ_BUFFERS =
+      ThreadLocal.withInitial(() -> new byte[READ_BUFFER_SIZE]);
+  private static final ThreadLocal<byte[]> WRITE_BUFFERS =
+      ThreadLocal.withInitial(() -> new byte[WRITE_BUFFER_SIZE]);
+
+  private final InputStream input;
+  private final OutputStream output;
+  private final byte[] readBuffer = READ_BUFFERS.get();
+  private final byte[] writeBuffer = WRITE_BUFFERS.get();
+  private int readPosition;
+  private int readLimit;
+  private int writePosition;
+
+  BufferedStreamTransport(InputStream input, OutputStream output) {
+    this.input = requireNonNull(input);
+    this.output = requireNonNull(output);
+  }
+
+  @Override
+  public boolean isOpen() {
+    return true;
+  }
+
+  @Override
+  public void open() {
+    // The streams are opened by their owner.
+  }
+
+  @Override
+  public void close() {
+    // The streams are closed by their owner.
+  }
+
+  @Override
+  public int read(byte[] buf, int off, int len) throws TTransportException {
+    int buffered = readLimit - readPosition;
+    if (buffered == 0) {
+      if (len >= readBuffer.length) {
+        // Large reads gain nothing from passing through the buffer.
+        return readStream(buf, off, len);
+      }
+      readPosition = 0;
+      readLimit = readStream(readBuffer, 0, readBuffer.length);
+      buffered = readLimit;
+    }
+
+    int copied = Math.min(buffered, len);
+    System.arraycopy(readBuffer, readPosition, buf, off, copied);
+    readPosition += copied;
+    return copied;
+  }
+
+  private int readStream(byte[] buf, int off, int len) throws TTransportException {
+    try {
+      int read = input.read(buf, off, len);
+      if (read < 0) {
+        throw new TTransportException(TTransportException.END_OF_FILE);
+      }
+      return read;
+    } catch (IOException e) {
+      throw new TTransportException(TTransportException.UNKNOWN, e);
+    }
+  }
+
+  @Override
+  public byte[] getBuffer() {
+    return readBuffer;
+  }
+
+  @Override
+  public int getBufferPosition() {
+    return readPosition;
+  }
+
+  @Override
+  public int getBytesRemainingInBuffer() {
+    return readLimit - readPosition;
+  }
+
+  @Override
+  public void consumeBuffer(int len) {
+    readPosition += len;
+  }
+
+  @Override
+  public void write(byte[] buf, int off, int len) throws TTransportException {
+    if (len > writeBuffer.length - writePosition) {
+      flushBuffer();
+      if (len >= writeBuffer.length) {
+        writeStream(buf, off, len);
+        return;
+      }
+    }
+    System.arraycopy(buf, off, writeBuffer, writePosition, len);
+    writePosition += len;
+  }
+
+  private void flushBuffer() throws TTransportException {
+    if (writePosition > 0) {
+      writeStream(writeBuffer, 0, writePosition);
+      writePosition = 0;
+    }
+  }
+
+  private void writeStream(byte[] buf, int off, int len) throws TTransportException {
+    try {
+      output.write(buf, off, len);
+    } catch (IOException e) {
+      throw new TTransportException(TTransportException.UNKNOWN, e);
+    }
+  }
+
+  @Override
+  public void flush() throws TTransportException {
+    flushBuffer();
+    try {
+      output.flush();
+    } catch (IOException e) {
+      throw new TTransportException(TTransportException.UNKNOWN, e);
+    }
+  }
+}
@@ -17,7 +17,10 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import javax.annotation.Nullable;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -28,7 +31,6 @@ import org.apache.thrift.TException;
 import org.apache.thrift.TProcessor;
 import org.apache.thrift.protocol.TProtocol;
 import org.apache.thrift.protocol.TProtocolFactory;
-import org.apache.thrift.transport.TIOStreamTransport;
 import org.apache.thrift.transport.TTransport;
 
 import static java.util.Objects.requireNonNull;
@@ -38,11 +40,22 @@ import static javax.ws.rs.core.HttpHeaders.ACCEPT;
 /**
  * An implementation of {@link org.apache.thrift.server.TServlet} that can handle multiple thrift
  * protocols. The protocols are dispatched on HTTP headers.
+ * <p>
+ * Requests are read and responses are written through a {@link BufferedStreamTransport}, so a
+ * response is streamed to the client in buffer-sized pieces while it is serialized.
  */
 public class TContentAwareServlet extends HttpServlet {
+  // Bounds the number of distinct header values whose protocol factory is remembered, since the
+  // values are chosen by clients.
+  private static final int MAX_CACHED_HEADER_VALUES = 64;
+
   private final TProcessor processor;
   private final InputConfig inputConfig;
   private final OutputConfig outputConfig;
+  private final ConcurrentMap<String, ContentFactoryPair> inputFactories =
+      new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ContentFactoryPair> outputFactories =
+      new ConcurrentHashMap<>();
 
   /**
    * Class which contains the mapping of the factory and the content type of the output.
@@ -50,15 +63,15 @@ public class TContentAwareServlet extends HttpServlet {
   static class ContentFactoryPair implements TProtocolFactory {
     private final TProtocolFactory factory;
 
-    private final MediaType outputType;
+    private final String outputContentType;
 
     ContentFactoryPair(TProtocolFactory factory, MediaType outputType) {
       this.factory = requireNonNull(factory);
-      this.outputType = requireNonNull(outputType);
+      this.outputContentType = outputType.toString();
     }
 
-    MediaType getOutputType() {
-      return outputType;
+    String getOutputContentType() {
+      return outputContentType;
     }
 
     @Override
@@ -115,12 +128,56 @@ public class TContentAwareServlet extends HttpServlet {
     this.outputConfig = requireNonNull(outputConfig);
   }
 
+  private static <T> void remember(ConcurrentMap<String, T> cache, String key, T value) {
+    if (cache.size() < MAX_CACHED_HEADER_VALUES) {
+      cache.putIfAbsent(key, value);
+    }
+  }
+
+  private Optional<ContentFactoryPair> getInputFactory(@Nullable String contentType) {
+    if (contentType == null) {
+      return inputConfig.getFactory(Optional.empty());
+    }
+
+    ContentFactoryPair cached = inputFactories.get(contentType);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+
+    Optional<ContentFactoryPair> factory =
+        inputConfig.getFactory(Optional.of(MediaType.valueOf(contentType)));
+    factory.ifPresent(pair -> remember(inputFactories, contentType, pair));
+    return factory;
+  }
+
+  private ContentFactoryPair getOutputFactory(@Nullable String acceptHeader) {
+    if (acceptHeader == null) {
+      return outputConfig.getFactory(Optional.empty());
+    }
+
+    ContentFactoryPair cached = outputFactories.get(acceptHeader);
+    if (cached != null) {
+      return cached;
+    }
+
+    Optional<MediaType> acceptType;
+    try {
+      acceptType = Optional.of(MediaType.valueOf(acceptHeader));
+    } catch (IllegalArgumentException e) {
+      // Thrown if the Accept header contains more than one type or something else we can't
+      // parse, we just treat is as no header (which will pick up the default value).
+      acceptType = Optional.empty();
+    }
+    ContentFactoryPair factory = outputConfig.getFactory(acceptType);
+    remember(outputFactories, acceptHeader, factory);
+    return factory;
+  }
+
   @Override
   protected void doPost(HttpServletRequest request, HttpServletResponse response)
       throws ServletException, IOException {
 
-    Optional<ContentFactoryPair> factoryOptional = inputConfig
-        .getFactory(Optional.ofNullable(request.getContentType()).map(MediaType::valueOf));
+    Optional<ContentFactoryPair> factoryOptional = getInputFactory(request.getContentType());
 
     if (!factoryOptional.isPresent()) {
       response.setStatus(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
@@ -130,29 +187,17 @@ public class TContentAwareServlet extends HttpServlet {
     }
 
     TTransport transport =
-        new TIOStreamTransport(request.getInputStream(), response.getOutputStream());
+        new BufferedStreamTransport(request.getInputStream(), response.getOutputStream());
 
     TProtocol inputProtocol = factoryOptional.get().getProtocol(transport);
 
-    Optional<String> acceptHeader = Optional.ofNullable(request.getHeader(ACCEPT));
-    Optional<MediaType> acceptType = Optional.empty();
-    if (acceptHeader.isPresent()) {
-      try {
-        acceptType = acceptHeader.map(MediaType::valueOf);
-      } catch (IllegalArgumentException e) {
-        // Thrown if the Accept header contains more than one type or something else we can't
-        // parse, we just treat is as no header (which will pick up the default value).
-        acceptType = Optional.empty();
-      }
-    }
-
-    ContentFactoryPair outputProtocolFactory = outputConfig.getFactory(acceptType);
+    ContentFactoryPair outputProtocolFactory = getOutputFactory(request.getHeader(ACCEPT));
 
-    response.setContentType(outputProtocolFactory.getOutputType().toString());
+    response.setContentType(outputProtocolFactory.getOutputContentType());
     TProtocol outputProtocol = outputProtocolFactory.getProtocol(transport);
     try {
       processor.process(inputProtocol, outputProtocol);
-      response.getOutputStream().flush();
+      transport.flush();
     } catch (TException e) {
       throw new ServletException(e);
     }
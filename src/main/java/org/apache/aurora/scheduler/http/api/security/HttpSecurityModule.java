@@ -37,6 +37,8 @@ import org.aopalliance.intercept.MethodInterceptor;
 import org.apache.aurora.GuiceUtils;
 import org.apache.aurora.common.args.Arg;
 import org.apache.aurora.common.args.CmdLine;
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.gen.AuroraAdmin;
 import org.apache.aurora.gen.AuroraSchedulerManager;
 import org.apache.aurora.scheduler.app.MoreModules;
@@ -112,15 +114,24 @@ public class HttpSecurityModule extends ServletModule {
   private static final Arg<HttpAuthenticationMechanism> HTTP_AUTHENTICATION_MECHANISM =
       Arg.create(HttpAuthenticationMechanism.NONE);
 
+  @CmdLine(name = "shiro_authorization_cache_ttl",
+      help = "Time for which the decision of a job-scoped permission check is reused for the "
+          + "same principal. Changes to the permissions granted by the Shiro realm may take this "
+          + "long to take effect. Decisions are not cached if zero.")
+  private static final Arg<Amount<Long, Time>> SHIRO_AUTHORIZATION_CACHE_TTL =
+      Arg.create(Amount.of(0L, Time.SECONDS));
+
   private final HttpAuthenticationMechanism mechanism;
   private final Set<Module> shiroConfigurationModules;
   private final Optional<Key<? extends Filter>> shiroAfterAuthFilterKey;
+  private final Amount<Long, Time> authorizationCacheTtl;
 
   public HttpSecurityModule() {
     this(
         HTTP_AUTHENTICATION_MECHANISM.get(),
         SHIRO_REALM_MODULE.get(),
-        SHIRO_AFTER_AUTH_FILTER.hasAppliedValue() ? Key.get(SHIRO_AFTER_AUTH_FILTER.get()) : null);
+        SHIRO_AFTER_AUTH_FILTER.hasAppliedValue() ? Key.get(SHIRO_AFTER_AUTH_FILTER.get()) : null,
+        SHIRO_AUTHORIZATION_CACHE_TTL.get());
   }
 
   @VisibleForTesting
@@ -130,17 +141,20 @@ public class HttpSecurityModule extends ServletModule {
 
     this(HttpAuthenticationMechanism.BASIC,
         ImmutableSet.of(shiroConfigurationModule),
-        shiroAfterAuthFilterKey);
+        shiroAfterAuthFilterKey,
+        Amount.of(0L, Time.SECONDS));
   }
 
   private HttpSecurityModule(
       HttpAuthenticationMechanism mechanism,
       Set<Module> shiroConfigurationModules,
-      Key<? extends Filter> shiroAfterAuthFilterKey) {
+      Key<? extends Filter> shiroAfterAuthFilterKey,
+      Amount<Long, Time> authorizationCacheTtl) {
 
     this.mechanism = requireNonNull(mechanism);
     this.shiroConfigurationModules = requireNonNull(shiroConfigurationModules);
     this.shiroAfterAuthFilterKey = Optional.ofNullable(shiroAfterAuthFilterKey);
+    this.authorizationCacheTtl = requireNonNull(authorizationCacheTtl);
   }
 
   @Override
@@ -242,7 +256,7 @@ public class HttpSecurityModule extends ServletModule {
         AURORA_SCHEDULER_MANAGER_SERVICE.or(AURORA_ADMIN_SERVICE),
         authenticatingInterceptor);
 
-    MethodInterceptor apiInterceptor = new ShiroAuthorizingParamInterceptor();
+    MethodInterceptor apiInterceptor = new ShiroAuthorizingParamInterceptor(authorizationCacheTtl);
     requestInjection(apiInterceptor);
     bindInterceptor(
         Matchers.subclassesOf(AuroraSchedulerManager.Iface.class),
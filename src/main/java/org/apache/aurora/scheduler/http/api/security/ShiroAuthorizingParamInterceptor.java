@@ -16,7 +16,9 @@ package org.apache.aurora.scheduler.http.api.security;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
@@ -25,6 +27,7 @@ import javax.inject.Provider;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -32,11 +35,13 @@ import com.google.common.collect.AbstractSequentialIterator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.gen.InstanceKey;
 import org.apache.aurora.gen.JobConfiguration;
@@ -54,6 +59,7 @@ import org.apache.aurora.scheduler.spi.Permissions;
 import org.apache.aurora.scheduler.storage.entities.IJobKey;
 import org.apache.aurora.scheduler.thrift.Responses;
 import org.apache.shiro.authz.Permission;
+import org.apache.shiro.subject.PrincipalCollection;
 import org.apache.shiro.subject.Subject;
 
 import static java.util.Objects.requireNonNull;
@@ -78,6 +84,10 @@ import static com.google.common.base.Preconditions.checkState;
  * permission (prefix + ":setInstances:role:env:name").
  *
  * <p>
+ * Authorization decisions may be cached for a configurable time, after which a changed realm
+ * configuration takes effect.
+ *
+ * <p>
  * It is important that this interceptor only be applied to methods returning
  * {@link org.apache.aurora.gen.Response} and that authentication is called before this interceptor
  * is invoked, otherwise this interceptor will not allow the invocation to proceed.
@@ -141,6 +151,14 @@ class ShiroAuthorizingParamInterceptor implements MethodInterceptor {
   @VisibleForTesting
   static final String SHIRO_BAD_REQUESTS = "shiro_bad_requests";
 
+  @VisibleForTesting
+  static final String SHIRO_AUTHORIZATION_CACHE_HITS = "shiro_authorization_cache_hits";
+
+  @VisibleForTesting
+  static final String SHIRO_AUTHORIZATION_CACHE_MISSES = "shiro_authorization_cache_misses";
+
+  private static final int MAX_CACHED_DECISIONS = 10000;
+
   /**
    * Return each method in the inheritance hierarchy of method in the order described by
    * {@link AuthorizingParam}.
@@ -177,7 +195,7 @@ class ShiroAuthorizingParamInterceptor implements MethodInterceptor {
     };
   }
 
-  private static Iterable<JobKeyGetter> annotatedParameterGetters(Method method) {
+  private static ImmutableList<JobKeyGetter> annotatedParameterGetters(Method method) {
     for (Method candidateMethod : getCandidateMethods(method)) {
       Parameter[] parameters = candidateMethod.getParameters();
       ImmutableList.Builder<JobKeyGetter> jobKeyGetters = ImmutableList.builder();
@@ -202,7 +220,7 @@ class ShiroAuthorizingParamInterceptor implements MethodInterceptor {
       }
 
       ImmutableList<JobKeyGetter> getters = jobKeyGetters.build();
-      if (!Iterables.isEmpty(getters)) {
+      if (!getters.isEmpty()) {
         return getters;
       }
     }
@@ -231,26 +249,29 @@ class ShiroAuthorizingParamInterceptor implements MethodInterceptor {
                     + Response.class.getName());
           }
 
-          Iterable<JobKeyGetter> getters = annotatedParameterGetters(method);
+          // The getters of a method are resolved once, so that a call only has to inspect the
+          // arguments at their indices.
+          ImmutableList<JobKeyGetter> getters = annotatedParameterGetters(method);
           return arguments -> {
-            Iterable<JobKeyGetter> nonNullArgGetters =
-                Iterables.filter(getters, getter -> arguments[getter.index] != null);
-            if (Iterables.isEmpty(nonNullArgGetters)) {
-              return Optional.absent();
-            } else {
-              if (Iterables.size(nonNullArgGetters) > 1) {
-                throw new IllegalStateException(
-                    "Too many non-null arguments annotated with "
-                        + AuthorizingParam.class.getName()
-                        + " passed to "
-                        + method.getName()
-                        + " of "
-                        + method.getDeclaringClass().getName());
+            JobKeyGetter nonNullArgGetter = null;
+            for (JobKeyGetter getter : getters) {
+              if (arguments[getter.index] != null) {
+                if (nonNullArgGetter != null) {
+                  throw new IllegalStateException(
+                      "Too many non-null arguments annotated with "
+                          + AuthorizingParam.class.getName()
+                          + " passed to "
+                          + method.getName()
+                          + " of "
+                          + method.getDeclaringClass().getName());
+                }
+                nonNullArgGetter = getter;
               }
-
-              JobKeyGetter getter = Iterables.getOnlyElement(nonNullArgGetters);
-              return getter.func.apply(arguments[getter.index]);
             }
+
+            return nonNullArgGetter == null
+                ? Optional.<JobKey>absent()
+                : nonNullArgGetter.func.apply(arguments[nonNullArgGetter.index]);
           };
         }
       };
@@ -258,11 +279,37 @@ class ShiroAuthorizingParamInterceptor implements MethodInterceptor {
   private final LoadingCache<Method, Function<Object[], Optional<JobKey>>> authorizingParamGetters =
       CacheBuilder.newBuilder().build(LOADER);
 
+  // Authorization decisions by the principals and permission they were made for.  Absent if
+  // decisions are not cached.
+  private final Optional<Cache<Authorization, Boolean>> decisions;
+  private final SlidingStats authorizationLatency =
+      new SlidingStats("shiro_authorization_checks", "nanos");
+
   private volatile boolean initialized;
 
   private Provider<Subject> subjectProvider;
   private AtomicLong authorizationFailures;
   private AtomicLong badRequests;
+  private AtomicLong decisionCacheHits;
+  private AtomicLong decisionCacheMisses;
+
+  /**
+   * Creates an interceptor that caches authorization decisions.
+   *
+   * @param decisionCacheTtl Time for which an authorization decision is reused for further calls
+   *                         by the same principals.  Decisions are not cached if zero.
+   */
+  ShiroAuthorizingParamInterceptor(Amount<Long, Time> decisionCacheTtl) {
+    long ttlNanos = decisionCacheTtl.as(Time.NANOSECONDS);
+    if (ttlNanos > 0) {
+      decisions = Optional.of(CacheBuilder.newBuilder()
+          .maximumSize(MAX_CACHED_DECISIONS)
+          .expireAfterWrite(ttlNanos, TimeUnit.NANOSECONDS)
+          .<Authorization, Boolean>build());
+    } else {
+      decisions = Optional.absent();
+    }
+  }
 
   @Inject
   void initialize(Provider<Subject> newSubjectProvider, StatsProvider statsProvider) {
@@ -271,6 +318,8 @@ class ShiroAuthorizingParamInterceptor implements MethodInterceptor {
     this.subjectProvider = requireNonNull(newSubjectProvider);
     authorizationFailures = statsProvider.makeCounter(SHIRO_AUTHORIZATION_FAILURES);
     badRequests = statsProvider.makeCounter(SHIRO_BAD_REQUESTS);
+    decisionCacheHits = statsProvider.makeCounter(SHIRO_AUTHORIZATION_CACHE_HITS);
+    decisionCacheMisses = statsProvider.makeCounter(SHIRO_AUTHORIZATION_CACHE_MISSES);
 
     initialized = true;
   }
@@ -293,7 +342,7 @@ class ShiroAuthorizingParamInterceptor implements MethodInterceptor {
         .transform(IJobKey::build);
     if (jobKey.isPresent() && JobKeys.isValid(jobKey.get())) {
       Permission targetPermission = makeTargetPermission(method.getName(), jobKey.get());
-      if (subject.isPermitted(targetPermission)) {
+      if (isPermitted(subject, targetPermission)) {
         return invocation.proceed();
       } else {
         authorizationFailures.incrementAndGet();
@@ -311,6 +360,58 @@ class ShiroAuthorizingParamInterceptor implements MethodInterceptor {
     }
   }
 
+  private boolean isPermitted(Subject subject, Permission permission) {
+    long start = System.nanoTime();
+    try {
+      if (!decisions.isPresent()) {
+        return subject.isPermitted(permission);
+      }
+
+      PrincipalCollection principals = subject.getPrincipals();
+      if (principals == null) {
+        return subject.isPermitted(permission);
+      }
+
+      Authorization authorization = new Authorization(principals, permission);
+      Boolean permitted = decisions.get().getIfPresent(authorization);
+      if (permitted == null) {
+        decisionCacheMisses.incrementAndGet();
+        permitted = subject.isPermitted(permission);
+        decisions.get().put(authorization, permitted);
+      } else {
+        decisionCacheHits.incrementAndGet();
+      }
+      return permitted;
+    } finally {
+      authorizationLatency.accumulate(System.nanoTime() - start);
+    }
+  }
+
+  private static final class Authorization {
+    private final PrincipalCollection principals;
+    private final Permission permission;
+
+    Authorization(PrincipalCollection principals, Permission permission) {
+      this.principals = principals;
+      this.permission = permission;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Authorization)) {
+        return false;
+      }
+
+      Authorization other = (Authorization) o;
+      return principals.equals(other.principals) && permission.equals(other.permission);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(principals, permission);
+    }
+  }
+
   @VisibleForTesting
   LoadingCache<Method, Function<Object[], Optional<JobKey>>> getAuthorizingParamGetters() {
     return authorizingParamGetters;
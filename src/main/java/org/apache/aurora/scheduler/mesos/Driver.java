@@ -14,6 +14,9 @@
 package org.apache.aurora.scheduler.mesos;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.google.common.util.concurrent.Service;
 
@@ -41,6 +44,17 @@ public interface Driver extends Service {
    */
   void acceptOffers(OfferID offerId, Collection<Operation> operations, Filters filter);
 
+  /**
+   * Performs operations on several offers, eg launching the tasks matched against offers in a
+   * scheduling round.  Offers are accepted independently, a failure to accept one offer does not
+   * affect the others.
+   *
+   * @param operations Operations to perform, keyed by the ID of the offer to perform them on.
+   * @param filter offer filter applied to unused resources in these offers.
+   * @return IDs of the offers that were accepted.
+   */
+  Set<OfferID> acceptOffers(Map<OfferID, List<Operation>> operations, Filters filter);
+
   /**
    * Declines a resource offer.
    *
@@ -49,6 +63,14 @@ public interface Driver extends Service {
    */
   void declineOffer(OfferID offerId, Filters filter);
 
+  /**
+   * Declines several resource offers.
+   *
+   * @param offerIds IDs of the offers to decline.
+   * @param filter offer filter applied to these declined offers.
+   */
+  void declineOffers(Collection<OfferID> offerIds, Filters filter);
+
   /**
    * Sends a kill task request for the given {@code taskId} to the mesos master.
    *
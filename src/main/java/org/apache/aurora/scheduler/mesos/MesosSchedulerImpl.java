@@ -230,6 +230,7 @@ public class MesosSchedulerImpl implements Scheduler {
   public void statusUpdate(SchedulerDriver driver, TaskStatus status) {
     logStatusUpdate(log, status);
     eventSink.post(new TaskStatusReceived(
+        status.getTaskId().getValue(),
         status.getState(),
         Optional.fromNullable(status.getSource()),
         status.hasReason() ? Optional.of(status.getReason()) : Optional.absent(),
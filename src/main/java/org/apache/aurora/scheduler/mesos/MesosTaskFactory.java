@@ -13,25 +13,34 @@
  */
 package org.apache.aurora.scheduler.mesos;
 
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
 import com.google.protobuf.ByteString;
 
 import org.apache.aurora.Protobufs;
 import org.apache.aurora.codec.ThriftBinaryCodec;
+import org.apache.aurora.gen.AssignedTask;
 import org.apache.aurora.scheduler.TierManager;
 import org.apache.aurora.scheduler.base.JobKeys;
 import org.apache.aurora.scheduler.base.SchedulerException;
-import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
+import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
 import org.apache.aurora.scheduler.resources.AcceptedOffer;
 import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceManager;
@@ -42,6 +51,7 @@ import org.apache.aurora.scheduler.storage.entities.IDockerImage;
 import org.apache.aurora.scheduler.storage.entities.IImage;
 import org.apache.aurora.scheduler.storage.entities.IJobKey;
 import org.apache.aurora.scheduler.storage.entities.IMesosContainer;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.IServerInfo;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.apache.mesos.Protos;
@@ -57,11 +67,17 @@ import org.apache.mesos.Protos.Port;
 import org.apache.mesos.Protos.Resource;
 import org.apache.mesos.Protos.TaskID;
 import org.apache.mesos.Protos.TaskInfo;
+import org.apache.thrift.TException;
+import org.apache.thrift.protocol.TField;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TType;
+import org.apache.thrift.transport.TIOStreamTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static java.util.Objects.requireNonNull;
 
+import static org.apache.aurora.gen.ScheduleStatus.PENDING;
 import static org.apache.aurora.gen.apiConstants.TASK_FILESYSTEM_MOUNT_POINT;
 
 /**
@@ -79,8 +95,22 @@ public interface MesosTaskFactory {
    */
   TaskInfo createFrom(IAssignedTask task, Offer offer) throws SchedulerException;
 
+  /**
+   * A task factory that caches the parts of a {@link TaskInfo} that only depend on the task
+   * configuration.
+   * <p>
+   * A template is built the first time a task of a {@link TaskGroupKey} with pending tasks is
+   * launched, and reused for every other instance of the group.  Only per-instance fields (task
+   * ID, instance ID, ports, agent and resources) are filled in at launch time.  Templates are
+   * evicted once the last pending task of their group leaves the {@code PENDING} state.
+   * <p>
+   * Pending tasks are counted per group from task state change events.  Those events may be
+   * delivered out of order, so a departure from {@code PENDING} may be counted before the arrival
+   * it follows.  The count may then briefly be negative, and a template is only cached while it
+   * is positive.
+   */
   // TODO(wfarner): Move this class to its own file to reduce visibility to package private.
-  class MesosTaskFactoryImpl implements MesosTaskFactory {
+  class MesosTaskFactoryImpl implements MesosTaskFactory, EventSubscriber {
     private static final Logger LOG = LoggerFactory.getLogger(MesosTaskFactoryImpl.class);
 
     private static final String AURORA_LABEL_PREFIX = "org.apache.aurora";
@@ -99,9 +129,16 @@ public interface MesosTaskFactory {
     @VisibleForTesting
     static final String TIER_LABEL = AURORA_LABEL_PREFIX + ".tier";
 
+    private static final ByteString THRIFT_FIELD_STOP =
+        ByteString.copyFrom(new byte[] {TType.STOP});
+
     private final ExecutorSettings executorSettings;
     private final TierManager tierManager;
     private final IServerInfo serverInfo;
+    // Counts and templates are only changed within compute calls, making each change atomic with
+    // the check of the count it depends on.
+    private final ConcurrentMap<TaskGroupKey, PendingGroup> pendingGroups =
+        Maps.newConcurrentMap();
 
     @Inject
     MesosTaskFactoryImpl(
@@ -127,8 +164,8 @@ public interface MesosTaskFactory {
       return getJobSourceName(task.getJob());
     }
 
-    private static String getExecutorName(IAssignedTask task) {
-      return task.getTask().getExecutorConfig().getName();
+    private static String getExecutorName(ITaskConfig task) {
+      return task.getExecutorConfig().getName();
     }
 
     @VisibleForTesting
@@ -141,13 +178,66 @@ public interface MesosTaskFactory {
       return String.join(".", job.getName(), job.getEnvironment(), job.getRole());
     }
 
-    private static byte[] serializeTask(IAssignedTask task) throws SchedulerException {
+    /**
+     * Encodes the {@code task} field of an {@link AssignedTask}, including its field header.
+     *
+     * @param config Task configuration to encode.
+     * @return Encoded field.
+     * @throws SchedulerException If the configuration could not be encoded.
+     */
+    private static ByteString serializeConfigField(ITaskConfig config) throws SchedulerException {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      TProtocol protocol =
+          ThriftBinaryCodec.PROTOCOL_FACTORY.getProtocol(new TIOStreamTransport(out));
       try {
-        return ThriftBinaryCodec.encode(task.newBuilder());
+        protocol.writeFieldBegin(new TField(
+            AssignedTask._Fields.TASK.getFieldName(),
+            TType.STRUCT,
+            AssignedTask._Fields.TASK.getThriftFieldId()));
+        config.newBuilder().write(protocol);
+        protocol.writeFieldEnd();
+      } catch (TException e) {
+        LOG.error("Unable to serialize task config.", e);
+        throw new SchedulerException("Internal error.", e);
+      }
+      return ByteString.copyFrom(out.toByteArray());
+    }
+
+    /**
+     * Encodes an assigned task, splicing in a pre-encoded task configuration.  Thrift decoders
+     * accept struct fields in any order, so the configuration is appended after the per-instance
+     * fields rather than re-encoding it for every instance.
+     *
+     * @param task Task to encode.
+     * @param configField Encoded configuration of the task, as produced by
+     *     {@link #serializeConfigField(ITaskConfig)}.
+     * @return Encoded task.
+     * @throws SchedulerException If the task could not be encoded.
+     */
+    @VisibleForTesting
+    static ByteString serializeTask(IAssignedTask task, ByteString configField)
+        throws SchedulerException {
+
+      AssignedTask instance = new AssignedTask()
+          .setTaskId(task.getTaskId())
+          .setSlaveId(task.getSlaveId())
+          .setSlaveHost(task.getSlaveHost())
+          .setAssignedPorts(task.getAssignedPorts())
+          .setInstanceId(task.getInstanceId());
+
+      byte[] encoded;
+      try {
+        encoded = ThriftBinaryCodec.encodeNonNull(instance);
       } catch (ThriftBinaryCodec.CodingException e) {
         LOG.error("Unable to serialize task.", e);
         throw new SchedulerException("Internal error.", e);
       }
+
+      // Strip the trailing field stop of the per-instance fields, the config field goes in its
+      // place.
+      return ByteString.copyFrom(encoded, 0, encoded.length - 1)
+          .concat(configField)
+          .concat(THRIFT_FIELD_STOP);
     }
 
     @Override
@@ -156,12 +246,13 @@ public interface MesosTaskFactory {
       requireNonNull(offer);
 
       ITaskConfig config = task.getTask();
+      TaskTemplate template = getTemplate(config);
 
       // Docker-based tasks don't need executors
       ResourceBag executorOverhead = ResourceBag.EMPTY;
       if (config.isSetExecutorConfig()) {
         executorOverhead =
-            executorSettings.getExecutorOverhead(getExecutorName(task)).orElse(ResourceBag.EMPTY);
+            executorSettings.getExecutorOverhead(getExecutorName(config)).orElse(ResourceBag.EMPTY);
       }
 
       AcceptedOffer acceptedOffer;
@@ -181,51 +272,122 @@ public interface MesosTaskFactory {
           "Setting task resources to {}",
           Iterables.transform(resources, Protobufs::toString));
 
-      TaskInfo.Builder taskBuilder = TaskInfo.newBuilder()
-          .setName(JobKeys.canonicalString(Tasks.getJob(task)))
+      TaskInfo.Builder taskBuilder = template.task.toBuilder()
           .setTaskId(TaskID.newBuilder().setValue(task.getTaskId()))
           .setSlaveId(offer.getSlaveId())
           .addAllResources(resources);
 
+      if (executorSettings.shouldPopulateDiscoverInfo()) {
+        configureDiscoveryPorts(task, taskBuilder);
+      }
+
+      if (template.executor.isPresent()) {
+        taskBuilder.setExecutor(configureTaskForExecutor(
+            template.executor.get(),
+            task,
+            acceptedOffer));
+        taskBuilder.setData(serializeTask(task, template.configField));
+      }
+
+      return taskBuilder.build();
+    }
+
+    private TaskTemplate getTemplate(ITaskConfig config) {
+      // Only cache templates for groups with pending tasks, so that an entry is guaranteed to be
+      // evicted when the group drains.
+      PendingGroup group = pendingGroups.computeIfPresent(
+          TaskGroupKey.from(config),
+          (key, existing) -> existing.count > 0 && existing.template == null
+              ? new PendingGroup(existing.count, createTemplate(config))
+              : existing);
+      if (group != null && group.template != null) {
+        return group.template;
+      } else {
+        return createTemplate(config);
+      }
+    }
+
+    private TaskTemplate createTemplate(ITaskConfig config) throws SchedulerException {
+      TaskInfo.Builder taskBuilder = TaskInfo.newBuilder()
+          .setName(JobKeys.canonicalString(config.getJob()));
+
       configureTaskLabels(config, taskBuilder);
 
       if (executorSettings.shouldPopulateDiscoverInfo()) {
-        configureDiscoveryInfos(task, taskBuilder);
+        configureDiscoveryInfo(config, taskBuilder);
       }
 
+      Optional<ExecutorInfo> executor;
       if (config.getContainer().isSetMesos()) {
-        ExecutorInfo.Builder executorInfoBuilder = configureTaskForExecutor(task, acceptedOffer);
+        ExecutorInfo.Builder executorInfoBuilder = configureExecutorTemplate(config);
 
         Optional<ContainerInfo.Builder> containerInfoBuilder = configureTaskForImage(
-            task.getTask().getContainer().getMesos(),
-            getExecutorName(task));
+            config.getContainer().getMesos(),
+            getExecutorName(config));
         if (containerInfoBuilder.isPresent()) {
           executorInfoBuilder.setContainer(containerInfoBuilder.get());
         }
 
-        taskBuilder.setExecutor(executorInfoBuilder.build());
+        executor = Optional.of(executorInfoBuilder.buildPartial());
       } else if (config.getContainer().isSetDocker()) {
         IDockerContainer dockerContainer = config.getContainer().getDocker();
         if (config.isSetExecutorConfig()) {
-          ExecutorInfo.Builder execBuilder = configureTaskForExecutor(task, acceptedOffer)
+          executor = Optional.of(configureExecutorTemplate(config)
               .setContainer(getDockerContainerInfo(
                   dockerContainer,
-                  Optional.of(getExecutorName(task))));
-          taskBuilder.setExecutor(execBuilder.build());
+                  Optional.of(getExecutorName(config))))
+              .buildPartial());
         } else {
           LOG.warn("Running Docker-based task without an executor.");
           taskBuilder.setContainer(getDockerContainerInfo(dockerContainer, Optional.absent()))
               .setCommand(CommandInfo.newBuilder().setShell(false));
+          executor = Optional.absent();
         }
       } else {
         throw new SchedulerException("Task had no supported container set.");
       }
 
-      if (taskBuilder.hasExecutor()) {
-        taskBuilder.setData(ByteString.copyFrom(serializeTask(task)));
+      // Required per-instance fields are not yet populated, hence the partial builds.
+      return new TaskTemplate(
+          taskBuilder.buildPartial(),
+          executor,
+          executor.isPresent() ? serializeConfigField(config) : ByteString.EMPTY);
+    }
+
+    @VisibleForTesting
+    int getTemplateCount() {
+      return (int) pendingGroups.values().stream().filter(group -> group.template != null).count();
+    }
+
+    @Subscribe
+    public void taskChangedState(TaskStateChange stateChange) {
+      TaskGroupKey key = TaskGroupKey.from(stateChange.getTask().getAssignedTask().getTask());
+      if (stateChange.getNewState() == PENDING) {
+        updatePending(key, 1);
+      }
+      if (stateChange.getOldState().equals(Optional.of(PENDING))) {
+        updatePending(key, -1);
       }
+    }
 
-      return taskBuilder.build();
+    @Subscribe
+    public void tasksDeleted(TasksDeleted deleted) {
+      for (IScheduledTask task : deleted.getTasks()) {
+        if (task.getStatus() == PENDING) {
+          updatePending(TaskGroupKey.from(task.getAssignedTask().getTask()), -1);
+        }
+      }
+    }
+
+    private void updatePending(TaskGroupKey key, int delta) {
+      pendingGroups.compute(key, (k, existing) -> {
+        int count = (existing == null ? 0 : existing.count) + delta;
+        if (count == 0) {
+          return null;
+        }
+        // The template is dropped as soon as no tasks of the group are pending.
+        return new PendingGroup(count, count > 0 && existing != null ? existing.template : null);
+      });
     }
 
     private Optional<ContainerInfo.Builder> configureTaskForImage(
@@ -302,20 +464,37 @@ public interface MesosTaskFactory {
           .build();
     }
 
+    private ExecutorInfo.Builder configureExecutorTemplate(ITaskConfig config) {
+      ExecutorInfo.Builder builder =
+          executorSettings.getExecutorConfig(getExecutorName(config)).get()
+              .getExecutor()
+              .toBuilder();
+
+      //TODO: (rdelvalle) add output_file when Aurora's Mesos dep is updated (MESOS-4735)
+      List<CommandInfo.URI> mesosFetcherUris = config.getMesosFetcherUris().stream()
+          .map(u -> Protos.CommandInfo.URI.newBuilder().setValue(u.getValue())
+              .setExecutable(false)
+              .setExtract(u.isExtract())
+              .setCache(u.isCache()).build())
+          .collect(Collectors.toList());
+
+      builder.setCommand(builder.getCommand().toBuilder().addAllUris(mesosFetcherUris));
+      return builder;
+    }
+
     @SuppressWarnings("deprecation") // we set the source field for backwards compat.
-    private ExecutorInfo.Builder configureTaskForExecutor(
+    private ExecutorInfo configureTaskForExecutor(
+        ExecutorInfo template,
         IAssignedTask task,
         AcceptedOffer acceptedOffer) {
 
       String sourceName = getInstanceSourceName(task.getTask(), task.getInstanceId());
 
-      ExecutorInfo.Builder builder =
-          executorSettings.getExecutorConfig(getExecutorName(task)).get()
-          .getExecutor()
-          .toBuilder()
+      ExecutorInfo.Builder builder = template.toBuilder()
           .setExecutorId(getExecutorId(
               task.getTaskId(),
-              executorSettings.getExecutorConfig(getExecutorName(task)).get().getTaskPrefix()))
+              executorSettings.getExecutorConfig(getExecutorName(task.getTask())).get()
+                  .getTaskPrefix()))
           .setSource(sourceName)
           .setLabels(
               Labels.newBuilder().addLabels(
@@ -323,22 +502,12 @@ public interface MesosTaskFactory {
                       .setKey(SOURCE_LABEL)
                       .setValue(sourceName)));
 
-      //TODO: (rdelvalle) add output_file when Aurora's Mesos dep is updated (MESOS-4735)
-      List<CommandInfo.URI> mesosFetcherUris = task.getTask().getMesosFetcherUris().stream()
-          .map(u -> Protos.CommandInfo.URI.newBuilder().setValue(u.getValue())
-              .setExecutable(false)
-              .setExtract(u.isExtract())
-              .setCache(u.isCache()).build())
-          .collect(Collectors.toList());
-
-      builder.setCommand(builder.getCommand().toBuilder().addAllUris(mesosFetcherUris));
-
       Iterable<Resource> executorResources = acceptedOffer.getExecutorResources();
       LOG.debug(
           "Setting executor resources to {}",
           Iterables.transform(executorResources, Protobufs::toString));
       builder.clearResources().addAllResources(executorResources);
-      return builder;
+      return builder.build();
     }
 
     private void configureTaskLabels(ITaskConfig config, TaskInfo.Builder taskBuilder) {
@@ -353,13 +522,17 @@ public interface MesosTaskFactory {
       taskBuilder.setLabels(labelsBuilder);
     }
 
-    private void configureDiscoveryInfos(IAssignedTask task, TaskInfo.Builder taskBuilder) {
+    private void configureDiscoveryInfo(ITaskConfig config, TaskInfo.Builder taskBuilder) {
       DiscoveryInfo.Builder builder = taskBuilder.getDiscoveryBuilder();
       builder.setVisibility(DiscoveryInfo.Visibility.CLUSTER);
-      builder.setName(getInverseJobSourceName(task.getTask().getJob()));
-      builder.setEnvironment(task.getTask().getJob().getEnvironment());
+      builder.setName(getInverseJobSourceName(config.getJob()));
+      builder.setEnvironment(config.getJob().getEnvironment());
       // A good sane choice for default location is current Aurora cluster name.
       builder.setLocation(serverInfo.getClusterName());
+    }
+
+    private static void configureDiscoveryPorts(IAssignedTask task, TaskInfo.Builder taskBuilder) {
+      DiscoveryInfo.Builder builder = taskBuilder.getDiscoveryBuilder();
       for (Map.Entry<String, Integer> entry : task.getAssignedPorts().entrySet()) {
         builder.getPortsBuilder().addPorts(
             Port.newBuilder()
@@ -370,5 +543,27 @@ public interface MesosTaskFactory {
       }
     }
 
+    private static final class PendingGroup {
+      private final int count;
+      @Nullable
+      private final TaskTemplate template;
+
+      PendingGroup(int count, @Nullable TaskTemplate template) {
+        this.count = count;
+        this.template = template;
+      }
+    }
+
+    private static final class TaskTemplate {
+      private final TaskInfo task;
+      private final Optional<ExecutorInfo> executor;
+      private final ByteString configField;
+
+      TaskTemplate(TaskInfo task, Optional<ExecutorInfo> executor, ByteString configField) {
+        this.task = requireNonNull(task);
+        this.executor = requireNonNull(executor);
+        this.configField = requireNonNull(configField);
+      }
+    }
   }
 }
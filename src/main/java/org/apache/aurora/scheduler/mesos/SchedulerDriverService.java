@@ -14,6 +14,9 @@
 package org.apache.aurora.scheduler.mesos;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -21,10 +24,12 @@ import javax.inject.Inject;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.AbstractIdleService;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.SettableFuture;
 
+import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.common.stats.Stats;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.mesos.Protos;
@@ -49,6 +54,10 @@ class SchedulerDriverService extends AbstractIdleService implements Driver {
   private static final Logger LOG = LoggerFactory.getLogger(SchedulerDriverService.class);
 
   private final AtomicLong killFailures = Stats.exportLong("scheduler_driver_kill_failures");
+  private final SlidingStats acceptBatches =
+      new SlidingStats("scheduler_driver_accept_offers_batch", "offers");
+  private final SlidingStats declineBatches =
+      new SlidingStats("scheduler_driver_decline_offers_batch", "offers");
   private final DriverFactory driverFactory;
 
   private final Scheduler scheduler;
@@ -127,12 +136,47 @@ class SchedulerDriverService extends AbstractIdleService implements Driver {
         .acceptOffers(ImmutableList.of(offerId), operations, filter);
   }
 
+  @Override
+  public Set<Protos.OfferID> acceptOffers(
+      Map<Protos.OfferID, List<Operation>> operations,
+      Protos.Filters filter) {
+
+    ensureRunning();
+
+    // Accepting several offers in one driver call merges them, which is only valid for offers of
+    // the same agent.  Offers are therefore accepted individually, against a single driver lookup.
+    // Since a failed accept does not undo the accepts before it, the outcome of each is reported.
+    SchedulerDriver driver = Futures.getUnchecked(driverFuture);
+    ImmutableSet.Builder<Protos.OfferID> accepted = ImmutableSet.builder();
+    for (Map.Entry<Protos.OfferID, List<Operation>> entry : operations.entrySet()) {
+      try {
+        driver.acceptOffers(ImmutableList.of(entry.getKey()), entry.getValue(), filter);
+        accepted.add(entry.getKey());
+      } catch (RuntimeException e) {
+        LOG.error("Failed to accept offer " + entry.getKey().getValue(), e);
+      }
+    }
+    acceptBatches.accumulate(operations.size());
+    return accepted.build();
+  }
+
   @Override
   public void declineOffer(Protos.OfferID offerId, Protos.Filters filter) {
     ensureRunning();
     Futures.getUnchecked(driverFuture).declineOffer(offerId, filter);
   }
 
+  @Override
+  public void declineOffers(Collection<Protos.OfferID> offerIds, Protos.Filters filter) {
+    ensureRunning();
+
+    SchedulerDriver driver = Futures.getUnchecked(driverFuture);
+    for (Protos.OfferID offerId : offerIds) {
+      driver.declineOffer(offerId, filter);
+    }
+    declineBatches.accumulate(offerIds.size());
+  }
+
   @Override
   public void killTask(String taskId) {
     ensureRunning();
@@ -13,7 +13,9 @@
  */
 package org.apache.aurora.scheduler.offers;
 
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentSkipListSet;
@@ -27,6 +29,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
@@ -35,13 +38,13 @@ import com.google.common.collect.Ordering;
 import com.google.common.eventbus.Subscribe;
 
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
+import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.stats.Stats;
 import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.common.util.Clock;
 import org.apache.aurora.gen.MaintenanceMode;
 import org.apache.aurora.scheduler.HostOffer;
-import org.apache.aurora.scheduler.async.AsyncModule.AsyncExecutor;
-import org.apache.aurora.scheduler.async.DelayExecutor;
 import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.events.PubsubEvent.DriverDisconnected;
 import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
@@ -92,13 +95,16 @@ public interface OfferManager extends EventSubscriber {
   void banOffer(OfferID offerId, TaskGroupKey groupKey);
 
   /**
-   * Launches the task matched against the offer.
+   * Launches the tasks matched against offers with a single driver call.  Tasks matched against an
+   * offer that is no longer held, or whose offer could not be accepted, are not launched.
    *
-   * @param offerId Matched offer ID.
-   * @param task Matched task info.
-   * @throws LaunchException If there was an error launching the task.
+   * @param tasks Matched task infos, keyed by the ID of the offer they were matched against.
+   * @return IDs of the offers that tasks were launched on.  Tasks of all other offers were not
+   *     launched.
+   * @throws LaunchException If the driver could not be used to launch tasks, in which case none of
+   *     them were launched.
    */
-  void launchTask(OfferID offerId, Protos.TaskInfo task) throws LaunchException;
+  Set<OfferID> launchTasks(Multimap<OfferID, Protos.TaskInfo> tasks) throws LaunchException;
 
   /**
    * Notifies the offer queue that a host's attributes have changed.
@@ -148,13 +154,27 @@ public interface OfferManager extends EventSubscriber {
     @VisibleForTesting
     static final Logger LOG = LoggerFactory.getLogger(OfferManagerImpl.class);
 
+    /**
+     * Resolution of offer returns.  Offers are returned on the first tick after their return
+     * delay.
+     */
+    static final Amount<Long, Time> RETURN_TICK = Amount.of(1L, Time.SECONDS);
+
+    // One revolution of the wheel spans the default offer hold time and jitter window, so most
+    // buckets only hold offers that are due when the bucket is visited.
+    private static final int RETURN_TICKS_PER_WHEEL = 512;
+
+    @VisibleForTesting
+    static final String OFFER_RETURNS_PENDING = "offer_returns_pending";
+    @VisibleForTesting
+    static final String OFFER_RETURN_TICK_LAG = "offer_return_tick_lag_ms";
+
     private final HostOffers hostOffers;
     private final AtomicLong offerRaces = Stats.exportLong("offer_accept_races");
 
     private final Driver driver;
     private final OfferSettings offerSettings;
-    private final DelayExecutor executor;
-    private final StatsProvider statsProvider;
+    private final TimingWheel<OfferID> returnWheel;
 
     @Inject
     @VisibleForTesting
@@ -162,13 +182,14 @@ public interface OfferManager extends EventSubscriber {
         Driver driver,
         OfferSettings offerSettings,
         StatsProvider statsProvider,
-        @AsyncExecutor DelayExecutor executor) {
+        Clock clock) {
 
       this.driver = requireNonNull(driver);
       this.offerSettings = requireNonNull(offerSettings);
-      this.executor = requireNonNull(executor);
-      this.statsProvider = requireNonNull(statsProvider);
       this.hostOffers = new HostOffers(statsProvider);
+      this.returnWheel = new TimingWheel<>(clock, RETURN_TICK, RETURN_TICKS_PER_WHEEL);
+      statsProvider.makeGauge(OFFER_RETURNS_PENDING, returnWheel::size);
+      statsProvider.makeGauge(OFFER_RETURN_TICK_LAG, returnWheel::getLagMillis);
     }
 
     @Override
@@ -188,9 +209,26 @@ public interface OfferManager extends EventSubscriber {
         removeAndDecline(sameSlave.get().getOffer().getId());
       } else {
         hostOffers.add(offer);
-        executor.execute(
-            () -> removeAndDecline(offer.getOffer().getId()),
-            offerSettings.getOfferReturnDelay());
+        returnWheel.schedule(offer.getOffer().getId(), offerSettings.getOfferReturnDelay());
+      }
+    }
+
+    /**
+     * Declines the offers whose return delay has passed.  This needs to be called once per
+     * {@link #RETURN_TICK}.
+     */
+    public void returnExpiredOffers() {
+      ImmutableList.Builder<OfferID> expired = ImmutableList.builder();
+      for (OfferID id : returnWheel.advance()) {
+        if (hostOffers.remove(id)) {
+          expired.add(id);
+        }
+      }
+
+      List<OfferID> declines = expired.build();
+      if (!declines.isEmpty()) {
+        LOG.debug("Declining offers {}", declines);
+        driver.declineOffers(declines, getOfferFilter());
       }
     }
 
@@ -221,6 +259,7 @@ public interface OfferManager extends EventSubscriber {
 
       // The small risk of inconsistency is acceptable here - if we have an accept/remove race
       // on an offer, the master will mark the task as LOST and it will be retried.
+      returnWheel.cancel(offerId);
       return hostOffers.remove(offerId);
     }
 
@@ -261,6 +300,7 @@ public interface OfferManager extends EventSubscriber {
     public void driverDisconnected(DriverDisconnected event) {
       LOG.info("Clearing stale offers since the driver is disconnected.");
       hostOffers.clear();
+      returnWheel.clear();
     }
 
     /**
@@ -354,30 +394,42 @@ public interface OfferManager extends EventSubscriber {
       hostOffers.addStaticGroupBan(offerId, groupKey);
     }
 
-    @Timed("offer_manager_launch_task")
+    @Timed("offer_manager_launch_tasks")
     @Override
-    public void launchTask(OfferID offerId, Protos.TaskInfo task) throws LaunchException {
-      // Guard against an offer being removed after we grabbed it from the iterator.
-      // If that happens, the offer will not exist in hostOffers, and we can immediately
-      // send it back to LOST for quick reschedule.
-      // Removing while iterating counts on the use of a weakly-consistent iterator being used,
-      // which is a feature of ConcurrentSkipListSet.
-      if (hostOffers.remove(offerId)) {
-        try {
-          Operation launch = Operation.newBuilder()
+    public Set<OfferID> launchTasks(Multimap<OfferID, Protos.TaskInfo> tasks)
+        throws LaunchException {
+
+      ImmutableMap.Builder<OfferID, List<Operation>> operations = ImmutableMap.builder();
+      for (Map.Entry<OfferID, Collection<Protos.TaskInfo>> entry : tasks.asMap().entrySet()) {
+        // Guard against an offer being removed after we grabbed it from the iterator.
+        // If that happens, the offer will not exist in hostOffers, and its tasks can immediately
+        // be sent back to LOST for quick reschedule.
+        // Removing while iterating counts on the use of a weakly-consistent iterator being used,
+        // which is a feature of ConcurrentSkipListSet.
+        if (removeFromHostOffers(entry.getKey())) {
+          operations.put(entry.getKey(), ImmutableList.of(Operation.newBuilder()
               .setType(Operation.Type.LAUNCH)
-              .setLaunch(Operation.Launch.newBuilder().addTaskInfos(task))
-              .build();
-          driver.acceptOffers(offerId, ImmutableList.of(launch), getOfferFilter());
-        } catch (IllegalStateException e) {
-          // TODO(William Farner): Catch only the checked exception produced by Driver
-          // once it changes from throwing IllegalStateException when the driver is not yet
-          // registered.
-          throw new LaunchException("Failed to launch task.", e);
+              .setLaunch(Operation.Launch.newBuilder().addAllTaskInfos(entry.getValue()))
+              .build()));
+        } else {
+          offerRaces.incrementAndGet();
+          LOG.warn("Offer {} no longer exists in offer queue, likely data race.",
+              entry.getKey().getValue());
         }
-      } else {
-        offerRaces.incrementAndGet();
-        throw new LaunchException("Offer no longer exists in offer queue, likely data race.");
+      }
+
+      Map<OfferID, List<Operation>> launches = operations.build();
+      if (launches.isEmpty()) {
+        return ImmutableSet.of();
+      }
+
+      try {
+        return driver.acceptOffers(launches, getOfferFilter());
+      } catch (IllegalStateException e) {
+        // TODO(William Farner): Catch only the checked exception produced by Driver
+        // once it changes from throwing IllegalStateException when the driver is not yet
+        // registered.
+        throw new LaunchException("Failed to launch tasks.", e);
       }
     }
   }
@@ -13,8 +13,10 @@
  */
 package org.apache.aurora.scheduler.offers;
 
+import javax.inject.Inject;
 import javax.inject.Singleton;
 
+import com.google.common.util.concurrent.AbstractScheduledService;
 import com.google.inject.AbstractModule;
 import com.google.inject.PrivateModule;
 
@@ -24,7 +26,12 @@ import org.apache.aurora.common.args.constraints.NotNegative;
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.util.Random;
+import org.apache.aurora.scheduler.SchedulerServicesModule;
 import org.apache.aurora.scheduler.events.PubsubEventModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * Binding module for resource offer management.
@@ -65,8 +72,50 @@ public class OffersModule extends AbstractModule {
         bind(OfferManager.class).to(OfferManager.OfferManagerImpl.class);
         bind(OfferManager.OfferManagerImpl.class).in(Singleton.class);
         expose(OfferManager.class);
+
+        Amount<Long, Time> tick = OfferManager.OfferManagerImpl.RETURN_TICK;
+        bind(AbstractScheduledService.Scheduler.class).toInstance(
+            AbstractScheduledService.Scheduler.newFixedRateSchedule(
+                tick.getValue(),
+                tick.getValue(),
+                tick.getUnit().getTimeUnit()));
+        bind(OfferReturnService.class).in(Singleton.class);
+        expose(OfferReturnService.class);
       }
     });
     PubsubEventModule.bindSubscriber(binder(), OfferManager.class);
+    SchedulerServicesModule.addSchedulerActiveServiceBinding(binder())
+        .to(OfferReturnService.class);
+  }
+
+  /**
+   * Returns offers whose hold time has passed, once per tick of the offer manager's return wheel.
+   */
+  static class OfferReturnService extends AbstractScheduledService {
+    private static final Logger LOG = LoggerFactory.getLogger(OfferReturnService.class);
+
+    private final OfferManager.OfferManagerImpl offerManager;
+    private final Scheduler schedule;
+
+    @Inject
+    OfferReturnService(OfferManager.OfferManagerImpl offerManager, Scheduler schedule) {
+      this.offerManager = requireNonNull(offerManager);
+      this.schedule = requireNonNull(schedule);
+    }
+
+    @Override
+    protected void runOneIteration() {
+      try {
+        offerManager.returnExpiredOffers();
+      } catch (RuntimeException e) {
+        // A failed iteration would terminate the service, leaving offers to be held forever.
+        LOG.error("Failed to return expired offers.", e);
+      }
+    }
+
+    @Override
+    protected Scheduler scheduler() {
+      return schedule;
+    }
   }
 }
@@ -0,0 +1,178 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.offers;
+
+import java.math.RoundingMode;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.math.LongMath;
+
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.util.Clock;
+
+import static java.util.Objects.requireNonNull;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * A hashed timing wheel that expires keys after a delay, with a resolution of one tick.
+ * <p>
+ * Keys are hashed into the bucket of the tick they expire on, so scheduling and cancelling a key
+ * take constant time, and expiring the keys of a tick only visits the bucket of that tick.  Keys
+ * that expire more than one revolution of the wheel ahead share their bucket with keys of earlier
+ * revolutions, and are skipped until their tick comes.
+ * <p>
+ * The wheel does not run on its own: {@link #advance()} needs to be called once per tick.
+ *
+ * @param <K> Key type.
+ */
+class TimingWheel<K> {
+  private final Clock clock;
+  private final long tickMillis;
+  // Expiry tick of each key in a bucket, in the order the keys were scheduled.
+  private final List<Map<K, Long>> buckets;
+  private final Map<K, Long> expiryTicks = Maps.newHashMap();
+  private long lastTick;
+  private long lastAdvanceMillis;
+  private volatile long lagMillis;
+
+  /**
+   * Creates a timing wheel.
+   *
+   * @param clock Clock to read the current time from.
+   * @param tick Duration of a tick.  Keys expire on the first tick at or after their delay.
+   * @param ticksPerWheel Number of buckets of the wheel.
+   */
+  TimingWheel(Clock clock, Amount<Long, Time> tick, int ticksPerWheel) {
+    this.clock = requireNonNull(clock);
+    this.tickMillis = tick.as(Time.MILLISECONDS);
+    checkArgument(tickMillis > 0, "Tick must be at least one millisecond.");
+    checkArgument(ticksPerWheel > 0, "A wheel needs at least one bucket.");
+
+    ImmutableList.Builder<Map<K, Long>> wheel = ImmutableList.builder();
+    for (int i = 0; i < ticksPerWheel; i++) {
+      wheel.add(Maps.newLinkedHashMap());
+    }
+    this.buckets = wheel.build();
+    this.lastAdvanceMillis = clock.nowMillis();
+    this.lastTick = lastAdvanceMillis / tickMillis;
+  }
+
+  private Map<K, Long> bucket(long tick) {
+    return buckets.get((int) (tick % buckets.size()));
+  }
+
+  /**
+   * Schedules a key to expire after a delay, replacing any expiry already scheduled for it.
+   *
+   * @param key Key to expire.
+   * @param delay Delay after which the key expires.
+   */
+  synchronized void schedule(K key, Amount<Long, Time> delay) {
+    requireNonNull(key);
+
+    cancel(key);
+    long expiryTick = LongMath.divide(
+        clock.nowMillis() + delay.as(Time.MILLISECONDS),
+        tickMillis,
+        RoundingMode.CEILING);
+    // Ticks that have already been processed will not be visited again.
+    expiryTick = Math.max(expiryTick, lastTick + 1);
+    expiryTicks.put(key, expiryTick);
+    bucket(expiryTick).put(key, expiryTick);
+  }
+
+  /**
+   * Cancels the expiry of a key.
+   *
+   * @param key Key to cancel.
+   * @return {@code true} if the key was scheduled to expire.
+   */
+  synchronized boolean cancel(K key) {
+    Long expiryTick = expiryTicks.remove(key);
+    if (expiryTick == null) {
+      return false;
+    }
+
+    bucket(expiryTick).remove(key);
+    return true;
+  }
+
+  /**
+   * Processes the ticks that passed since the previous call.
+   *
+   * @return Keys that expired on the processed ticks, which are no longer scheduled.
+   */
+  synchronized List<K> advance() {
+    long nowMillis = clock.nowMillis();
+    lagMillis = Math.max(0, nowMillis - lastAdvanceMillis - tickMillis);
+    lastAdvanceMillis = nowMillis;
+
+    long now = nowMillis / tickMillis;
+    if (now <= lastTick) {
+      return ImmutableList.of();
+    }
+
+    ImmutableList.Builder<K> expired = ImmutableList.builder();
+    // However many ticks passed, every bucket needs to be visited at most once.
+    long firstTick = Math.max(lastTick + 1, now - buckets.size() + 1);
+    for (long tick = firstTick; tick <= now; tick++) {
+      Iterator<Map.Entry<K, Long>> entries = bucket(tick).entrySet().iterator();
+      while (entries.hasNext()) {
+        Map.Entry<K, Long> entry = entries.next();
+        if (entry.getValue() <= now) {
+          expired.add(entry.getKey());
+          expiryTicks.remove(entry.getKey());
+          entries.remove();
+        }
+      }
+    }
+    lastTick = now;
+    return expired.build();
+  }
+
+  /**
+   * Cancels the expiry of all keys.
+   */
+  synchronized void clear() {
+    expiryTicks.clear();
+    for (Map<K, Long> bucket : buckets) {
+      bucket.clear();
+    }
+  }
+
+  /**
+   * Gets the number of keys scheduled to expire.
+   *
+   * @return Number of scheduled keys.
+   */
+  synchronized int size() {
+    return expiryTicks.size();
+  }
+
+  /**
+   * Gets how much later than one tick after its predecessor the most recent call to
+   * {@link #advance()} was made.
+   *
+   * @return Lag of the most recent tick, in milliseconds.
+   */
+  long getLagMillis() {
+    return lagMillis;
+  }
+}
@@ -29,10 +29,17 @@ public class ClusterStateImpl implements ClusterState, PubsubEvent.EventSubscrib
 
   private final Multimap<String, PreemptionVictim> victims = HashMultimap.create();
 
+  // The preemptor reads cluster state far more often than a single run changes it, so the
+  // immutable copy handed out to readers is reused until the next change.  Guarded by victims.
+  private ImmutableSetMultimap<String, PreemptionVictim> snapshot = ImmutableSetMultimap.of();
+
   @Override
   public Multimap<String, PreemptionVictim> getSlavesToActiveTasks() {
     synchronized (victims) {
-      return ImmutableSetMultimap.copyOf(victims);
+      if (snapshot == null) {
+        snapshot = ImmutableSetMultimap.copyOf(victims);
+      }
+      return snapshot;
     }
   }
 
@@ -41,10 +48,14 @@ public class ClusterStateImpl implements ClusterState, PubsubEvent.EventSubscrib
     synchronized (victims) {
       String slaveId = stateChange.getTask().getAssignedTask().getSlaveId();
       PreemptionVictim victim = PreemptionVictim.fromTask(stateChange.getTask().getAssignedTask());
+      boolean changed;
       if (Tasks.SLAVE_ASSIGNED_STATES.contains(stateChange.getNewState())) {
-        victims.put(slaveId, victim);
+        changed = victims.put(slaveId, victim);
       } else {
-        victims.remove(slaveId, victim);
+        changed = victims.remove(slaveId, victim);
+      }
+      if (changed) {
+        snapshot = null;
       }
     }
   }
@@ -32,7 +32,6 @@ import com.google.common.base.Predicates;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -181,7 +180,7 @@ public class PendingTaskProcessor implements Runnable {
 
   private List<TaskGroupKey> fetchIdlePendingGroups(StoreProvider store) {
     Multiset<TaskGroupKey> taskGroupCounts = HashMultiset.create(
-        FluentIterable.from(store.getTaskStore().fetchTasks(Query.statusScoped(PENDING)))
+        store.getTaskStore().fetchTasksLazily(Query.statusScoped(PENDING))
             .filter(Predicates.and(isIdleTask, Predicates.not(hasCachedSlot)))
             .transform(Functions.compose(ASSIGNED_TO_GROUP_KEY, IScheduledTask::getAssignedTask)));
 
@@ -15,6 +15,7 @@ package org.apache.aurora.scheduler.preemptor;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.IntPredicate;
 
 import javax.inject.Inject;
 
@@ -27,7 +28,6 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Ordering;
-import com.google.common.collect.Sets;
 
 import org.apache.aurora.scheduler.HostOffer;
 import org.apache.aurora.scheduler.TierManager;
@@ -36,7 +36,6 @@ import org.apache.aurora.scheduler.filter.AttributeAggregate;
 import org.apache.aurora.scheduler.filter.SchedulingFilter;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.ResourceRequest;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.UnusedResource;
-import org.apache.aurora.scheduler.filter.SchedulingFilter.Veto;
 import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceManager;
 import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
@@ -165,8 +164,21 @@ public interface PreemptionVictimFilter {
 
     // TODO(zmanji) Consider using Dominant Resource Fairness for ordering instead of the vector
     // ordering
-    private final Ordering<PreemptionVictim> resourceOrder =
-        ORDER.onResultOf(victimToResources).reverse();
+    private static final Ordering<SizedVictim> SIZED_ORDER =
+        ORDER.onResultOf((SizedVictim sized) -> sized.resources).reverse();
+
+    /**
+     * A victim paired with the resources it would free if preempted.
+     */
+    private static final class SizedVictim {
+      private final PreemptionVictim victim;
+      private final ResourceBag resources;
+
+      SizedVictim(PreemptionVictim victim, ResourceBag resources) {
+        this.victim = victim;
+        this.resources = resources;
+      }
+    }
 
     @Override
     public Optional<ImmutableSet<PreemptionVictim>> filterPreemptionVictims(
@@ -187,16 +199,13 @@ public interface PreemptionVictimFilter {
           .reduce((l, r) -> l.add(r))
           .orElse(EMPTY);
 
-      FluentIterable<PreemptionVictim> preemptableTasks = FluentIterable.from(possibleVictims)
-          .filter(preemptionFilter(pendingTask));
-
-      List<PreemptionVictim> sortedVictims = resourceOrder.immutableSortedCopy(preemptableTasks);
-      if (sortedVictims.isEmpty()) {
+      List<PreemptionVictim> preemptableTasks = FluentIterable.from(possibleVictims)
+          .filter(preemptionFilter(pendingTask))
+          .toList();
+      if (preemptableTasks.isEmpty()) {
         return Optional.absent();
       }
 
-      Set<PreemptionVictim> toPreemptTasks = Sets.newHashSet();
-
       Optional<IHostAttributes> attributes =
           storeProvider.getAttributeStore().getHostAttributes(Iterables.getOnlyElement(hosts));
 
@@ -205,27 +214,51 @@ public interface PreemptionVictimFilter {
         return Optional.absent();
       }
 
+      // Victim resources are computed once up front rather than on every comparison, and the
+      // sorted victims are paired with running totals so that any prefix can be evaluated without
+      // re-adding the victims before it.
+      List<SizedVictim> sortedVictims = SIZED_ORDER.immutableSortedCopy(
+          Iterables.transform(
+              preemptableTasks,
+              victim -> new SizedVictim(victim, victimToResources.apply(victim))));
+      ResourceBag[] prefixTotals = new ResourceBag[sortedVictims.size() + 1];
+      prefixTotals[0] = slackResources;
+      for (int i = 0; i < sortedVictims.size(); i++) {
+        prefixTotals[i + 1] = prefixTotals[i].add(sortedVictims.get(i).resources);
+      }
+
       ResourceBag overhead = pendingTask.isSetExecutorConfig()
           ? executorSettings.getExecutorOverhead(
               pendingTask.getExecutorConfig().getName()).orElse(EMPTY)
           : EMPTY;
-
-      ResourceBag totalResource = slackResources;
-      for (PreemptionVictim victim : sortedVictims) {
-        toPreemptTasks.add(victim);
-        totalResource = totalResource.add(victimToResources.apply(victim));
-        Set<Veto> vetoes = schedulingFilter.filter(
-            new UnusedResource(totalResource, attributes.get()),
-            new ResourceRequest(
-                pendingTask,
-                ResourceManager.bagFromResources(pendingTask.getResources()).add(overhead),
-                jobState));
-
-        if (vetoes.isEmpty()) {
-          return Optional.of(ImmutableSet.copyOf(toPreemptTasks));
+      ResourceRequest request = new ResourceRequest(
+          pendingTask,
+          ResourceManager.bagFromResources(pendingTask.getResources()).add(overhead),
+          jobState);
+      IntPredicate fits = count -> schedulingFilter.filter(
+          new UnusedResource(prefixTotals[count], attributes.get()),
+          request).isEmpty();
+
+      // Adding a victim only grows the available resources, so a prefix that fits stays fitting
+      // as it is extended.  This allows binary searching for the shortest fitting prefix instead
+      // of evaluating the scheduling filter once per victim.
+      int high = sortedVictims.size();
+      if (!fits.test(high)) {
+        return Optional.absent();
+      }
+      int low = 1;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (fits.test(mid)) {
+          high = mid;
+        } else {
+          low = mid + 1;
         }
       }
-      return Optional.absent();
+
+      return Optional.of(FluentIterable.from(sortedVictims.subList(0, high))
+          .transform(sized -> sized.victim)
+          .toSet());
     }
 
     /**
@@ -0,0 +1,278 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.quota;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.inject.Inject;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+
+import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.scheduler.base.Query;
+import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
+import org.apache.aurora.scheduler.resources.ResourceBag;
+import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
+import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
+import org.apache.aurora.scheduler.storage.entities.IJobKey;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+
+import static com.google.common.base.Predicates.compose;
+
+import static org.apache.aurora.scheduler.quota.QuotaManager.QUOTA_RESOURCES;
+import static org.apache.aurora.scheduler.resources.ResourceBag.EMPTY;
+
+/**
+ * A cached per-role view of active tasks used to compute quota consumption.
+ * <p>
+ * A role is loaded from storage the first time its consumption is needed within a storage write
+ * operation.  From then on, task state changes and deletions are applied to the cached view by the
+ * write operation that makes them, so that quota checks no longer need to scan every active task
+ * of the role while holding the write lock.
+ * <p>
+ * Since loads and updates only happen within write operations, which are serialized, the cached
+ * view always reflects the task store as seen by the current write operation.  Like the in-memory
+ * task store, the view is not rolled back if a write operation fails.  Read operations use a
+ * cached role if one exists, but never add a role to the cache: a read operation may observe a
+ * view of the task store that a concurrent write operation has already moved past.
+ */
+public class ConsumptionCache {
+
+  @VisibleForTesting
+  static final String HITS_STAT = "quota_consumption_cache_hits";
+  @VisibleForTesting
+  static final String MISSES_STAT = "quota_consumption_cache_misses";
+  @VisibleForTesting
+  static final String ROLES_STAT = "quota_consumption_cache_roles";
+
+  private final ConcurrentMap<String, RoleTasks> roles = Maps.newConcurrentMap();
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+
+  @Inject
+  public ConsumptionCache(StatsProvider statsProvider) {
+    hits = statsProvider.makeCounter(HITS_STAT);
+    misses = statsProvider.makeCounter(MISSES_STAT);
+    statsProvider.makeGauge(ROLES_STAT, roles::size);
+  }
+
+  /**
+   * Gets the cached view of a role's active tasks, loading it from storage and adding it to the
+   * cache if necessary.  This must only be called within a storage write operation.
+   *
+   * @param role Role to get tasks for.
+   * @param storeProvider Store provider of the enclosing write operation.
+   * @return Active tasks of the role.
+   */
+  RoleTasks get(String role, StoreProvider storeProvider) {
+    RoleTasks cached = roles.get(role);
+    if (cached != null) {
+      hits.incrementAndGet();
+      return cached;
+    }
+
+    misses.incrementAndGet();
+    return roles.computeIfAbsent(role, key -> RoleTasks.load(key, storeProvider));
+  }
+
+  /**
+   * Gets the cached view of a role's active tasks, or reads them from storage without adding the
+   * role to the cache if it is not cached.
+   *
+   * @param role Role to get tasks for.
+   * @param storeProvider Store provider to read the role from on a cache miss.
+   * @return Active tasks of the role.
+   */
+  RoleTasks read(String role, StoreProvider storeProvider) {
+    RoleTasks cached = roles.get(role);
+    if (cached != null) {
+      hits.incrementAndGet();
+      return cached;
+    }
+
+    misses.incrementAndGet();
+    return RoleTasks.load(role, storeProvider);
+  }
+
+  /**
+   * Drops a role from the cache, to be reloaded from storage when it is next needed.  This must
+   * be called within the write operation that modified the role's tasks in a way not covered by
+   * {@link #taskChangedState} and {@link #tasksDeleted}.
+   *
+   * @param role Role to drop.
+   */
+  public void invalidate(String role) {
+    roles.remove(role);
+  }
+
+  /**
+   * Gets the roles currently held in the cache.
+   *
+   * @return Cached roles.
+   */
+  public Set<String> getCachedRoles() {
+    return ImmutableSet.copyOf(roles.keySet());
+  }
+
+  /**
+   * Applies a task state change to the cached view.  This must be called within the write
+   * operation that changed the task.
+   *
+   * @param stateChange Task state change.
+   */
+  public void taskChangedState(TaskStateChange stateChange) {
+    IScheduledTask task = stateChange.getTask();
+    // Only roles that are already cached are updated, a role that has not been loaded yet will
+    // pick up the change when it is read from storage.
+    roles.computeIfPresent(Tasks.getJob(task).getRole(), (role, roleTasks) -> {
+      if (Tasks.ACTIVE_STATES.contains(task.getStatus())) {
+        roleTasks.put(task.getAssignedTask());
+      } else {
+        roleTasks.remove(task.getAssignedTask());
+      }
+      return roleTasks;
+    });
+  }
+
+  /**
+   * Applies a task deletion to the cached view.  This must be called within the write operation
+   * that deleted the tasks.
+   *
+   * @param event Task deletion.
+   */
+  public void tasksDeleted(TasksDeleted event) {
+    for (IScheduledTask task : event.getTasks()) {
+      roles.computeIfPresent(Tasks.getJob(task).getRole(), (role, roleTasks) -> {
+        roleTasks.remove(task.getAssignedTask());
+        return roleTasks;
+      });
+    }
+  }
+
+  /**
+   * Active tasks of a single role, grouped by job.  Resource sums per job are computed lazily and
+   * retained until a task of the job changes.
+   */
+  static final class RoleTasks {
+    private final Map<IJobKey, JobTasks> jobs = Maps.newHashMap();
+
+    /**
+     * Reads the active tasks of a role from storage.  The returned instance is not shared with
+     * the cache.
+     *
+     * @param role Role to read tasks for.
+     * @param storeProvider Store provider to read tasks from.
+     * @return Active tasks of the role.
+     */
+    static RoleTasks load(String role, StoreProvider storeProvider) {
+      RoleTasks roleTasks = new RoleTasks();
+      for (IScheduledTask task
+          : storeProvider.getTaskStore().fetchTasksLazily(Query.roleScoped(role).active())) {
+
+        roleTasks.put(task.getAssignedTask());
+      }
+      return roleTasks;
+    }
+
+    synchronized void put(IAssignedTask task) {
+      jobs.computeIfAbsent(task.getTask().getJob(), key -> new JobTasks()).put(task);
+    }
+
+    synchronized void remove(IAssignedTask task) {
+      IJobKey job = task.getTask().getJob();
+      JobTasks jobTasks = jobs.get(job);
+      if (jobTasks != null && jobTasks.remove(task.getTaskId()) && jobTasks.isEmpty()) {
+        jobs.remove(job);
+      }
+    }
+
+    /**
+     * Gets the jobs with at least one active task.
+     *
+     * @return Active job keys.
+     */
+    synchronized Set<IJobKey> getJobs() {
+      return ImmutableSet.copyOf(jobs.keySet());
+    }
+
+    /**
+     * Gets the active tasks of a job.
+     *
+     * @param job Job to get tasks for.
+     * @return Active tasks of the job.
+     */
+    synchronized Iterable<IAssignedTask> getTasks(IJobKey job) {
+      JobTasks jobTasks = jobs.get(job);
+      return jobTasks == null ? ImmutableList.of() : ImmutableList.copyOf(jobTasks.tasks.values());
+    }
+
+    /**
+     * Gets the quota resources consumed by active tasks of a job that match {@code filter}.
+     *
+     * @param job Job to get resources for.
+     * @param filter Task config filter, expected to be one of the {@link QuotaManager} tiers.
+     * @return Resources consumed by the matching tasks.
+     */
+    synchronized ResourceBag getResources(IJobKey job, Predicate<ITaskConfig> filter) {
+      JobTasks jobTasks = jobs.get(job);
+      return jobTasks == null ? EMPTY : jobTasks.getResources(filter);
+    }
+  }
+
+  private static final class JobTasks {
+    private final Map<String, IAssignedTask> tasks = Maps.newHashMap();
+    // Sums are recomputed rather than adjusted incrementally to avoid accumulating floating point
+    // error across many add/subtract cycles.
+    private final Map<Predicate<ITaskConfig>, ResourceBag> resources = Maps.newHashMap();
+
+    void put(IAssignedTask task) {
+      tasks.put(task.getTaskId(), task);
+      resources.clear();
+    }
+
+    boolean remove(String taskId) {
+      if (tasks.remove(taskId) != null) {
+        resources.clear();
+        return true;
+      }
+      return false;
+    }
+
+    boolean isEmpty() {
+      return tasks.isEmpty();
+    }
+
+    ResourceBag getResources(Predicate<ITaskConfig> filter) {
+      return resources.computeIfAbsent(filter, key -> {
+        ResourceBag total = EMPTY;
+        Predicate<IAssignedTask> taskFilter = compose(key, IAssignedTask::getTask);
+        for (IAssignedTask task : Iterables.filter(tasks.values(), taskFilter)) {
+          total = total.add(QUOTA_RESOURCES.apply(task.getTask()));
+        }
+        return total;
+      });
+    }
+  }
+}
@@ -18,6 +18,8 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.StreamSupport;
 
+import javax.inject.Inject;
+
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
@@ -27,14 +29,13 @@ import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.RangeSet;
+import com.google.common.collect.Sets;
 
 import org.apache.aurora.gen.JobUpdateQuery;
 import org.apache.aurora.scheduler.base.JobKeys;
-import org.apache.aurora.scheduler.base.Query;
-import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.configuration.ConfigurationManager;
+import org.apache.aurora.scheduler.quota.ConsumptionCache.RoleTasks;
 import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceManager;
 import org.apache.aurora.scheduler.resources.ResourceType;
@@ -51,7 +52,6 @@ import org.apache.aurora.scheduler.storage.entities.IJobUpdateQuery;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateSummary;
 import org.apache.aurora.scheduler.storage.entities.IRange;
 import org.apache.aurora.scheduler.storage.entities.IResourceAggregate;
-import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.apache.aurora.scheduler.updater.Updates;
 
@@ -60,7 +60,6 @@ import static java.util.Objects.requireNonNull;
 import static com.google.common.base.Predicates.and;
 import static com.google.common.base.Predicates.compose;
 import static com.google.common.base.Predicates.equalTo;
-import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.not;
 import static com.google.common.base.Predicates.or;
 
@@ -118,10 +117,12 @@ public interface QuotaManager {
    * Checks if there is enough resource quota available for adding {@code instances} of
    * {@code template} tasks provided resources consumed by {@code releasedTemplates} tasks
    * are released. The quota is defined at the task owner (role) level.
+   * <p>
+   * Must be called within a storage write operation.
    *
    * @param template Task resource requirement.
    * @param instances Number of additional instances requested.
-   * @param storeProvider A store provider to access quota data.
+   * @param storeProvider A store provider of the enclosing write operation.
    * @return quota check result details.
    */
   QuotaCheckResult checkInstanceAddition(
@@ -132,9 +133,11 @@ public interface QuotaManager {
   /**
    * Checks if there is enough resource quota available for performing a job update represented
    * by the {@code jobUpdate}. The quota is defined at the task owner (role) level.
+   * <p>
+   * Must be called within a storage write operation.
    *
    * @param jobUpdate Job update to check quota for.
-   * @param storeProvider A store provider to access quota data.
+   * @param storeProvider A store provider of the enclosing write operation.
    * @return quota check result details.
    */
   QuotaCheckResult checkJobUpdate(IJobUpdate jobUpdate, StoreProvider storeProvider);
@@ -142,9 +145,11 @@ public interface QuotaManager {
   /**
    * Check if there is enough resource quota available for creating or updating a cron job
    * represented by the {@code cronConfig}. The quota is defined at the task owner (role) level.
+   * <p>
+   * Must be called within a storage write operation.
    *
    * @param cronConfig Cron job configuration.
-   * @param storeProvider A store provider to access quota data.
+   * @param storeProvider A store provider of the enclosing write operation.
    * @return quota check result details.
    */
   QuotaCheckResult checkCronUpdate(IJobConfiguration cronConfig, StoreProvider storeProvider);
@@ -164,6 +169,13 @@ public interface QuotaManager {
   class QuotaManagerImpl implements QuotaManager {
     private static final Predicate<ITaskConfig> NO_QUOTA_CHECK = or(PROD_DEDICATED, not(PROD));
 
+    private final ConsumptionCache consumptionCache;
+
+    @Inject
+    QuotaManagerImpl(ConsumptionCache consumptionCache) {
+      this.consumptionCache = requireNonNull(consumptionCache);
+    }
+
     @Override
     public void saveQuota(
         final String ownerRole,
@@ -189,7 +201,11 @@ public interface QuotaManager {
 
     @Override
     public QuotaInfo getQuotaInfo(String role, StoreProvider storeProvider) {
-      return getQuotaInfo(role, Optional.absent(), storeProvider);
+      return getQuotaInfo(
+          role,
+          consumptionCache.read(role, storeProvider),
+          Optional.absent(),
+          storeProvider);
     }
 
     @Override
@@ -203,7 +219,8 @@ public interface QuotaManager {
         return new QuotaCheckResult(SUFFICIENT_QUOTA);
       }
 
-      QuotaInfo quotaInfo = getQuotaInfo(template.getJob().getRole(), storeProvider);
+      QuotaInfo quotaInfo =
+          getQuotaInfo(template.getJob().getRole(), Optional.absent(), storeProvider);
       ResourceBag requestedTotal =
           quotaInfo.getProdSharedConsumption().add(scale(template, instances));
 
@@ -259,6 +276,9 @@ public interface QuotaManager {
      * <p>
      * In case an optional {@code requestedUpdate} is specified, the consumption returned also
      * includes an estimated resources share of that update as if it was already in progress.
+     * <p>
+     * Must be called within a storage write operation, which allows the role to be loaded into
+     * the {@link ConsumptionCache}.
      *
      * @param role Role to get quota info for.
      * @param requestedUpdate An optional {@code IJobUpdate} to forecast the consumption.
@@ -270,9 +290,35 @@ public interface QuotaManager {
         Optional<IJobUpdate> requestedUpdate,
         StoreProvider storeProvider) {
 
-      FluentIterable<IAssignedTask> tasks = FluentIterable
-          .from(storeProvider.getTaskStore().fetchTasks(Query.roleScoped(role).active()))
-          .transform(IScheduledTask::getAssignedTask);
+      return getQuotaInfo(
+          role,
+          consumptionCache.get(role, storeProvider),
+          requestedUpdate,
+          storeProvider);
+    }
+
+    /**
+     * Gets {@code QuotaInfo} for the specified role, computing consumption from a fresh read of
+     * the role's active tasks rather than the consumption cache.  This is intended for verifying
+     * the cache and is considerably more expensive than {@link #getQuotaInfo}.
+     *
+     * @param role Quota owner.
+     * @param storeProvider A store provider to access quota data.
+     * @return quota usage information for the given role.
+     */
+    public QuotaInfo getUncachedQuotaInfo(String role, StoreProvider storeProvider) {
+      return getQuotaInfo(
+          role,
+          RoleTasks.load(role, storeProvider),
+          Optional.absent(),
+          storeProvider);
+    }
+
+    private static QuotaInfo getQuotaInfo(
+        String role,
+        RoleTasks tasks,
+        Optional<IJobUpdate> requestedUpdate,
+        StoreProvider storeProvider) {
 
       Map<IJobKey, IJobUpdateInstructions> updates = Maps.newHashMap(
           fetchActiveJobUpdates(storeProvider.getJobUpdateStore(), role));
@@ -301,52 +347,57 @@ public interface QuotaManager {
           getConsumption(tasks, updates, cronTemplates, NON_PROD_DEDICATED));
     }
 
-    private ResourceBag getConsumption(
-        FluentIterable<IAssignedTask> tasks,
+    private static ResourceBag getConsumption(
+        RoleTasks tasks,
         Map<IJobKey, IJobUpdateInstructions> updatesByKey,
         Map<IJobKey, IJobConfiguration> cronTemplatesByKey,
         Predicate<ITaskConfig> filter) {
 
-      FluentIterable<IAssignedTask> filteredTasks =
-          tasks.filter(compose(filter, IAssignedTask::getTask));
-
-      Predicate<IAssignedTask> excludeCron = compose(
-          not(in(cronTemplatesByKey.keySet())),
-          Tasks::getJob);
-
       ResourceBag nonCronConsumption = getNonCronConsumption(
           updatesByKey,
-          filteredTasks.filter(excludeCron),
+          tasks,
+          Sets.difference(tasks.getJobs(), cronTemplatesByKey.keySet()),
           filter);
 
       ResourceBag cronConsumption = getCronConsumption(
           Iterables.filter(
               cronTemplatesByKey.values(),
               compose(filter, IJobConfiguration::getTaskConfig)),
-          filteredTasks.transform(IAssignedTask::getTask));
+          tasks,
+          filter);
 
       return nonCronConsumption.add(cronConsumption);
     }
 
     private static ResourceBag getNonCronConsumption(
         Map<IJobKey, IJobUpdateInstructions> updatesByKey,
-        FluentIterable<IAssignedTask> tasks,
+        RoleTasks tasks,
+        Set<IJobKey> jobs,
         final Predicate<ITaskConfig> configFilter) {
 
       // 1. Get all active tasks that belong to jobs without active updates OR unaffected by an
       //    active update working set. An example of the latter would be instances not updated by
       //    the update due to being already in desired state or outside of update range (e.g.
       //    not in JobUpdateInstructions.updateOnlyTheseInstances). Calculate consumed resources
-      //    as "nonUpdateConsumption".
+      //    as "nonUpdateConsumption". Jobs without active updates use the cached per-job sums,
+      //    only jobs with active updates need their tasks inspected individually.
       //
       // 2. Calculate consumed resources from instances affected by the active job updates as
       //    "updateConsumption".
       //
       // 3. Add up the two to yield total consumption.
 
-      ResourceBag nonUpdateConsumption = fromTasks(tasks
-          .filter(buildNonUpdatingTasksFilter(updatesByKey))
-          .transform(IAssignedTask::getTask));
+      Predicate<IAssignedTask> nonUpdatingTasks = and(
+          compose(configFilter, IAssignedTask::getTask),
+          buildNonUpdatingTasksFilter(updatesByKey));
+
+      ResourceBag nonUpdateConsumption = addAll(Iterables.transform(
+          jobs,
+          job -> updatesByKey.containsKey(job)
+              ? fromTasks(FluentIterable.from(tasks.getTasks(job))
+                  .filter(nonUpdatingTasks)
+                  .transform(IAssignedTask::getTask))
+              : tasks.getResources(job, configFilter)));
 
       final Predicate<IInstanceTaskConfig> instanceFilter =
           compose(configFilter, IInstanceTaskConfig::getTask);
@@ -359,7 +410,8 @@ public interface QuotaManager {
 
     private static ResourceBag getCronConsumption(
         Iterable<IJobConfiguration> cronTemplates,
-        FluentIterable<ITaskConfig> tasks) {
+        RoleTasks tasks,
+        Predicate<ITaskConfig> configFilter) {
 
       // Calculate the overall cron consumption as MAX between cron template resources and active
       // cron tasks. This is required to account for a case when a running cron task has higher
@@ -369,12 +421,11 @@ public interface QuotaManager {
       // cron scheduling, it's the simplest approach possible given the system constraints (e.g.:
       // lack of enforcement on a cron job run duration).
 
-      final Multimap<IJobKey, ITaskConfig> taskConfigsByKey = tasks.index(ITaskConfig::getJob);
       return addAll(Iterables.transform(
           cronTemplates,
           config ->
               scale(config.getTaskConfig(), config.getInstanceCount())
-                  .max(fromTasks(taskConfigsByKey.get(config.getKey())))));
+                  .max(tasks.getResources(config.getKey(), configFilter))));
     }
 
     private static Predicate<IAssignedTask> buildNonUpdatingTasksFilter(
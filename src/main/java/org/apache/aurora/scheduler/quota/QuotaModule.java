@@ -31,5 +31,7 @@ public class QuotaModule extends AbstractModule {
 
     bind(QuotaManager.class).to(QuotaManagerImpl.class);
     bind(QuotaManagerImpl.class).in(Singleton.class);
+
+    bind(ConsumptionCache.class).in(Singleton.class);
   }
 }
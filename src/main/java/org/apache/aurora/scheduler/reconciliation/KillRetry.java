@@ -92,7 +92,9 @@ public class KillRetry implements EventSubscriber {
     @Override
     public void run() {
       Query.Builder query = Query.taskScoped(taskId).byStatus(ScheduleStatus.KILLING);
-      if (!Iterables.isEmpty(Storage.Util.fetchTasks(storage, query))) {
+      boolean stillKilling = storage.read(
+          store -> !Iterables.isEmpty(store.getTaskStore().fetchTasksLazily(query)));
+      if (stillKilling) {
         LOG.info("Task " + taskId + " not yet killed, retrying.");
 
         // Kill did not yet take effect, try again.
@@ -99,6 +99,17 @@ public class ReconciliationModule extends AbstractModule {
   private static final Arg<Amount<Long, Time>> RECONCILIATION_BATCH_INTERVAL =
       Arg.create(Amount.of(5L, Time.SECONDS));
 
+  @CmdLine(name = "reconciliation_explicit_max_status_queue_size",
+      help = "Explicit reconciliation batches are deferred while the number of status updates "
+          + "waiting to be processed exceeds this value.")
+  private static final Arg<Integer> RECONCILIATION_MAX_STATUS_QUEUE_SIZE = Arg.create(1000);
+
+  @CmdLine(name = "reconciliation_explicit_confirmation_window",
+      help = "Tasks that received a status update within this amount of time are skipped by "
+          + "explicit reconciliation.")
+  private static final Arg<Amount<Long, Time>> RECONCILIATION_CONFIRMATION_WINDOW =
+      Arg.create(Amount.of(5L, Time.MINUTES));
+
   @Qualifier
   @Target({ FIELD, PARAMETER, METHOD }) @Retention(RUNTIME)
   @interface BackgroundWorker { }
@@ -140,13 +151,16 @@ public class ReconciliationModule extends AbstractModule {
             RECONCILIATION_IMPLICIT_INTERVAL.get(),
             RECONCILIATION_SCHEDULE_SPREAD.get(),
             RECONCILIATION_BATCH_INTERVAL.get(),
-            RECONCILIATION_BATCH_SIZE.get()));
+            RECONCILIATION_BATCH_SIZE.get(),
+            RECONCILIATION_MAX_STATUS_QUEUE_SIZE.get(),
+            RECONCILIATION_CONFIRMATION_WINDOW.get()));
         bind(ScheduledExecutorService.class).annotatedWith(BackgroundWorker.class)
             .toInstance(AsyncUtil.loggingScheduledExecutor(1, "TaskReconciler-%d", LOG));
         bind(TaskReconciler.class).in(Singleton.class);
         expose(TaskReconciler.class);
       }
     });
+    PubsubEventModule.bindSubscriber(binder(), TaskReconciler.class);
     SchedulerServicesModule.addSchedulerActiveServiceBinding(binder()).to(TaskReconciler.class);
   }
 }
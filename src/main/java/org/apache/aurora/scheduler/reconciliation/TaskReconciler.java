@@ -13,37 +13,53 @@
  */
 package org.apache.aurora.scheduler.reconciliation;
 
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
-import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.eventbus.Subscribe;
 import com.google.common.util.concurrent.AbstractIdleService;
 
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.common.util.Clock;
+import org.apache.aurora.scheduler.TaskStatusHandlerImpl.StatusUpdateQueue;
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStatusReceived;
 import org.apache.aurora.scheduler.mesos.Driver;
 import org.apache.aurora.scheduler.reconciliation.ReconciliationModule.BackgroundWorker;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.TaskStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static java.util.Objects.requireNonNull;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import static org.apache.aurora.common.quantity.Time.MILLISECONDS;
 import static org.apache.aurora.common.quantity.Time.MINUTES;
 import static org.apache.aurora.common.quantity.Time.SECONDS;
 
@@ -51,8 +67,15 @@ import static org.apache.aurora.common.quantity.Time.SECONDS;
  * A task reconciler that periodically triggers Mesos (implicit) and Aurora (explicit) task
  * reconciliation to synchronize global task states. More on task reconciliation:
  * http://mesos.apache.org/documentation/latest/reconciliation.
+ * <p>
+ * Explicit reconciliation is paced to avoid flooding the status update pipeline: a batch is
+ * deferred while the status update queue is backlogged or while a full batch of responses to
+ * previously sent requests is still outstanding.  Tasks whose last known status is oldest are
+ * reconciled first, and tasks that received a status update recently are skipped altogether.
  */
-public class TaskReconciler extends AbstractIdleService {
+public class TaskReconciler extends AbstractIdleService implements EventSubscriber {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TaskReconciler.class);
 
   @VisibleForTesting
   static final String EXPLICIT_STAT_NAME = "reconciliation_explicit_runs";
@@ -60,12 +83,53 @@ public class TaskReconciler extends AbstractIdleService {
   @VisibleForTesting
   static final String IMPLICIT_STAT_NAME = "reconciliation_implicit_runs";
 
+  @VisibleForTesting
+  static final String TASKS_SENT_STAT_NAME = "reconciliation_explicit_tasks_sent";
+
+  @VisibleForTesting
+  static final String TASKS_SKIPPED_STAT_NAME = "reconciliation_explicit_tasks_skipped";
+
+  @VisibleForTesting
+  static final String TASKS_REMAINING_STAT_NAME = "reconciliation_explicit_tasks_remaining";
+
+  @VisibleForTesting
+  static final String RESPONSES_STAT_NAME = "reconciliation_explicit_responses";
+
+  @VisibleForTesting
+  static final String OUTSTANDING_STAT_NAME = "reconciliation_explicit_responses_outstanding";
+
+  @VisibleForTesting
+  static final String BATCHES_DEFERRED_STAT_NAME = "reconciliation_explicit_batches_deferred";
+
+  @VisibleForTesting
+  static final String LAG_STAT_NAME = "reconciliation_explicit_lag_ms";
+
+  /**
+   * Maximum number of consecutive times a batch may be deferred before it is sent regardless of
+   * backlog.  This also bounds how long a reconciliation request may go unanswered before it no
+   * longer counts as outstanding, as Mesos does not guarantee a response.
+   */
+  @VisibleForTesting
+  static final int MAX_BATCH_DEFERRALS = 12;
+
   private final TaskReconcilerSettings settings;
   private final Storage storage;
   private final Driver driver;
   private final ScheduledExecutorService executor;
+  private final Clock clock;
+  private final BlockingQueue<TaskStatus> statusUpdateQueue;
   private final AtomicLong explicitRuns;
   private final AtomicLong implicitRuns;
+  private final AtomicLong tasksSent;
+  private final AtomicLong tasksSkipped;
+  private final AtomicLong responses;
+  private final AtomicLong batchesDeferred;
+
+  // Task ID -> time (in ms) the most recent status update for the task was received.
+  private final Map<String, Long> lastConfirmedMs = Maps.newConcurrentMap();
+  // Task ID -> time (in ms) an explicit reconciliation request was sent for the task.
+  private final Map<String, Long> awaitingResponse = Maps.newConcurrentMap();
+  private final AtomicReference<ExplicitRun> currentRun = new AtomicReference<>();
 
   static class TaskReconcilerSettings {
     private final Amount<Long, Time> explicitInterval;
@@ -74,6 +138,8 @@ public class TaskReconciler extends AbstractIdleService {
     private final long implicitDelayMinutes;
     private final long explicitBatchDelaySeconds;
     private final int explicitBatchSize;
+    private final int maxStatusUpdateQueueSize;
+    private final long confirmationWindowMs;
 
     @VisibleForTesting
     TaskReconcilerSettings(
@@ -82,7 +148,9 @@ public class TaskReconciler extends AbstractIdleService {
         Amount<Long, Time> implicitInterval,
         Amount<Long, Time> scheduleSpread,
         Amount<Long, Time> explicitBatchInterval,
-        int explicitBatchSize) {
+        int explicitBatchSize,
+        int maxStatusUpdateQueueSize,
+        Amount<Long, Time> confirmationWindow) {
 
       this.explicitInterval = requireNonNull(explicitInterval);
       this.implicitInterval = requireNonNull(implicitInterval);
@@ -90,6 +158,8 @@ public class TaskReconciler extends AbstractIdleService {
       implicitDelayMinutes = initialDelay.as(MINUTES) + scheduleSpread.as(MINUTES);
       explicitBatchDelaySeconds = explicitBatchInterval.as(SECONDS);
       this.explicitBatchSize = explicitBatchSize;
+      this.maxStatusUpdateQueueSize = maxStatusUpdateQueueSize;
+      confirmationWindowMs = requireNonNull(confirmationWindow).as(MILLISECONDS);
 
       checkArgument(
           explicitDelayMinutes >= 0,
@@ -101,6 +171,12 @@ public class TaskReconciler extends AbstractIdleService {
           explicitBatchDelaySeconds >= 0L,
           "Invalid explicit batch reconciliation delay: %s", explicitBatchDelaySeconds
       );
+      checkArgument(
+          maxStatusUpdateQueueSize >= 0,
+          "Invalid status update queue size limit: %s", maxStatusUpdateQueueSize);
+      checkArgument(
+          confirmationWindowMs >= 0L,
+          "Invalid explicit reconciliation confirmation window: %s", confirmationWindowMs);
     }
   }
 
@@ -110,14 +186,31 @@ public class TaskReconciler extends AbstractIdleService {
       Storage storage,
       Driver driver,
       @BackgroundWorker ScheduledExecutorService executor,
+      Clock clock,
+      @StatusUpdateQueue BlockingQueue<TaskStatus> statusUpdateQueue,
       StatsProvider stats) {
 
     this.settings = requireNonNull(settings);
     this.storage = requireNonNull(storage);
     this.driver = requireNonNull(driver);
     this.executor = requireNonNull(executor);
+    this.clock = requireNonNull(clock);
+    this.statusUpdateQueue = requireNonNull(statusUpdateQueue);
     this.explicitRuns = stats.makeCounter(EXPLICIT_STAT_NAME);
     this.implicitRuns = stats.makeCounter(IMPLICIT_STAT_NAME);
+    this.tasksSent = stats.makeCounter(TASKS_SENT_STAT_NAME);
+    this.tasksSkipped = stats.makeCounter(TASKS_SKIPPED_STAT_NAME);
+    this.responses = stats.makeCounter(RESPONSES_STAT_NAME);
+    this.batchesDeferred = stats.makeCounter(BATCHES_DEFERRED_STAT_NAME);
+    stats.makeGauge(TASKS_REMAINING_STAT_NAME, () -> {
+      ExplicitRun run = currentRun.get();
+      return run == null ? 0 : run.getRemaining();
+    });
+    stats.makeGauge(OUTSTANDING_STAT_NAME, awaitingResponse::size);
+    stats.makeGauge(LAG_STAT_NAME, () -> {
+      ExplicitRun run = currentRun.get();
+      return run == null ? 0L : run.getLagMs(clock.nowMillis());
+    });
   }
 
   public void triggerExplicitReconciliation(Optional<Integer> batchSize) {
@@ -156,20 +249,107 @@ public class TaskReconciler extends AbstractIdleService {
   }
 
   private void doExplicitReconcile(int batchSize) {
-    ImmutableList<TaskStatus> active = FluentIterable
-        .from(Storage.Util.fetchTasks(
-            storage,
-            Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES)))
-        .transform(TASK_TO_PROTO)
-        .toList();
-
-    List<List<TaskStatus>> batches = Lists.partition(active, batchSize);
-    long delay = 0;
-    for (List<TaskStatus> batch : batches) {
-      executor.schedule(() -> driver.reconcileTasks(batch), delay, SECONDS.getTimeUnit());
-      delay += settings.explicitBatchDelaySeconds;
-    }
+    long confirmedAfterMs = clock.nowMillis() - settings.confirmationWindowMs;
+    List<PendingTask> pending = Lists.newArrayList();
+    Set<String> assignedTaskIds = Sets.newHashSet();
+    storage.read(storeProvider -> {
+      for (IScheduledTask task : storeProvider.getTaskStore().fetchTasksLazily(
+          Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES))) {
+
+        String taskId = Tasks.id(task);
+        assignedTaskIds.add(taskId);
+        long lastStatusMs = Tasks.getLatestEvent(task).getTimestamp();
+        Long confirmedMs = lastConfirmedMs.get(taskId);
+        if (confirmedMs != null) {
+          if (confirmedMs > confirmedAfterMs) {
+            continue;
+          }
+          lastStatusMs = Math.max(lastStatusMs, confirmedMs);
+        }
+        pending.add(new PendingTask(TASK_TO_PROTO.apply(task), lastStatusMs));
+      }
+      return null;
+    });
+
+    // Forget about tasks that are no longer assigned to an agent.
+    lastConfirmedMs.keySet().retainAll(assignedTaskIds);
+    awaitingResponse.keySet().retainAll(assignedTaskIds);
+
+    int skipped = assignedTaskIds.size() - pending.size();
+    tasksSkipped.addAndGet(skipped);
+    LOG.info("Starting explicit reconciliation of {} tasks, skipping {} recently confirmed.",
+        pending.size(),
+        skipped);
+
+    // The sort is stable, tasks with equal timestamps retain their storage order.
+    pending.sort(Comparator.comparingLong(task -> task.lastStatusMs));
+    ExplicitRun run = new ExplicitRun(pending, batchSize);
+    // Replacing the current run causes any batches still scheduled for a previous run to be
+    // dropped, as the new run covers the same tasks.
+    currentRun.set(run);
     explicitRuns.incrementAndGet();
+    // Batches are only ever sent from the executor, including the first one of a run triggered
+    // on demand.
+    executor.execute(() -> sendBatch(run));
+  }
+
+  private void sendBatch(ExplicitRun run) {
+    if (currentRun.get() != run) {
+      return;
+    }
+
+    if (!run.hasRemaining()) {
+      currentRun.compareAndSet(run, null);
+      return;
+    }
+
+    if (isBacklogged(run.batchSize) && run.deferrals < MAX_BATCH_DEFERRALS) {
+      run.deferrals++;
+      batchesDeferred.incrementAndGet();
+      scheduleBatch(run);
+      return;
+    }
+
+    run.deferrals = 0;
+    List<TaskStatus> batch = run.nextBatch();
+    long nowMs = clock.nowMillis();
+    for (TaskStatus status : batch) {
+      awaitingResponse.put(status.getTaskId().getValue(), nowMs);
+    }
+    driver.reconcileTasks(batch);
+    tasksSent.addAndGet(batch.size());
+
+    if (run.hasRemaining()) {
+      scheduleBatch(run);
+    } else {
+      currentRun.compareAndSet(run, null);
+    }
+  }
+
+  private void scheduleBatch(ExplicitRun run) {
+    executor.schedule(
+        () -> sendBatch(run),
+        settings.explicitBatchDelaySeconds,
+        SECONDS.getTimeUnit());
+  }
+
+  private boolean isBacklogged(int batchSize) {
+    long expiredBeforeMs = clock.nowMillis()
+        - Amount.of(settings.explicitBatchDelaySeconds, SECONDS).as(MILLISECONDS)
+        * MAX_BATCH_DEFERRALS;
+    awaitingResponse.values().removeIf(sentMs -> sentMs < expiredBeforeMs);
+
+    // At most one batch worth of requests may be awaiting a response.
+    return statusUpdateQueue.size() > settings.maxStatusUpdateQueueSize
+        || awaitingResponse.size() >= batchSize;
+  }
+
+  @Subscribe
+  public void statusReceived(TaskStatusReceived event) {
+    lastConfirmedMs.put(event.getTaskId(), clock.nowMillis());
+    if (awaitingResponse.remove(event.getTaskId()) != null) {
+      responses.incrementAndGet();
+    }
   }
 
   @Override
@@ -177,6 +357,54 @@ public class TaskReconciler extends AbstractIdleService {
     // Nothing to do - await VM shutdown.
   }
 
+  private static final class PendingTask {
+    private final TaskStatus status;
+    private final long lastStatusMs;
+
+    PendingTask(TaskStatus status, long lastStatusMs) {
+      this.status = status;
+      this.lastStatusMs = lastStatusMs;
+    }
+  }
+
+  /**
+   * Tasks remaining to be reconciled by an explicit reconciliation run, ordered by the age of their
+   * last known status.
+   */
+  private static final class ExplicitRun {
+    private final Deque<PendingTask> remaining;
+    private final int batchSize;
+    // Only accessed by sendBatch(), which is handed off between threads through the executor.
+    private int deferrals;
+
+    ExplicitRun(List<PendingTask> tasks, int batchSize) {
+      checkArgument(batchSize > 0, "Invalid explicit reconciliation batch size: %s", batchSize);
+      this.remaining = new ArrayDeque<>(tasks);
+      this.batchSize = batchSize;
+    }
+
+    synchronized boolean hasRemaining() {
+      return !remaining.isEmpty();
+    }
+
+    synchronized int getRemaining() {
+      return remaining.size();
+    }
+
+    synchronized long getLagMs(long nowMs) {
+      PendingTask oldest = remaining.peekFirst();
+      return oldest == null ? 0L : Math.max(0L, nowMs - oldest.lastStatusMs);
+    }
+
+    synchronized List<TaskStatus> nextBatch() {
+      ImmutableList.Builder<TaskStatus> batch = ImmutableList.builder();
+      for (int i = 0; i < batchSize && !remaining.isEmpty(); i++) {
+        batch.add(remaining.removeFirst().status);
+      }
+      return batch.build();
+    }
+  }
+
   @VisibleForTesting
   static final Function<IScheduledTask, TaskStatus> TASK_TO_PROTO = t -> TaskStatus.newBuilder()
       // TODO(maxim): State is required by protobuf but ignored by Mesos for reconciliation
@@ -23,7 +23,10 @@ import java.util.stream.StreamSupport;
 
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 import org.apache.aurora.gen.ResourceAggregate;
 import org.apache.aurora.scheduler.TierInfo;
@@ -34,7 +37,11 @@ import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.apache.aurora.scheduler.storage.log.ThriftBackfill;
 import org.apache.mesos.Protos.Resource;
+import org.apache.mesos.Protos.Value;
 
+import static org.apache.aurora.scheduler.base.Numbers.RANGE_TO_MEMBERS;
+import static org.apache.aurora.scheduler.base.Numbers.RANGE_TRANSFORM;
+import static org.apache.aurora.scheduler.base.Numbers.toRanges;
 import static org.apache.aurora.scheduler.resources.ResourceType.BY_MESOS_NAME;
 import static org.apache.aurora.scheduler.resources.ResourceType.fromResource;
 import static org.apache.mesos.Protos.Offer;
@@ -71,6 +78,9 @@ public final class ResourceManager {
 
   private static final BinaryOperator<Double> REDUCE_VALUES = (l, r) -> l + r;
 
+  // Scalar resources that remain below this value after an allocation are treated as used up.
+  private static final double SCALAR_EPSILON = 1e-6;
+
   /**
    * TODO(rdelvalle): Remove filters when arbitrary resources are fully supported (AURORA-1328).
    */
@@ -143,6 +153,65 @@ public final class ResourceManager {
     return Iterables.filter(getOfferResources(offer, tierInfo), r -> fromResource(r).equals(type));
   }
 
+  /**
+   * Gets the offer that remains after allocating resources from {@code offer}.  Allocated
+   * resources are matched against offer resources of the same name, role, reservation and
+   * revocability.
+   *
+   * @param offer Offer the resources were allocated from.
+   * @param allocated Resources allocated from the offer, eg by {@link AcceptedOffer}.
+   * @return Offer with the unallocated resources.
+   */
+  public static Offer getRemainingOffer(Offer offer, Iterable<Resource> allocated) {
+    Map<Resource, Double> allocatedScalars = Maps.newHashMap();
+    Map<Resource, Set<Integer>> allocatedRanges = Maps.newHashMap();
+    for (Resource resource : allocated) {
+      Resource slot = withoutValue(resource);
+      if (resource.getType() == Value.Type.SCALAR) {
+        allocatedScalars.merge(slot, resource.getScalar().getValue(), Double::sum);
+      } else if (resource.getType() == Value.Type.RANGES) {
+        allocatedRanges.computeIfAbsent(slot, k -> Sets.newHashSet())
+            .addAll(rangeMembers(resource));
+      } else {
+        throw new IllegalArgumentException("Unsupported resource type " + resource.getType());
+      }
+    }
+
+    Offer.Builder remaining = offer.toBuilder().clearResources();
+    for (Resource resource : offer.getResourcesList()) {
+      Resource slot = withoutValue(resource);
+      if (allocatedScalars.containsKey(slot)) {
+        double available = resource.getScalar().getValue();
+        double used = Math.min(available, allocatedScalars.get(slot));
+        allocatedScalars.put(slot, allocatedScalars.get(slot) - used);
+        if (available - used > SCALAR_EPSILON) {
+          remaining.addResources(resource.toBuilder()
+              .setScalar(Value.Scalar.newBuilder().setValue(available - used)));
+        }
+      } else if (allocatedRanges.containsKey(slot)) {
+        Set<Integer> available =
+            Sets.difference(rangeMembers(resource), allocatedRanges.get(slot));
+        if (!available.isEmpty()) {
+          remaining.addResources(resource.toBuilder()
+              .setRanges(Value.Ranges.newBuilder()
+                  .addAllRange(Iterables.transform(toRanges(available), RANGE_TRANSFORM))));
+        }
+      } else {
+        remaining.addResources(resource);
+      }
+    }
+    return remaining.build();
+  }
+
+  private static Resource withoutValue(Resource resource) {
+    return resource.toBuilder().clearScalar().clearRanges().clearSet().build();
+  }
+
+  private static Set<Integer> rangeMembers(Resource resource) {
+    return ImmutableSet.copyOf(Iterables.concat(
+        Iterables.transform(resource.getRanges().getRangeList(), RANGE_TO_MEMBERS)));
+  }
+
   /**
    * Same as {@link #getTaskResources(ITaskConfig, ResourceType)}.
    *
@@ -14,31 +14,32 @@
 package org.apache.aurora.scheduler.scheduling;
 
 import java.util.Collection;
-import java.util.Queue;
 import java.util.Set;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Lists;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
 
 import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.codehaus.jackson.annotate.JsonIgnore;
 
-import static org.apache.aurora.GuavaUtils.toImmutableSet;
-
 /**
  * A group of task IDs that are eligible for scheduling, but may be waiting for a backoff to expire.
+ * <p>
+ * Task IDs are kept in insertion order in a linked hash set, making offer and removal of a single
+ * task constant time regardless of the number of pending tasks in the group.
  */
 public class TaskGroup {
   private final TaskGroupKey key;
   private long penaltyMs;
-  private final Queue<String> tasks;
+  private final Set<String> tasks;
 
   @VisibleForTesting
   public TaskGroup(TaskGroupKey key, String initialTaskId) {
     this.key = key;
     this.penaltyMs = 0;
-    this.tasks = Lists.newLinkedList();
+    this.tasks = Sets.newLinkedHashSet();
     this.tasks.add(initialTaskId);
   }
 
@@ -49,7 +50,7 @@ public class TaskGroup {
   }
 
   synchronized Set<String> peek(int maxTasks) {
-    return tasks.stream().limit(Math.min(tasks.size(), maxTasks)).collect(toImmutableSet());
+    return ImmutableSet.copyOf(Iterables.limit(tasks, maxTasks));
   }
 
   synchronized boolean hasMore() {
@@ -57,11 +58,15 @@ public class TaskGroup {
   }
 
   synchronized void remove(Collection<String> taskIdsToRemove) {
-    tasks.removeAll(taskIdsToRemove);
+    // Iterate over the (typically small) removal set rather than relying on removeAll(), which
+    // may scan the entire group depending on the relative collection sizes.
+    for (String taskId : taskIdsToRemove) {
+      tasks.remove(taskId);
+    }
   }
 
   synchronized void offer(String taskId) {
-    tasks.offer(taskId);
+    tasks.add(taskId);
   }
 
   synchronized void setPenaltyMs(long penaltyMs) {
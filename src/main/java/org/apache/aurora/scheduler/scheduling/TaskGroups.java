@@ -90,8 +90,9 @@ public class TaskGroups implements EventSubscriber {
 
   @VisibleForTesting
   public static class TaskGroupBatchWorker extends BatchWorker<Set<String>> {
+    @VisibleForTesting
     @Inject
-    TaskGroupBatchWorker(
+    public TaskGroupBatchWorker(
         Storage storage,
         StatsProvider statsProvider,
         @SchedulingMaxBatchSize int maxBatchSize) {
@@ -142,13 +143,17 @@ public class TaskGroups implements EventSubscriber {
     this.batchWorker = requireNonNull(batchWorker);
   }
 
-  private synchronized void evaluateGroupLater(Runnable evaluate, TaskGroup group) {
-    // Avoid check-then-act by holding the intrinsic lock.  If not done atomically, we could
-    // remove a group while a task is being added to it.
-    if (group.hasMore()) {
+  private void evaluateGroupLater(Runnable evaluate, TaskGroup group) {
+    // Avoid check-then-act by performing this atomically with respect to the group's map entry.
+    // If not done atomically, we could remove a group while a task is being added to it.  Only
+    // the entry for this group is locked, leaving other groups free to be modified concurrently.
+    // The evaluation is submitted once the entry is released, since the executor may run it on
+    // the calling thread.
+    TaskGroup retained = groups.computeIfPresent(
+        group.getKey(),
+        (key, current) -> group.hasMore() ? current : null);
+    if (retained != null) {
       executor.execute(evaluate, Amount.of(group.getPenaltyMs(), Time.MILLISECONDS));
-    } else {
-      groups.remove(group.getKey());
     }
   }
 
@@ -198,13 +203,20 @@ public class TaskGroups implements EventSubscriber {
    * @param stateChange State change notification.
    */
   @Subscribe
-  public synchronized void taskChangedState(TaskStateChange stateChange) {
+  public void taskChangedState(TaskStateChange stateChange) {
     if (stateChange.getNewState() == PENDING) {
       IScheduledTask task = stateChange.getTask();
       TaskGroupKey key = TaskGroupKey.from(task.getAssignedTask().getTask());
       TaskGroup newGroup = new TaskGroup(key, Tasks.id(task));
-      TaskGroup existing = groups.putIfAbsent(key, newGroup);
-      if (existing == null) {
+      TaskGroup group = groups.compute(key, (k, existing) -> {
+        if (existing == null) {
+          return newGroup;
+        } else {
+          existing.offer(Tasks.id(task));
+          return existing;
+        }
+      });
+      if (group == newGroup) {
         long penaltyMs;
         if (stateChange.isTransition()) {
           penaltyMs = settings.firstScheduleDelay.as(Time.MILLISECONDS);
@@ -213,8 +225,6 @@ public class TaskGroups implements EventSubscriber {
         }
         newGroup.setPenaltyMs(penaltyMs);
         startGroup(newGroup);
-      } else {
-        existing.offer(Tasks.id(task));
       }
     }
   }
@@ -225,7 +235,7 @@ public class TaskGroups implements EventSubscriber {
    * @param deleted Tasks deleted event.
    */
   @Subscribe
-  public synchronized void tasksDeleted(TasksDeleted deleted) {
+  public void tasksDeleted(TasksDeleted deleted) {
     for (IAssignedTask task
         : Iterables.transform(deleted.getTasks(), IScheduledTask::getAssignedTask)) {
       TaskGroup group = groups.get(TaskGroupKey.from(task.getTask()));
@@ -39,6 +39,7 @@ import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
 import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
 import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.VetoAggregator;
 import org.apache.aurora.scheduler.filter.AttributeAggregate;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.ResourceRequest;
 import org.apache.aurora.scheduler.preemptor.BiCache;
@@ -99,6 +100,7 @@ public interface TaskScheduler extends EventSubscriber {
     private final Preemptor preemptor;
     private final ExecutorSettings executorSettings;
     private final BiCache<String, TaskGroupKey> reservations;
+    private final VetoAggregator vetoAggregator;
 
     private final AtomicLong attemptsFired = Stats.exportLong("schedule_attempts_fired");
     private final AtomicLong attemptsFailed = Stats.exportLong("schedule_attempts_failed");
@@ -109,18 +111,20 @@ public interface TaskScheduler extends EventSubscriber {
         TaskAssigner assigner,
         Preemptor preemptor,
         ExecutorSettings executorSettings,
-        BiCache<String, TaskGroupKey> reservations) {
+        BiCache<String, TaskGroupKey> reservations,
+        VetoAggregator vetoAggregator) {
 
       this.assigner = requireNonNull(assigner);
       this.preemptor = requireNonNull(preemptor);
       this.executorSettings = requireNonNull(executorSettings);
       this.reservations = requireNonNull(reservations);
+      this.vetoAggregator = requireNonNull(vetoAggregator);
     }
 
     @Timed ("task_schedule_attempt")
     public Set<String> schedule(MutableStoreProvider store, Iterable<String> taskIds) {
       try {
-        return scheduleTasks(store, taskIds);
+        return vetoAggregator.aggregate(() -> scheduleTasks(store, taskIds));
       } catch (RuntimeException e) {
         // We catch the generic unchecked exception here to ensure tasks are not abandoned
         // if there is a transient issue resulting in an unchecked exception.
@@ -23,12 +23,11 @@ import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Predicate;
-import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Range;
@@ -179,22 +178,33 @@ class MetricCalculator implements Runnable {
   @Timed("sla_stats_computation")
   @Override
   public void run() {
-    FluentIterable<IScheduledTask> tasks =
-        FluentIterable.from(Storage.Util.fetchTasks(storage, Query.unscoped()));
-
-    List<IScheduledTask> prodTasks = tasks.filter(Predicates.compose(
-        Predicates.and(ITaskConfig::isProduction, IS_SERVICE),
-        Tasks::getConfig)).toList();
-
-    List<IScheduledTask> nonProdTasks = tasks.filter(Predicates.compose(
-        Predicates.and(Predicates.not(ITaskConfig::isProduction), IS_SERVICE),
-        Tasks::getConfig)).toList();
+    ImmutableList.Builder<IScheduledTask> prodTasks = ImmutableList.builder();
+    ImmutableList.Builder<IScheduledTask> nonProdTasks = ImmutableList.builder();
+    storage.read(storeProvider -> {
+      // A single pass over the streamed tasks avoids copying every task out of the store.
+      for (IScheduledTask task : storeProvider.getTaskStore().fetchTasksLazily(Query.unscoped())) {
+        ITaskConfig config = Tasks.getConfig(task);
+        if (!IS_SERVICE.apply(config)) {
+          continue;
+        }
+        if (config.isProduction()) {
+          prodTasks.add(task);
+        } else {
+          nonProdTasks.add(task);
+        }
+      }
+      return null;
+    });
 
     long nowMs = clock.nowMillis();
     Range<Long> timeRange = Range.closedOpen(nowMs - settings.refreshRateMs, nowMs);
 
-    runAlgorithms(prodTasks, settings.prodMetrics, timeRange, NAME_QUALIFIER_PROD);
-    runAlgorithms(nonProdTasks, settings.nonProdMetrics, timeRange, NAME_QUALIFIER_NON_PROD);
+    runAlgorithms(prodTasks.build(), settings.prodMetrics, timeRange, NAME_QUALIFIER_PROD);
+    runAlgorithms(
+        nonProdTasks.build(),
+        settings.nonProdMetrics,
+        timeRange,
+        NAME_QUALIFIER_NON_PROD);
   }
 
   private void runAlgorithms(
@@ -13,8 +13,11 @@
  */
 package org.apache.aurora.scheduler.state;
 
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -22,11 +25,14 @@ import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
 
+import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.gen.HostStatus;
 import org.apache.aurora.gen.MaintenanceMode;
 import org.apache.aurora.gen.ScheduleStatus;
@@ -105,43 +111,175 @@ public interface MaintenanceController {
 
   class MaintenanceControllerImpl implements MaintenanceController, EventSubscriber {
     private static final Logger LOG = LoggerFactory.getLogger(MaintenanceControllerImpl.class);
+
+    @VisibleForTesting
+    static final String DRAIN_REQUESTS = "maintenance_drain_requests";
+    @VisibleForTesting
+    static final String DRAIN_REQUESTS_COMPLETED = "maintenance_drain_requests_completed";
+    @VisibleForTesting
+    static final String HOSTS_DRAINED = "maintenance_hosts_drained";
+    @VisibleForTesting
+    static final String DRAINING_HOSTS = "maintenance_draining_hosts";
+    @VisibleForTesting
+    static final String DRAINING_TASKS = "maintenance_draining_tasks";
+
     private final Storage storage;
     private final StateManager stateManager;
     private final TaskEventBatchWorker batchWorker;
+    private final AtomicLong drainRequests;
+    private final AtomicLong drainRequestsCompleted;
+    private final AtomicLong hostsDrained;
+
+    // Active tasks remaining on each draining host, which decides when a host is drained without
+    // querying storage on every task state change.  This is loaded from storage on first use, to
+    // pick up hosts that were draining before the scheduler started.
+    @Nullable
+    private SetMultimap<String, String> drainingTasks;
+    // Drain requests waiting on each host, a host may be part of several overlapping requests.
+    private final SetMultimap<String, DrainRequest> drainRequestsByHost = HashMultimap.create();
+
+    /**
+     * Tracks the progress of a drain request.
+     */
+    private static final class DrainRequest {
+      private final long id;
+      private final int hosts;
+      private int drainedHosts;
+
+      DrainRequest(long id, int hosts) {
+        this.id = id;
+        this.hosts = hosts;
+      }
+    }
 
     @Inject
     public MaintenanceControllerImpl(
         Storage storage,
         StateManager stateManager,
-        TaskEventBatchWorker batchWorker) {
+        TaskEventBatchWorker batchWorker,
+        StatsProvider statsProvider) {
 
       this.storage = requireNonNull(storage);
       this.stateManager = requireNonNull(stateManager);
       this.batchWorker = requireNonNull(batchWorker);
+      this.drainRequests = statsProvider.makeCounter(DRAIN_REQUESTS);
+      this.drainRequestsCompleted = statsProvider.makeCounter(DRAIN_REQUESTS_COMPLETED);
+      this.hostsDrained = statsProvider.makeCounter(HOSTS_DRAINED);
+      statsProvider.makeGauge(DRAINING_HOSTS, this::getDrainingHostCount);
+      statsProvider.makeGauge(DRAINING_TASKS, this::getDrainingTaskCount);
     }
 
-    private Set<IHostStatus> watchDrainingTasks(MutableStoreProvider store, Set<String> hosts) {
-      LOG.info("Hosts to drain: " + hosts);
-      Set<String> emptyHosts = Sets.newHashSet();
-      for (String host : hosts) {
-        // If there are no tasks on the host, immediately transition to DRAINED.
-        Query.Builder query = Query.slaveScoped(host).active();
-        Set<String> activeTasks = FluentIterable.from(store.getTaskStore().fetchTasks(query))
-            .transform(Tasks::id)
+    private synchronized int getDrainingHostCount() {
+      return drainingTasks == null ? 0 : drainingTasks.keySet().size();
+    }
+
+    private synchronized int getDrainingTaskCount() {
+      return drainingTasks == null ? 0 : drainingTasks.size();
+    }
+
+    private synchronized SetMultimap<String, String> loadDrainingTasks(
+        MutableStoreProvider store) {
+
+      if (drainingTasks == null) {
+        Set<String> drainingHosts = FluentIterable
+            .from(store.getAttributeStore().getHostAttributes())
+            .filter(attributes -> attributes.getMode() == DRAINING)
+            .transform(HOST_NAME)
             .toSet();
-        if (activeTasks.isEmpty()) {
-          LOG.info("No tasks to drain for host: " + host);
-          emptyHosts.add(host);
-        } else {
-          LOG.info("Draining tasks: {} on host: {}", activeTasks, host);
-          for (String taskId : activeTasks) {
-            stateManager.changeState(
-                store,
-                taskId,
-                Optional.absent(),
-                ScheduleStatus.DRAINING,
-                DRAINING_MESSAGE);
-          }
+        drainingTasks = drainingHosts.isEmpty()
+            ? HashMultimap.create()
+            : fetchActiveTasks(store, drainingHosts);
+
+        // Hosts whose last task terminated while no scheduler was watching.
+        for (String host : ImmutableSet.copyOf(
+            Sets.difference(drainingHosts, drainingTasks.keySet()))) {
+
+          maybeDrained(store, host);
+        }
+      }
+      return drainingTasks;
+    }
+
+    private static SetMultimap<String, String> fetchActiveTasks(
+        MutableStoreProvider store,
+        Set<String> hosts) {
+
+      SetMultimap<String, String> activeTasks = HashMultimap.create();
+      for (IScheduledTask task
+          : store.getTaskStore().fetchTasks(Query.slaveScoped(hosts).active())) {
+
+        activeTasks.put(task.getAssignedTask().getSlaveHost(), Tasks.id(task));
+      }
+      return activeTasks;
+    }
+
+    private synchronized void watchHosts(
+        MutableStoreProvider store,
+        long requestId,
+        SetMultimap<String, String> activeTasks) {
+
+      SetMultimap<String, String> tasks = loadDrainingTasks(store);
+      DrainRequest request = new DrainRequest(requestId, activeTasks.keySet().size());
+      for (String host : activeTasks.keySet()) {
+        tasks.replaceValues(host, activeTasks.get(host));
+        drainRequestsByHost.put(host, request);
+      }
+    }
+
+    private synchronized void unwatchHosts(Set<String> hosts) {
+      if (drainingTasks != null) {
+        for (String host : hosts) {
+          drainingTasks.removeAll(host);
+          drainRequestsByHost.removeAll(host);
+        }
+      }
+    }
+
+    /**
+     * Records the termination of a task.
+     *
+     * @return {@code true} if the task was the last active task on a draining host.
+     */
+    private synchronized boolean taskTerminated(String host, String taskId) {
+      return drainingTasks.remove(host, taskId) && !drainingTasks.containsKey(host);
+    }
+
+    private synchronized void hostDrained(String host) {
+      hostsDrained.incrementAndGet();
+      for (DrainRequest request : drainRequestsByHost.removeAll(host)) {
+        request.drainedHosts++;
+        LOG.info("Drain request {} has drained {} of {} hosts",
+            request.id, request.drainedHosts, request.hosts);
+        if (request.drainedHosts == request.hosts) {
+          drainRequestsCompleted.incrementAndGet();
+        }
+      }
+    }
+
+    private Set<IHostStatus> watchDrainingTasks(MutableStoreProvider store, Set<String> hosts) {
+      long requestId = drainRequests.incrementAndGet();
+      LOG.info("Drain request {} for hosts: {}", requestId, hosts);
+      SetMultimap<String, String> activeTasks = fetchActiveTasks(store, hosts);
+
+      // Hosts without any tasks are immediately transitioned to DRAINED.
+      Set<String> emptyHosts = ImmutableSet.copyOf(Sets.difference(hosts, activeTasks.keySet()));
+      if (!emptyHosts.isEmpty()) {
+        LOG.info("No tasks to drain for hosts: " + emptyHosts);
+      }
+
+      // Watch the hosts before draining, to observe every resulting task termination.
+      if (!activeTasks.isEmpty()) {
+        watchHosts(store, requestId, activeTasks);
+      }
+      for (Map.Entry<String, Set<String>> entry : Multimaps.asMap(activeTasks).entrySet()) {
+        LOG.info("Draining tasks: {} on host: {}", entry.getValue(), entry.getKey());
+        for (String taskId : entry.getValue()) {
+          stateManager.changeState(
+              store,
+              taskId,
+              Optional.absent(),
+              ScheduleStatus.DRAINING,
+              DRAINING_MESSAGE);
         }
       }
 
@@ -151,6 +289,16 @@ public interface MaintenanceController {
           .build();
     }
 
+    private void maybeDrained(MutableStoreProvider store, String host) {
+      // Maintenance on the host may have ended in the meantime.
+      Optional<IHostAttributes> attributes = store.getAttributeStore().getHostAttributes(host);
+      if (attributes.isPresent() && attributes.get().getMode() == DRAINING) {
+        LOG.info("Moving host {} into DRAINED", host);
+        setMaintenanceMode(store, ImmutableSet.of(host), DRAINED);
+        hostDrained(host);
+      }
+    }
+
     /**
      * Notifies the MaintenanceController that a task has changed state.
      *
@@ -160,30 +308,39 @@ public interface MaintenanceController {
     public void taskChangedState(final TaskStateChange change) {
       if (Tasks.isTerminated(change.getNewState())) {
         final String host = change.getTask().getAssignedTask().getSlaveHost();
-        batchWorker.execute(store -> {
-          // If the task _was_ associated with a draining host, and it was the last task on the
-          // host.
-          Optional<IHostAttributes> attributes =
-              store.getAttributeStore().getHostAttributes(host);
-          if (attributes.isPresent() && attributes.get().getMode() == DRAINING) {
-            Query.Builder builder = Query.slaveScoped(host).active();
-            Iterable<IScheduledTask> activeTasks = store.getTaskStore().fetchTasks(builder);
-            if (Iterables.isEmpty(activeTasks)) {
-              LOG.info("Moving host {} into DRAINED", host);
-              setMaintenanceMode(store, ImmutableSet.of(host), DRAINED);
-            } else {
-              LOG.info("Host {} is DRAINING with active tasks: {}", host, Tasks.ids(activeTasks));
-            }
+        final String taskId = change.getTaskId();
+        boolean loaded;
+        synchronized (this) {
+          loaded = drainingTasks != null;
+        }
+
+        if (loaded) {
+          // Storage is only revisited once the last active task on a draining host terminated.
+          if (taskTerminated(host, taskId)) {
+            batchWorker.execute(store -> {
+              maybeDrained(store, host);
+              return BatchWorker.NO_RESULT;
+            });
           }
-          return BatchWorker.NO_RESULT;
-        });
+        } else {
+          batchWorker.execute(store -> {
+            // Loading drains any host whose last active task already terminated.
+            loadDrainingTasks(store);
+            if (taskTerminated(host, taskId)) {
+              maybeDrained(store, host);
+            }
+            return BatchWorker.NO_RESULT;
+          });
+        }
       }
     }
 
     @Override
     public Set<IHostStatus> startMaintenance(Set<String> hosts) {
-      return storage.write(
-          storeProvider -> setMaintenanceMode(storeProvider, hosts, MaintenanceMode.SCHEDULED));
+      return storage.write(storeProvider -> {
+        unwatchHosts(hosts);
+        return setMaintenanceMode(storeProvider, hosts, MaintenanceMode.SCHEDULED);
+      });
     }
 
     @VisibleForTesting
@@ -226,8 +383,10 @@ public interface MaintenanceController {
 
     @Override
     public Set<IHostStatus> endMaintenance(final Set<String> hosts) {
-      return storage.write(
-          storeProvider -> setMaintenanceMode(storeProvider, hosts, MaintenanceMode.NONE));
+      return storage.write(storeProvider -> {
+        unwatchHosts(hosts);
+        return setMaintenanceMode(storeProvider, hosts, MaintenanceMode.NONE);
+      });
     }
 
     private Set<IHostStatus> setMaintenanceMode(
@@ -13,6 +13,8 @@
  */
 package org.apache.aurora.scheduler.state;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.util.List;
@@ -21,6 +23,7 @@ import java.util.Set;
 import java.util.function.Function;
 
 import javax.inject.Inject;
+import javax.inject.Qualifier;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
@@ -46,7 +49,9 @@ import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.events.EventSink;
 import org.apache.aurora.scheduler.events.PubsubEvent;
 import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
 import org.apache.aurora.scheduler.mesos.Driver;
+import org.apache.aurora.scheduler.quota.ConsumptionCache;
 import org.apache.aurora.scheduler.scheduling.RescheduleCalculator;
 import org.apache.aurora.scheduler.state.SideEffect.Action;
 import org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
@@ -54,10 +59,15 @@ import org.apache.aurora.scheduler.storage.TaskStore;
 import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.apache.aurora.scheduler.storage.entities.ITaskEvent;
 import org.apache.mesos.Protos.SlaveID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static java.util.Objects.requireNonNull;
 
 import static org.apache.aurora.common.base.MorePreconditions.checkNotBlank;
@@ -75,11 +85,21 @@ import static org.apache.aurora.scheduler.state.StateChangeResult.SUCCESS;
 public class StateManagerImpl implements StateManager {
   private static final Logger LOG = LoggerFactory.getLogger(StateManagerImpl.class);
 
+  /**
+   * Binding annotation for the maximum number of events retained in the history of a task.
+   */
+  @VisibleForTesting
+  @Qualifier
+  @Target({ FIELD, PARAMETER, METHOD }) @Retention(RUNTIME)
+  public @interface MaxTaskEvents { }
+
   private final Clock clock;
   private final Driver driver;
   private final TaskIdGenerator taskIdGenerator;
   private final EventSink eventSink;
   private final RescheduleCalculator rescheduleCalculator;
+  private final int maxTaskEvents;
+  private final ConsumptionCache consumptionCache;
 
   @Inject
   StateManagerImpl(
@@ -87,13 +107,21 @@ public class StateManagerImpl implements StateManager {
       Driver driver,
       TaskIdGenerator taskIdGenerator,
       EventSink eventSink,
-      RescheduleCalculator rescheduleCalculator) {
+      RescheduleCalculator rescheduleCalculator,
+      @MaxTaskEvents int maxTaskEvents,
+      ConsumptionCache consumptionCache) {
 
     this.clock = requireNonNull(clock);
     this.driver = requireNonNull(driver);
     this.taskIdGenerator = requireNonNull(taskIdGenerator);
     this.eventSink = requireNonNull(eventSink);
     this.rescheduleCalculator = requireNonNull(rescheduleCalculator);
+    Preconditions.checkArgument(
+        maxTaskEvents >= 2,
+        "At least two task events must be retained, got %s",
+        maxTaskEvents);
+    this.maxTaskEvents = maxTaskEvents;
+    this.consumptionCache = requireNonNull(consumptionCache);
   }
 
   private IScheduledTask createTask(int instanceId, ITaskConfig template) {
@@ -172,14 +200,9 @@ public class StateManagerImpl implements StateManager {
     requireNonNull(resourceAssigner);
 
     IScheduledTask mutated = storeProvider.getUnsafeTaskStore().mutateTask(taskId,
-        task -> {
-          ScheduledTask builder = task.newBuilder();
-          builder.setAssignedTask(resourceAssigner.apply(task.getAssignedTask()).newBuilder());
-          builder.getAssignedTask()
-              .setSlaveHost(slaveHost)
-              .setSlaveId(slaveId.getValue());
-          return IScheduledTask.build(builder);
-        }).get();
+        task -> task.withAssignedTask(resourceAssigner.apply(task.getAssignedTask())
+            .withSlaveHost(slaveHost)
+            .withSlaveId(slaveId.getValue()))).get();
 
     StateChangeResult changeResult = updateTaskAndExternalState(
         storeProvider.getUnsafeTaskStore(),
@@ -208,6 +231,28 @@ public class StateManagerImpl implements StateManager {
         }
       });
 
+  /**
+   * Appends an event to a task's event history, discarding the oldest events beyond
+   * {@code maxEvents}.  The first event is always retained since it records when the task was
+   * created.
+   *
+   * @param events Existing event history, oldest first.
+   * @param event Event to append.
+   * @param maxEvents Maximum number of events to retain, at least two.
+   * @return The updated event history.
+   */
+  @VisibleForTesting
+  static List<ITaskEvent> appendEvent(List<ITaskEvent> events, ITaskEvent event, int maxEvents) {
+    ImmutableList.Builder<ITaskEvent> updated = ImmutableList.builder();
+    if (events.size() < maxEvents) {
+      updated.addAll(events);
+    } else {
+      updated.add(events.get(0));
+      updated.addAll(events.subList(events.size() - maxEvents + 2, events.size()));
+    }
+    return updated.add(event).build();
+  }
+
   private StateChangeResult updateTaskAndExternalState(
       TaskStore.Mutable taskStore,
       Optional<ScheduleStatus> casState,
@@ -280,8 +325,9 @@ public class StateManagerImpl implements StateManager {
 
       switch (sideEffect.getAction()) {
         case INCREMENT_FAILURES:
-          taskStore.mutateTask(taskId, task1 -> IScheduledTask.build(
-              task1.newBuilder().setFailureCount(task1.getFailureCount() + 1)));
+          taskStore.mutateTask(
+              taskId,
+              task1 -> task1.withFailureCount(task1.getFailureCount() + 1));
           break;
 
         case SAVE_STATE:
@@ -290,17 +336,24 @@ public class StateManagerImpl implements StateManager {
               "Operation expected task %s to be present.",
               taskId);
 
-          Optional<IScheduledTask> mutated = taskStore.mutateTask(taskId, task1 -> {
-            ScheduledTask mutableTask = task1.newBuilder();
-            mutableTask.setStatus(targetState.get());
-            mutableTask.addToTaskEvents(new TaskEvent()
-                .setTimestamp(clock.nowMillis())
-                .setStatus(targetState.get())
-                .setMessage(transitionMessage.orNull())
-                .setScheduler(LOCAL_HOST_SUPPLIER.get()));
-            return IScheduledTask.build(mutableTask);
-          });
-          events.add(TaskStateChange.transition(mutated.get(), stateMachine.getPreviousState()));
+          // The task config and assignment are shared with the stored task, only the status and
+          // event list are replaced.
+          Optional<IScheduledTask> mutated = taskStore.mutateTask(taskId, task1 -> task1
+              .withStatus(targetState.get())
+              .withTaskEvents(appendEvent(
+                  task1.getTaskEvents(),
+                  ITaskEvent.build(new TaskEvent()
+                      .setTimestamp(clock.nowMillis())
+                      .setStatus(targetState.get())
+                      .setMessage(transitionMessage.orNull())
+                      .setScheduler(LOCAL_HOST_SUPPLIER.get())),
+                  maxTaskEvents)));
+          TaskStateChange stateChange =
+              TaskStateChange.transition(mutated.get(), stateMachine.getPreviousState());
+          // Unlike pubsub subscribers, quota consumption must be updated within the write
+          // operation, as quota checks of the next write operation rely on it.
+          consumptionCache.taskChangedState(stateChange);
+          events.add(stateChange);
           break;
 
         case RESCHEDULE:
@@ -347,7 +400,9 @@ public class StateManagerImpl implements StateManager {
               "Operation expected task %s to be present.",
               taskId);
 
-          events.add(deleteTasks(taskStore, ImmutableSet.of(taskId)));
+          TasksDeleted deleted = deleteTasks(taskStore, ImmutableSet.of(taskId));
+          consumptionCache.tasksDeleted(deleted);
+          events.add(deleted);
           break;
 
         default:
@@ -383,9 +438,9 @@ public class StateManagerImpl implements StateManager {
     }
   }
 
-  private static PubsubEvent deleteTasks(TaskStore.Mutable taskStore, Set<String> taskIds) {
+  private static TasksDeleted deleteTasks(TaskStore.Mutable taskStore, Set<String> taskIds) {
     Iterable<IScheduledTask> tasks = taskStore.fetchTasks(Query.taskScoped(taskIds));
     taskStore.deleteTasks(taskIds);
-    return new PubsubEvent.TasksDeleted(ImmutableSet.copyOf(tasks));
+    return new TasksDeleted(ImmutableSet.copyOf(tasks));
   }
 }
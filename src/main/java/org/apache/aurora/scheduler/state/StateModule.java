@@ -18,12 +18,19 @@ import javax.inject.Singleton;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.AbstractModule;
 import com.google.inject.Binder;
+import com.google.inject.TypeLiteral;
 
+import org.apache.aurora.common.args.Arg;
+import org.apache.aurora.common.args.CmdLine;
+import org.apache.aurora.common.args.constraints.Positive;
+import org.apache.aurora.common.args.constraints.Range;
 import org.apache.aurora.scheduler.events.PubsubEventModule;
 import org.apache.aurora.scheduler.mesos.MesosTaskFactory;
 import org.apache.aurora.scheduler.mesos.MesosTaskFactory.MesosTaskFactoryImpl;
 import org.apache.aurora.scheduler.state.MaintenanceController.MaintenanceControllerImpl;
+import org.apache.aurora.scheduler.state.StateManagerImpl.MaxTaskEvents;
 import org.apache.aurora.scheduler.state.TaskAssigner.TaskAssignerImpl;
+import org.apache.aurora.scheduler.state.TaskAssigner.TaskAssignerImpl.MaxTasksPerOffer;
 import org.apache.aurora.scheduler.state.UUIDGenerator.UUIDGeneratorImpl;
 
 /**
@@ -31,12 +38,33 @@ import org.apache.aurora.scheduler.state.UUIDGenerator.UUIDGeneratorImpl;
  */
 public class StateModule extends AbstractModule {
 
+  @Range(lower = 2, upper = Integer.MAX_VALUE)
+  @CmdLine(name = "max_task_events",
+      help = "Maximum number of state transition events retained in the history of a task. The "
+          + "first event is always retained, the oldest of the remaining events are discarded.")
+  private static final Arg<Integer> MAX_TASK_EVENTS = Arg.create(50);
+
+  @Positive
+  @CmdLine(name = "max_tasks_per_offer",
+      help = "Maximum number of tasks of a group launched on a single offer in a scheduling "
+          + "round. Each additional task is matched against the resources left in the offer by "
+          + "the tasks launched on it before.")
+  private static final Arg<Integer> MAX_TASKS_PER_OFFER = Arg.create(1);
+
   @Override
   protected void configure() {
+    bind(new TypeLiteral<Integer>() { })
+        .annotatedWith(MaxTasksPerOffer.class)
+        .toInstance(MAX_TASKS_PER_OFFER.get());
     bind(TaskAssigner.class).to(TaskAssignerImpl.class);
     bind(TaskAssignerImpl.class).in(Singleton.class);
     bind(MesosTaskFactory.class).to(MesosTaskFactoryImpl.class);
+    bind(MesosTaskFactoryImpl.class).in(Singleton.class);
+    PubsubEventModule.bindSubscriber(binder(), MesosTaskFactoryImpl.class);
 
+    bind(new TypeLiteral<Integer>() { })
+        .annotatedWith(MaxTaskEvents.class)
+        .toInstance(MAX_TASK_EVENTS.get());
     bind(StateManager.class).to(StateManagerImpl.class);
     bind(StateManagerImpl.class).in(Singleton.class);
 
@@ -13,17 +13,22 @@
  */
 package org.apache.aurora.scheduler.state;
 
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
+import javax.inject.Qualifier;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Multimap;
 
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
 import org.apache.aurora.common.stats.Stats;
@@ -38,17 +43,27 @@ import org.apache.aurora.scheduler.filter.SchedulingFilter.Veto;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.VetoGroup;
 import org.apache.aurora.scheduler.mesos.MesosTaskFactory;
 import org.apache.aurora.scheduler.offers.OfferManager;
+import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceManager;
 import org.apache.aurora.scheduler.resources.ResourceType;
 import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
+import org.apache.mesos.Protos.OfferID;
 import org.apache.mesos.Protos.TaskInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
 import static java.util.Objects.requireNonNull;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import static org.apache.aurora.gen.ScheduleStatus.LOST;
 import static org.apache.aurora.gen.ScheduleStatus.PENDING;
+import static org.apache.aurora.scheduler.resources.ResourceManager.bagFromMesosResources;
+import static org.apache.aurora.scheduler.resources.ResourceManager.getOfferResources;
 import static org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
 import static org.apache.mesos.Protos.Offer;
 
@@ -81,6 +96,14 @@ public interface TaskAssigner {
     static final Optional<String> LAUNCH_FAILED_MSG =
         Optional.of("Unknown exception attempting to schedule task.");
 
+    /**
+     * Binding annotation for the maximum number of tasks of a group launched on one offer.
+     */
+    @VisibleForTesting
+    @Qualifier
+    @Target({ FIELD, PARAMETER, METHOD }) @Retention(RUNTIME)
+    public @interface MaxTasksPerOffer { }
+
     private final AtomicLong launchFailures = Stats.exportLong("assigner_launch_failures");
 
     private final StateManager stateManager;
@@ -88,6 +111,7 @@ public interface TaskAssigner {
     private final MesosTaskFactory taskFactory;
     private final OfferManager offerManager;
     private final TierManager tierManager;
+    private final int maxTasksPerOffer;
 
     @Inject
     public TaskAssignerImpl(
@@ -95,13 +119,16 @@ public interface TaskAssigner {
         SchedulingFilter filter,
         MesosTaskFactory taskFactory,
         OfferManager offerManager,
-        TierManager tierManager) {
+        TierManager tierManager,
+        @MaxTasksPerOffer int maxTasksPerOffer) {
 
       this.stateManager = requireNonNull(stateManager);
       this.filter = requireNonNull(filter);
       this.taskFactory = requireNonNull(taskFactory);
       this.offerManager = requireNonNull(offerManager);
       this.tierManager = requireNonNull(tierManager);
+      checkArgument(maxTasksPerOffer > 0, "At least one task must fit on an offer.");
+      this.maxTasksPerOffer = maxTasksPerOffer;
     }
 
     @VisibleForTesting
@@ -147,9 +174,12 @@ public interface TaskAssigner {
       }
 
       TierInfo tierInfo = tierManager.getTier(groupKey.getTask());
-      ImmutableSet.Builder<String> assignmentResult = ImmutableSet.builder();
+      ImmutableListMultimap.Builder<OfferID, String> assignedTasks =
+          ImmutableListMultimap.builder();
+      ImmutableListMultimap.Builder<OfferID, TaskInfo> launches = ImmutableListMultimap.builder();
       Iterator<String> remainingTasks = taskIds.iterator();
       String taskId = remainingTasks.next();
+      boolean allAssigned = false;
 
       for (HostOffer offer : offerManager.getOffers(groupKey)) {
         Optional<TaskGroupKey> reservedGroup = Optional.fromNullable(
@@ -160,53 +190,97 @@ public interface TaskAssigner {
           continue;
         }
 
-        Set<Veto> vetoes = filter.filter(
-            new UnusedResource(offer.getResourceBag(tierInfo), offer.getAttributes()),
-            resourceRequest);
+        // Tasks of the group are packed onto the offer until it is vetoed, each one matched
+        // against the resources that remain after the tasks assigned to it before.
+        Offer available = offer.getOffer();
+        ResourceBag availableBag = offer.getResourceBag(tierInfo);
+        for (int packed = 0; packed < maxTasksPerOffer; packed++) {
+          Set<Veto> vetoes = filter.filter(
+              new UnusedResource(availableBag, offer.getAttributes()),
+              resourceRequest);
 
-        if (vetoes.isEmpty()) {
-          TaskInfo taskInfo = assign(
-              storeProvider,
-              offer.getOffer(),
-              taskId);
+          if (!vetoes.isEmpty()) {
+            if (packed == 0 && Veto.identifyGroup(vetoes) == VetoGroup.STATIC) {
+              // Never attempt to match this offer/groupKey pair again.
+              offerManager.banOffer(offer.getOffer().getId(), groupKey);
+            }
+            LOG.debug(
+                "Agent {} vetoed task {}: {}",
+                offer.getOffer().getHostname(),
+                taskId,
+                vetoes);
+            break;
+          }
 
-          resourceRequest.getJobState().updateAttributeAggregate(offer.getAttributes());
+          TaskInfo taskInfo = assign(storeProvider, available, taskId);
 
-          try {
-            offerManager.launchTask(offer.getOffer().getId(), taskInfo);
-            assignmentResult.add(taskId);
+          resourceRequest.getJobState().updateAttributeAggregate(offer.getAttributes());
+          assignedTasks.put(offer.getOffer().getId(), taskId);
+          launches.put(offer.getOffer().getId(), taskInfo);
 
-            if (remainingTasks.hasNext()) {
-              taskId = remainingTasks.next();
-            } else {
-              break;
-            }
-          } catch (OfferManager.LaunchException e) {
-            LOG.warn("Failed to launch task.", e);
-            launchFailures.incrementAndGet();
-
-            // The attempt to schedule the task failed, so we need to backpedal on the
-            // assignment.
-            // It is in the LOST state and a new task will move to PENDING to replace it.
-            // Should the state change fail due to storage issues, that's okay.  The task will
-            // time out in the ASSIGNED state and be moved to LOST.
-            stateManager.changeState(
-                storeProvider,
-                taskId,
-                Optional.of(PENDING),
-                LOST,
-                LAUNCH_FAILED_MSG);
+          if (remainingTasks.hasNext()) {
+            taskId = remainingTasks.next();
+          } else {
+            allAssigned = true;
             break;
           }
-        } else {
-          if (Veto.identifyGroup(vetoes) == VetoGroup.STATIC) {
-            // Never attempt to match this offer/groupKey pair again.
-            offerManager.banOffer(offer.getOffer().getId(), groupKey);
+
+          if (packed + 1 < maxTasksPerOffer) {
+            available = ResourceManager.getRemainingOffer(available, Iterables.concat(
+                taskInfo.getResourcesList(),
+                taskInfo.getExecutor().getResourcesList()));
+            availableBag = bagFromMesosResources(getOfferResources(available, tierInfo));
           }
-          LOG.debug("Agent {} vetoed task {}: {}", offer.getOffer().getHostname(), taskId, vetoes);
         }
+
+        if (allAssigned) {
+          break;
+        }
+      }
+
+      return launch(storeProvider, assignedTasks.build(), launches.build());
+    }
+
+    private Set<String> launch(
+        MutableStoreProvider storeProvider,
+        Multimap<OfferID, String> assignedTasks,
+        Multimap<OfferID, TaskInfo> launches) {
+
+      if (launches.isEmpty()) {
+        return ImmutableSet.of();
       }
 
+      // Tasks assigned in this round are launched together, so that the driver is called once per
+      // round rather than once per task.  Offers are launched independently, only the tasks of
+      // offers that were not launched are backed out below.
+      Set<OfferID> launched;
+      try {
+        launched = offerManager.launchTasks(launches);
+      } catch (OfferManager.LaunchException e) {
+        LOG.warn("Failed to launch tasks.", e);
+        launched = ImmutableSet.of();
+      }
+
+      ImmutableSet.Builder<String> assignmentResult = ImmutableSet.builder();
+      for (Map.Entry<OfferID, String> entry : assignedTasks.entries()) {
+        if (launched.contains(entry.getKey())) {
+          assignmentResult.add(entry.getValue());
+        } else {
+          launchFailures.incrementAndGet();
+
+          // The attempt to schedule the task failed, so we need to backpedal on the
+          // assignment.
+          // It is in the LOST state and a new task will move to PENDING to replace it.
+          // Should the state change fail due to storage issues, that's okay.  The task will
+          // time out in the ASSIGNED state and be moved to LOST.
+          stateManager.changeState(
+              storeProvider,
+              entry.getValue(),
+              Optional.of(PENDING),
+              LOST,
+              LAUNCH_FAILED_MSG);
+        }
+      }
       return assignmentResult.build();
     }
   }
@@ -36,6 +36,7 @@ import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceManager;
 import org.apache.aurora.scheduler.storage.Storage;
 import org.apache.aurora.scheduler.storage.Storage.StorageException;
+import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
 import org.apache.aurora.scheduler.storage.entities.IResourceAggregate;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 
@@ -55,10 +56,9 @@ public class ResourceCounter {
     this.storage = Objects.requireNonNull(storage);
   }
 
-  private Iterable<ITaskConfig> getTasks(Query.Builder query) throws StorageException {
-    return Iterables.transform(
-        Storage.Util.fetchTasks(storage, query),
-        Tasks::getConfig);
+  private static Iterable<ITaskConfig> getTasks(StoreProvider storeProvider, Query.Builder query) {
+    // Tasks are streamed rather than copied, so they must be consumed within the storage operation.
+    return storeProvider.getTaskStore().fetchTasksLazily(query).transform(Tasks::getConfig);
   }
 
   private static final Function<MetricType, Metric> TO_METRIC = Metric::new;
@@ -74,12 +74,14 @@ public class ResourceCounter {
         .transform(TO_METRIC)
         .toList();
 
-    for (ITaskConfig task : getTasks(Query.unscoped().active())) {
-      for (Metric count : counts) {
-        count.accumulate(task);
+    return storage.read(storeProvider -> {
+      for (ITaskConfig task : getTasks(storeProvider, Query.unscoped().active())) {
+        for (Metric count : counts) {
+          count.accumulate(task);
+        }
       }
-    }
-    return counts;
+      return counts;
+    });
   }
 
   /**
@@ -118,10 +120,12 @@ public class ResourceCounter {
             return new Metric();
           }
         });
-    for (ITaskConfig task : Iterables.filter(getTasks(query), filter)) {
-      metrics.getUnchecked(keyFunction.apply(task)).accumulate(task);
-    }
-    return metrics.asMap();
+    return storage.read(storeProvider -> {
+      for (ITaskConfig task : Iterables.filter(getTasks(storeProvider, query), filter)) {
+        metrics.getUnchecked(keyFunction.apply(task)).accumulate(task);
+      }
+      return metrics.asMap();
+    });
   }
 
   public enum MetricType {
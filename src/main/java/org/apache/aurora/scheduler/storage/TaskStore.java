@@ -13,13 +13,18 @@
  */
 package org.apache.aurora.scheduler.storage;
 
+import java.util.List;
 import java.util.Set;
 
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 
+import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.storage.entities.IJobKey;
@@ -49,6 +54,20 @@ public interface TaskStore {
    */
   Iterable<IScheduledTask> fetchTasks(Query.Builder query);
 
+  /**
+   * Fetches a lazily-evaluated view of tasks matching a query.  This avoids materializing the
+   * result for callers that only count, test for emptiness or stream over the matching tasks.
+   * <p>
+   * The returned iterable reflects the store at the time it is iterated, and must not be used
+   * outside of the storage operation it was obtained in.
+   *
+   * @param query Builder of the query to identify tasks with.
+   * @return A lazily-evaluated view of matching tasks.
+   */
+  default Iterable<IScheduledTask> fetchTasksLazily(Query.Builder query) {
+    return fetchTasks(query);
+  }
+
   /**
    * Fetches all job keys represented in the task store.
    *
@@ -114,6 +133,42 @@ public interface TaskStore {
      *         exist in the store.
      */
     boolean unsafeModifyInPlace(String taskId, ITaskConfig taskConfiguration);
+
+    /**
+     * Executes a storage read operation.  Stores that isolate readers from writers evaluate all
+     * queries of the operation against the same point-in-time view of the store.
+     *
+     * @param work Read operation to execute.
+     * @param storeProvider Store provider to execute {@code work} with.
+     * @param <T> Type of the result of {@code work}.
+     * @param <E> Type of exception thrown by {@code work}.
+     * @return The result of {@code work}.
+     * @throws E If {@code work} fails.
+     */
+    default <T, E extends Exception> T executeRead(
+        Storage.Work<T, E> work,
+        Storage.StoreProvider storeProvider) throws E {
+
+      return work.apply(storeProvider);
+    }
+
+    /**
+     * Executes a storage write operation.  Stores that isolate readers from writers make the
+     * changes of the operation visible to other threads only once it completes.
+     *
+     * @param work Write operation to execute.
+     * @param storeProvider Store provider to execute {@code work} with.
+     * @param <T> Type of the result of {@code work}.
+     * @param <E> Type of exception thrown by {@code work}.
+     * @return The result of {@code work}.
+     * @throws E If {@code work} fails.
+     */
+    default <T, E extends Exception> T executeWrite(
+        Storage.MutateWork<T, E> work,
+        Storage.MutableStoreProvider storeProvider) throws E {
+
+      return work.apply(storeProvider);
+    }
   }
 
   final class Util {
@@ -121,45 +176,61 @@ public interface TaskStore {
       // Utility class.
     }
 
-    public static Predicate<IScheduledTask> queryFilter(final Query.Builder queryBuilder) {
-      return task -> {
-        ITaskQuery query = queryBuilder.get();
-        ITaskConfig config = task.getAssignedTask().getTask();
-        // TODO(wfarner): Investigate why blank inputs are treated specially for the role field.
-        if (query.getRole() != null
-            && !CharMatcher.whitespace().matchesAllOf(query.getRole())
-            && !query.getRole().equals(config.getJob().getRole())) {
-          return false;
-        }
-        if (query.getEnvironment() != null
-            && !query.getEnvironment().equals(config.getJob().getEnvironment())) {
-          return false;
-        }
-        if (query.getJobName() != null && !query.getJobName().equals(config.getJob().getName())) {
-          return false;
-        }
-
-        if (!query.getJobKeys().isEmpty() && !query.getJobKeys().contains(config.getJob())) {
-          return false;
-        }
-        if (!query.getTaskIds().isEmpty() && !query.getTaskIds().contains(Tasks.id(task))) {
-          return false;
-        }
-
-        if (!query.getStatuses().isEmpty() && !query.getStatuses().contains(task.getStatus())) {
-          return false;
-        }
-        if (!query.getSlaveHosts().isEmpty()
-            && !query.getSlaveHosts().contains(task.getAssignedTask().getSlaveHost())) {
-          return false;
-        }
-        if (!query.getInstanceIds().isEmpty()
-            && !query.getInstanceIds().contains(task.getAssignedTask().getInstanceId())) {
-          return false;
-        }
-
-        return true;
-      };
+    /**
+     * Compiles a query into a predicate that matches tasks.  The query is evaluated once, only
+     * fields that are set in the query are checked, and checks are ordered so that the most
+     * selective fields are tested first.
+     *
+     * @param queryBuilder Query to compile.
+     * @return A predicate matching tasks that satisfy the query.
+     */
+    public static Predicate<IScheduledTask> queryFilter(Query.Builder queryBuilder) {
+      ITaskQuery query = queryBuilder.get();
+      ImmutableList.Builder<Predicate<IScheduledTask>> filters = ImmutableList.builder();
+
+      if (!query.getTaskIds().isEmpty()) {
+        Set<String> taskIds = query.getTaskIds();
+        filters.add(task -> taskIds.contains(Tasks.id(task)));
+      }
+      if (!query.getInstanceIds().isEmpty()) {
+        Set<Integer> instanceIds = query.getInstanceIds();
+        filters.add(task -> instanceIds.contains(task.getAssignedTask().getInstanceId()));
+      }
+      if (!query.getJobKeys().isEmpty()) {
+        Set<IJobKey> jobKeys = query.getJobKeys();
+        filters.add(task -> jobKeys.contains(Tasks.getJob(task)));
+      }
+      if (query.getJobName() != null) {
+        String jobName = query.getJobName();
+        filters.add(task -> jobName.equals(Tasks.getJob(task).getName()));
+      }
+      if (!query.getSlaveHosts().isEmpty()) {
+        Set<String> slaveHosts = query.getSlaveHosts();
+        filters.add(task -> slaveHosts.contains(task.getAssignedTask().getSlaveHost()));
+      }
+      if (query.getEnvironment() != null) {
+        String environment = query.getEnvironment();
+        filters.add(task -> environment.equals(Tasks.getJob(task).getEnvironment()));
+      }
+      // TODO(wfarner): Investigate why blank inputs are treated specially for the role field.
+      if (query.getRole() != null && !CharMatcher.whitespace().matchesAllOf(query.getRole())) {
+        String role = query.getRole();
+        filters.add(task -> role.equals(Tasks.getJob(task).getRole()));
+      }
+      if (!query.getStatuses().isEmpty()) {
+        Set<ScheduleStatus> statuses = Sets.immutableEnumSet(query.getStatuses());
+        filters.add(task -> statuses.contains(task.getStatus()));
+      }
+
+      List<Predicate<IScheduledTask>> compiled = filters.build();
+      switch (compiled.size()) {
+        case 0:
+          return Predicates.alwaysTrue();
+        case 1:
+          return compiled.get(0);
+        default:
+          return Predicates.and(compiled);
+      }
     }
   }
 }
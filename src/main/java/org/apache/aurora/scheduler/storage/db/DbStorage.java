@@ -68,6 +68,7 @@ class DbStorage extends AbstractIdleService implements Storage {
 
   private final SqlSessionFactory sessionFactory;
   private final MutableStoreProvider storeProvider;
+  private final TaskStore.Mutable taskStore;
   private final EnumValueMapper enumValueMapper;
   private final GatedWorkQueue gatedWorkQueue;
   private final StatsProvider statsProvider;
@@ -90,7 +91,7 @@ class DbStorage extends AbstractIdleService implements Storage {
     this.enumValueMapper = requireNonNull(enumValueMapper);
     this.gatedWorkQueue = requireNonNull(gatedWorkQueue);
     requireNonNull(cronJobStore);
-    requireNonNull(taskStore);
+    this.taskStore = requireNonNull(taskStore);
     requireNonNull(schedulerStore);
     requireNonNull(attributeStore);
     requireNonNull(lockStore);
@@ -151,7 +152,7 @@ class DbStorage extends AbstractIdleService implements Storage {
   @Transactional
   public <T, E extends Exception> T read(Work<T, E> work) throws StorageException, E {
     try {
-      return work.apply(storeProvider);
+      return taskStore.executeRead(work, storeProvider);
     } catch (PersistenceException e) {
       throw new StorageException(e.getMessage(), e);
     }
@@ -159,7 +160,7 @@ class DbStorage extends AbstractIdleService implements Storage {
 
   @Transactional
   <T, E extends Exception> T transactionedWrite(MutateWork<T, E> work) throws E {
-    return work.apply(storeProvider);
+    return taskStore.executeWrite(work, storeProvider);
   }
 
   @Timed("db_storage_write_operation")
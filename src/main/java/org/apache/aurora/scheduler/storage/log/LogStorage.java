@@ -16,6 +16,7 @@ package org.apache.aurora.scheduler.storage.log;
 import java.io.IOException;
 import java.util.Date;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
@@ -26,6 +27,7 @@ import javax.inject.Inject;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import org.apache.aurora.codec.ThriftBinaryCodec.CodingException;
@@ -35,14 +37,19 @@ import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.gen.HostAttributes;
+import org.apache.aurora.gen.ScheduledTask;
+import org.apache.aurora.gen.TaskConfig;
+import org.apache.aurora.gen.storage.DeduplicatedScheduledTask;
 import org.apache.aurora.gen.storage.LogEntry;
 import org.apache.aurora.gen.storage.Op;
 import org.apache.aurora.gen.storage.RewriteTask;
 import org.apache.aurora.gen.storage.SaveCronJob;
 import org.apache.aurora.gen.storage.SaveJobInstanceUpdateEvent;
 import org.apache.aurora.gen.storage.SaveJobUpdateEvent;
+import org.apache.aurora.gen.storage.SavePartialTasks;
 import org.apache.aurora.gen.storage.SaveQuota;
 import org.apache.aurora.gen.storage.Snapshot;
+import org.apache.aurora.gen.storage.storageConstants;
 import org.apache.aurora.scheduler.base.AsyncUtil;
 import org.apache.aurora.scheduler.base.SchedulerException;
 import org.apache.aurora.scheduler.events.EventSink;
@@ -67,6 +74,7 @@ import org.apache.aurora.scheduler.storage.entities.IJobUpdateEvent;
 import org.apache.aurora.scheduler.storage.entities.IJobUpdateKey;
 import org.apache.aurora.scheduler.storage.entities.ILock;
 import org.apache.aurora.scheduler.storage.entities.ILockKey;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -225,6 +233,7 @@ public class LogStorage implements NonVolatileStorage, DistributedSnapshotStore
         new ScheduledExecutorSchedulingService(shutdownRegistry, settings.getShutdownGracePeriod()),
         snapshotStore,
         settings.getSnapshotInterval(),
+        settings.isWritePartialTasks(),
         storage,
         schedulerStore,
         jobStore,
@@ -244,6 +253,7 @@ public class LogStorage implements NonVolatileStorage, DistributedSnapshotStore
       SchedulingService schedulingService,
       SnapshotStore<Snapshot> snapshotStore,
       Amount<Long, Time> snapshotInterval,
+      boolean writePartialTasks,
       Storage delegateStorage,
       SchedulerStore.Mutable schedulerStore,
       CronJobStore.Mutable jobStore,
@@ -296,7 +306,8 @@ public class LogStorage implements NonVolatileStorage, DistributedSnapshotStore
         attributeStore,
         jobUpdateStore,
         LoggerFactory.getLogger(WriteAheadStorage.class),
-        eventSink);
+        eventSink,
+        writePartialTasks);
 
     this.logEntryReplayActions = buildLogEntryReplayActions();
     this.transactionReplayActions = buildTransactionReplayActions();
@@ -339,6 +350,10 @@ public class LogStorage implements NonVolatileStorage, DistributedSnapshotStore
             Op._Fields.SAVE_TASKS,
             op -> writeBehindTaskStore.saveTasks(
                 thriftBackfill.backfillTasks(op.getSaveTasks().getTasks())))
+        .put(
+            Op._Fields.SAVE_PARTIAL_TASKS,
+            op -> writeBehindTaskStore.saveTasks(
+                thriftBackfill.backfillTasks(expandPartialTasks(op.getSavePartialTasks()))))
         .put(Op._Fields.REWRITE_TASK, op -> {
           RewriteTask rewriteTask = op.getRewriteTask();
           writeBehindTaskStore.unsafeModifyInPlace(
@@ -395,6 +410,35 @@ public class LogStorage implements NonVolatileStorage, DistributedSnapshotStore
             op.getPruneJobUpdateHistory().getHistoryPruneThresholdMs())).build();
   }
 
+  /**
+   * Restores the full tasks described by a {@link SavePartialTasks} operation.  Tasks that
+   * reference the config of a stored task that no longer exists are dropped.
+   *
+   * @param op Operation to expand.
+   * @return The full tasks to save.
+   */
+  private Set<ScheduledTask> expandPartialTasks(SavePartialTasks op) {
+    ImmutableSet.Builder<ScheduledTask> tasks = ImmutableSet.builder();
+    for (DeduplicatedScheduledTask partialTask : op.getPartialTasks()) {
+      ScheduledTask task = new ScheduledTask(partialTask.getPartialScheduledTask());
+      TaskConfig config;
+      if (partialTask.getTaskConfigId() == storageConstants.STORED_TASK_CONFIG_ID) {
+        String taskId = task.getAssignedTask().getTaskId();
+        Optional<IScheduledTask> stored = writeBehindTaskStore.fetchTask(taskId);
+        if (!stored.isPresent()) {
+          LOG.warn("Dropping update to task " + taskId + " with no stored config.");
+          continue;
+        }
+        config = stored.get().getAssignedTask().getTask().newBuilder();
+      } else {
+        config = op.getTaskConfigs().get(partialTask.getTaskConfigId());
+      }
+      task.getAssignedTask().setTask(config);
+      tasks.add(task);
+    }
+    return tasks.build();
+  }
+
   @Override
   public synchronized void prepare() {
     writeBehindStorage.prepare();
@@ -578,10 +622,16 @@ public class LogStorage implements NonVolatileStorage, DistributedSnapshotStore
   public static class Settings {
     private final Amount<Long, Time> shutdownGracePeriod;
     private final Amount<Long, Time> snapshotInterval;
+    private final boolean writePartialTasks;
+
+    public Settings(
+        Amount<Long, Time> shutdownGracePeriod,
+        Amount<Long, Time> snapshotInterval,
+        boolean writePartialTasks) {
 
-    public Settings(Amount<Long, Time> shutdownGracePeriod, Amount<Long, Time> snapshotInterval) {
       this.shutdownGracePeriod = requireNonNull(shutdownGracePeriod);
       this.snapshotInterval = requireNonNull(snapshotInterval);
+      this.writePartialTasks = writePartialTasks;
     }
 
     public Amount<Long, Time> getShutdownGracePeriod() {
@@ -591,5 +641,9 @@ public class LogStorage implements NonVolatileStorage, DistributedSnapshotStore
     public Amount<Long, Time> getSnapshotInterval() {
       return snapshotInterval;
     }
+
+    public boolean isWritePartialTasks() {
+      return writePartialTasks;
+    }
   }
 }
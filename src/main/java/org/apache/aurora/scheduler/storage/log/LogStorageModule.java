@@ -64,10 +64,17 @@ public class LogStorageModule extends PrivateModule {
   public static final Arg<Amount<Integer, Data>> MAX_LOG_ENTRY_SIZE =
       Arg.create(Amount.of(512, Data.KB));
 
+  @CmdLine(name = "dlog_write_partial_tasks",
+           help = "Write task saves to the log as SavePartialTasks operations, which omit unchanged "
+                  + "task configs. Schedulers of prior versions cannot replay these operations.")
+  private static final Arg<Boolean> WRITE_PARTIAL_TASKS = Arg.create(false);
+
   @Override
   protected void configure() {
-    bind(Settings.class)
-        .toInstance(new Settings(SHUTDOWN_GRACE_PERIOD.get(), SNAPSHOT_INTERVAL.get()));
+    bind(Settings.class).toInstance(new Settings(
+        SHUTDOWN_GRACE_PERIOD.get(),
+        SNAPSHOT_INTERVAL.get(),
+        WRITE_PARTIAL_TASKS.get()));
 
     bind(new TypeLiteral<Boolean>() { }).annotatedWith(ExperimentalTaskStore.class)
         .toInstance(DbModule.USE_DB_TASK_STORE.get());
@@ -25,6 +25,7 @@ import javax.annotation.Nullable;
 import javax.inject.Inject;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
@@ -35,12 +36,15 @@ import com.google.inject.assistedinject.Assisted;
 
 import org.apache.aurora.common.stats.Stats;
 import org.apache.aurora.gen.ScheduledTask;
+import org.apache.aurora.gen.TaskConfig;
+import org.apache.aurora.gen.storage.DeduplicatedScheduledTask;
 import org.apache.aurora.gen.storage.Frame;
 import org.apache.aurora.gen.storage.FrameHeader;
 import org.apache.aurora.gen.storage.LogEntry;
 import org.apache.aurora.gen.storage.Op;
 import org.apache.aurora.gen.storage.RemoveTasks;
 import org.apache.aurora.gen.storage.SaveHostAttributes;
+import org.apache.aurora.gen.storage.SavePartialTasks;
 import org.apache.aurora.gen.storage.SaveTasks;
 import org.apache.aurora.gen.storage.Snapshot;
 import org.apache.aurora.gen.storage.Transaction;
@@ -288,6 +292,9 @@ class StreamManagerImpl implements StreamManager {
         case SAVE_TASKS:
           coalesce(prior.getSaveTasks(), next.getSaveTasks());
           return true;
+        case SAVE_PARTIAL_TASKS:
+          coalesce(prior.getSavePartialTasks(), next.getSavePartialTasks());
+          return true;
         case REMOVE_TASKS:
           coalesce(prior.getRemoveTasks(), next.getRemoveTasks());
           return true;
@@ -318,6 +325,51 @@ class StreamManagerImpl implements StreamManager {
       }
     }
 
+    private void coalesce(SavePartialTasks prior, SavePartialTasks next) {
+      if (!next.isSetPartialTasks()) {
+        return;
+      }
+
+      // As with SaveTasks, the most recent definition of a task overrides the prior operation.
+      // The config IDs of the next operation are shifted past the configs of the prior operation.
+      // A task that retains its stored config retains the config the prior operation saved it
+      // with, if any.
+      int configIdOffset = prior.getTaskConfigsSize();
+      Map<String, DeduplicatedScheduledTask> coalesced = Maps.newLinkedHashMap();
+      if (prior.isSetPartialTasks()) {
+        for (DeduplicatedScheduledTask task : prior.getPartialTasks()) {
+          coalesced.put(task.getPartialScheduledTask().getAssignedTask().getTaskId(), task);
+        }
+      }
+      for (DeduplicatedScheduledTask task : next.getPartialTasks()) {
+        String taskId = task.getPartialScheduledTask().getAssignedTask().getTaskId();
+        int configId = task.getTaskConfigId();
+        if (configId == storageConstants.STORED_TASK_CONFIG_ID) {
+          DeduplicatedScheduledTask priorTask = coalesced.get(taskId);
+          if (priorTask != null) {
+            configId = priorTask.getTaskConfigId();
+          }
+        } else {
+          configId += configIdOffset;
+        }
+        coalesced.put(
+            taskId,
+            new DeduplicatedScheduledTask(task.getPartialScheduledTask(), configId));
+      }
+      prior.setPartialTasks(ImmutableList.copyOf(coalesced.values()));
+
+      if (next.isSetTaskConfigs()) {
+        if (prior.isSetTaskConfigs()) {
+          prior.setTaskConfigs(ImmutableList.<TaskConfig>builder()
+              .addAll(prior.getTaskConfigs())
+              .addAll(next.getTaskConfigs())
+              .build());
+        } else {
+          prior.setTaskConfigs(next.getTaskConfigs());
+        }
+      }
+    }
+
     private void coalesce(RemoveTasks prior, RemoveTasks next) {
       if (next.isSetTaskIds()) {
         if (prior.isSetTaskIds()) {
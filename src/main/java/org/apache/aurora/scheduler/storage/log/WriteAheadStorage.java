@@ -13,13 +13,19 @@
  */
 package org.apache.aurora.scheduler.storage.log;
 
+import java.util.Map;
 import java.util.Set;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
+import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 
+import org.apache.aurora.gen.storage.DeduplicatedScheduledTask;
 import org.apache.aurora.gen.storage.Op;
 import org.apache.aurora.gen.storage.PruneJobUpdateHistory;
 import org.apache.aurora.gen.storage.RemoveJob;
@@ -34,8 +40,11 @@ import org.apache.aurora.gen.storage.SaveJobInstanceUpdateEvent;
 import org.apache.aurora.gen.storage.SaveJobUpdate;
 import org.apache.aurora.gen.storage.SaveJobUpdateEvent;
 import org.apache.aurora.gen.storage.SaveLock;
+import org.apache.aurora.gen.storage.SavePartialTasks;
 import org.apache.aurora.gen.storage.SaveQuota;
 import org.apache.aurora.gen.storage.SaveTasks;
+import org.apache.aurora.gen.storage.storageConstants;
+import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.events.EventSink;
 import org.apache.aurora.scheduler.events.PubsubEvent;
 import org.apache.aurora.scheduler.storage.AttributeStore;
@@ -99,6 +108,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
   private final JobUpdateStore.Mutable jobUpdateStore;
   private final Logger log;
   private final EventSink eventSink;
+  private final boolean writePartialTasks;
 
   /**
    * Creates a new write-ahead storage that delegates to the providing default stores.
@@ -111,6 +121,8 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
    * @param quotaStore     Delegate.
    * @param attributeStore Delegate.
    * @param jobUpdateStore Delegate.
+   * @param writePartialTasks Whether task saves are written as {@link SavePartialTasks}
+   *                          operations rather than {@link SaveTasks}.
    */
   WriteAheadStorage(
       TransactionManager transactionManager,
@@ -122,7 +134,8 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
       AttributeStore.Mutable attributeStore,
       JobUpdateStore.Mutable jobUpdateStore,
       Logger log,
-      EventSink eventSink) {
+      EventSink eventSink,
+      boolean writePartialTasks) {
 
     super(
         schedulerStore,
@@ -143,6 +156,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
     this.jobUpdateStore = requireNonNull(jobUpdateStore);
     this.log = requireNonNull(log);
     this.eventSink = requireNonNull(eventSink);
+    this.writePartialTasks = writePartialTasks;
   }
 
   private void write(Op op) {
@@ -152,6 +166,10 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
     transactionManager.log(op);
   }
 
+  private void roleDataChanged(String role) {
+    eventSink.post(new PubsubEvent.RoleDataChanged(role));
+  }
+
   @Override
   public void saveFrameworkId(final String frameworkId) {
     requireNonNull(frameworkId);
@@ -168,6 +186,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
     boolean mutated = taskStore.unsafeModifyInPlace(taskId, taskConfiguration);
     if (mutated) {
       write(Op.rewriteTask(new RewriteTask(taskId, taskConfiguration.newBuilder())));
+      roleDataChanged(taskConfiguration.getJob().getRole());
     }
     return mutated;
   }
@@ -180,11 +199,52 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
     taskStore.deleteTasks(taskIds);
   }
 
+  /**
+   * Creates an operation to save tasks that includes each distinct task config once.
+   *
+   * @param tasks Tasks to save.
+   * @param retainsStoredConfig Whether a task retains the config of the stored task, in which case
+   *                            its config is omitted entirely.
+   * @return An operation to save {@code tasks}.
+   */
+  @VisibleForTesting
+  static SavePartialTasks partialTasks(
+      Iterable<IScheduledTask> tasks,
+      Predicate<IScheduledTask> retainsStoredConfig) {
+
+    SavePartialTasks op = new SavePartialTasks();
+    Map<ITaskConfig, Integer> configIds = Maps.newHashMap();
+    for (IScheduledTask task : tasks) {
+      int configId;
+      if (retainsStoredConfig.apply(task)) {
+        configId = storageConstants.STORED_TASK_CONFIG_ID;
+      } else {
+        ITaskConfig config = task.getAssignedTask().getTask();
+        Integer existingId = configIds.get(config);
+        if (existingId == null) {
+          configId = op.getTaskConfigsSize();
+          configIds.put(config, configId);
+          op.addToTaskConfigs(config.newBuilder());
+        } else {
+          configId = existingId;
+        }
+      }
+      op.addToPartialTasks(new DeduplicatedScheduledTask(
+          task.withAssignedTask(task.getAssignedTask().withTask(null)).newBuilder(),
+          configId));
+    }
+    return op;
+  }
+
   @Override
   public void saveTasks(final Set<IScheduledTask> newTasks) {
     requireNonNull(newTasks);
 
-    write(Op.saveTasks(new SaveTasks(IScheduledTask.toBuildersSet(newTasks))));
+    if (writePartialTasks) {
+      write(Op.savePartialTasks(partialTasks(newTasks, Predicates.alwaysFalse())));
+    } else {
+      write(Op.saveTasks(new SaveTasks(IScheduledTask.toBuildersSet(newTasks))));
+    }
     taskStore.saveTasks(newTasks);
   }
 
@@ -193,13 +253,32 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
       String taskId,
       Function<IScheduledTask, IScheduledTask> mutator) {
 
+    if (!writePartialTasks) {
+      Optional<IScheduledTask> mutated = taskStore.mutateTask(taskId, mutator);
+      log.debug("Storing updated task to log: {}={}", taskId, mutated.get().getStatus());
+      write(Op.saveTasks(new SaveTasks(ImmutableSet.of(mutated.get().newBuilder()))));
+      return mutated;
+    }
+
+    Optional<ITaskConfig> storedConfig =
+        taskStore.fetchTask(taskId).transform(task -> task.getAssignedTask().getTask());
     Optional<IScheduledTask> mutated = taskStore.mutateTask(taskId, mutator);
     log.debug("Storing updated task to log: {}={}", taskId, mutated.get().getStatus());
-    write(Op.saveTasks(new SaveTasks(ImmutableSet.of(mutated.get().newBuilder()))));
+    // Mutations rarely replace the task config, which is then left out of the log entirely.
+    write(Op.savePartialTasks(partialTasks(
+        ImmutableSet.of(mutated.get()),
+        task -> storedConfig.isPresent()
+            && storedConfig.get().equals(task.getAssignedTask().getTask()))));
 
     return mutated;
   }
 
+  @Override
+  public Iterable<IScheduledTask> fetchTasksLazily(Query.Builder query) {
+    // Default interface methods are not forwarded automatically.
+    return taskStore.fetchTasksLazily(query);
+  }
+
   @Override
   public void saveQuota(final String role, final IResourceAggregate quota) {
     requireNonNull(role);
@@ -207,6 +286,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
 
     write(Op.saveQuota(new SaveQuota(role, quota.newBuilder())));
     quotaStore.saveQuota(role, quota);
+    roleDataChanged(role);
   }
 
   @Override
@@ -227,6 +307,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
 
     write(Op.removeJob(new RemoveJob().setJobKey(jobKey.newBuilder())));
     jobStore.removeJob(jobKey);
+    roleDataChanged(jobKey.getRole());
   }
 
   @Override
@@ -235,6 +316,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
 
     write(Op.saveCronJob(new SaveCronJob(jobConfig.newBuilder())));
     jobStore.saveAcceptedJob(jobConfig);
+    roleDataChanged(jobConfig.getKey().getRole());
   }
 
   @Override
@@ -243,6 +325,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
 
     write(Op.removeQuota(new RemoveQuota(role)));
     quotaStore.removeQuota(role);
+    roleDataChanged(role);
   }
 
   @Override
@@ -267,6 +350,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
 
     write(Op.saveJobUpdate(new SaveJobUpdate(update.newBuilder(), lockToken.orNull())));
     jobUpdateStore.saveJobUpdate(update, lockToken);
+    roleDataChanged(update.getSummary().getKey().getJob().getRole());
   }
 
   @Override
@@ -276,6 +360,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
 
     write(Op.saveJobUpdateEvent(new SaveJobUpdateEvent(event.newBuilder(), key.newBuilder())));
     jobUpdateStore.saveJobUpdateEvent(key, event);
+    roleDataChanged(key.getJob().getRole());
   }
 
   @Override
@@ -286,6 +371,7 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
     write(Op.saveJobInstanceUpdateEvent(
         new SaveJobInstanceUpdateEvent(event.newBuilder(), key.newBuilder())));
     jobUpdateStore.saveJobInstanceUpdateEvent(key, event);
+    roleDataChanged(key.getJob().getRole());
   }
 
   @Override
@@ -302,6 +388,10 @@ class WriteAheadStorage extends WriteAheadStorageForwarder implements
       // achieved sooner without potentially exposing pruned but not yet persisted data.
       write(Op.pruneJobUpdateHistory(
           new PruneJobUpdateHistory(perJobRetainCount, historyPruneThresholdMs)));
+      prunedUpdates.stream()
+          .map(key -> key.getJob().getRole())
+          .distinct()
+          .forEach(this::roleDataChanged);
     }
     return prunedUpdates;
   }
@@ -13,8 +13,9 @@
  */
 package org.apache.aurora.scheduler.storage.mem;
 
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
@@ -24,13 +25,19 @@ import com.google.common.collect.Sets;
 /**
  * An interning pool that can be used to retrieve the canonical instances of objects, while
  * maintaining a reference count to the canonical instances.
+ * <p>
+ * The pool is safe for concurrent use without a global lock; updates to the associations of a
+ * single interned value are serialized by the backing concurrent map.  Interned objects are
+ * expected to be immutable with a cheap (ideally cached) hash code, since every association
+ * change looks the value up in the pool.
  *
  * @param <T> The interned object type.
  * @param <A> The type used for maintaining associations.
  */
 class Interner<T, A> {
 
-  private final Map<T, InternEntry<A, T>> pool = Maps.newHashMap();
+  private final ConcurrentMap<T, InternEntry<A, T>> pool = Maps.newConcurrentMap();
+  private final AtomicLong associationCount = new AtomicLong();
 
   /**
    * Retrieves the canonical instance of {@code t} and maintains {@code association} with the
@@ -40,15 +47,14 @@ class Interner<T, A> {
    * @param association A value to associate with {@code t}.
    * @return The interned value, which may be reference-equivalent to {@code t}.
    */
-  synchronized T addAssociation(T t, A association) {
-    InternEntry<A, T> entry = pool.get(t);
-    if (entry == null) {
-      entry = new InternEntry<>(t, association);
-      pool.put(t, entry);
-    } else {
-      entry.associations.add(association);
-    }
-    return entry.interned;
+  T addAssociation(T t, A association) {
+    return pool.compute(t, (key, entry) -> {
+      InternEntry<A, T> updated = entry == null ? new InternEntry<>(key) : entry;
+      if (updated.associations.add(association)) {
+        associationCount.incrementAndGet();
+      }
+      return updated;
+    }).interned;
   }
 
   /**
@@ -57,40 +63,59 @@ class Interner<T, A> {
    * @param t The interned value that {@code association} was associated with.
    * @param association The association to remove.
    */
-  synchronized void removeAssociation(T t, A association) {
-    InternEntry<A, T> entry = pool.get(t);
-    if (entry != null) {
-      entry.associations.remove(association);
-      if (entry.associations.isEmpty()) {
-        pool.remove(t);
+  void removeAssociation(T t, A association) {
+    pool.computeIfPresent(t, (key, entry) -> {
+      if (entry.associations.remove(association)) {
+        associationCount.decrementAndGet();
       }
-    }
+      return entry.associations.isEmpty() ? null : entry;
+    });
   }
 
   /**
    * Removes all interned values and associations.
    */
-  synchronized void clear() {
+  void clear() {
     pool.clear();
+    associationCount.set(0);
+  }
+
+  /**
+   * Gets the number of distinct interned values.
+   *
+   * @return Interned value count.
+   */
+  int size() {
+    return pool.size();
+  }
+
+  /**
+   * Gets the total number of associations across all interned values.  The difference between
+   * this and {@link #size()} is the number of references that share a canonical instance rather
+   * than holding a copy of their own.
+   *
+   * @return Association count.
+   */
+  long getAssociationCount() {
+    return associationCount.get();
   }
 
   @VisibleForTesting
-  synchronized boolean isInterned(T t) {
+  boolean isInterned(T t) {
     return pool.containsKey(t);
   }
 
   @VisibleForTesting
-  synchronized Set<A> getAssociations(T t) {
+  Set<A> getAssociations(T t) {
     return ImmutableSet.copyOf(pool.get(t).associations);
   }
 
   private static class InternEntry<A, T> {
     private final T interned;
-    private final Set<A> associations = Sets.newHashSet();
+    private final Set<A> associations = Sets.newConcurrentHashSet();
 
-    InternEntry(T interned, A initialAssociation) {
+    InternEntry(T interned) {
       this.interned = interned;
-      associations.add(initialAssociation);
     }
   }
 }
@@ -17,45 +17,51 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Qualifier;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
-import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
-import com.google.common.base.Predicates;
-import com.google.common.base.Supplier;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.FluentIterable;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
+import com.google.common.collect.Interners;
+import com.google.common.collect.Sets;
 
 import org.apache.aurora.common.base.MorePreconditions;
 import org.apache.aurora.common.inject.TimedInterceptor.Timed;
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.stats.StatsProvider;
-import org.apache.aurora.gen.ScheduledTask;
-import org.apache.aurora.gen.TaskConfig;
+import org.apache.aurora.common.stats.StatsProvider.RequestTimer;
 import org.apache.aurora.scheduler.base.JobKeys;
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
+import org.apache.aurora.scheduler.storage.Storage.MutateWork;
+import org.apache.aurora.scheduler.storage.Storage.StoreProvider;
+import org.apache.aurora.scheduler.storage.Storage.Work;
 import org.apache.aurora.scheduler.storage.TaskStore;
+import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
 import org.apache.aurora.scheduler.storage.entities.IJobKey;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.apache.aurora.scheduler.storage.entities.ITaskEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -68,6 +74,15 @@ class MemTaskStore implements TaskStore.Mutable {
 
   private static final Logger LOG = LoggerFactory.getLogger(MemTaskStore.class);
 
+  @VisibleForTesting
+  static final String INTERNED_CONFIGS_STAT = "mem_storage_interned_configs";
+  @VisibleForTesting
+  static final String SHARED_CONFIG_REFERENCES_STAT = "mem_storage_shared_config_references";
+  @VisibleForTesting
+  static final String CONFIG_INTERN_HITS_STAT = "mem_storage_config_intern_hits";
+  @VisibleForTesting
+  static final String CONFIG_INTERN_MISSES_STAT = "mem_storage_config_intern_misses";
+
   /**
    * When true, enable snapshot deflation.
    */
@@ -85,25 +100,40 @@ class MemTaskStore implements TaskStore.Mutable {
           ? Optional.absent()
           : Optional.of(query.get().getSlaveHosts());
 
-  // Since this class operates under the API and umbrella of {@link Storage}, it is expected to be
-  // thread-safe but not necessarily strongly-consistent unless the externally-controlled storage
-  // lock is secured.  To adhere to that, these data structures are individually thread-safe, but
-  // we don't lock across them because of the relaxed consistency guarantees.
-  // Note that this behavior makes it possible to receive query results that are not sane,
-  // specifically when a secondary key value is changed.  In other words, we currently don't always
-  // support the invariant that a query by slave host yields a result with all tasks matching that
-  // slave host.  This is deemed acceptable due to the fact that secondary key values are rarely
-  // mutated in practice, and mutated in ways that are not impacted by this behavior.
-  private final Map<String, Task> tasks = Maps.newConcurrentMap();
+  // All task data, including the secondary indices, lives in an immutable root that each mutation
+  // replaces as a whole.  Mutations build the new root from persistent maps, sharing all untouched
+  // structure with the previous root.  The write lock is held for the duration of a storage write
+  // operation, whose mutations accumulate in the working root and are published together when the
+  // outermost write operation completes.  A mutation made outside of a write operation is
+  // published immediately.
+  // Readers never lock: a storage read operation pins the published root when it starts and
+  // evaluates all of its queries against that point-in-time view, so it never observes a partially
+  // applied write operation and all of its queries agree with each other.  The thread executing a
+  // write operation reads its own working root.
   private final List<SecondaryIndex<?>> secondaryIndices;
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final ThreadLocal<Root> pinnedRoot = new ThreadLocal<>();
+  private volatile Root publishedRoot;
+  // Guarded by writeLock.
+  private Root workingRoot;
 
   // An interner is used here to collapse equivalent TaskConfig instances into canonical instances.
   // Ideally this would fall out of the object hierarchy (TaskConfig being associated with the job
-  // rather than the task), but we intuit this detail here for performance reasons.
-  private final Interner<TaskConfig, String> configInterner = new Interner<>();
+  // rather than the task), but we intuit this detail here for performance reasons.  Interning the
+  // immutable wrapper allows the canonical instance to be shared by the stored tasks directly.
+  private final Interner<ITaskConfig, String> configInterner = new Interner<>();
 
+  // Task event scheduler hosts and messages repeat heavily across tasks, but every copy read back
+  // from the log or a snapshot is a distinct instance.
+  private final Function<String, String> eventStrings =
+      Interners.asFunction(Interners.newWeakInterner());
+
+  private final AtomicLong configInternHits;
+  private final AtomicLong configInternMisses;
   private final AtomicLong taskQueriesById;
   private final AtomicLong taskQueriesAll;
+  private final QueryStats idQueryStats;
+  private final QueryStats scanQueryStats;
 
   @Inject
   MemTaskStore(
@@ -121,16 +151,89 @@ class MemTaskStore implements TaskStore.Mutable {
             QUERY_TO_SLAVE_HOST,
             statsProvider,
             "host"));
+    publishedRoot = emptyRoot();
+    workingRoot = publishedRoot;
     slowQueryThresholdNanos = slowQueryThreshold.as(Time.NANOSECONDS);
+    configInternHits = statsProvider.makeCounter(CONFIG_INTERN_HITS_STAT);
+    configInternMisses = statsProvider.makeCounter(CONFIG_INTERN_MISSES_STAT);
+    statsProvider.makeGauge(INTERNED_CONFIGS_STAT, configInterner::size);
+    statsProvider.makeGauge(
+        SHARED_CONFIG_REFERENCES_STAT,
+        () -> configInterner.getAssociationCount() - configInterner.size());
     taskQueriesById = statsProvider.makeCounter("task_queries_by_id");
     taskQueriesAll = statsProvider.makeCounter("task_queries_all");
+    idQueryStats = new QueryStats(statsProvider, "by_id");
+    scanQueryStats = new QueryStats(statsProvider, "all");
+  }
+
+  /**
+   * Gets the view of the store that queries of the calling thread are evaluated against.
+   */
+  private Root root() {
+    if (writeLock.isHeldByCurrentThread()) {
+      return workingRoot;
+    }
+    Root pinned = pinnedRoot.get();
+    return pinned == null ? publishedRoot : pinned;
+  }
+
+  private void mutate(UnaryOperator<Root> mutation) {
+    writeLock.lock();
+    try {
+      workingRoot = mutation.apply(workingRoot);
+    } finally {
+      publishIfOutermost();
+      writeLock.unlock();
+    }
+  }
+
+  private void publishIfOutermost() {
+    if (writeLock.getHoldCount() == 1) {
+      publishedRoot = workingRoot;
+    }
+  }
+
+  @Override
+  public <T, E extends Exception> T executeRead(Work<T, E> work, StoreProvider storeProvider)
+      throws E {
+
+    if (writeLock.isHeldByCurrentThread() || pinnedRoot.get() != null) {
+      // Nested operations share the view of the enclosing operation.
+      return work.apply(storeProvider);
+    }
+
+    pinnedRoot.set(publishedRoot);
+    try {
+      return work.apply(storeProvider);
+    } finally {
+      pinnedRoot.remove();
+    }
+  }
+
+  @Override
+  public <T, E extends Exception> T executeWrite(
+      MutateWork<T, E> work,
+      MutableStoreProvider storeProvider) throws E {
+
+    writeLock.lock();
+    try {
+      return work.apply(storeProvider);
+    } finally {
+      // Mutations are not rolled back, so they are published even if the operation failed.
+      publishIfOutermost();
+      if (pinnedRoot.get() != null) {
+        // A write nested in a read operation makes its own changes visible to that operation.
+        pinnedRoot.set(workingRoot);
+      }
+      writeLock.unlock();
+    }
   }
 
   @Timed("mem_storage_fetch_task")
   @Override
   public Optional<IScheduledTask> fetchTask(String taskId) {
     requireNonNull(taskId);
-    return Optional.fromNullable(tasks.get(taskId)).transform(t -> t.storedTask);
+    return Optional.fromNullable(root().tasks.get(taskId)).transform(t -> t.storedTask);
   }
 
   @Timed("mem_storage_fetch_tasks")
@@ -139,29 +242,103 @@ class MemTaskStore implements TaskStore.Mutable {
     requireNonNull(query);
 
     long start = System.nanoTime();
-    ImmutableSet<IScheduledTask> result = matches(query).toSet();
+    QueryPlan plan = plan(root(), query);
+    ImmutableSet<IScheduledTask> result = plan.execute(query).toSet();
     long durationNanos = System.nanoTime() - start;
+    plan.stats.record(plan.rowsScanned, result.size(), durationNanos);
     boolean infoLevel = durationNanos >= slowQueryThresholdNanos;
     long time = Amount.of(durationNanos, Time.NANOSECONDS).as(Time.MILLISECONDS);
-    String message = "Query took {} ms: {}";
+    String message = "Query took {} ms ({} plan, {} scanned, {} returned): {}";
     if (infoLevel) {
-      LOG.info(message, time, query.get());
+      LOG.info(message, time, plan.stats.name, plan.rowsScanned, result.size(), query.get());
     } else {
-      LOG.debug(message, time, query.get());
+      LOG.debug(message, time, plan.stats.name, plan.rowsScanned, result.size(), query.get());
     }
 
     return result;
   }
 
+  @Timed("mem_storage_fetch_tasks_lazily")
+  @Override
+  public FluentIterable<IScheduledTask> fetchTasksLazily(Query.Builder query) {
+    requireNonNull(query);
+
+    // Rows are recorded as they are pulled from the returned iterable, so callers that stop early
+    // are only charged for what they consumed.  Latency is not recorded, since the time spent
+    // iterating includes whatever work the caller interleaves.
+    return plan(root(), query).executeLazily(query);
+  }
+
   @Timed("mem_storage_get_job_keys")
   @Override
   public Set<IJobKey> getJobKeys() {
-    return FluentIterable.from(fetchTasks(Query.unscoped()))
+    return fetchTasksLazily(Query.unscoped())
         .transform(Tasks::getJob)
         .toSet();
   }
 
-  private final Function<IScheduledTask, Task> toTask = task -> new Task(task, configInterner);
+  /**
+   * Swaps the task config of {@code task} for its canonical instance and maintains the interner
+   * association of the task ID.  Strings of task events that are not already stored are also
+   * swapped for canonical instances.
+   */
+  private Task canonicalize(Root current, IScheduledTask incoming) {
+    Task existing = current.tasks.get(Tasks.id(incoming));
+    IScheduledTask task = internEvents(existing, incoming);
+    IAssignedTask assignedTask = task.getAssignedTask();
+    ITaskConfig config = assignedTask.getTask();
+    if (existing != null) {
+      ITaskConfig existingConfig = existing.storedTask.getAssignedTask().getTask();
+      if (existingConfig == config) {
+        // The common case for a mutation: the incoming task carries the config it was read with,
+        // which is already canonical and associated with this task.
+        configInternHits.incrementAndGet();
+        return new Task(task);
+      }
+      configInterner.removeAssociation(existingConfig, assignedTask.getTaskId());
+    }
+
+    ITaskConfig canonical = configInterner.addAssociation(config, assignedTask.getTaskId());
+    if (canonical == config) {
+      configInternMisses.incrementAndGet();
+      return new Task(task);
+    }
+
+    configInternHits.incrementAndGet();
+    // Only the config reference is swapped, all other task state is shared with the original.
+    return new Task(task.withAssignedTask(assignedTask.withTask(canonical)));
+  }
+
+  private IScheduledTask internEvents(@Nullable Task existing, IScheduledTask task) {
+    // Events carried over from the stored task have already been interned.
+    Set<ITaskEvent> storedEvents = Sets.newIdentityHashSet();
+    if (existing != null) {
+      storedEvents.addAll(existing.storedTask.getTaskEvents());
+    }
+
+    boolean changed = false;
+    ImmutableList.Builder<ITaskEvent> events = ImmutableList.builder();
+    for (ITaskEvent event : task.getTaskEvents()) {
+      if (storedEvents.contains(event)) {
+        events.add(event);
+      } else {
+        changed = true;
+        events.add(internEvent(event));
+      }
+    }
+    return changed ? task.withTaskEvents(events.build()) : task;
+  }
+
+  private ITaskEvent internEvent(ITaskEvent event) {
+    ITaskEvent interned = event;
+    if (event.isSetMessage()) {
+      interned = interned.withMessage(eventStrings.apply(event.getMessage()));
+    }
+    if (event.isSetScheduler()) {
+      interned = interned.withScheduler(eventStrings.apply(event.getScheduler()));
+    }
+    return interned;
+  }
 
   @Timed("mem_storage_save_tasks")
   @Override
@@ -170,21 +347,22 @@ class MemTaskStore implements TaskStore.Mutable {
     Preconditions.checkState(Tasks.ids(newTasks).size() == newTasks.size(),
         "Proposed new tasks would create task ID collision.");
 
-    Iterable<Task> canonicalized = Iterables.transform(newTasks, toTask);
-    tasks.putAll(Maps.uniqueIndex(canonicalized, TO_ID));
-    for (SecondaryIndex<?> index : secondaryIndices) {
-      index.insert(Iterables.transform(canonicalized, TO_SCHEDULED));
-    }
+    mutate(current -> {
+      Root updated = current;
+      for (IScheduledTask task : newTasks) {
+        updated = updated.withTask(Tasks.id(task), canonicalize(updated, task));
+      }
+      return updated;
+    });
   }
 
   @Timed("mem_storage_delete_all_tasks")
   @Override
   public void deleteAllTasks() {
-    tasks.clear();
-    for (SecondaryIndex<?> index : secondaryIndices) {
-      index.clear();
-    }
-    configInterner.clear();
+    mutate(current -> {
+      configInterner.clear();
+      return emptyRoot();
+    });
   }
 
   @Timed("mem_storage_delete_tasks")
@@ -192,17 +370,17 @@ class MemTaskStore implements TaskStore.Mutable {
   public void deleteTasks(Set<String> taskIds) {
     requireNonNull(taskIds);
 
-    for (String id : taskIds) {
-      Task removed = tasks.remove(id);
-      if (removed != null) {
-        for (SecondaryIndex<?> index : secondaryIndices) {
-          index.remove(removed.storedTask);
+    mutate(current -> {
+      Root updated = current;
+      for (String id : taskIds) {
+        Task removed = updated.tasks.get(id);
+        if (removed != null) {
+          updated = updated.withTask(id, null);
+          configInterner.removeAssociation(removed.storedTask.getAssignedTask().getTask(), id);
         }
-        configInterner.removeAssociation(
-            removed.storedTask.getAssignedTask().getTask().newBuilder(),
-            id);
       }
-    }
+      return updated;
+    });
   }
 
   @Timed("mem_storage_mutate_task")
@@ -211,20 +389,24 @@ class MemTaskStore implements TaskStore.Mutable {
       String taskId,
       Function<IScheduledTask, IScheduledTask> mutator) {
 
-    return fetchTask(taskId).transform(original -> {
-      IScheduledTask maybeMutated = mutator.apply(original);
-      requireNonNull(maybeMutated);
-      if (!original.equals(maybeMutated)) {
-        Preconditions.checkState(
-            Tasks.id(original).equals(Tasks.id(maybeMutated)),
-            "A task's ID may not be mutated.");
-        tasks.put(Tasks.id(maybeMutated), toTask.apply(maybeMutated));
-        for (SecondaryIndex<?> index : secondaryIndices) {
-          index.replace(original, maybeMutated);
+    writeLock.lock();
+    try {
+      return fetchTask(taskId).transform(original -> {
+        IScheduledTask maybeMutated = mutator.apply(original);
+        requireNonNull(maybeMutated);
+        if (!original.equals(maybeMutated)) {
+          Preconditions.checkState(
+              Tasks.id(original).equals(Tasks.id(maybeMutated)),
+              "A task's ID may not be mutated.");
+          workingRoot =
+              workingRoot.withTask(taskId, canonicalize(workingRoot, maybeMutated));
         }
-      }
-      return maybeMutated;
-    });
+        return maybeMutated;
+      });
+    } finally {
+      publishIfOutermost();
+      writeLock.unlock();
+    }
   }
 
   @Timed("mem_storage_unsafe_modify_in_place")
@@ -233,83 +415,184 @@ class MemTaskStore implements TaskStore.Mutable {
     MorePreconditions.checkNotBlank(taskId);
     requireNonNull(taskConfiguration);
 
-    Task stored = tasks.get(taskId);
-    if (stored == null) {
-      return false;
-    } else {
-      ScheduledTask updated = stored.storedTask.newBuilder();
-      updated.getAssignedTask().setTask(taskConfiguration.newBuilder());
-      tasks.put(taskId, toTask.apply(IScheduledTask.build(updated)));
-      return true;
+    writeLock.lock();
+    try {
+      Task stored = workingRoot.tasks.get(taskId);
+      if (stored == null) {
+        return false;
+      } else {
+        IScheduledTask updated = stored.storedTask.withAssignedTask(
+            stored.storedTask.getAssignedTask().withTask(taskConfiguration));
+        workingRoot = workingRoot.withTask(taskId, canonicalize(workingRoot, updated));
+        return true;
+      }
+    } finally {
+      publishIfOutermost();
+      writeLock.unlock();
     }
   }
 
-  private static Predicate<Task> queryFilter(Query.Builder query) {
-    return Predicates.compose(
-        Util.queryFilter(query),
-        new Function<Task, IScheduledTask>() {
-          @Override
-          public IScheduledTask apply(Task canonicalTask) {
-            return canonicalTask.storedTask;
-          }
-        });
+  private static List<Task> fromIdIndex(Root snapshot, Iterable<String> taskIds) {
+    ImmutableList.Builder<Task> candidates = ImmutableList.builder();
+    for (String taskId : taskIds) {
+      Task task = snapshot.tasks.get(taskId);
+      if (task != null) {
+        candidates.add(task);
+      }
+    }
+    return candidates.build();
+  }
+
+  private QueryPlan plan(Root snapshot, Query.Builder query) {
+    Set<String> taskIds = query.get().getTaskIds();
+    if (!taskIds.isEmpty()) {
+      taskQueriesById.incrementAndGet();
+      List<Task> candidates = fromIdIndex(snapshot, taskIds);
+      return new QueryPlan(idQueryStats, candidates, candidates.size());
+    }
+
+    for (SecondaryIndex<?> index : secondaryIndices) {
+      Optional<List<Task>> indexMatch = index.getMatches(snapshot.indices.get(index), query);
+      if (indexMatch.isPresent()) {
+        // Note: we could leverage multiple indexes here if the query applies to them, by
+        // choosing to intersect the results.  Given current indexes and query profile, this is
+        // unlikely to offer much improvement, though.
+        List<Task> candidates = indexMatch.get();
+        return new QueryPlan(index.queryStats, candidates, candidates.size());
+      }
+    }
+
+    // No indices match, fall back to a full scan.
+    taskQueriesAll.incrementAndGet();
+    return new QueryPlan(scanQueryStats, snapshot.tasks.values(), snapshot.tasks.size());
   }
 
-  private Iterable<Task> fromIdIndex(Iterable<String> taskIds) {
-    return FluentIterable.from(taskIds)
-        .transform(Functions.forMap(tasks, null))
-        .filter(Predicates.notNull())
-        .toList();
+  private Root emptyRoot() {
+    ImmutableMap.Builder<SecondaryIndex<?>, PersistentMap<?, PersistentMap<String, Task>>> indices =
+        ImmutableMap.builder();
+    for (SecondaryIndex<?> index : secondaryIndices) {
+      indices.put(index, PersistentMap.empty());
+    }
+    return new Root(PersistentMap.empty(), indices.build());
   }
 
-  private FluentIterable<IScheduledTask> matches(Query.Builder query) {
-    // Apply the query against the working set.
-    Optional<? extends Iterable<Task>> from = Optional.absent();
-    if (query.get().getTaskIds().isEmpty()) {
+  /**
+   * An immutable, point-in-time view of all tasks in the store and the secondary indices over
+   * them.  Each secondary index maps its keys to the matching tasks by ID.
+   */
+  private final class Root {
+    private final PersistentMap<String, Task> tasks;
+    private final Map<SecondaryIndex<?>, PersistentMap<?, PersistentMap<String, Task>>> indices;
+
+    Root(
+        PersistentMap<String, Task> tasks,
+        Map<SecondaryIndex<?>, PersistentMap<?, PersistentMap<String, Task>>> indices) {
+
+      this.tasks = tasks;
+      this.indices = indices;
+    }
+
+    /**
+     * Creates a view with a task replaced, maintaining all secondary indices.
+     *
+     * @param taskId ID of the task to replace.
+     * @param replacement Replacement task, or {@code null} to remove the task.
+     * @return The updated view.
+     */
+    Root withTask(String taskId, @Nullable Task replacement) {
+      Task existing = tasks.get(taskId);
+      ImmutableMap.Builder<SecondaryIndex<?>, PersistentMap<?, PersistentMap<String, Task>>>
+          updatedIndices = ImmutableMap.builder();
       for (SecondaryIndex<?> index : secondaryIndices) {
-        Optional<Iterable<String>> indexMatch = index.getMatches(query);
-        if (indexMatch.isPresent()) {
-          // Note: we could leverage multiple indexes here if the query applies to them, by
-          // choosing to intersect the results.  Given current indexes and query profile, this is
-          // unlikely to offer much improvement, though.
-          from = Optional.of(fromIdIndex(indexMatch.get()));
-          break;
-        }
+        updatedIndices.put(index, index.update(indices.get(index), taskId, existing, replacement));
       }
+      return new Root(
+          replacement == null ? tasks.minus(taskId) : tasks.plus(taskId, replacement),
+          updatedIndices.build());
+    }
+  }
 
-      // No indices match, fall back to a full scan.
-      if (!from.isPresent()) {
-        taskQueriesAll.incrementAndGet();
-        from = Optional.of(tasks.values());
-      }
-    } else {
-      taskQueriesById.incrementAndGet();
-      from = Optional.of(fromIdIndex(query.get().getTaskIds()));
+  /**
+   * The candidate tasks chosen to evaluate a query against, along with the stats the query
+   * should be accounted to.
+   */
+  private static final class QueryPlan {
+    private final QueryStats stats;
+    private final Iterable<Task> candidates;
+    private final long rowsScanned;
+
+    QueryPlan(QueryStats stats, Iterable<Task> candidates, long rowsScanned) {
+      this.stats = stats;
+      this.candidates = candidates;
+      this.rowsScanned = rowsScanned;
+    }
+
+    FluentIterable<IScheduledTask> execute(Query.Builder query) {
+      return FluentIterable.from(candidates)
+          .transform(TO_SCHEDULED)
+          .filter(Util.queryFilter(query));
+    }
+
+    FluentIterable<IScheduledTask> executeLazily(Query.Builder query) {
+      Predicate<IScheduledTask> filter = Util.queryFilter(query);
+      return new FluentIterable<IScheduledTask>() {
+        @Override
+        public Iterator<IScheduledTask> iterator() {
+          Iterator<Task> scan = candidates.iterator();
+          return new AbstractIterator<IScheduledTask>() {
+            @Override
+            protected IScheduledTask computeNext() {
+              while (scan.hasNext()) {
+                IScheduledTask task = scan.next().storedTask;
+                stats.rowsScanned.incrementAndGet();
+                if (filter.apply(task)) {
+                  stats.rowsReturned.incrementAndGet();
+                  return task;
+                }
+              }
+              return endOfData();
+            }
+          };
+        }
+      };
+    }
+  }
+
+  /**
+   * Stats for queries executed with a specific plan.
+   */
+  private static final class QueryStats {
+    private final String name;
+    private final AtomicLong rowsScanned;
+    private final AtomicLong rowsReturned;
+    private final RequestTimer latency;
+
+    QueryStats(StatsProvider statsProvider, String name) {
+      this.name = name;
+      this.rowsScanned = statsProvider.makeCounter(getQueryStatName(name, "rows_scanned"));
+      this.rowsReturned = statsProvider.makeCounter(getQueryStatName(name, "rows_returned"));
+      this.latency = statsProvider.makeRequestTimer(getQueryStatName(name, "latency"));
     }
 
-    return FluentIterable.from(from.get())
-        .filter(queryFilter(query))
-        .transform(TO_SCHEDULED);
+    void record(long scanned, long returned, long durationNanos) {
+      rowsScanned.addAndGet(scanned);
+      rowsReturned.addAndGet(returned);
+      latency.requestComplete(TimeUnit.NANOSECONDS.toMicros(durationNanos));
+    }
   }
 
-  private static final Function<Task, IScheduledTask> TO_SCHEDULED = task -> task.storedTask;
+  @VisibleForTesting
+  static String getQueryStatName(String plan, String stat) {
+    return "task_queries_" + plan + "_" + stat;
+  }
 
-  private static final Function<Task, String> TO_ID =
-      Functions.compose(Tasks::id, TO_SCHEDULED);
+  private static final Function<Task, IScheduledTask> TO_SCHEDULED = task -> task.storedTask;
 
   private static class Task {
     private final IScheduledTask storedTask;
 
-    Task(IScheduledTask storedTask, Interner<TaskConfig, String> interner) {
-      interner.removeAssociation(
-          storedTask.getAssignedTask().getTask().newBuilder(),
-          Tasks.id(storedTask));
-      TaskConfig canonical = interner.addAssociation(
-          storedTask.getAssignedTask().getTask().newBuilder(),
-          Tasks.id(storedTask));
-      ScheduledTask builder = storedTask.newBuilder();
-      builder.getAssignedTask().setTask(canonical);
-      this.storedTask = IScheduledTask.build(builder);
+    Task(IScheduledTask storedTask) {
+      this.storedTask = storedTask;
     }
 
     @Override
@@ -334,16 +617,17 @@ class MemTaskStore implements TaskStore.Mutable {
   }
 
   /**
-   * A non-unique secondary index on the task store.  Maps a custom key type to a set of task IDs.
+   * A non-unique secondary index on the task store.  Maps a custom key type to the matching tasks
+   * by ID.  The index data itself is held by a {@link Root}, this only defines how it is maintained
+   * and queried.
    *
    * @param <K> Key type.
    */
-  private static class SecondaryIndex<K> {
-    private final Multimap<K, String> index =
-        Multimaps.synchronizedSetMultimap(HashMultimap.create());
+  private final class SecondaryIndex<K> {
     private final Function<IScheduledTask, K> indexer;
     private final Function<Query.Builder, Optional<Set<K>>> queryExtractor;
     private final AtomicLong hitCount;
+    private final QueryStats queryStats;
 
     /**
      * Creates a secondary index that will extract keys from tasks using the provided indexer.
@@ -362,64 +646,67 @@ class MemTaskStore implements TaskStore.Mutable {
       this.indexer = indexer;
       this.queryExtractor = queryExtractor;
       this.hitCount = statsProvider.makeCounter("task_queries_by_" + name);
-      statsProvider.makeGauge(
-          getIndexSizeStatName(name),
-          new Supplier<Number>() {
-            @Override
-            public Number get() {
-              return index.size();
-            }
-          });
+      this.queryStats = new QueryStats(statsProvider, "by_" + name);
+      statsProvider.makeGauge(getIndexSizeStatName(name), this::size);
     }
 
-    void insert(Iterable<IScheduledTask> tasks) {
-      for (IScheduledTask task : tasks) {
-        insert(task);
+    private long size() {
+      long size = 0;
+      for (Map.Entry<?, PersistentMap<String, Task>> entry : publishedRoot.indices.get(this)) {
+        size += entry.getValue().size();
       }
+      return size;
     }
 
-    void insert(IScheduledTask task) {
-      K key = indexer.apply(task);
-      if (key != null) {
-        index.put(key, Tasks.id(task));
+    @SuppressWarnings("unchecked")
+    PersistentMap<?, PersistentMap<String, Task>> update(
+        PersistentMap<?, PersistentMap<String, Task>> data,
+        String taskId,
+        @Nullable Task existing,
+        @Nullable Task replacement) {
+
+      PersistentMap<K, PersistentMap<String, Task>> index =
+          (PersistentMap<K, PersistentMap<String, Task>>) data;
+      K existingKey = existing == null ? null : indexer.apply(existing.storedTask);
+      K replacementKey = replacement == null ? null : indexer.apply(replacement.storedTask);
+
+      if (existingKey != null && !existingKey.equals(replacementKey)) {
+        PersistentMap<String, Task> matches = index.get(existingKey);
+        if (matches != null) {
+          matches = matches.minus(taskId);
+          index = matches.isEmpty() ? index.minus(existingKey) : index.plus(existingKey, matches);
+        }
       }
-    }
-
-    void clear() {
-      index.clear();
-    }
 
-    void remove(IScheduledTask task) {
-      K key = indexer.apply(task);
-      if (key != null) {
-        index.remove(key, Tasks.id(task));
+      if (replacementKey != null) {
+        PersistentMap<String, Task> matches = index.get(replacementKey);
+        if (matches == null) {
+          matches = PersistentMap.empty();
+        }
+        index = index.plus(replacementKey, matches.plus(taskId, replacement));
       }
-    }
 
-    void replace(IScheduledTask old, IScheduledTask replacement) {
-      synchronized (index) {
-        remove(old);
-        insert(replacement);
-      }
+      return index;
     }
 
-    private final Function<Set<K>, Iterable<String>> lookup =
-        new Function<Set<K>, Iterable<String>>() {
-          @Override
-          public Iterable<String> apply(Set<K> keys) {
-            hitCount.incrementAndGet();
-            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
-            synchronized (index) {
-              for (K key : keys) {
-                builder.addAll(index.get(key));
-              }
-            }
-            return builder.build();
+    @SuppressWarnings("unchecked")
+    Optional<List<Task>> getMatches(
+        PersistentMap<?, PersistentMap<String, Task>> data,
+        Query.Builder query) {
+
+      PersistentMap<K, PersistentMap<String, Task>> index =
+          (PersistentMap<K, PersistentMap<String, Task>>) data;
+      return queryExtractor.apply(query).transform(keys -> {
+        hitCount.incrementAndGet();
+        ImmutableList.Builder<Task> builder = ImmutableList.builder();
+        for (K key : keys) {
+          PersistentMap<String, Task> matches = index.get(key);
+          if (matches != null) {
+            builder.addAll(matches.values());
           }
-    };
-
-    Optional<Iterable<String>> getMatches(Query.Builder query) {
-      return queryExtractor.apply(query).transform(lookup);
+        }
+        return builder.build();
+      });
     }
   }
 }
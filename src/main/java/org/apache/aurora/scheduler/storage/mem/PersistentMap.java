@@ -0,0 +1,405 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.storage.mem;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Maps;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable hash map where updates return a new map sharing all unchanged structure with the
+ * original, implemented as a hash array mapped trie.
+ * <p>
+ * Updates copy only the path from the root to the changed entry, which makes it cheap to keep
+ * many versions of a large map alive at once.  Null keys and values are not permitted.
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ */
+final class PersistentMap<K, V> implements Iterable<Map.Entry<K, V>> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null, 0);
+
+  @Nullable
+  private final Node root;
+  private final int size;
+
+  private PersistentMap(@Nullable Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Gets an empty map.
+   *
+   * @param <K> Key type.
+   * @param <V> Value type.
+   * @return An empty map.
+   */
+  @SuppressWarnings("unchecked")
+  static <K, V> PersistentMap<K, V> empty() {
+    return (PersistentMap<K, V>) EMPTY;
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Gets the value associated with a key.
+   *
+   * @param key Key to look up.
+   * @return The associated value, or {@code null} if the key is absent.
+   */
+  @Nullable
+  @SuppressWarnings("unchecked")
+  V get(Object key) {
+    requireNonNull(key);
+    return root == null ? null : (V) root.get(0, hash(key), key);
+  }
+
+  /**
+   * Associates a value with a key.
+   *
+   * @param key Key to associate.
+   * @param value Value to associate.
+   * @return A map with the association, or this map if the association is already present.
+   */
+  PersistentMap<K, V> plus(K key, V value) {
+    requireNonNull(key);
+    requireNonNull(value);
+    boolean[] added = new boolean[1];
+    Node start = root == null ? BitmapNode.EMPTY : root;
+    Node updated = start.put(0, hash(key), key, value, added);
+    return updated == root ? this : new PersistentMap<>(updated, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Removes the association of a key.
+   *
+   * @param key Key to remove.
+   * @return A map without the key, or this map if the key is absent.
+   */
+  PersistentMap<K, V> minus(Object key) {
+    requireNonNull(key);
+    if (root == null) {
+      return this;
+    }
+    Node updated = root.remove(0, hash(key), key);
+    if (updated == root) {
+      return this;
+    }
+    return updated == null ? empty() : new PersistentMap<>(updated, size - 1);
+  }
+
+  /**
+   * Gets the values of the map, in no particular order.
+   *
+   * @return The map values.
+   */
+  Iterable<V> values() {
+    return () -> Iterators.transform(iterator(), Map.Entry::getValue);
+  }
+
+  @Override
+  public Iterator<Map.Entry<K, V>> iterator() {
+    return root == null ? Collections.emptyIterator() : new EntryIterator<>(root);
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private static int bitpos(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /**
+   * A trie node.  Nodes store keys and values in a flat array of pairs.  In a {@link BitmapNode},
+   * a pair with a {@code null} key holds a child node in place of the value.
+   */
+  private abstract static class Node {
+    final Object[] pairs;
+
+    Node(Object[] pairs) {
+      this.pairs = pairs;
+    }
+
+    @Nullable
+    abstract Object get(int shift, int hash, Object key);
+
+    abstract Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+    @Nullable
+    abstract Node remove(int shift, int hash, Object key);
+  }
+
+  private static final class BitmapNode extends Node {
+    static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+    private final int bitmap;
+
+    BitmapNode(int bitmap, Object[] pairs) {
+      super(pairs);
+      this.bitmap = bitmap;
+    }
+
+    private int index(int bit) {
+      return 2 * Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    Object get(int shift, int hash, Object key) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int i = index(bit);
+      Object storedKey = pairs[i];
+      if (storedKey == null) {
+        return ((Node) pairs[i + 1]).get(shift + BITS, hash, key);
+      }
+      return key.equals(storedKey) ? pairs[i + 1] : null;
+    }
+
+    @Override
+    Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+      int bit = bitpos(hash, shift);
+      int i = index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] updated = new Object[pairs.length + 2];
+        System.arraycopy(pairs, 0, updated, 0, i);
+        updated[i] = key;
+        updated[i + 1] = value;
+        System.arraycopy(pairs, i, updated, i + 2, pairs.length - i);
+        added[0] = true;
+        return new BitmapNode(bitmap | bit, updated);
+      }
+
+      Object storedKey = pairs[i];
+      Object storedValue = pairs[i + 1];
+      if (storedKey == null) {
+        Node child = (Node) storedValue;
+        Node updatedChild = child.put(shift + BITS, hash, key, value, added);
+        return updatedChild == child ? this : withPair(i, null, updatedChild);
+      }
+
+      if (key.equals(storedKey)) {
+        return storedValue == value ? this : withPair(i, storedKey, value);
+      }
+
+      added[0] = true;
+      return withPair(
+          i,
+          null,
+          createNode(shift + BITS, storedKey, storedValue, hash, key, value));
+    }
+
+    @Override
+    Node remove(int shift, int hash, Object key) {
+      int bit = bitpos(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = index(bit);
+      Object storedKey = pairs[i];
+      if (storedKey == null) {
+        Node child = (Node) pairs[i + 1];
+        Node updatedChild = child.remove(shift + BITS, hash, key);
+        if (updatedChild == child) {
+          return this;
+        }
+        return updatedChild == null ? withoutPair(bit, i) : withPair(i, null, updatedChild);
+      }
+
+      return key.equals(storedKey) ? withoutPair(bit, i) : this;
+    }
+
+    private Node withPair(int i, @Nullable Object key, Object value) {
+      Object[] updated = pairs.clone();
+      updated[i] = key;
+      updated[i + 1] = value;
+      return new BitmapNode(bitmap, updated);
+    }
+
+    @Nullable
+    private Node withoutPair(int bit, int i) {
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] updated = new Object[pairs.length - 2];
+      System.arraycopy(pairs, 0, updated, 0, i);
+      System.arraycopy(pairs, i + 2, updated, i, pairs.length - i - 2);
+      return new BitmapNode(bitmap ^ bit, updated);
+    }
+
+    private static Node createNode(
+        int shift,
+        Object key1,
+        Object value1,
+        int hash2,
+        Object key2,
+        Object value2) {
+
+      int hash1 = hash(key1);
+      if (hash1 == hash2) {
+        return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+      }
+      boolean[] unused = new boolean[1];
+      return EMPTY
+          .put(shift, hash1, key1, value1, unused)
+          .put(shift, hash2, key2, value2, unused);
+    }
+  }
+
+  /**
+   * A node holding keys whose hashes are identical.
+   */
+  private static final class CollisionNode extends Node {
+    private final int hash;
+
+    CollisionNode(int hash, Object[] pairs) {
+      super(pairs);
+      this.hash = hash;
+    }
+
+    private int find(Object key) {
+      for (int i = 0; i < pairs.length; i += 2) {
+        if (key.equals(pairs[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Object get(int shift, int hash, Object key) {
+      if (hash != this.hash) {
+        return null;
+      }
+      int i = find(key);
+      return i < 0 ? null : pairs[i + 1];
+    }
+
+    @Override
+    Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+      if (hash != this.hash) {
+        // Nest this node beneath a bitmap node that can tell the hashes apart.
+        return new BitmapNode(bitpos(this.hash, shift), new Object[] {null, this})
+            .put(shift, hash, key, value, added);
+      }
+
+      int i = find(key);
+      if (i >= 0) {
+        if (pairs[i + 1] == value) {
+          return this;
+        }
+        Object[] updated = pairs.clone();
+        updated[i + 1] = value;
+        return new CollisionNode(hash, updated);
+      }
+
+      Object[] updated = Arrays.copyOf(pairs, pairs.length + 2);
+      updated[pairs.length] = key;
+      updated[pairs.length + 1] = value;
+      added[0] = true;
+      return new CollisionNode(hash, updated);
+    }
+
+    @Override
+    Node remove(int shift, int hash, Object key) {
+      int i = hash == this.hash ? find(key) : -1;
+      if (i < 0) {
+        return this;
+      }
+      if (pairs.length == 2) {
+        return null;
+      }
+      Object[] updated = new Object[pairs.length - 2];
+      System.arraycopy(pairs, 0, updated, 0, i);
+      System.arraycopy(pairs, i + 2, updated, i, pairs.length - i - 2);
+      return new CollisionNode(hash, updated);
+    }
+  }
+
+  /**
+   * Depth-first iterator over the entries of a trie.
+   */
+  private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+    private final Deque<Node> nodes = new ArrayDeque<>();
+    private final Deque<Integer> positions = new ArrayDeque<>();
+    private Map.Entry<K, V> next;
+
+    EntryIterator(Node root) {
+      nodes.push(root);
+      positions.push(0);
+      advance();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void advance() {
+      next = null;
+      while (next == null && !nodes.isEmpty()) {
+        Node node = nodes.peek();
+        int position = positions.pop();
+        if (position >= node.pairs.length) {
+          nodes.pop();
+          continue;
+        }
+        positions.push(position + 2);
+        Object key = node.pairs[position];
+        if (key == null) {
+          nodes.push((Node) node.pairs[position + 1]);
+          positions.push(0);
+        } else {
+          next = Maps.immutableEntry((K) key, (V) node.pairs[position + 1]);
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (next == null) {
+        throw new NoSuchElementException();
+      }
+      Map.Entry<K, V> current = next;
+      advance();
+      return current;
+    }
+  }
+}
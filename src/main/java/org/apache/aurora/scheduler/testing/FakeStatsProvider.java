@@ -91,6 +91,12 @@ public class FakeStatsProvider implements StatsProvider {
 
   @Override
   public RequestTimer makeRequestTimer(String name) {
-    throw new UnsupportedOperationException();
+    // Mirrors the request count and total latency exported by RequestStats.
+    AtomicLong events = makeCounter(name + "_requests_events");
+    AtomicLong totalMicros = makeCounter(name + "_requests_micros_total");
+    return latencyMicros -> {
+      events.incrementAndGet();
+      totalMicros.addAndGet(latencyMicros);
+    };
   }
 }
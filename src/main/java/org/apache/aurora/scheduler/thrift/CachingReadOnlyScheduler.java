@@ -0,0 +1,303 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.thrift;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.inject.Inject;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
+
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.stats.SlidingStats;
+import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.common.util.Clock;
+import org.apache.aurora.gen.JobConfiguration;
+import org.apache.aurora.gen.JobKey;
+import org.apache.aurora.gen.JobUpdateKey;
+import org.apache.aurora.gen.JobUpdateQuery;
+import org.apache.aurora.gen.JobUpdateRequest;
+import org.apache.aurora.gen.ReadOnlyScheduler;
+import org.apache.aurora.gen.Response;
+import org.apache.aurora.gen.ResponseCode;
+import org.apache.aurora.gen.TaskQuery;
+import org.apache.aurora.scheduler.base.JobKeys;
+import org.apache.aurora.scheduler.events.PubsubEvent.EventSubscriber;
+import org.apache.aurora.scheduler.events.PubsubEvent.RoleDataChanged;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
+import org.apache.aurora.scheduler.storage.entities.IJobKey;
+import org.apache.thrift.TException;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A read-only scheduler interface that caches the responses of summary queries that are
+ * repeatedly polled by dashboards and tooling.
+ * <p>
+ * Cached responses are tagged with the version of the data they were computed from.  Each storage
+ * change that affects a role (a task state change, a task deletion or a change of its cron jobs,
+ * quota, job updates or task configs) advances the version of that role, and thereby invalidates
+ * responses that were computed from the role's data.  Changes are delivered asynchronously after
+ * their transaction commits, so responses may briefly lag behind storage.  Responses that depend
+ * on the time they were computed at (such as the next cron run of a job) are bounded in staleness
+ * by a maximum age.
+ * <p>
+ * All other queries are passed through to the delegate.
+ */
+class CachingReadOnlyScheduler implements ReadOnlyScheduler.Iface, EventSubscriber {
+
+  @VisibleForTesting
+  static final String CACHE_HITS = "api_response_cache_hits";
+  @VisibleForTesting
+  static final String CACHE_MISSES = "api_response_cache_misses";
+  @VisibleForTesting
+  static final String CACHE_STALE = "api_response_cache_stale";
+
+  @VisibleForTesting
+  static final int MAX_ENTRIES = 10000;
+
+  /**
+   * Settings for the response cache.
+   */
+  static class Settings {
+    private final Amount<Long, Time> maxAge;
+
+    Settings(Amount<Long, Time> maxAge) {
+      this.maxAge = requireNonNull(maxAge);
+    }
+  }
+
+  private final ReadOnlyScheduler.Iface delegate;
+  private final Clock clock;
+  private final long maxAgeNanos;
+  private final Cache<CacheKey, CacheEntry> cache =
+      CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+  // Number of changes observed.  The version of a role is the number of changes observed at its
+  // most recent change, and changes to any role advance the version of data that spans all roles.
+  private final AtomicLong changes = new AtomicLong();
+  private final ConcurrentMap<String, Long> roleVersions = Maps.newConcurrentMap();
+
+  private final AtomicLong hits;
+  private final AtomicLong misses;
+  private final AtomicLong stale;
+  private final SlidingStats hitAge = new SlidingStats("api_response_cache_hit_age", "ms");
+
+  @Inject
+  CachingReadOnlyScheduler(
+      ReadOnlySchedulerImpl delegate,
+      Clock clock,
+      StatsProvider statsProvider,
+      Settings settings) {
+
+    this.delegate = requireNonNull(delegate);
+    this.clock = requireNonNull(clock);
+    this.maxAgeNanos = settings.maxAge.as(Time.NANOSECONDS);
+    this.hits = statsProvider.makeCounter(CACHE_HITS);
+    this.misses = statsProvider.makeCounter(CACHE_MISSES);
+    this.stale = statsProvider.makeCounter(CACHE_STALE);
+  }
+
+  private void roleChanged(String role) {
+    long version = changes.incrementAndGet();
+    roleVersions.merge(role, version, Math::max);
+  }
+
+  @Subscribe
+  public void taskChangedState(TaskStateChange change) {
+    roleChanged(change.getTask().getAssignedTask().getTask().getJob().getRole());
+  }
+
+  @Subscribe
+  public void tasksDeleted(TasksDeleted deleted) {
+    deleted.getTasks().stream()
+        .map(task -> task.getAssignedTask().getTask().getJob().getRole())
+        .distinct()
+        .forEach(this::roleChanged);
+  }
+
+  @Subscribe
+  public void roleDataChanged(RoleDataChanged change) {
+    roleChanged(change.getRole());
+  }
+
+  private long globalVersion() {
+    return changes.get();
+  }
+
+  private long roleVersion(@Nullable String role) {
+    return role == null ? globalVersion() : roleVersions.getOrDefault(role, 0L);
+  }
+
+  @FunctionalInterface
+  private interface Call {
+    Response execute() throws TException;
+  }
+
+  private Response cached(String method, @Nullable Object argument, long version, Call call)
+      throws TException {
+
+    CacheKey key = new CacheKey(method, argument);
+    CacheEntry entry = cache.getIfPresent(key);
+    long now = clock.nowNanos();
+    if (entry != null) {
+      long age = now - entry.createdNanos;
+      if (entry.version == version && age <= maxAgeNanos) {
+        hits.incrementAndGet();
+        hitAge.accumulate(Amount.of(age, Time.NANOSECONDS).as(Time.MILLISECONDS));
+        // Responses are decorated on their way out, so the cached response is never handed out.
+        return entry.response.deepCopy();
+      }
+      stale.incrementAndGet();
+    }
+
+    misses.incrementAndGet();
+    // The version is read before the query, so that a change that is observed while the query runs
+    // invalidates the response it computes.
+    Response response = call.execute();
+    if (response.getResponseCode() == ResponseCode.OK) {
+      cache.put(key, new CacheEntry(version, now, response.deepCopy()));
+    }
+    return response;
+  }
+
+  @Override
+  public Response getRoleSummary() throws TException {
+    return cached("getRoleSummary", null, globalVersion(), delegate::getRoleSummary);
+  }
+
+  @Override
+  public Response getJobSummary(@Nullable String role) throws TException {
+    return cached("getJobSummary", role, roleVersion(role), () -> delegate.getJobSummary(role));
+  }
+
+  @Override
+  public Response getJobs(@Nullable String ownerRole) throws TException {
+    return cached("getJobs", ownerRole, roleVersion(ownerRole), () -> delegate.getJobs(ownerRole));
+  }
+
+  @Override
+  public Response getConfigSummary(JobKey job) throws TException {
+    IJobKey jobKey = job == null ? null : IJobKey.build(job);
+    if (!JobKeys.isValid(jobKey)) {
+      return delegate.getConfigSummary(job);
+    }
+
+    return cached(
+        "getConfigSummary",
+        jobKey,
+        roleVersion(jobKey.getRole()),
+        () -> delegate.getConfigSummary(job));
+  }
+
+  @Override
+  public Response getQuota(String ownerRole) throws TException {
+    if (ownerRole == null) {
+      return delegate.getQuota(ownerRole);
+    }
+
+    return cached(
+        "getQuota",
+        ownerRole,
+        roleVersion(ownerRole),
+        () -> delegate.getQuota(ownerRole));
+  }
+
+  @Override
+  public Response getTasksStatus(TaskQuery query) throws TException {
+    return delegate.getTasksStatus(query);
+  }
+
+  @Override
+  public Response getTasksWithoutConfigs(TaskQuery query) throws TException {
+    return delegate.getTasksWithoutConfigs(query);
+  }
+
+  @Override
+  public Response getPendingReason(TaskQuery query) throws TException {
+    return delegate.getPendingReason(query);
+  }
+
+  @Override
+  public Response populateJobConfig(JobConfiguration description) throws TException {
+    return delegate.populateJobConfig(description);
+  }
+
+  @Override
+  public Response getJobUpdateSummaries(JobUpdateQuery jobUpdateQuery) throws TException {
+    return delegate.getJobUpdateSummaries(jobUpdateQuery);
+  }
+
+  @Override
+  public Response getJobUpdateDetails(JobUpdateKey key, JobUpdateQuery query) throws TException {
+    return delegate.getJobUpdateDetails(key, query);
+  }
+
+  @Override
+  public Response getJobUpdateDiff(JobUpdateRequest request) throws TException {
+    return delegate.getJobUpdateDiff(request);
+  }
+
+  @Override
+  public Response getTierConfigs() throws TException {
+    return delegate.getTierConfigs();
+  }
+
+  private static final class CacheKey {
+    private final String method;
+    @Nullable
+    private final Object argument;
+
+    CacheKey(String method, @Nullable Object argument) {
+      this.method = method;
+      this.argument = argument;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+
+      CacheKey other = (CacheKey) o;
+      return method.equals(other.method) && Objects.equals(argument, other.argument);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(method, argument);
+    }
+  }
+
+  private static final class CacheEntry {
+    private final long version;
+    private final long createdNanos;
+    private final Response response;
+
+    CacheEntry(long version, long createdNanos, Response response) {
+      this.version = version;
+      this.createdNanos = createdNanos;
+      this.response = response;
+    }
+  }
+}
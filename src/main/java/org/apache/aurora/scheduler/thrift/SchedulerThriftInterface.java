@@ -78,6 +78,7 @@ import org.apache.aurora.scheduler.configuration.SanitizedConfiguration;
 import org.apache.aurora.scheduler.cron.CronException;
 import org.apache.aurora.scheduler.cron.CronJobManager;
 import org.apache.aurora.scheduler.cron.SanitizedCronJob;
+import org.apache.aurora.scheduler.quota.ConsumptionCache;
 import org.apache.aurora.scheduler.quota.QuotaCheckResult;
 import org.apache.aurora.scheduler.quota.QuotaManager;
 import org.apache.aurora.scheduler.quota.QuotaManager.QuotaException;
@@ -167,6 +168,7 @@ class SchedulerThriftInterface implements AnnotatedAuroraAdmin {
   private final MaintenanceController maintenance;
   private final CronJobManager cronJobManager;
   private final QuotaManager quotaManager;
+  private final ConsumptionCache consumptionCache;
   private final StateManager stateManager;
   private final TaskIdGenerator taskIdGenerator;
   private final UUIDGenerator uuidGenerator;
@@ -186,6 +188,7 @@ class SchedulerThriftInterface implements AnnotatedAuroraAdmin {
       CronJobManager cronJobManager,
       MaintenanceController maintenance,
       QuotaManager quotaManager,
+      ConsumptionCache consumptionCache,
       StateManager stateManager,
       TaskIdGenerator taskIdGenerator,
       UUIDGenerator uuidGenerator,
@@ -203,6 +206,7 @@ class SchedulerThriftInterface implements AnnotatedAuroraAdmin {
     this.maintenance = requireNonNull(maintenance);
     this.cronJobManager = requireNonNull(cronJobManager);
     this.quotaManager = requireNonNull(quotaManager);
+    this.consumptionCache = requireNonNull(consumptionCache);
     this.stateManager = requireNonNull(stateManager);
     this.taskIdGenerator = requireNonNull(taskIdGenerator);
     this.uuidGenerator = requireNonNull(uuidGenerator);
@@ -265,7 +269,7 @@ class SchedulerThriftInterface implements AnnotatedAuroraAdmin {
   }
 
   private void checkJobExists(StoreProvider store, IJobKey jobKey) throws JobExistsException {
-    if (!Iterables.isEmpty(store.getTaskStore().fetchTasks(Query.jobScoped(jobKey).active()))
+    if (!Iterables.isEmpty(store.getTaskStore().fetchTasksLazily(Query.jobScoped(jobKey).active()))
         || getCronJob(store, jobKey).isPresent()) {
 
       throw new JobExistsException(jobAlreadyExistsMessage(jobKey));
@@ -712,7 +716,10 @@ class SchedulerThriftInterface implements AnnotatedAuroraAdmin {
         ITaskConfig newConfiguration = instanceRewrite.getRewrittenTask();
         boolean changed = storeProvider.getUnsafeTaskStore().unsafeModifyInPlace(
             task.get().getTaskId(), newConfiguration);
-        if (!changed) {
+        if (changed) {
+          // The rewritten config may consume different resources.
+          consumptionCache.invalidate(instanceKey.getJobKey().getRole());
+        } else {
           error = Optional.of("Did not change " + task.get().getTaskId());
         }
       } else {
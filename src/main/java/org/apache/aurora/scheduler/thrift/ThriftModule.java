@@ -13,10 +13,18 @@
  */
 package org.apache.aurora.scheduler.thrift;
 
+import javax.inject.Singleton;
+
 import com.google.inject.AbstractModule;
+import com.google.inject.PrivateModule;
 
+import org.apache.aurora.common.args.Arg;
+import org.apache.aurora.common.args.CmdLine;
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.gen.AuroraAdmin;
 import org.apache.aurora.gen.ReadOnlyScheduler;
+import org.apache.aurora.scheduler.events.PubsubEventModule;
 import org.apache.aurora.scheduler.thrift.aop.AnnotatedAuroraAdmin;
 import org.apache.aurora.scheduler.thrift.aop.AopModule;
 
@@ -25,6 +33,17 @@ import org.apache.aurora.scheduler.thrift.aop.AopModule;
  */
 public class ThriftModule extends AbstractModule {
 
+  @CmdLine(name = "enable_api_response_cache",
+      help = "Cache responses to role, job, config summary and quota queries until the data they "
+          + "were computed from changes.")
+  private static final Arg<Boolean> ENABLE_API_RESPONSE_CACHE = Arg.create(false);
+
+  @CmdLine(name = "api_response_cache_max_age",
+      help = "Maximum time a cached API response is served for, which bounds the staleness of "
+          + "time-dependent fields such as the next cron run of a job.")
+  private static final Arg<Amount<Long, Time>> API_RESPONSE_CACHE_MAX_AGE =
+      Arg.create(Amount.of(5L, Time.SECONDS));
+
   @Override
   protected void configure() {
     install(new ReadOnly());
@@ -43,7 +62,21 @@ public class ThriftModule extends AbstractModule {
   public static class ReadOnly extends AbstractModule {
     @Override
     protected void configure() {
-      bind(ReadOnlyScheduler.Iface.class).to(ReadOnlySchedulerImpl.class);
+      if (ENABLE_API_RESPONSE_CACHE.get()) {
+        install(new PrivateModule() {
+          @Override
+          protected void configure() {
+            bind(CachingReadOnlyScheduler.Settings.class).toInstance(
+                new CachingReadOnlyScheduler.Settings(API_RESPONSE_CACHE_MAX_AGE.get()));
+            bind(CachingReadOnlyScheduler.class).in(Singleton.class);
+            expose(CachingReadOnlyScheduler.class);
+          }
+        });
+        bind(ReadOnlyScheduler.Iface.class).to(CachingReadOnlyScheduler.class);
+        PubsubEventModule.bindSubscriber(binder(), CachingReadOnlyScheduler.class);
+      } else {
+        bind(ReadOnlyScheduler.Iface.class).to(ReadOnlySchedulerImpl.class);
+      }
     }
   }
 }
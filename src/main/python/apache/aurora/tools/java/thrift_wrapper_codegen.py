@@ -164,6 +164,24 @@ STRUCT_COLLECTION_FIELD_ASSIGNMENT = '''this.%(field)s = wrapped.%(isset)s()
               .to%(collection)s()
         : Immutable%(collection)s.<%(params)s>of();'''
 
+# Template for a constructor accepting values for all fields of a struct, used by the 'with'
+# methods to share unchanged (immutable) field values rather than deep copying them.
+FIELDS_CONSTRUCTOR_TEMPLATE = '''
+
+  private %(name)s(
+      %(params)s) {
+    %(assignments)s
+  }'''
+
+WITH_METHOD_TEMPLATE = '''  /**
+   * Creates a copy of this object with a different value for {@code %(field)s}.
+   * All other fields are shared with this object rather than copied.
+   */
+  public %(name)s with%(capitalized)s(%(type)s %(field)s) {
+    return new %(name)s(
+        %(args)s);
+  }'''
+
 PACKAGE_NAME = 'org.apache.aurora.scheduler.storage.entities'
 
 
@@ -180,7 +198,7 @@ public final class %(name)s {
   private int cachedHashCode = 0;
 %(fields)s
   private %(name)s(%(wrapped)s wrapped) {%(assignments)s
-  }
+  }%(fields_constructor)s
 
   public static %(name)s build(%(wrapped)s wrapped) {
     return new %(name)s(wrapped);
@@ -261,6 +279,7 @@ class GeneratedCode(object):
     self.equals = 'unset'
     self.builder = 'unset'
     self.copy_constructor = 'unset'
+    self.fields_constructor = ''
 
   def add_import(self, import_class):
     self._imports.add(import_class)
@@ -305,6 +324,7 @@ class GeneratedCode(object):
       'equals': self.equals,
       'hashcode': self.hash_code,
       'copy_constructor': self.copy_constructor,
+      'fields_constructor': self.fields_constructor,
     }, file=out_file)
 
 
@@ -493,7 +513,17 @@ def generate_union_field(code, struct, field):
                                             'enum_value': field_enum_value})
 
 
-def generate_struct_field(code, field, builder_calls):
+class WithParameter(object):
+  '''The parameter of a generated 'with' method, and how it is converted to the field type.'''
+
+  def __init__(self, field, field_type, param_type, conversion):
+    self.field = field
+    self.field_type = field_type
+    self.param_type = param_type
+    self.conversion = conversion
+
+
+def generate_struct_field(code, field, builder_calls, with_params):
   field_type = field.ttype.codegen_name()
   assignment = SIMPLE_ASSIGNMENT
   assignment_args = {
@@ -559,6 +589,18 @@ def generate_struct_field(code, field, builder_calls):
 
   code.add_field(FIELD_DECLARATION % {'field': field.name, 'type': field_type })
 
+  if isinstance(field.ttype, ParameterizedType):
+    if field.ttype.name == 'Map':
+      code.add_import('java.util.Map')
+      param_type = 'Map<%s>' % field.ttype.param_names()
+    else:
+      param_type = 'Iterable<%s>' % field.ttype.param_names()
+    conversion = 'Immutable%s.copyOf(%s)' % (field.ttype.name, field.name)
+  else:
+    param_type = field_type
+    conversion = field.name
+  with_params.append(WithParameter(field, field_type, param_type, conversion))
+
   nullable = field.ttype.name == 'String' or not isinstance(field.ttype, (PrimitiveType, ParameterizedType))
   if nullable:
     code.add_accessor(FIELD_TEMPLATE % {'type': 'boolean',
@@ -644,8 +686,26 @@ def generate_java(struct):
     code.hash_code = 'setField, value'
   else:
     builder_calls = []
+    with_params = []
     for field in struct.fields:
-      generate_struct_field(code, field, builder_calls)
+      generate_struct_field(code, field, builder_calls, with_params)
+
+    if with_params:
+      code.fields_constructor = FIELDS_CONSTRUCTOR_TEMPLATE % {
+        'name': struct.codegen_name(),
+        'params': ',\n      '.join(['%s %s' % (p.field_type, p.field.name) for p in with_params]),
+        'assignments': '\n    '.join(['this.%s = %s;' % (p.field.name, p.field.name)
+                                     for p in with_params]),
+      }
+      for param in with_params:
+        args = [param.conversion if p is param else p.field.name for p in with_params]
+        code.add_accessor(WITH_METHOD_TEMPLATE % {
+          'name': struct.codegen_name(),
+          'capitalized': param.field.capitalized_name(),
+          'type': param.param_type,
+          'field': param.field.name,
+          'args': ',\n        '.join(args),
+        })
 
     field_names = [f.name for f in struct.fields]
     code.copy_constructor = 'return new %s()%s;' % (struct.name, '\n        ' + '\n        '.join(builder_calls))
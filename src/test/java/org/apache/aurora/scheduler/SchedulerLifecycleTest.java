@@ -35,11 +35,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.apache.aurora.scheduler.SchedulerLifecycle.State;
+import static org.apache.aurora.scheduler.SchedulerLifecycle.initTimeGaugeName;
 import static org.apache.aurora.scheduler.SchedulerLifecycle.stateGaugeName;
 import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class SchedulerLifecycleTest extends EasyMockTest {
@@ -144,6 +146,32 @@ public class SchedulerLifecycleTest extends EasyMockTest {
     triggerFailover.getValue().run();
   }
 
+  @Test
+  public void testInitTimesRecorded() throws Exception {
+    storageUtil.storage.prepare();
+    expectLastCall().andAnswer(() -> {
+      Thread.sleep(10);
+      return null;
+    });
+    expectLoadStorage();
+    delayedActions.onAutoFailover(EasyMock.anyObject());
+    delayedActions.onRegistrationTimeout(EasyMock.anyObject());
+    expectInitializeDriver();
+    expectFullStartup();
+
+    replayAndCreateLifecycle();
+    assertEquals(0L, statsProvider.getLongValue(initTimeGaugeName(State.PREPARING_STORAGE)));
+
+    LeadershipListener leaderListener = schedulerLifecycle.prepare();
+    leaderListener.onLeading(leaderControl);
+    schedulerLifecycle.registered(new DriverRegistered());
+
+    assertTrue(statsProvider.getLongValue(initTimeGaugeName(State.PREPARING_STORAGE)) >= 10);
+    assertTrue(statsProvider.getLongValue(initTimeGaugeName(State.LEADER_AWAITING_REGISTRATION))
+        >= 0);
+    assertTrue(statsProvider.getLongValue(initTimeGaugeName(State.ACTIVE)) >= 0);
+  }
+
   @Test
   public void testRegistrationTimeout() throws Exception {
     storageUtil.storage.prepare();
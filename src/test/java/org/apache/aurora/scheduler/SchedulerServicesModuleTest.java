@@ -0,0 +1,75 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler;
+
+import com.google.common.util.concurrent.AbstractIdleService;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+import org.apache.aurora.GuavaUtils.ServiceManagerIface;
+import org.apache.aurora.common.stats.StatsProvider;
+import org.apache.aurora.scheduler.app.LifecycleModule;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SchedulerServicesModuleTest {
+
+  private static final String STARTUP_TIME_STAT = "startup_app_startup_SlowService_ms";
+
+  private FakeStatsProvider statsProvider;
+  private Injector injector;
+
+  @Before
+  public void setUp() {
+    statsProvider = new FakeStatsProvider();
+    injector = Guice.createInjector(
+        new LifecycleModule(),
+        new SchedulerServicesModule(),
+        new AbstractModule() {
+          @Override
+          protected void configure() {
+            bind(StatsProvider.class).toInstance(statsProvider);
+            SchedulerServicesModule.addAppStartupServiceBinding(binder()).to(SlowService.class);
+          }
+        });
+  }
+
+  @Test
+  public void testStartupTimesExported() {
+    ServiceManagerIface serviceManager =
+        injector.getInstance(Key.get(ServiceManagerIface.class, AppStartup.class));
+    assertEquals(0L, statsProvider.getLongValue(STARTUP_TIME_STAT));
+
+    serviceManager.startAsync().awaitHealthy();
+    assertTrue(statsProvider.getLongValue(STARTUP_TIME_STAT) >= 10);
+  }
+
+  static class SlowService extends AbstractIdleService {
+    @Override
+    protected void startUp() throws InterruptedException {
+      Thread.sleep(10);
+    }
+
+    @Override
+    protected void shutDown() {
+      // Noop.
+    }
+  }
+}
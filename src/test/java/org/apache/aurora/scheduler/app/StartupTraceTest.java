@@ -0,0 +1,87 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.app;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import org.apache.aurora.common.stats.Stats;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class StartupTraceTest {
+
+  @After
+  public void tearDown() {
+    Stats.flush();
+  }
+
+  @Test
+  public void testTracedModulesInstalled() {
+    Injector injector = Guice.createInjector(
+        StartupTrace.traced(new StringModule(), new IntegerModule()));
+
+    assertEquals("hello", injector.getInstance(String.class));
+    assertEquals(Integer.valueOf(42), injector.getInstance(Integer.class));
+    assertEquals("startup_module_StringModule_ms", StartupTrace.moduleStatName(new StringModule()));
+    assertNotNull(Stats.getVariable("startup_module_StringModule_ms"));
+    assertNotNull(Stats.getVariable("startup_module_IntegerModule_ms"));
+  }
+
+  @Test
+  public void testTime() {
+    assertEquals("result", StartupTrace.time("startup_test_ms", () -> {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return "result";
+    }));
+    assertTrue((Long) Stats.getVariable("startup_test_ms").read() >= 10);
+  }
+
+  @Test
+  public void testPhaseTimedAgain() {
+    StartupTrace.time("startup_repeated_ms", () -> null);
+    StartupTrace.time("startup_repeated_ms", () -> {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      }
+      return null;
+    });
+    assertTrue((Long) Stats.getVariable("startup_repeated_ms").read() >= 10);
+  }
+
+  private static class StringModule extends AbstractModule {
+    @Override
+    protected void configure() {
+      bind(String.class).toInstance("hello");
+    }
+  }
+
+  private static class IntegerModule extends AbstractModule {
+    @Override
+    protected void configure() {
+      bind(Integer.class).toInstance(42);
+    }
+  }
+}
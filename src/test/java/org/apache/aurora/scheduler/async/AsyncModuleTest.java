@@ -88,7 +88,9 @@ public class AsyncModuleTest extends EasyMockTest {
         ImmutableMap.of(
             RegisterGauges.TIMEOUT_QUEUE_GAUGE, 0,
             RegisterGauges.ASYNC_TASKS_GAUGE, 0L,
-            RegisterGauges.DELAY_QUEUE_GAUGE, 0),
+            RegisterGauges.DELAY_QUEUE_GAUGE, 0,
+            RegisterGauges.DELAY_FLUSHES_GAUGE, 0L,
+            RegisterGauges.DELAY_FLUSH_NANOS_GAUGE, 0L),
         statsProvider.getAllValues()
     );
   }
@@ -92,6 +92,47 @@ public class GatingDelayExecutorTest extends EasyMockTest {
     unblock.countDown();
   }
 
+  @Test
+  public void testDeferredWorkIsThreadSpecific() throws InterruptedException {
+    gatedExecutor.execute(runnable);
+    expectLastCall().times(2);
+
+    control.replay();
+
+    CountDownLatch workDeferred = new CountDownLatch(1);
+    CountDownLatch unblock = new CountDownLatch(1);
+    Thread closer = new ThreadFactoryBuilder()
+        .setDaemon(true)
+        .setNameFormat("GateTest")
+        .build()
+        .newThread(() -> gatingExecutor.closeDuring(() -> {
+          gatingExecutor.execute(runnable);
+          workDeferred.countDown();
+          try {
+            unblock.await();
+          } catch (InterruptedException e) {
+            throw Throwables.propagate(e);
+          }
+          return "hi";
+        }));
+    closer.start();
+    workDeferred.await();
+
+    // Opening this thread's gate must not hand off work deferred by the other thread.
+    gatingExecutor.closeDuring(() -> {
+      gatingExecutor.execute(runnable);
+      assertQueueSize(2);
+      return "hello";
+    });
+    assertQueueSize(1);
+    assertEquals(1L, gatingExecutor.getFlushCount());
+
+    unblock.countDown();
+    closer.join();
+    assertQueueSize(0);
+    assertEquals(2L, gatingExecutor.getFlushCount());
+  }
+
   private void assertQueueSize(int size) {
     assertEquals(size, gatingExecutor.getQueueSize());
   }
@@ -56,6 +56,31 @@ public class CronPredictorImplTest {
         cronPredictor.predictNextRun(CrontabEntry.parse("* * * * *")));
   }
 
+  @Test
+  public void testPredictionReusedUntilPassed() {
+    CrontabEntry hourly = CrontabEntry.parse("0 * * * *");
+    Date firstRun = new Date(Amount.of(1L, Time.HOURS).as(Time.MILLISECONDS));
+    Date secondRun = new Date(Amount.of(2L, Time.HOURS).as(Time.MILLISECONDS));
+
+    assertEquals(Optional.of(firstRun), cronPredictor.predictNextRun(hourly));
+    clock.advance(Amount.of(30L, Time.MINUTES));
+    assertEquals(Optional.of(firstRun), cronPredictor.predictNextRun(hourly));
+    clock.advance(Amount.of(30L, Time.MINUTES));
+    assertEquals(Optional.of(secondRun), cronPredictor.predictNextRun(hourly));
+
+    // Moving back in time must not return a prediction made for a later time.
+    clock.setNowMillis(0);
+    assertEquals(Optional.of(firstRun), cronPredictor.predictNextRun(hourly));
+  }
+
+  @Test
+  public void testPredictionsNotShared() {
+    cronPredictor.predictNextRun(CRONTAB_ENTRY).get().setTime(0);
+    assertEquals(
+        Optional.of(new Date(Amount.of(1L, Time.MINUTES).as(Time.MILLISECONDS))),
+        cronPredictor.predictNextRun(CRONTAB_ENTRY));
+  }
+
   @Test
   public void testCronExpressions() {
     assertEquals("0 * * ? * 1,2,3,4,5,6,7",
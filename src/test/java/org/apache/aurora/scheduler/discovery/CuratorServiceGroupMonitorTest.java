@@ -23,6 +23,8 @@ import org.apache.zookeeper.CreateMode;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class CuratorServiceGroupMonitorTest extends BaseCuratorDiscoveryTest {
 
@@ -76,6 +78,24 @@ public class CuratorServiceGroupMonitorTest extends BaseCuratorDiscoveryTest {
     assertEquals(ImmutableSet.of(), getGroupMonitor().get());
   }
 
+  @Test
+  public void testMembershipReusedUntilChanged() throws Exception {
+    startGroupMonitor();
+
+    ServiceInstance one = serviceInstance("one");
+    createMember(one);
+    ImmutableSet<ServiceInstance> members = getGroupMonitor().get();
+    assertEquals(ImmutableSet.of(one), members);
+    assertSame(members, getGroupMonitor().get());
+
+    ServiceInstance two = serviceInstance("two");
+    createMember(two);
+    ImmutableSet<ServiceInstance> updated = getGroupMonitor().get();
+    assertNotSame(members, updated);
+    assertEquals(ImmutableSet.of(one, two), updated);
+    assertSame(updated, getGroupMonitor().get());
+  }
+
   @Test
   public void testMixedNodes() throws Exception {
     startGroupMonitor();
@@ -32,9 +32,11 @@ import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceManager;
 import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.apache.aurora.scheduler.events.NotifyingSchedulingFilter.VETO_EVENTS_SUPPRESSED;
 import static org.easymock.EasyMock.expect;
 import static org.junit.Assert.assertEquals;
 
@@ -54,15 +56,24 @@ public class NotifyingSchedulingFilterTest extends EasyMockTest {
   private static final Veto VETO_1 = Veto.insufficientResources("ram", 1);
   private static final Veto VETO_2 = Veto.insufficientResources("ram", 2);
 
-  private SchedulingFilter filter;
+  private static final ITaskConfig OTHER_TASK = ITaskConfig.build(new TaskConfig()
+      .setNumCpus(2)
+      .setRamMb(1024)
+      .setDiskMb(1024));
+  private static final ResourceRequest OTHER_REQUEST =
+      new ResourceRequest(OTHER_TASK, ResourceBag.EMPTY, AttributeAggregate.empty());
+
+  private NotifyingSchedulingFilter filter;
   private EventSink eventSink;
   private SchedulingFilter delegate;
+  private FakeStatsProvider statsProvider;
 
   @Before
   public void setUp() {
     delegate = createMock(SchedulingFilter.class);
     eventSink = createMock(EventSink.class);
-    filter = new NotifyingSchedulingFilter(delegate, eventSink);
+    statsProvider = new FakeStatsProvider();
+    filter = new NotifyingSchedulingFilter(delegate, eventSink, statsProvider);
   }
 
   @Test
@@ -85,4 +96,39 @@ public class NotifyingSchedulingFilterTest extends EasyMockTest {
 
     assertEquals(vetoes, filter.filter(RESOURCE, REQUEST));
   }
+
+  @Test
+  public void testRoundPublishesNearestFit() {
+    Set<Veto> worse = ImmutableSet.of(VETO_2);
+    Set<Veto> better = ImmutableSet.of(VETO_1);
+    Set<Veto> other = ImmutableSet.of(VETO_1, VETO_2);
+    expect(delegate.filter(RESOURCE, REQUEST)).andReturn(worse);
+    expect(delegate.filter(RESOURCE, REQUEST)).andReturn(better);
+    expect(delegate.filter(RESOURCE, REQUEST)).andReturn(worse);
+    expect(delegate.filter(RESOURCE, OTHER_REQUEST)).andReturn(other);
+    eventSink.post(new Vetoed(GROUP_KEY, better));
+    eventSink.post(new Vetoed(TaskGroupKey.from(OTHER_TASK), other));
+
+    control.replay();
+
+    assertEquals("result", filter.aggregate(() -> {
+      assertEquals(worse, filter.filter(RESOURCE, REQUEST));
+      // Nested rounds join the enclosing round.
+      filter.aggregate(() -> filter.filter(RESOURCE, REQUEST));
+      assertEquals(worse, filter.filter(RESOURCE, REQUEST));
+      assertEquals(other, filter.filter(RESOURCE, OTHER_REQUEST));
+      return "result";
+    }));
+    assertEquals(2L, statsProvider.getLongValue(VETO_EVENTS_SUPPRESSED));
+  }
+
+  @Test
+  public void testRoundWithoutVetoes() {
+    expect(delegate.filter(RESOURCE, REQUEST)).andReturn(ImmutableSet.of());
+
+    control.replay();
+
+    filter.aggregate(() -> filter.filter(RESOURCE, REQUEST));
+    assertEquals(0L, statsProvider.getLongValue(VETO_EVENTS_SUPPRESSED));
+  }
 }
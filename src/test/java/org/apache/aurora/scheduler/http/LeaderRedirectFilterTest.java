@@ -0,0 +1,173 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.http;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
+
+import com.google.common.base.Optional;
+
+import org.apache.aurora.common.testing.easymock.EasyMockTest;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.aurora.gen.apiConstants.BYPASS_LEADER_REDIRECT_HEADER_NAME;
+import static org.apache.aurora.scheduler.http.LeaderProxy.LeaderUnreachableException;
+import static org.apache.aurora.scheduler.http.LeaderRedirect.LeaderStatus;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+
+public class LeaderRedirectFilterTest extends EasyMockTest {
+
+  private static final String LEADER_URI = "http://leader:8081/api";
+
+  private LeaderRedirect redirector;
+  private LeaderProxy proxy;
+  private HttpServletRequest request;
+  private HttpServletResponse response;
+  private FilterChain chain;
+
+  @Before
+  public void setUp() {
+    redirector = createMock(LeaderRedirect.class);
+    proxy = createMock(LeaderProxy.class);
+    request = createMock(HttpServletRequest.class);
+    response = createMock(HttpServletResponse.class);
+    chain = createMock(FilterChain.class);
+  }
+
+  private void expectNotLeading(String path, boolean proxied) {
+    expect(request.getHeader(BYPASS_LEADER_REDIRECT_HEADER_NAME)).andReturn(null);
+    expect(redirector.getLeaderStatus()).andReturn(LeaderStatus.NOT_LEADING);
+    expect(redirector.getRedirectTarget(request)).andReturn(Optional.of(LEADER_URI));
+    expect(request.getHeader(LeaderProxy.PROXIED_HEADER_NAME))
+        .andStubReturn(proxied ? "true" : null);
+    expect(request.getRequestURI()).andStubReturn(path);
+  }
+
+  private void expectRedirect() {
+    response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+    response.setHeader(HttpHeaders.LOCATION, LEADER_URI);
+  }
+
+  private void filter(Optional<LeaderProxy> leaderProxy) throws Exception {
+    new LeaderRedirectFilter(redirector, leaderProxy).doFilter(request, response, chain);
+  }
+
+  @Test
+  public void testRedirectWithoutProxy() throws Exception {
+    expectNotLeading("/api", false);
+    expectRedirect();
+
+    control.replay();
+
+    filter(Optional.absent());
+  }
+
+  @Test
+  public void testProxyApiRequest() throws Exception {
+    expectNotLeading("/api", false);
+    proxy.proxy(LEADER_URI, request, response);
+
+    control.replay();
+
+    filter(Optional.of(proxy));
+  }
+
+  @Test
+  public void testRedirectNonApiRequest() throws Exception {
+    expectNotLeading("/cron", false);
+    expectRedirect();
+
+    control.replay();
+
+    filter(Optional.of(proxy));
+  }
+
+  @Test
+  public void testRedirectProxiedRequest() throws Exception {
+    expectNotLeading("/api", true);
+    expectRedirect();
+
+    control.replay();
+
+    filter(Optional.of(proxy));
+  }
+
+  @Test
+  public void testProxyApiSubpath() throws Exception {
+    expectNotLeading("/api/v1", false);
+    proxy.proxy(LEADER_URI, request, response);
+
+    control.replay();
+
+    filter(Optional.of(proxy));
+  }
+
+  @Test
+  public void testRedirectApiPrefixedPath() throws Exception {
+    expectNotLeading("/apiclient", false);
+    expectRedirect();
+
+    control.replay();
+
+    filter(Optional.of(proxy));
+  }
+
+  @Test
+  public void testRedirectWhenLeaderUnreachable() throws Exception {
+    expectNotLeading("/api", false);
+    proxy.proxy(LEADER_URI, request, response);
+    expectLastCall().andThrow(
+        new LeaderUnreachableException(new ConnectException("Connection refused")));
+    response.reset();
+    expectRedirect();
+
+    control.replay();
+
+    filter(Optional.of(proxy));
+  }
+
+  @Test
+  public void testBadGatewayWhenProxyFails() throws Exception {
+    expectNotLeading("/api", false);
+    proxy.proxy(LEADER_URI, request, response);
+    expectLastCall().andThrow(new SocketTimeoutException("Read timed out"));
+    expect(response.isCommitted()).andReturn(false);
+    response.reset();
+    response.sendError(HttpServletResponse.SC_BAD_GATEWAY);
+
+    control.replay();
+
+    filter(Optional.of(proxy));
+  }
+
+  @Test(expected = IOException.class)
+  public void testProxyFailsAfterCommit() throws Exception {
+    expectNotLeading("/api", false);
+    proxy.proxy(LEADER_URI, request, response);
+    expectLastCall().andThrow(new IOException("Connection reset"));
+    expect(response.isCommitted()).andReturn(true);
+
+    control.replay();
+
+    filter(Optional.of(proxy));
+  }
+}
@@ -72,44 +72,52 @@ public class LeaderRedirectTest extends EasyMockTest {
 
   @Test
   public void testLeader() throws Exception {
-    replayAndMonitor(3);
+    replayAndMonitor(2);
     publishSchedulers(localPort(HTTP_PORT));
 
     assertEquals(Optional.absent(), leaderRedirector.getRedirect());
 
-    // NB: LEADING takes 2 tests of the server group membership to calculate; thus we expect 3
-    // server group get calls, 1 for the getRedirect() above and 2 here.
     assertEquals(LeaderStatus.LEADING, leaderRedirector.getLeaderStatus());
   }
 
   @Test
   public void testNotLeader() throws Exception {
-    replayAndMonitor(3);
+    replayAndMonitor(2);
 
     HostAndPort remote = HostAndPort.fromParts("foobar", HTTP_PORT);
     publishSchedulers(remote);
 
     assertEquals(Optional.of(remote), leaderRedirector.getRedirect());
 
-    // NB: NOT_LEADING takes 2 tests of the server group membership to calculate; thus we expect 3
-    // server group get calls, 1 for the getRedirect() above and 2 here.
     assertEquals(LeaderStatus.NOT_LEADING, leaderRedirector.getLeaderStatus());
   }
 
   @Test
   public void testLeaderOnSameHost() throws Exception {
-    replayAndMonitor(3);
+    replayAndMonitor(2);
 
     HostAndPort local = localPort(555);
     publishSchedulers(local);
 
     assertEquals(Optional.of(local), leaderRedirector.getRedirect());
 
-    // NB: NOT_LEADING takes 2 tests of the server group membership to calculate; thus we expect 3
-    // server group get calls, 1 for the getRedirect() above and 2 here.
     assertEquals(LeaderStatus.NOT_LEADING, leaderRedirector.getLeaderStatus());
   }
 
+  @Test
+  public void testLeaderChange() throws Exception {
+    replayAndMonitor(3);
+
+    publishSchedulers(HostAndPort.fromParts("foobar", HTTP_PORT));
+    assertEquals(LeaderStatus.NOT_LEADING, leaderRedirector.getLeaderStatus());
+
+    publishSchedulers(localPort(HTTP_PORT));
+    assertEquals(LeaderStatus.LEADING, leaderRedirector.getLeaderStatus());
+
+    publishSchedulers();
+    assertEquals(LeaderStatus.NO_LEADER, leaderRedirector.getLeaderStatus());
+  }
+
   @Test
   public void testNoLeaders() throws Exception {
     replayAndMonitor(2);
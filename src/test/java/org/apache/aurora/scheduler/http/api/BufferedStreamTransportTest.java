@@ -0,0 +1,131 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.http.api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import com.google.common.base.Strings;
+
+import org.apache.aurora.gen.Response;
+import org.apache.aurora.gen.ResponseCode;
+import org.apache.aurora.gen.ResponseDetail;
+import org.apache.thrift.protocol.TBinaryProtocol;
+import org.apache.thrift.protocol.TJSONProtocol;
+import org.apache.thrift.protocol.TProtocol;
+import org.apache.thrift.protocol.TProtocolFactory;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BufferedStreamTransportTest {
+
+  private static final byte[] EMPTY = new byte[0];
+
+  private static Response response(int details) {
+    Response response = new Response().setResponseCode(ResponseCode.OK);
+    for (int i = 0; i < details; i++) {
+      response.addToDetails(new ResponseDetail(Strings.repeat("detail", i)));
+    }
+    return response;
+  }
+
+  private static void assertRoundTrip(TProtocolFactory factory, Response message)
+      throws Exception {
+
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    BufferedStreamTransport out =
+        new BufferedStreamTransport(new ByteArrayInputStream(EMPTY), written);
+    message.write(factory.getProtocol(out));
+    out.flush();
+
+    BufferedStreamTransport in = new BufferedStreamTransport(
+        new ByteArrayInputStream(written.toByteArray()),
+        new ByteArrayOutputStream());
+    TProtocol protocol = factory.getProtocol(in);
+    Response read = new Response();
+    read.read(protocol);
+    assertEquals(message, read);
+  }
+
+  @Test
+  public void testRoundTripBinary() throws Exception {
+    assertRoundTrip(new TBinaryProtocol.Factory(), response(0));
+    assertRoundTrip(new TBinaryProtocol.Factory(), response(10));
+    // Exceeds both buffers.
+    assertRoundTrip(new TBinaryProtocol.Factory(), response(200));
+  }
+
+  @Test
+  public void testRoundTripJson() throws Exception {
+    assertRoundTrip(new TJSONProtocol.Factory(), response(10));
+    assertRoundTrip(new TJSONProtocol.Factory(), response(200));
+  }
+
+  @Test
+  public void testWritesBufferedUntilFlush() throws Exception {
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    BufferedStreamTransport transport =
+        new BufferedStreamTransport(new ByteArrayInputStream(EMPTY), written);
+
+    transport.write(new byte[] {1, 2, 3});
+    assertEquals(0, written.size());
+
+    transport.flush();
+    assertArrayEquals(new byte[] {1, 2, 3}, written.toByteArray());
+  }
+
+  @Test
+  public void testLargeWritesPassedThrough() throws Exception {
+    ByteArrayOutputStream written = new ByteArrayOutputStream();
+    BufferedStreamTransport transport =
+        new BufferedStreamTransport(new ByteArrayInputStream(EMPTY), written);
+
+    byte[] large = new byte[BufferedStreamTransport.WRITE_BUFFER_SIZE + 1];
+    Arrays.fill(large, (byte) 7);
+    transport.write(new byte[] {1});
+    transport.write(large);
+
+    // The buffered byte is passed on first, followed by the large write without buffering.
+    assertEquals(large.length + 1, written.size());
+  }
+
+  @Test
+  public void testReadsExposeBuffer() throws Exception {
+    BufferedStreamTransport transport = new BufferedStreamTransport(
+        new ByteArrayInputStream(new byte[] {1, 2, 3, 4}),
+        new ByteArrayOutputStream());
+
+    byte[] first = new byte[1];
+    assertEquals(1, transport.read(first, 0, 1));
+    assertEquals(1, first[0]);
+    assertEquals(3, transport.getBytesRemainingInBuffer());
+    assertEquals(2, transport.getBuffer()[transport.getBufferPosition()]);
+
+    transport.consumeBuffer(2);
+    assertEquals(1, transport.getBytesRemainingInBuffer());
+    assertEquals(4, transport.getBuffer()[transport.getBufferPosition()]);
+  }
+
+  @Test(expected = TTransportException.class)
+  public void testEndOfInput() throws Exception {
+    BufferedStreamTransport transport = new BufferedStreamTransport(
+        new ByteArrayInputStream(EMPTY),
+        new ByteArrayOutputStream());
+    transport.readAll(new byte[1], 0, 1);
+  }
+}
@@ -23,6 +23,8 @@ import com.google.inject.AbstractModule;
 import com.google.inject.Guice;
 import com.google.inject.matcher.Matchers;
 
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
 import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
 import org.apache.aurora.gen.JobConfiguration;
@@ -36,11 +38,14 @@ import org.apache.aurora.scheduler.storage.entities.IJobKey;
 import org.apache.aurora.scheduler.thrift.Responses;
 import org.apache.aurora.scheduler.thrift.aop.AnnotatedAuroraAdmin;
 import org.apache.aurora.scheduler.thrift.aop.MockDecoratedThrift;
+import org.apache.shiro.subject.SimplePrincipalCollection;
 import org.apache.shiro.subject.Subject;
 import org.apache.thrift.TException;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.apache.aurora.scheduler.http.api.security.ShiroAuthorizingParamInterceptor.SHIRO_AUTHORIZATION_CACHE_HITS;
+import static org.apache.aurora.scheduler.http.api.security.ShiroAuthorizingParamInterceptor.SHIRO_AUTHORIZATION_CACHE_MISSES;
 import static org.apache.aurora.scheduler.http.api.security.ShiroAuthorizingParamInterceptor.SHIRO_AUTHORIZATION_FAILURES;
 import static org.apache.aurora.scheduler.http.api.security.ShiroAuthorizingParamInterceptor.SHIRO_BAD_REQUESTS;
 import static org.easymock.EasyMock.expect;
@@ -55,12 +60,14 @@ public class ShiroAuthorizingParamInterceptorTest extends EasyMockTest {
   private StatsProvider statsProvider;
 
   private AnnotatedAuroraAdmin decoratedThrift;
+  private AtomicLong cacheHits;
+  private AtomicLong cacheMisses;
 
   private static final IJobKey JOB_KEY = JobKeys.from("role", "env", "name");
 
   @Before
   public void setUp() {
-    interceptor = new ShiroAuthorizingParamInterceptor();
+    interceptor = new ShiroAuthorizingParamInterceptor(Amount.of(0L, Time.SECONDS));
     subject = createMock(Subject.class);
     statsProvider = createMock(StatsProvider.class);
     thrift = createMock(AnnotatedAuroraAdmin.class);
@@ -71,6 +78,10 @@ public class ShiroAuthorizingParamInterceptorTest extends EasyMockTest {
         .andReturn(new AtomicLong());
     expect(statsProvider.makeCounter(SHIRO_BAD_REQUESTS))
         .andReturn(new AtomicLong());
+    cacheHits = new AtomicLong();
+    cacheMisses = new AtomicLong();
+    expect(statsProvider.makeCounter(SHIRO_AUTHORIZATION_CACHE_HITS)).andReturn(cacheHits);
+    expect(statsProvider.makeCounter(SHIRO_AUTHORIZATION_CACHE_MISSES)).andReturn(cacheMisses);
     control.replay();
     decoratedThrift = Guice
         .createInjector(new AbstractModule() {
@@ -114,6 +125,36 @@ public class ShiroAuthorizingParamInterceptorTest extends EasyMockTest {
     assertSame(response, decoratedThrift.createJob(jobConfiguration));
   }
 
+  @Test
+  public void testAuthorizationDecisionsCached() throws TException {
+    interceptor = new ShiroAuthorizingParamInterceptor(Amount.of(1L, Time.MINUTES));
+    IJobKey otherJobKey = JobKeys.from("role", "env", "other");
+    JobConfiguration jobConfiguration = new JobConfiguration().setKey(JOB_KEY.newBuilder());
+    JobConfiguration otherJobConfiguration =
+        new JobConfiguration().setKey(otherJobKey.newBuilder());
+    Response response = Responses.ok();
+
+    expect(subject.getPrincipals())
+        .andReturn(new SimplePrincipalCollection("zmanji", "realm"))
+        .times(3);
+    expect(subject.isPermitted(interceptor.makeTargetPermission("createJob", JOB_KEY)))
+        .andReturn(true);
+    expect(thrift.createJob(jobConfiguration)).andReturn(response).times(2);
+    expect(subject.isPermitted(interceptor.makeTargetPermission("createJob", otherJobKey)))
+        .andReturn(false);
+    expect(subject.getPrincipal()).andReturn("zmanji");
+
+    replayAndInitialize();
+
+    assertSame(response, decoratedThrift.createJob(jobConfiguration));
+    assertSame(response, decoratedThrift.createJob(jobConfiguration));
+    assertEquals(
+        ResponseCode.AUTH_FAILED,
+        decoratedThrift.createJob(otherJobConfiguration).getResponseCode());
+    assertEquals(1L, cacheHits.get());
+    assertEquals(2L, cacheMisses.get());
+  }
+
   @Test
   public void testKillTasksWithTargetedPermission() throws TException {
     expect(subject.isPermitted(interceptor.makeTargetPermission("killTasks", JOB_KEY)))
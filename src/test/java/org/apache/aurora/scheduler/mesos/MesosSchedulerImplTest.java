@@ -125,6 +125,7 @@ public class MesosSchedulerImplTest extends EasyMockTest {
       .build();
 
   private static final TaskStatusReceived PUBSUB_RECONCILIATION_EVENT = new TaskStatusReceived(
+      STATUS_RECONCILIATION.getTaskId().getValue(),
       STATUS_RECONCILIATION.getState(),
       Optional.of(STATUS_RECONCILIATION.getSource()),
       Optional.of(STATUS_RECONCILIATION.getReason()),
@@ -250,6 +251,7 @@ public class MesosSchedulerImplTest extends EasyMockTest {
       @Override
       void expectations() {
         eventSink.post(new TaskStatusReceived(
+            STATUS.getTaskId().getValue(),
             STATUS.getState(),
             Optional.of(STATUS.getSource()),
             Optional.of(STATUS.getReason()),
@@ -368,6 +370,7 @@ public class MesosSchedulerImplTest extends EasyMockTest {
     @Override
     void expectations() {
       eventSink.post(new TaskStatusReceived(
+          status.getTaskId().getValue(),
           status.getState(),
           Optional.fromNullable(status.getSource()),
           status.hasReason() ? Optional.of(status.getReason()) : Optional.absent(),
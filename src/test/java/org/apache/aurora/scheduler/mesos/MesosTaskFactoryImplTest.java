@@ -22,6 +22,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 import org.apache.aurora.GuavaUtils;
+import org.apache.aurora.codec.ThriftBinaryCodec;
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
 import org.apache.aurora.gen.AppcImage;
 import org.apache.aurora.gen.AssignedTask;
@@ -31,17 +32,21 @@ import org.apache.aurora.gen.DockerImage;
 import org.apache.aurora.gen.DockerParameter;
 import org.apache.aurora.gen.Image;
 import org.apache.aurora.gen.MesosContainer;
+import org.apache.aurora.gen.ScheduleStatus;
+import org.apache.aurora.gen.ScheduledTask;
 import org.apache.aurora.gen.ServerInfo;
 import org.apache.aurora.gen.TaskConfig;
 import org.apache.aurora.scheduler.TierManager;
 import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.configuration.executor.ExecutorConfig;
 import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
 import org.apache.aurora.scheduler.mesos.MesosTaskFactory.MesosTaskFactoryImpl;
 import org.apache.aurora.scheduler.resources.ResourceBag;
 import org.apache.aurora.scheduler.resources.ResourceType;
 import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
 import org.apache.aurora.scheduler.storage.entities.IJobKey;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.IServerInfo;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.apache.mesos.Protos;
@@ -83,8 +88,10 @@ import static org.apache.aurora.scheduler.resources.ResourceTestUtil.mesosScalar
 import static org.apache.aurora.scheduler.resources.ResourceTestUtil.resetPorts;
 import static org.apache.aurora.scheduler.resources.ResourceType.PORTS;
 import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 
 public class MesosTaskFactoryImplTest extends EasyMockTest {
@@ -572,4 +579,102 @@ public class MesosTaskFactoryImplTest extends EasyMockTest {
             .build(),
         task.getExecutor().getContainer());
   }
+
+  @Test
+  public void testTaskDataDecodesToAssignedTask() throws Exception {
+    IAssignedTask assigned = IAssignedTask.build(TASK.newBuilder()
+        .setSlaveId(SLAVE.getValue())
+        .setSlaveHost("slave-hostname"));
+    expect(tierManager.getTier(TASK_CONFIG)).andReturn(DEV_TIER);
+    taskFactory = new MesosTaskFactoryImpl(config, tierManager, SERVER_INFO);
+
+    control.replay();
+
+    TaskInfo task = taskFactory.createFrom(assigned, OFFER_THERMOS_EXECUTOR);
+    assertEquals(
+        assigned.newBuilder(),
+        ThriftBinaryCodec.decode(AssignedTask.class, task.getData().toByteArray()));
+  }
+
+  @Test
+  public void testTemplateSharedByPendingInstances() throws Exception {
+    IAssignedTask otherInstance = IAssignedTask.build(TASK.newBuilder()
+        .setInstanceId(3)
+        .setTaskId("other-task-id")
+        .setAssignedPorts(ImmutableMap.of("http", 81)));
+    expect(tierManager.getTier(TASK_CONFIG)).andReturn(DEV_TIER);
+    expectLastCall().times(2);
+    MesosTaskFactoryImpl factory = new MesosTaskFactoryImpl(config, tierManager, SERVER_INFO);
+
+    control.replay();
+
+    factory.taskChangedState(TaskStateChange.transition(
+        makePendingTask(TASK),
+        ScheduleStatus.INIT));
+    factory.taskChangedState(TaskStateChange.transition(
+        makePendingTask(otherInstance),
+        ScheduleStatus.INIT));
+
+    TaskInfo first = factory.createFrom(TASK, OFFER_THERMOS_EXECUTOR);
+    TaskInfo second = factory.createFrom(
+        otherInstance,
+        OFFER_THERMOS_EXECUTOR.toBuilder()
+            .clearResources()
+            .addAllResources(OFFER_THERMOS_EXECUTOR.getResourcesList().stream()
+                .filter(r -> ResourceType.fromResource(r) != PORTS)
+                .collect(Collectors.toList()))
+            .addResources(mesosRange(PORTS, 81))
+            .build());
+    assertEquals(1, factory.getTemplateCount());
+
+    assertEquals(
+        populateDynamicFields(DEFAULT_EXECUTOR, TASK),
+        makeComparable(first.getExecutor()));
+    assertEquals(
+        populateDynamicFields(DEFAULT_EXECUTOR, otherInstance),
+        makeComparable(second.getExecutor()));
+    assertNotEquals(first.getExecutor().getExecutorId(), second.getExecutor().getExecutorId());
+    assertEquals("other-task-id", second.getTaskId().getValue());
+    assertEquals(
+        otherInstance.newBuilder(),
+        ThriftBinaryCodec.decode(AssignedTask.class, second.getData().toByteArray()));
+
+    factory.taskChangedState(TaskStateChange.transition(
+        assign(makePendingTask(TASK)),
+        ScheduleStatus.PENDING));
+    assertEquals(1, factory.getTemplateCount());
+    factory.taskChangedState(TaskStateChange.transition(
+        assign(makePendingTask(otherInstance)),
+        ScheduleStatus.PENDING));
+    assertEquals(0, factory.getTemplateCount());
+  }
+
+  @Test
+  public void testTemplateNotRetainedAfterOutOfOrderEvents() {
+    expect(tierManager.getTier(TASK_CONFIG)).andReturn(DEV_TIER);
+    MesosTaskFactoryImpl factory = new MesosTaskFactoryImpl(config, tierManager, SERVER_INFO);
+
+    control.replay();
+
+    // The departure from PENDING is delivered before the arrival it follows.
+    factory.taskChangedState(TaskStateChange.transition(
+        assign(makePendingTask(TASK)),
+        ScheduleStatus.PENDING));
+    factory.taskChangedState(TaskStateChange.transition(
+        makePendingTask(TASK),
+        ScheduleStatus.INIT));
+
+    factory.createFrom(TASK, OFFER_THERMOS_EXECUTOR);
+    assertEquals(0, factory.getTemplateCount());
+  }
+
+  private static IScheduledTask makePendingTask(IAssignedTask task) {
+    return IScheduledTask.build(new ScheduledTask()
+        .setStatus(ScheduleStatus.PENDING)
+        .setAssignedTask(task.newBuilder()));
+  }
+
+  private static IScheduledTask assign(IScheduledTask task) {
+    return IScheduledTask.build(task.newBuilder().setStatus(ScheduleStatus.ASSIGNED));
+  }
 }
@@ -13,11 +13,17 @@
  */
 package org.apache.aurora.scheduler.mesos;
 
+import java.util.List;
+
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
 import org.apache.aurora.scheduler.storage.testing.StorageTestUtil;
 import org.apache.mesos.Protos;
+import org.apache.mesos.Protos.Offer.Operation;
 import org.apache.mesos.Scheduler;
 import org.apache.mesos.SchedulerDriver;
 import org.junit.Before;
@@ -27,6 +33,7 @@ import static org.apache.mesos.Protos.FrameworkInfo;
 import static org.apache.mesos.Protos.Status.DRIVER_ABORTED;
 import static org.apache.mesos.Protos.Status.DRIVER_RUNNING;
 import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
 
 public class SchedulerDriverServiceTest extends EasyMockTest {
 
@@ -113,6 +120,63 @@ public class SchedulerDriverServiceTest extends EasyMockTest {
     driverService.stopAsync().awaitTerminated();
   }
 
+  @Test
+  public void testBatchedOfferCalls() {
+    Protos.OfferID offer1 = Protos.OfferID.newBuilder().setValue("offer1").build();
+    Protos.OfferID offer2 = Protos.OfferID.newBuilder().setValue("offer2").build();
+    Protos.Filters filter = Protos.Filters.newBuilder().setRefuseSeconds(1).build();
+    List<Operation> operations = ImmutableList.of(Operation.newBuilder()
+        .setType(Operation.Type.LAUNCH)
+        .setLaunch(Operation.Launch.newBuilder())
+        .build());
+
+    expectCreateDriver(NEW_FRAMEWORK_ID);
+    expect(schedulerDriver.acceptOffers(ImmutableList.of(offer1), operations, filter))
+        .andReturn(DRIVER_RUNNING);
+    expect(schedulerDriver.acceptOffers(ImmutableList.of(offer2), operations, filter))
+        .andReturn(DRIVER_RUNNING);
+    expect(schedulerDriver.declineOffer(offer1, filter)).andReturn(DRIVER_RUNNING);
+    expect(schedulerDriver.declineOffer(offer2, filter)).andReturn(DRIVER_RUNNING);
+    control.replay();
+
+    driverService.startAsync().awaitRunning();
+    assertEquals(
+        ImmutableSet.of(offer1, offer2),
+        driverService.acceptOffers(
+            ImmutableMap.of(offer1, operations, offer2, operations),
+            filter));
+    driverService.declineOffers(ImmutableList.of(offer1, offer2), filter);
+  }
+
+  @Test
+  public void testBatchedAcceptReportsFailedOffers() {
+    Protos.OfferID offer1 = Protos.OfferID.newBuilder().setValue("offer1").build();
+    Protos.OfferID offer2 = Protos.OfferID.newBuilder().setValue("offer2").build();
+    Protos.OfferID offer3 = Protos.OfferID.newBuilder().setValue("offer3").build();
+    Protos.Filters filter = Protos.Filters.newBuilder().setRefuseSeconds(1).build();
+    List<Operation> operations = ImmutableList.of(Operation.newBuilder()
+        .setType(Operation.Type.LAUNCH)
+        .setLaunch(Operation.Launch.newBuilder())
+        .build());
+
+    expectCreateDriver(NEW_FRAMEWORK_ID);
+    expect(schedulerDriver.acceptOffers(ImmutableList.of(offer1), operations, filter))
+        .andReturn(DRIVER_RUNNING);
+    expect(schedulerDriver.acceptOffers(ImmutableList.of(offer2), operations, filter))
+        .andThrow(new IllegalStateException("expected"));
+    expect(schedulerDriver.acceptOffers(ImmutableList.of(offer3), operations, filter))
+        .andReturn(DRIVER_RUNNING);
+    control.replay();
+
+    driverService.startAsync().awaitRunning();
+    // The offers accepted before and after the failed one are still reported as accepted.
+    assertEquals(
+        ImmutableSet.of(offer1, offer3),
+        driverService.acceptOffers(
+            ImmutableMap.of(offer1, operations, offer2, operations, offer3, operations),
+            filter));
+  }
+
   @Test(expected = IllegalStateException.class)
   public void testMustRunBeforeKill() {
     control.replay();
@@ -40,6 +40,7 @@ import static org.junit.Assert.assertEquals;
 
 public class TaskStatusStatsTest extends EasyMockTest {
 
+  private static final String TASK_ID = "task-id";
   private static final Amount<Long, Time> ONE_SECOND = Amount.of(1L, Time.SECONDS);
 
   private StatsProvider statsProvider;
@@ -86,6 +87,7 @@ public class TaskStatusStatsTest extends EasyMockTest {
 
     clock.advance(Amount.of(1L, Time.HOURS));
     eventBus.post(new TaskStatusReceived(
+        TASK_ID,
         TaskState.TASK_RUNNING,
         Optional.of(Source.SOURCE_MASTER),
         Optional.absent(),
@@ -93,16 +95,19 @@ public class TaskStatusStatsTest extends EasyMockTest {
 
     clock.advance(ONE_SECOND);
     eventBus.post(new TaskStatusReceived(
+        TASK_ID,
         TaskState.TASK_LOST,
         Optional.of(Source.SOURCE_MASTER),
         Optional.of(Reason.REASON_SLAVE_DISCONNECTED),
         Optional.of(agoMicros(ONE_SECOND))));
     eventBus.post(new TaskStatusReceived(
+        TASK_ID,
         TaskState.TASK_FAILED,
         Optional.of(Source.SOURCE_MASTER),
         Optional.of(Reason.REASON_CONTAINER_LIMITATION_MEMORY),
         Optional.of(agoMicros(ONE_SECOND))));
     eventBus.post(new TaskStatusReceived(
+        TASK_ID,
         TaskState.TASK_FAILED,
         Optional.of(Source.SOURCE_MASTER),
         Optional.of(Reason.REASON_CONTAINER_LIMITATION_DISK),
@@ -110,16 +115,19 @@ public class TaskStatusStatsTest extends EasyMockTest {
 
     // No counting for these since they do not have both a source and timestamp.
     eventBus.post(new TaskStatusReceived(
+        TASK_ID,
         TaskState.TASK_LOST,
         Optional.absent(),
         Optional.absent(),
         Optional.absent()));
     eventBus.post(new TaskStatusReceived(
+        TASK_ID,
         TaskState.TASK_LOST,
         Optional.absent(),
         Optional.absent(),
         Optional.of(agoMicros(ONE_SECOND))));
     eventBus.post(new TaskStatusReceived(
+        TASK_ID,
         TaskState.TASK_LOST,
         Optional.of(Source.SOURCE_MASTER),
         Optional.of(Reason.REASON_SLAVE_DISCONNECTED),
@@ -127,6 +135,7 @@ public class TaskStatusStatsTest extends EasyMockTest {
 
     // No time tracking for this since the timestamp is the current time.
     eventBus.post(new TaskStatusReceived(
+        TASK_ID,
         TaskState.TASK_LOST,
         Optional.of(Source.SOURCE_MASTER),
         Optional.of(Reason.REASON_SLAVE_DISCONNECTED),
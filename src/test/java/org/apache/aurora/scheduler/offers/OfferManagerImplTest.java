@@ -17,17 +17,18 @@ import java.util.List;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
-import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
+import org.apache.aurora.common.util.testing.FakeClock;
 import org.apache.aurora.gen.HostAttributes;
 import org.apache.aurora.gen.MaintenanceMode;
 import org.apache.aurora.scheduler.HostOffer;
-import org.apache.aurora.scheduler.async.DelayExecutor;
 import org.apache.aurora.scheduler.base.TaskGroupKey;
 import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.events.PubsubEvent.DriverDisconnected;
@@ -36,7 +37,6 @@ import org.apache.aurora.scheduler.mesos.Driver;
 import org.apache.aurora.scheduler.offers.OfferManager.OfferManagerImpl;
 import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
-import org.apache.aurora.scheduler.testing.FakeScheduledExecutor;
 import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.apache.mesos.Protos;
 import org.apache.mesos.Protos.Filters;
@@ -47,11 +47,15 @@ import org.junit.Test;
 
 import static org.apache.aurora.gen.MaintenanceMode.DRAINING;
 import static org.apache.aurora.gen.MaintenanceMode.NONE;
+import static org.apache.aurora.scheduler.offers.OfferManager.OfferManagerImpl.OFFER_RETURNS_PENDING;
+import static org.apache.aurora.scheduler.offers.OfferManager.OfferManagerImpl.OFFER_RETURN_TICK_LAG;
+import static org.apache.aurora.scheduler.offers.OfferManager.OfferManagerImpl.RETURN_TICK;
 import static org.apache.aurora.scheduler.base.TaskTestUtil.JOB;
 import static org.apache.aurora.scheduler.base.TaskTestUtil.makeTask;
 import static org.apache.aurora.scheduler.resources.ResourceTestUtil.mesosRange;
 import static org.apache.aurora.scheduler.resources.ResourceTestUtil.offer;
 import static org.apache.aurora.scheduler.resources.ResourceType.PORTS;
+import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -94,20 +98,25 @@ public class OfferManagerImplTest extends EasyMockTest {
       .build();
 
   private Driver driver;
-  private FakeScheduledExecutor clock;
+  private FakeClock clock;
+  private FakeStatsProvider stats;
   private OfferManagerImpl offerManager;
 
   @Before
   public void setUp() {
     driver = createMock(Driver.class);
-    DelayExecutor executorMock = createMock(DelayExecutor.class);
-    clock = FakeScheduledExecutor.fromDelayExecutor(executorMock);
-    addTearDown(clock::assertEmpty);
+    clock = new FakeClock();
     OfferSettings offerSettings = new OfferSettings(
         Amount.of(OFFER_FILTER_SECONDS, Time.SECONDS),
         () -> RETURN_DELAY);
-    StatsProvider stats = new FakeStatsProvider();
-    offerManager = new OfferManagerImpl(driver, offerSettings, stats, executorMock);
+    stats = new FakeStatsProvider();
+    offerManager = new OfferManagerImpl(driver, offerSettings, stats, clock);
+    addTearDown(() -> assertEquals(0L, stats.getLongValue(OFFER_RETURNS_PENDING)));
+  }
+
+  private void advanceAndReturnOffers(Amount<Long, Time> period) {
+    clock.advance(period);
+    offerManager.returnExpiredOffers();
   }
 
   @Test
@@ -117,10 +126,11 @@ public class OfferManagerImplTest extends EasyMockTest {
     HostOffer offerA = setMode(OFFER_A, DRAINING);
     HostOffer offerC = setMode(OFFER_C, DRAINING);
 
-    driver.acceptOffers(OFFER_B.getOffer().getId(), OPERATIONS, OFFER_FILTER);
+    expect(driver.acceptOffers(
+        ImmutableMap.of(OFFER_B.getOffer().getId(), OPERATIONS),
+        OFFER_FILTER)).andReturn(ImmutableSet.of(OFFER_B.getOffer().getId()));
 
-    driver.declineOffer(OFFER_A_ID, OFFER_FILTER);
-    driver.declineOffer(offerC.getOffer().getId(), OFFER_FILTER);
+    driver.declineOffers(ImmutableList.of(OFFER_A_ID, offerC.getOffer().getId()), OFFER_FILTER);
 
     control.replay();
 
@@ -130,14 +140,15 @@ public class OfferManagerImplTest extends EasyMockTest {
     assertEquals(
         ImmutableSet.of(OFFER_B, offerA, offerC),
         ImmutableSet.copyOf(offerManager.getOffers()));
-    offerManager.launchTask(OFFER_B.getOffer().getId(), TASK_INFO);
-    clock.advance(RETURN_DELAY);
+    assertEquals(
+        ImmutableSet.of(OFFER_B.getOffer().getId()),
+        offerManager.launchTasks(ImmutableListMultimap.of(OFFER_B.getOffer().getId(), TASK_INFO)));
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test
   public void hostAttributeChangeUpdatesOfferSorting() throws Exception {
-    driver.declineOffer(OFFER_A_ID, OFFER_FILTER);
-    driver.declineOffer(OFFER_B.getOffer().getId(), OFFER_FILTER);
+    driver.declineOffers(ImmutableList.of(OFFER_A_ID, OFFER_B.getOffer().getId()), OFFER_FILTER);
 
     control.replay();
 
@@ -157,7 +168,7 @@ public class OfferManagerImplTest extends EasyMockTest {
     offerManager.hostAttributesChanged(new HostAttributesChanged(offerB.getAttributes()));
     assertEquals(ImmutableSet.of(OFFER_A, OFFER_B), ImmutableSet.copyOf(offerManager.getOffers()));
 
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test
@@ -170,7 +181,7 @@ public class OfferManagerImplTest extends EasyMockTest {
     offerManager.addOffer(OFFER_A);
     offerManager.addOffer(OFFER_A);
 
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test
@@ -183,12 +194,12 @@ public class OfferManagerImplTest extends EasyMockTest {
     offerManager.cancelOffer(OFFER_A_ID);
     assertTrue(Iterables.isEmpty(offerManager.getOffers()));
 
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test
   public void testOfferFilteringDueToStaticBan() throws Exception {
-    driver.declineOffer(OFFER_A_ID, OFFER_FILTER);
+    driver.declineOffers(ImmutableList.of(OFFER_A_ID), OFFER_FILTER);
 
     control.replay();
 
@@ -204,12 +215,12 @@ public class OfferManagerImplTest extends EasyMockTest {
     assertEquals(OFFER_A, Iterables.getOnlyElement(offerManager.getOffers()));
     assertTrue(Iterables.isEmpty(offerManager.getOffers(GROUP_KEY)));
 
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test
   public void testStaticBanIsClearedOnOfferReturn() throws Exception {
-    driver.declineOffer(OFFER_A_ID, OFFER_FILTER);
+    driver.declineOffers(ImmutableList.of(OFFER_A_ID), OFFER_FILTER);
     expectLastCall().times(2);
 
     control.replay();
@@ -220,16 +231,16 @@ public class OfferManagerImplTest extends EasyMockTest {
     assertTrue(Iterables.isEmpty(offerManager.getOffers(GROUP_KEY)));
 
     // Make sure the static ban is cleared when the offers are returned.
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
     offerManager.addOffer(OFFER_A);
     assertEquals(OFFER_A, Iterables.getOnlyElement(offerManager.getOffers(GROUP_KEY)));
 
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test
   public void testStaticBanIsClearedOnDriverDisconnect() throws Exception {
-    driver.declineOffer(OFFER_A_ID, OFFER_FILTER);
+    driver.declineOffers(ImmutableList.of(OFFER_A_ID), OFFER_FILTER);
 
     control.replay();
 
@@ -243,40 +254,97 @@ public class OfferManagerImplTest extends EasyMockTest {
     offerManager.addOffer(OFFER_A);
     assertEquals(OFFER_A, Iterables.getOnlyElement(offerManager.getOffers(GROUP_KEY)));
 
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test
   public void getOffer() {
-    driver.declineOffer(OFFER_A_ID, OFFER_FILTER);
+    driver.declineOffers(ImmutableList.of(OFFER_A_ID), OFFER_FILTER);
 
     control.replay();
 
     offerManager.addOffer(OFFER_A);
     assertEquals(Optional.of(OFFER_A), offerManager.getOffer(OFFER_A.getOffer().getSlaveId()));
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test(expected = OfferManager.LaunchException.class)
   public void testAcceptOffersDriverThrows() throws OfferManager.LaunchException {
-    driver.acceptOffers(OFFER_A_ID, OPERATIONS, OFFER_FILTER);
-    expectLastCall().andThrow(new IllegalStateException());
+    expect(driver.acceptOffers(ImmutableMap.of(OFFER_A_ID, OPERATIONS), OFFER_FILTER))
+        .andThrow(new IllegalStateException());
 
     control.replay();
 
     offerManager.addOffer(OFFER_A);
 
     try {
-      offerManager.launchTask(OFFER_A_ID, TASK_INFO);
+      offerManager.launchTasks(ImmutableListMultimap.of(OFFER_A_ID, TASK_INFO));
     } finally {
-      clock.advance(RETURN_DELAY);
+      advanceAndReturnOffers(RETURN_DELAY);
     }
   }
 
-  @Test(expected = OfferManager.LaunchException.class)
-  public void testLaunchTaskOfferRaceThrows() throws OfferManager.LaunchException {
+  @Test
+  public void testLaunchTaskOfferRace() throws OfferManager.LaunchException {
+    control.replay();
+
+    assertEquals(
+        ImmutableSet.of(),
+        offerManager.launchTasks(ImmutableListMultimap.of(OFFER_A_ID, TASK_INFO)));
+  }
+
+  @Test
+  public void testLaunchTasksBatched() throws Exception {
+    TaskInfo otherTask = TASK_INFO.toBuilder()
+        .setTaskId(Protos.TaskID.newBuilder().setValue("other"))
+        .build();
+    Operation launchBoth = Operation.newBuilder()
+        .setType(Operation.Type.LAUNCH)
+        .setLaunch(Operation.Launch.newBuilder().addTaskInfos(TASK_INFO).addTaskInfos(otherTask))
+        .build();
+    expect(driver.acceptOffers(
+        ImmutableMap.of(
+            OFFER_A_ID, ImmutableList.of(launchBoth),
+            OFFER_B.getOffer().getId(), OPERATIONS),
+        OFFER_FILTER))
+        .andReturn(ImmutableSet.of(OFFER_A_ID, OFFER_B.getOffer().getId()));
+
     control.replay();
-    offerManager.launchTask(OFFER_A_ID, TASK_INFO);
+
+    offerManager.addOffer(OFFER_A);
+    offerManager.addOffer(OFFER_B);
+    offerManager.addOffer(OFFER_C);
+    offerManager.cancelOffer(OFFER_C.getOffer().getId());
+
+    // The rescinded offer is skipped, and the tasks on held offers are launched in one call.
+    assertEquals(
+        ImmutableSet.of(OFFER_A_ID, OFFER_B.getOffer().getId()),
+        offerManager.launchTasks(ImmutableListMultimap.of(
+            OFFER_A_ID, TASK_INFO,
+            OFFER_C.getOffer().getId(), TASK_INFO,
+            OFFER_A_ID, otherTask,
+            OFFER_B.getOffer().getId(), TASK_INFO)));
+    assertTrue(Iterables.isEmpty(offerManager.getOffers()));
+  }
+
+  @Test
+  public void testLaunchTasksPartiallyAccepted() throws Exception {
+    expect(driver.acceptOffers(
+        ImmutableMap.of(OFFER_A_ID, OPERATIONS, OFFER_B.getOffer().getId(), OPERATIONS),
+        OFFER_FILTER))
+        .andReturn(ImmutableSet.of(OFFER_B.getOffer().getId()));
+
+    control.replay();
+
+    offerManager.addOffer(OFFER_A);
+    offerManager.addOffer(OFFER_B);
+
+    // Only the offers the driver accepted are reported as launched.
+    assertEquals(
+        ImmutableSet.of(OFFER_B.getOffer().getId()),
+        offerManager.launchTasks(ImmutableListMultimap.of(
+            OFFER_A_ID, TASK_INFO,
+            OFFER_B.getOffer().getId(), TASK_INFO)));
   }
 
   @Test
@@ -286,17 +354,43 @@ public class OfferManagerImplTest extends EasyMockTest {
     offerManager.addOffer(OFFER_A);
     offerManager.addOffer(OFFER_B);
     offerManager.driverDisconnected(new DriverDisconnected());
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
   }
 
   @Test
   public void testDeclineOffer() throws Exception {
-    driver.declineOffer(OFFER_A.getOffer().getId(), OFFER_FILTER);
+    driver.declineOffers(ImmutableList.of(OFFER_A_ID), OFFER_FILTER);
 
     control.replay();
 
     offerManager.addOffer(OFFER_A);
-    clock.advance(RETURN_DELAY);
+    advanceAndReturnOffers(RETURN_DELAY);
+  }
+
+  @Test
+  public void testOffersReturnedAfterDelay() throws Exception {
+    driver.declineOffers(ImmutableList.of(OFFER_A_ID, OFFER_B.getOffer().getId()), OFFER_FILTER);
+
+    control.replay();
+
+    offerManager.addOffer(OFFER_A);
+    offerManager.addOffer(OFFER_B);
+    offerManager.addOffer(OFFER_C);
+    offerManager.cancelOffer(OFFER_C.getOffer().getId());
+    assertEquals(2L, stats.getLongValue(OFFER_RETURNS_PENDING));
+
+    advanceAndReturnOffers(Amount.of(RETURN_DELAY.as(Time.SECONDS) - 1, Time.SECONDS));
+    assertEquals(2, Iterables.size(offerManager.getOffers()));
+
+    // Both offers expire on the same tick, even though it is handled late.
+    advanceAndReturnOffers(Amount.of(3L, Time.SECONDS));
+    assertTrue(Iterables.isEmpty(offerManager.getOffers()));
+    assertEquals(
+        2 * RETURN_TICK.as(Time.MILLISECONDS),
+        stats.getLongValue(OFFER_RETURN_TICK_LAG));
+
+    advanceAndReturnOffers(RETURN_TICK);
+    assertEquals(0L, stats.getLongValue(OFFER_RETURN_TICK_LAG));
   }
 
   private static HostOffer setMode(HostOffer offer, MaintenanceMode mode) {
@@ -0,0 +1,138 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.offers;
+
+import java.util.List;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.util.testing.FakeClock;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+  private static final Amount<Long, Time> TICK = Amount.of(1L, Time.SECONDS);
+  private static final int TICKS_PER_WHEEL = 4;
+
+  private FakeClock clock;
+  private TimingWheel<String> wheel;
+
+  @Before
+  public void setUp() {
+    clock = new FakeClock();
+    wheel = new TimingWheel<>(clock, TICK, TICKS_PER_WHEEL);
+  }
+
+  private static Amount<Long, Time> seconds(long seconds) {
+    return Amount.of(seconds, Time.SECONDS);
+  }
+
+  private List<String> advance(Amount<Long, Time> period) {
+    clock.advance(period);
+    return wheel.advance();
+  }
+
+  @Test
+  public void testExpiresOnTick() {
+    wheel.schedule("a", seconds(2));
+    wheel.schedule("b", Amount.of(1500L, Time.MILLISECONDS));
+    wheel.schedule("c", seconds(3));
+    assertEquals(3, wheel.size());
+
+    assertEquals(ImmutableList.of(), advance(TICK));
+    assertEquals(ImmutableList.of("a", "b"), advance(TICK));
+    assertEquals(ImmutableList.of("c"), advance(TICK));
+    assertEquals(ImmutableList.of(), advance(TICK));
+    assertEquals(0, wheel.size());
+  }
+
+  @Test
+  public void testZeroDelayExpiresOnNextTick() {
+    clock.advance(Amount.of(500L, Time.MILLISECONDS));
+    wheel.schedule("a", seconds(0));
+
+    assertEquals(ImmutableList.of(), wheel.advance());
+    assertEquals(ImmutableList.of("a"), advance(TICK));
+  }
+
+  @Test
+  public void testCancel() {
+    wheel.schedule("a", seconds(1));
+    wheel.schedule("b", seconds(1));
+
+    assertTrue(wheel.cancel("a"));
+    assertFalse(wheel.cancel("a"));
+    assertFalse(wheel.cancel("c"));
+    assertEquals(ImmutableList.of("b"), advance(TICK));
+  }
+
+  @Test
+  public void testReschedule() {
+    wheel.schedule("a", seconds(1));
+    wheel.schedule("a", seconds(2));
+    assertEquals(1, wheel.size());
+
+    assertEquals(ImmutableList.of(), advance(TICK));
+    assertEquals(ImmutableList.of("a"), advance(TICK));
+  }
+
+  @Test
+  public void testDelayBeyondOneRevolution() {
+    wheel.schedule("a", seconds(TICKS_PER_WHEEL + 1));
+    wheel.schedule("b", seconds(1));
+
+    assertEquals(ImmutableList.of("b"), advance(TICK));
+    for (int i = 0; i < TICKS_PER_WHEEL - 1; i++) {
+      assertEquals(ImmutableList.of(), advance(TICK));
+    }
+    assertEquals(ImmutableList.of("a"), advance(TICK));
+  }
+
+  @Test
+  public void testCatchUpAfterLag() {
+    wheel.schedule("a", seconds(1));
+    wheel.schedule("b", seconds(3));
+    wheel.schedule("c", seconds(TICKS_PER_WHEEL * 2));
+    wheel.schedule("d", seconds(TICKS_PER_WHEEL * 3));
+
+    // Every bucket is visited once, so keys expire in bucket order rather than expiry order.
+    assertEquals(
+        ImmutableSet.of("a", "b", "c"),
+        ImmutableSet.copyOf(advance(seconds(TICKS_PER_WHEEL * 2 + 1))));
+    assertEquals(TICKS_PER_WHEEL * 2 * TICK.as(Time.MILLISECONDS), wheel.getLagMillis());
+
+    assertEquals(ImmutableList.of(), advance(TICK));
+    assertEquals(0L, wheel.getLagMillis());
+    assertEquals(1, wheel.size());
+  }
+
+  @Test
+  public void testClear() {
+    wheel.schedule("a", seconds(1));
+    wheel.schedule("b", seconds(TICKS_PER_WHEEL + 1));
+
+    wheel.clear();
+    assertEquals(0, wheel.size());
+    assertFalse(wheel.cancel("a"));
+    assertEquals(ImmutableList.of(), advance(seconds(TICKS_PER_WHEEL + 1)));
+  }
+}
@@ -15,6 +15,7 @@ package org.apache.aurora.scheduler.preemptor;
 
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimap;
 
 import org.apache.aurora.gen.AssignedTask;
 import org.apache.aurora.gen.JobKey;
@@ -36,6 +37,8 @@ import static org.apache.aurora.gen.ScheduleStatus.PENDING;
 import static org.apache.aurora.gen.ScheduleStatus.RUNNING;
 import static org.apache.aurora.gen.ScheduleStatus.THROTTLED;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class ClusterStateImplTest {
 
@@ -108,6 +111,22 @@ public class ClusterStateImplTest {
     assertVictims(b, d, f);
   }
 
+  @Test
+  public void testSnapshotReusedUntilChanged() {
+    IAssignedTask a = makeTask("a", "s1");
+    changeState(a, RUNNING);
+    Multimap<String, PreemptionVictim> snapshot = state.getSlavesToActiveTasks();
+    assertSame(snapshot, state.getSlavesToActiveTasks());
+
+    // A transition between active states does not change the victim.
+    changeState(a, KILLING);
+    assertSame(snapshot, state.getSlavesToActiveTasks());
+
+    changeState(a, FINISHED);
+    assertNotSame(snapshot, state.getSlavesToActiveTasks());
+    assertVictims();
+  }
+
   private void assertVictims(IAssignedTask... tasks) {
     ImmutableMultimap.Builder<String, PreemptionVictim> victims = ImmutableSetMultimap.builder();
     for (IAssignedTask task : tasks) {
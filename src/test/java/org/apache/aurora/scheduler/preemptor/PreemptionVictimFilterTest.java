@@ -531,6 +531,32 @@ public class PreemptionVictimFilterTest extends EasyMockTest {
     assertNoVictims(runFilter(task, NO_OFFER, a1));
   }
 
+  @Test
+  public void testVetoedSlotFilteredOnce() {
+    schedulingFilter = createMock(SchedulingFilter.class);
+    ScheduledTask task = makeProductionTask(USER_A, JOB_A, TASK_ID_A);
+    assignToHost(task);
+    expectGetTier(task, PREFERRED_TIER).times(3);
+
+    ScheduledTask a1 = makeTask(USER_A, JOB_A, TASK_ID_A + "_a1");
+    assignToHost(a1);
+    expectGetTier(a1, DEV_TIER).atLeastOnce();
+    ScheduledTask a2 = makeTask(USER_A, JOB_A, TASK_ID_A + "_a2");
+    assignToHost(a2);
+    expectGetTier(a2, DEV_TIER).atLeastOnce();
+    ScheduledTask a3 = makeTask(USER_A, JOB_A, TASK_ID_A + "_a3");
+    assignToHost(a3);
+    expectGetTier(a3, DEV_TIER).atLeastOnce();
+
+    setUpHost();
+    // Only the slot with all victims preempted is evaluated when it does not fit.
+    expectFiltering(Optional.of(Veto.constraintMismatch("ban")));
+
+    control.replay();
+
+    assertNoVictims(runFilter(task, NO_OFFER, a1, a2, a3));
+  }
+
   @Test
   public void testOrder() {
     control.replay();
@@ -29,6 +29,7 @@ import org.apache.aurora.gen.JobUpdateInstructions;
 import org.apache.aurora.gen.JobUpdateKey;
 import org.apache.aurora.gen.JobUpdateSummary;
 import org.apache.aurora.gen.Range;
+import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.gen.ScheduledTask;
 import org.apache.aurora.gen.TaskConfig;
 import org.apache.aurora.gen.TaskConstraint;
@@ -36,6 +37,7 @@ import org.apache.aurora.gen.ValueConstraint;
 import org.apache.aurora.scheduler.base.JobKeys;
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.TaskTestUtil;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
 import org.apache.aurora.scheduler.quota.QuotaManager.QuotaException;
 import org.apache.aurora.scheduler.quota.QuotaManager.QuotaManagerImpl;
 import org.apache.aurora.scheduler.resources.ResourceType;
@@ -50,6 +52,7 @@ import org.apache.aurora.scheduler.storage.entities.IResourceAggregate;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.apache.aurora.scheduler.storage.testing.StorageTestUtil;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.easymock.IExpectationSetters;
 import org.junit.Before;
 import org.junit.Test;
@@ -80,6 +83,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
 
   private StorageTestUtil storageUtil;
   private JobUpdateStore jobUpdateStore;
+  private ConsumptionCache consumptionCache;
   private QuotaManagerImpl quotaManager;
   private StoreProvider storeProvider;
 
@@ -88,7 +92,8 @@ public class QuotaManagerImplTest extends EasyMockTest {
     storageUtil = new StorageTestUtil(this);
     storeProvider = storageUtil.storeProvider;
     jobUpdateStore = storageUtil.jobUpdateStore;
-    quotaManager = new QuotaManagerImpl();
+    consumptionCache = new ConsumptionCache(new FakeStatsProvider());
+    quotaManager = new QuotaManagerImpl(consumptionCache);
     storageUtil.expectOperations();
   }
 
@@ -179,6 +184,87 @@ public class QuotaManagerImplTest extends EasyMockTest {
         quotaManager.getQuotaInfo(ROLE, storeProvider));
   }
 
+  @Test
+  public void testGetQuotaInfoTracksTaskChanges() {
+    IScheduledTask prodTask = prodTask("foo", 3, 3, 3);
+    IScheduledTask nonProdTask = nonProdTask("bar", 2, 2, 2);
+
+    expectQuota(aggregate(4, 4, 4)).times(3);
+    expectTasks(prodTask);
+    expectNoJobUpdates().times(3);
+    expectNoCronJobs().times(3);
+
+    control.replay();
+
+    // Loads the role into the cache, as a quota check within a write operation would.
+    consumptionCache.get(ROLE, storeProvider);
+    assertEquals(
+        new QuotaInfo(bag(4, 4, 4), bag(3, 3, 3), EMPTY, bag(0, 0, 0), EMPTY),
+        quotaManager.getQuotaInfo(ROLE, storeProvider));
+
+    consumptionCache.taskChangedState(TaskStateChange.initialized(nonProdTask));
+    assertEquals(
+        new QuotaInfo(bag(4, 4, 4), bag(3, 3, 3), EMPTY, bag(2, 2, 2), EMPTY),
+        quotaManager.getQuotaInfo(ROLE, storeProvider));
+
+    consumptionCache.taskChangedState(TaskStateChange.transition(
+        IScheduledTask.build(prodTask.newBuilder().setStatus(ScheduleStatus.KILLED)),
+        prodTask.getStatus()));
+    assertEquals(
+        new QuotaInfo(bag(4, 4, 4), bag(0, 0, 0), EMPTY, bag(2, 2, 2), EMPTY),
+        quotaManager.getQuotaInfo(ROLE, storeProvider));
+  }
+
+  @Test
+  public void testUncachedQuotaInfo() {
+    expectQuota(aggregate(4, 4, 4)).times(2);
+    expectTasks(prodTask("foo", 3, 3, 3)).times(2);
+    expectNoJobUpdates().times(2);
+    expectNoCronJobs().times(2);
+
+    control.replay();
+
+    assertEquals(
+        quotaManager.getQuotaInfo(ROLE, storeProvider),
+        quotaManager.getUncachedQuotaInfo(ROLE, storeProvider));
+  }
+
+  @Test
+  public void testGetQuotaInfoDoesNotCacheRole() {
+    expectQuota(aggregate(4, 4, 4)).times(2);
+    expectTasks(prodTask("foo", 3, 3, 3)).times(2);
+    expectNoJobUpdates().times(2);
+    expectNoCronJobs().times(2);
+
+    control.replay();
+
+    QuotaInfo expected = new QuotaInfo(bag(4, 4, 4), bag(3, 3, 3), EMPTY, bag(0, 0, 0), EMPTY);
+    assertEquals(expected, quotaManager.getQuotaInfo(ROLE, storeProvider));
+    assertEquals(ImmutableSet.of(), consumptionCache.getCachedRoles());
+    assertEquals(expected, quotaManager.getQuotaInfo(ROLE, storeProvider));
+  }
+
+  @Test
+  public void testCheckQuotaTracksTaskChangesWithoutReload() {
+    expectQuota(aggregate(4, 4, 4)).times(2);
+    expectNoTasks();
+    expectNoJobUpdates().times(2);
+    expectNoCronJobs().times(2);
+
+    control.replay();
+
+    QuotaCheckResult checkQuota =
+        quotaManager.checkInstanceAddition(taskConfig(4, 4, 4, true), 1, storeProvider);
+    assertEquals(SUFFICIENT_QUOTA, checkQuota.getResult());
+    assertEquals(ImmutableSet.of(ROLE), consumptionCache.getCachedRoles());
+
+    // Tasks inserted by a write operation are applied to the cache before the operation
+    // completes, so the next check accounts for them without reading them from storage.
+    consumptionCache.taskChangedState(TaskStateChange.initialized(prodTask("foo", 4, 4, 4)));
+    checkQuota = quotaManager.checkInstanceAddition(taskConfig(1, 1, 1, true), 1, storeProvider);
+    assertEquals(INSUFFICIENT_QUOTA, checkQuota.getResult());
+  }
+
   @Test
   public void testCheckQuotaPasses() {
     expectQuota(aggregate(4, 4, 4));
@@ -334,7 +420,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaExceedsCron() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectNoTasks().times(2);
+    expectNoTasks();
     expectNoJobUpdates().times(2);
     expectCronJobs(
         createJob(prodTask("pc", 4, 4, 4), 1),
@@ -353,8 +439,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaUpdatingTasksFilteredOut() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), createTask(JOB_NAME, "id2", 3, 3, 3, true, 0))
-        .times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), createTask(JOB_NAME, "id2", 3, 3, 3, true, 0));
 
     expectJobUpdates(taskConfig(1, 1, 1, true), taskConfig(2, 2, 2, true), 2);
     expectNoCronJobs().times(2);
@@ -372,7 +457,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaNonProdUpdatesUnaccounted() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2));
 
     expectJobUpdates(taskConfig(8, 8, 8, false), taskConfig(4, 4, 4, false), 2);
     expectNoCronJobs().times(2);
@@ -390,7 +475,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaProdToNonUpdateUnaccounted() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 1, 1, 1)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 1, 1, 1));
 
     expectJobUpdates(taskConfig(1, 1, 1, true), taskConfig(7, 7, 7, false), 2);
     expectNoCronJobs().times(2);
@@ -408,7 +493,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaNonToProdUpdateExceedsQuota() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2));
 
     expectJobUpdates(taskConfig(1, 1, 1, false), taskConfig(1, 1, 1, true), 2);
     expectNoCronJobs().times(2);
@@ -426,7 +511,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaOldJobUpdateConfigMatters() {
     expectQuota(aggregate(6, 6, 6)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2));
     expectJobUpdates(taskConfig(2, 2, 2, true), taskConfig(1, 1, 1, true), 2);
     expectNoCronJobs().times(2);
 
@@ -443,7 +528,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaUpdateAddsInstances() {
     expectQuota(aggregate(6, 6, 6)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2));
     expectJobUpdates(taskConfig(1, 1, 1, true), 1, taskConfig(1, 1, 1, true), 2, 2);
     expectNoCronJobs().times(2);
 
@@ -460,7 +545,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaUpdateRemovesInstances() {
     expectQuota(aggregate(6, 6, 6)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2));
     expectJobUpdates(taskConfig(1, 1, 1, true), 2, taskConfig(1, 1, 1, true), 1, 2);
     expectNoCronJobs().times(2);
 
@@ -477,7 +562,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaUpdateInitialConfigsUsedForFiltering() {
     expectQuota(aggregate(6, 6, 6)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask(JOB_NAME, 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask(JOB_NAME, 2, 2, 2));
 
     ITaskConfig config = taskConfig(2, 2, 2, true);
     List<IJobUpdateSummary> summaries = buildJobUpdateSummaries(UPDATE_KEY);
@@ -506,7 +591,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaUpdateDesiredConfigsUsedForFiltering() {
     expectQuota(aggregate(6, 6, 6)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask(JOB_NAME, 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask(JOB_NAME, 2, 2, 2));
 
     ITaskConfig config = taskConfig(2, 2, 2, true);
     List<IJobUpdateSummary> summaries = buildJobUpdateSummaries(UPDATE_KEY);
@@ -535,7 +620,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaNoDesiredState() {
     expectQuota(aggregate(6, 6, 6)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask("bar", 2, 2, 2));
 
     ITaskConfig config = taskConfig(2, 2, 2, true);
     List<IJobUpdateSummary> summaries = buildJobUpdateSummaries(UPDATE_KEY);
@@ -567,7 +652,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
     expectTasks(
         prodTask("foo", 2, 2, 2),
         createTask(JOB_NAME, "id1", 2, 2, 2, true, 0),
-        createTask(JOB_NAME, "id12", 2, 2, 2, true, 12)).times(2);
+        createTask(JOB_NAME, "id12", 2, 2, 2, true, 12));
     expectNoJobUpdates().times(2);
 
     ITaskConfig config = taskConfig(1, 1, 1, true);
@@ -592,7 +677,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaNewUpdateAddsInstances() {
     expectQuota(aggregate(6, 6, 6)).times(2);
-    expectTasks(prodTask("foo", 2, 2, 2), prodTask(JOB_NAME, 2, 2, 2)).times(2);
+    expectTasks(prodTask("foo", 2, 2, 2), prodTask(JOB_NAME, 2, 2, 2));
     expectNoJobUpdates().times(2);
 
     ITaskConfig config = taskConfig(2, 2, 2, true);
@@ -620,7 +705,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
     expectTasks(
         prodTask("foo", 2, 2, 2),
         createTask(JOB_NAME, "id1", 2, 2, 2, true, 0),
-        createTask(JOB_NAME, "id2", 2, 2, 2, true, 1)).times(2);
+        createTask(JOB_NAME, "id2", 2, 2, 2, true, 1));
     expectNoJobUpdates().times(2);
 
     ITaskConfig config = taskConfig(2, 2, 2, true);
@@ -745,7 +830,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaCronUpdateDownsize() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectNoTasks().times(2);
+    expectNoTasks();
     expectNoJobUpdates().times(2);
 
     IJobConfiguration job = createJob(prodTask("pc", 4, 4, 4), 1);
@@ -765,7 +850,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaCronUpdateUpsize() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectNoTasks().times(2);
+    expectNoTasks();
     expectNoJobUpdates().times(2);
 
     IJobConfiguration job = createJob(prodTask("pc", 4, 4, 4), 1);
@@ -785,7 +870,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaCronUpdateFails() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectNoTasks().times(2);
+    expectNoTasks();
     expectNoJobUpdates().times(2);
 
     IJobConfiguration job = createJob(prodTask("pc", 4, 4, 4), 1);
@@ -805,7 +890,7 @@ public class QuotaManagerImplTest extends EasyMockTest {
   @Test
   public void testCheckQuotaCronCreate() {
     expectQuota(aggregate(5, 5, 5)).times(2);
-    expectNoTasks().times(2);
+    expectNoTasks();
     expectNoJobUpdates().times(2);
     expectNoCronJobs().times(2);
     expectNoCronJob();
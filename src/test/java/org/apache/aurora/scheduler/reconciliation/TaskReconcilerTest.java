@@ -14,8 +14,9 @@
 package org.apache.aurora.scheduler.reconciliation;
 
 import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.atomic.AtomicLong;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
@@ -24,7 +25,6 @@ import com.google.common.collect.Lists;
 
 import org.apache.aurora.common.quantity.Amount;
 import org.apache.aurora.common.quantity.Time;
-import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
 import org.apache.aurora.gen.AssignedTask;
 import org.apache.aurora.gen.ScheduleStatus;
@@ -33,23 +33,32 @@ import org.apache.aurora.gen.TaskEvent;
 import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.base.Tasks;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStatusReceived;
 import org.apache.aurora.scheduler.mesos.Driver;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
 import org.apache.aurora.scheduler.storage.testing.StorageTestUtil;
 import org.apache.aurora.scheduler.testing.FakeScheduledExecutor;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.apache.mesos.Protos;
 import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.apache.aurora.common.quantity.Time.HOURS;
 import static org.apache.aurora.common.quantity.Time.MINUTES;
 import static org.apache.aurora.common.quantity.Time.SECONDS;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.BATCHES_DEFERRED_STAT_NAME;
 import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.EXPLICIT_STAT_NAME;
 import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.IMPLICIT_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.LAG_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.OUTSTANDING_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.RESPONSES_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.TASKS_REMAINING_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.TASKS_SENT_STAT_NAME;
+import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.TASKS_SKIPPED_STAT_NAME;
 import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.TASK_TO_PROTO;
 import static org.apache.aurora.scheduler.reconciliation.TaskReconciler.TaskReconcilerSettings;
-import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.expectLastCall;
 import static org.junit.Assert.assertEquals;
 
@@ -60,35 +69,46 @@ public class TaskReconcilerTest extends EasyMockTest {
   private static final Amount<Long, Time> SPREAD = Amount.of(30L, MINUTES);
   private static final Amount<Long, Time> BATCH_DELAY = Amount.of(3L, SECONDS);
   private static final int BATCH_SIZE = 1;
+  private static final int MAX_STATUS_QUEUE_SIZE = 2;
+  private static final Amount<Long, Time> CONFIRMATION_WINDOW = Amount.of(5L, MINUTES);
   private static final TaskReconcilerSettings SETTINGS = new TaskReconcilerSettings(
       INITIAL_DELAY,
       EXPLICIT_SCHEDULE,
       IMPLICT_SCHEDULE,
       SPREAD,
       BATCH_DELAY,
-      BATCH_SIZE);
+      BATCH_SIZE,
+      MAX_STATUS_QUEUE_SIZE,
+      CONFIRMATION_WINDOW);
 
   private StorageTestUtil storageUtil;
-  private StatsProvider statsProvider;
+  private FakeStatsProvider statsProvider;
   private Driver driver;
   private ScheduledExecutorService executorService;
-  private AtomicLong explicitRuns;
-  private AtomicLong implicitRuns;
+  private BlockingQueue<Protos.TaskStatus> statusUpdateQueue;
 
   @Before
   public void setUp() {
     storageUtil = new StorageTestUtil(this);
-    statsProvider = createMock(StatsProvider.class);
+    statsProvider = new FakeStatsProvider();
     driver = createMock(Driver.class);
     executorService = createMock(ScheduledExecutorService.class);
-    explicitRuns = new AtomicLong();
-    implicitRuns = new AtomicLong();
+    statusUpdateQueue = new LinkedBlockingQueue<>();
+  }
+
+  private TaskReconciler createReconciler(FakeScheduledExecutor clock) {
+    return new TaskReconciler(
+        SETTINGS,
+        storageUtil.storage,
+        driver,
+        executorService,
+        clock,
+        statusUpdateQueue,
+        statsProvider);
   }
 
   @Test
   public void testExecution() {
-    expect(statsProvider.makeCounter(EXPLICIT_STAT_NAME)).andReturn(explicitRuns);
-    expect(statsProvider.makeCounter(IMPLICIT_STAT_NAME)).andReturn(implicitRuns);
     FakeScheduledExecutor clock =
         FakeScheduledExecutor.scheduleAtFixedRateExecutor(executorService, 2, 5);
 
@@ -115,39 +135,33 @@ public class TaskReconcilerTest extends EasyMockTest {
 
     control.replay();
 
-    TaskReconciler reconciler = new TaskReconciler(
-        SETTINGS,
-        storageUtil.storage,
-        driver,
-        executorService,
-        statsProvider);
-
+    TaskReconciler reconciler = createReconciler(clock);
     reconciler.startAsync().awaitRunning();
 
     clock.advance(INITIAL_DELAY);
-    assertEquals(1L, explicitRuns.get());
-    assertEquals(0L, implicitRuns.get());
+    assertEquals(1L, statsProvider.getLongValue(EXPLICIT_STAT_NAME));
+    assertEquals(0L, statsProvider.getLongValue(IMPLICIT_STAT_NAME));
 
     clock.advance(SPREAD);
-    assertEquals(1L, explicitRuns.get());
-    assertEquals(1L, implicitRuns.get());
+    assertEquals(1L, statsProvider.getLongValue(EXPLICIT_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(IMPLICIT_STAT_NAME));
 
     clock.advance(EXPLICIT_SCHEDULE);
-    assertEquals(2L, explicitRuns.get());
-    assertEquals(1L, implicitRuns.get());
+    assertEquals(2L, statsProvider.getLongValue(EXPLICIT_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(IMPLICIT_STAT_NAME));
 
     clock.advance(IMPLICT_SCHEDULE);
-    assertEquals(5L, explicitRuns.get());
-    assertEquals(2L, implicitRuns.get());
+    assertEquals(5L, statsProvider.getLongValue(EXPLICIT_STAT_NAME));
+    assertEquals(2L, statsProvider.getLongValue(IMPLICIT_STAT_NAME));
 
     reconciler.triggerExplicitReconciliation(Optional.of(BATCH_SIZE));
-    assertEquals(6L, explicitRuns.get());
+    assertEquals(6L, statsProvider.getLongValue(EXPLICIT_STAT_NAME));
     reconciler.triggerImplicitReconciliation();
-    assertEquals(3L, implicitRuns.get());
+    assertEquals(3L, statsProvider.getLongValue(IMPLICIT_STAT_NAME));
 
     reconciler.triggerExplicitReconciliation(Optional.absent());
-    assertEquals(7L, explicitRuns.get());
-    assertEquals(3L, implicitRuns.get());
+    assertEquals(7L, statsProvider.getLongValue(EXPLICIT_STAT_NAME));
+    assertEquals(3L, statsProvider.getLongValue(IMPLICIT_STAT_NAME));
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -160,7 +174,9 @@ public class TaskReconcilerTest extends EasyMockTest {
         IMPLICT_SCHEDULE,
         Amount.of(Long.MAX_VALUE, MINUTES),
         BATCH_DELAY,
-        BATCH_SIZE);
+        BATCH_SIZE,
+        MAX_STATUS_QUEUE_SIZE,
+        CONFIRMATION_WINDOW);
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -173,7 +189,149 @@ public class TaskReconcilerTest extends EasyMockTest {
         IMPLICT_SCHEDULE,
         SPREAD,
         BATCH_DELAY,
-        BATCH_SIZE);
+        BATCH_SIZE,
+        MAX_STATUS_QUEUE_SIZE,
+        CONFIRMATION_WINDOW);
+  }
+
+  @Test
+  public void testPrioritizesOldestAndSkipsConfirmed() {
+    FakeScheduledExecutor clock = FakeScheduledExecutor.scheduleExecutor(executorService);
+
+    IScheduledTask newest = makeTask("newest", 300L);
+    IScheduledTask oldest = makeTask("oldest", 100L);
+    IScheduledTask confirmed = makeTask("confirmed", 200L);
+    storageUtil.expectOperations();
+    storageUtil.expectTaskFetch(
+        Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES),
+        newest,
+        oldest,
+        confirmed);
+
+    driver.reconcileTasks(ImmutableList.of(TASK_TO_PROTO.apply(oldest)));
+    driver.reconcileTasks(ImmutableList.of(TASK_TO_PROTO.apply(newest)));
+
+    control.replay();
+
+    TaskReconciler reconciler = createReconciler(clock);
+    clock.advance(Amount.of(1L, HOURS));
+    reconciler.statusReceived(statusReceived(confirmed));
+
+    reconciler.triggerExplicitReconciliation(Optional.absent());
+    assertEquals(1L, statsProvider.getLongValue(TASKS_SKIPPED_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(TASKS_REMAINING_STAT_NAME));
+    assertEquals(clock.nowMillis() - 300L, statsProvider.getLongValue(LAG_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(OUTSTANDING_STAT_NAME));
+
+    reconciler.statusReceived(statusReceived(oldest));
+    assertEquals(1L, statsProvider.getLongValue(RESPONSES_STAT_NAME));
+    assertEquals(0L, statsProvider.getLongValue(OUTSTANDING_STAT_NAME));
+
+    clock.advance(BATCH_DELAY);
+    assertEquals(2L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+    assertEquals(0L, statsProvider.getLongValue(TASKS_REMAINING_STAT_NAME));
+    assertEquals(0L, statsProvider.getLongValue(LAG_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(OUTSTANDING_STAT_NAME));
+    clock.assertEmpty();
+  }
+
+  @Test
+  public void testDefersBatchesWhileBacklogged() {
+    FakeScheduledExecutor clock = FakeScheduledExecutor.scheduleExecutor(executorService);
+
+    IScheduledTask task1 = makeTask("id1", 100L);
+    IScheduledTask task2 = makeTask("id2", 200L);
+    storageUtil.expectOperations();
+    storageUtil.expectTaskFetch(
+        Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES),
+        task1,
+        task2);
+
+    driver.reconcileTasks(ImmutableList.of(TASK_TO_PROTO.apply(task1)));
+    driver.reconcileTasks(ImmutableList.of(TASK_TO_PROTO.apply(task2)));
+
+    control.replay();
+
+    TaskReconciler reconciler = createReconciler(clock);
+    for (int i = 0; i <= MAX_STATUS_QUEUE_SIZE; i++) {
+      statusUpdateQueue.add(TASK_TO_PROTO.apply(task1));
+    }
+
+    // The status update queue is backlogged.
+    reconciler.triggerExplicitReconciliation(Optional.absent());
+    assertEquals(0L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(BATCHES_DEFERRED_STAT_NAME));
+
+    statusUpdateQueue.clear();
+    clock.advance(BATCH_DELAY);
+    assertEquals(1L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+
+    for (int i = 0; i <= MAX_STATUS_QUEUE_SIZE; i++) {
+      statusUpdateQueue.add(TASK_TO_PROTO.apply(task1));
+    }
+    clock.advance(BATCH_DELAY);
+    assertEquals(1L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+    assertEquals(2L, statsProvider.getLongValue(BATCHES_DEFERRED_STAT_NAME));
+
+    // A batch is eventually sent even if the backlog does not clear.
+    for (int i = 0; i < TaskReconciler.MAX_BATCH_DEFERRALS; i++) {
+      clock.advance(BATCH_DELAY);
+    }
+    assertEquals(2L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+    clock.assertEmpty();
+  }
+
+  @Test
+  public void testDefersBatchWhileFullBatchOutstanding() {
+    FakeScheduledExecutor clock = FakeScheduledExecutor.scheduleExecutor(executorService);
+
+    IScheduledTask task1 = makeTask("id1", 100L);
+    IScheduledTask task2 = makeTask("id2", 200L);
+    IScheduledTask task3 = makeTask("id3", 300L);
+    IScheduledTask task4 = makeTask("id4", 400L);
+    storageUtil.expectOperations();
+    storageUtil.expectTaskFetch(
+        Query.unscoped().byStatus(Tasks.SLAVE_ASSIGNED_STATES),
+        task1,
+        task2,
+        task3,
+        task4);
+
+    driver.reconcileTasks(ImmutableList.of(TASK_TO_PROTO.apply(task1), TASK_TO_PROTO.apply(task2)));
+    driver.reconcileTasks(ImmutableList.of(TASK_TO_PROTO.apply(task3), TASK_TO_PROTO.apply(task4)));
+
+    control.replay();
+
+    TaskReconciler reconciler = createReconciler(clock);
+    reconciler.triggerExplicitReconciliation(Optional.of(2));
+    assertEquals(2L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+
+    // Exactly one batch worth of responses is outstanding.
+    clock.advance(BATCH_DELAY);
+    assertEquals(2L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(BATCHES_DEFERRED_STAT_NAME));
+
+    reconciler.statusReceived(statusReceived(task1));
+    clock.advance(BATCH_DELAY);
+    assertEquals(4L, statsProvider.getLongValue(TASKS_SENT_STAT_NAME));
+    assertEquals(1L, statsProvider.getLongValue(BATCHES_DEFERRED_STAT_NAME));
+    clock.assertEmpty();
+  }
+
+  private static TaskStatusReceived statusReceived(IScheduledTask task) {
+    return new TaskStatusReceived(
+        Tasks.id(task),
+        Protos.TaskState.TASK_RUNNING,
+        Optional.absent(),
+        Optional.of(Protos.TaskStatus.Reason.REASON_RECONCILIATION),
+        Optional.absent());
+  }
+
+  private static IScheduledTask makeTask(String id, long timestamp) {
+    return IScheduledTask.build(makeTask(id, TaskTestUtil.makeConfig(TaskTestUtil.JOB))
+        .newBuilder()
+        .setTaskEvents(ImmutableList.of(new TaskEvent(timestamp, ScheduleStatus.ASSIGNED))));
   }
 
   private static IScheduledTask makeTask(String id, ITaskConfig config) {
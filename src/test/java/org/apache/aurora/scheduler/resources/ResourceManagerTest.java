@@ -16,6 +16,8 @@ package org.apache.aurora.scheduler.resources;
 import java.util.EnumSet;
 import java.util.Set;
 
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -159,6 +161,31 @@ public class ResourceManagerTest {
         0.0);
   }
 
+  @Test
+  public void testGetRemainingOffer() {
+    Protos.Resource reservedCpus = mesosScalar(CPUS, Optional.of("aurora"), false, 2.0);
+    Protos.Resource revocableCpus = mesosScalar(CPUS, 1.0, true);
+    Offer offer = ResourceTestUtil.offer(
+        mesosScalar(CPUS, 4.0),
+        reservedCpus,
+        revocableCpus,
+        mesosScalar(RAM_MB, 1024),
+        mesosRange(PORTS, 1000, 1001, 1002));
+
+    assertEquals(
+        ResourceTestUtil.offer(
+            mesosScalar(CPUS, 2.0),
+            mesosScalar(CPUS, Optional.of("aurora"), false, 1.0),
+            revocableCpus,
+            mesosRange(PORTS, 1000, 1002)),
+        ResourceManager.getRemainingOffer(offer, ImmutableList.of(
+            mesosScalar(CPUS, Optional.of("aurora"), false, 1.0),
+            mesosScalar(CPUS, 1.5),
+            mesosScalar(RAM_MB, 1024),
+            mesosRange(PORTS, 1001),
+            mesosScalar(CPUS, 0.5))));
+  }
+
   @Test
   public void testBagFromResources() {
     assertEquals(
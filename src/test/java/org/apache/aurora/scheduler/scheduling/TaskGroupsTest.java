@@ -16,6 +16,7 @@ package org.apache.aurora.scheduler.scheduling;
 import java.util.Set;
 
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.util.concurrent.RateLimiter;
 
 import org.apache.aurora.common.quantity.Amount;
@@ -46,6 +47,7 @@ import static org.apache.aurora.scheduler.testing.BatchWorkerUtil.expectBatchExe
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertTrue;
 
 public class TaskGroupsTest extends EasyMockTest {
   private static final Amount<Long, Time> FIRST_SCHEDULE_DELAY = Amount.of(1L, Time.MILLISECONDS);
@@ -162,6 +164,39 @@ public class TaskGroupsTest extends EasyMockTest {
     clock.advance(FIRST_SCHEDULE_DELAY);
   }
 
+  @Test
+  public void testSameThreadExecutor() throws Exception {
+    DelayExecutor sameThread = new DelayExecutor() {
+      @Override
+      public void execute(Runnable work, Amount<Long, Time> minDelay) {
+        work.run();
+      }
+
+      @Override
+      public void execute(Runnable work) {
+        work.run();
+      }
+    };
+    taskGroups = new TaskGroups(
+        sameThread,
+        new TaskGroupsSettings(FIRST_SCHEDULE_DELAY, backoffStrategy, rateLimiter, 2),
+        taskScheduler,
+        rescheduleCalculator,
+        batchWorker);
+    expect(rateLimiter.acquire()).andReturn(0D);
+    expect(taskScheduler.schedule(anyObject(), eq(ImmutableSet.of(TASK_A_ID))))
+        .andReturn(SCHEDULED_RESULT);
+    expectBatchExecute(batchWorker, storageUtil.storage, control, SCHEDULED_RESULT)
+        .anyTimes();
+
+    control.replay();
+
+    // The group is evaluated on the calling thread, outside of the group's map entry, and is
+    // removed once its only task is scheduled.
+    taskGroups.taskChangedState(TaskStateChange.transition(makeTask(TASK_A_ID), INIT));
+    assertTrue(Iterables.isEmpty(taskGroups.getGroups()));
+  }
+
   @Test
   public void testNonPendingIgnored() {
     control.replay();
@@ -41,6 +41,7 @@ import org.apache.aurora.scheduler.configuration.executor.ExecutorSettings;
 import org.apache.aurora.scheduler.events.EventSink;
 import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
 import org.apache.aurora.scheduler.events.PubsubEventModule;
+import org.apache.aurora.scheduler.filter.SchedulingFilter;
 import org.apache.aurora.scheduler.filter.SchedulingFilter.ResourceRequest;
 import org.apache.aurora.scheduler.preemptor.BiCache;
 import org.apache.aurora.scheduler.preemptor.Preemptor;
@@ -119,6 +120,8 @@ public class TaskSchedulerImplTest extends EasyMockTest {
             bind(Storage.class).toInstance(storageImpl);
             bind(ExecutorSettings.class).toInstance(THERMOS_EXECUTOR);
             PubsubEventModule.bindSubscriber(binder(), TaskScheduler.class);
+            PubsubEventModule.bindSchedulingFilterDelegate(binder())
+                .toInstance(createMock(SchedulingFilter.class));
           }
         });
   }
@@ -61,12 +61,15 @@ import static org.junit.Assert.assertEquals;
 public class MaintenanceControllerImplTest extends EasyMockTest {
 
   private static final String HOST_A = "a";
+  private static final String HOST_B = "b";
+  private static final String HOST_C = "c";
   private static final Set<String> A = ImmutableSet.of(HOST_A);
 
   private StorageTestUtil storageUtil;
   private StateManager stateManager;
   private MaintenanceController maintenance;
   private EventSink eventSink;
+  private FakeStatsProvider statsProvider;
 
   @Before
   public void setUp() throws Exception {
@@ -75,6 +78,7 @@ public class MaintenanceControllerImplTest extends EasyMockTest {
     stateManager = createMock(StateManager.class);
     TaskEventBatchWorker batchWorker = createMock(TaskEventBatchWorker.class);
     expectBatchExecute(batchWorker, storageUtil.storage, control).anyTimes();
+    statsProvider = new FakeStatsProvider();
 
     Injector injector = Guice.createInjector(
         new PubsubEventModule(),
@@ -84,7 +88,7 @@ public class MaintenanceControllerImplTest extends EasyMockTest {
             StateModule.bindMaintenanceController(binder());
             bind(Storage.class).toInstance(storageUtil.storage);
             bind(StateManager.class).toInstance(stateManager);
-            bind(StatsProvider.class).toInstance(new FakeStatsProvider());
+            bind(StatsProvider.class).toInstance(statsProvider);
             bind(Executor.class).annotatedWith(AsyncExecutor.class)
                 .toInstance(MoreExecutors.directExecutor());
             bind(TaskEventBatchWorker.class).toInstance(batchWorker);
@@ -110,19 +114,18 @@ public class MaintenanceControllerImplTest extends EasyMockTest {
 
     expectMaintenanceModeChange(HOST_A, SCHEDULED);
     expectFetchTasksByHost(HOST_A, ImmutableSet.of(task1, task2));
+    IHostAttributes attributes =
+        IHostAttributes.build(new HostAttributes().setHost(HOST_A).setMode(DRAINING));
+    expect(storageUtil.attributeStore.getHostAttributes()).andReturn(
+        ImmutableSet.of(IHostAttributes.build(attributes.newBuilder().setMode(SCHEDULED))));
     expectTaskDraining(task1);
     expectTaskDraining(task2);
     expectMaintenanceModeChange(HOST_A, DRAINING);
-    IHostAttributes attributes =
-        IHostAttributes.build(new HostAttributes().setHost(HOST_A).setMode(DRAINING));
-
-    expect(storageUtil.attributeStore.getHostAttributes(HOST_A))
-        .andReturn(Optional.of(attributes)).times(2);
 
     expect(storageUtil.attributeStore.getHostAttributes()).andReturn(ImmutableSet.of(attributes));
-    expectFetchTasksByHost(HOST_A, ImmutableSet.of(task2));
-    // TaskA is KILLED and therefore no longer active
-    expectFetchTasksByHost(HOST_A, ImmutableSet.of());
+    // Storage is only consulted once the last task on the host is KILLED.
+    expect(storageUtil.attributeStore.getHostAttributes(HOST_A))
+        .andReturn(Optional.of(attributes));
     expectMaintenanceModeChange(HOST_A, DRAINED);
     expectMaintenanceModeChange(HOST_A, NONE);
 
@@ -131,15 +134,133 @@ public class MaintenanceControllerImplTest extends EasyMockTest {
     assertStatus(HOST_A, SCHEDULED, maintenance.startMaintenance(A));
     assertStatus(HOST_A, DRAINING, maintenance.drain(A));
     assertStatus(HOST_A, DRAINING, maintenance.getStatus(A));
+    assertEquals(1L, statsProvider.getLongValue(MaintenanceControllerImpl.DRAINING_HOSTS));
+    assertEquals(2L, statsProvider.getLongValue(MaintenanceControllerImpl.DRAINING_TASKS));
     eventSink.post(
         TaskStateChange.transition(
             IScheduledTask.build(task1.newBuilder().setStatus(KILLED)), RUNNING));
+    assertEquals(1L, statsProvider.getLongValue(MaintenanceControllerImpl.DRAINING_TASKS));
     eventSink.post(
         TaskStateChange.transition(
             IScheduledTask.build(task2.newBuilder().setStatus(KILLED)), RUNNING));
+    assertEquals(0L, statsProvider.getLongValue(MaintenanceControllerImpl.DRAINING_HOSTS));
+    assertEquals(1L, statsProvider.getLongValue(MaintenanceControllerImpl.HOSTS_DRAINED));
+    assertEquals(
+        1L,
+        statsProvider.getLongValue(MaintenanceControllerImpl.DRAIN_REQUESTS_COMPLETED));
     assertStatus(HOST_A, NONE, maintenance.endMaintenance(A));
   }
 
+  @Test
+  public void testDrainMultipleHosts() {
+    IScheduledTask taskA = makeTask(HOST_A, "taskA");
+    IScheduledTask taskB = makeTask(HOST_B, "taskB");
+    Set<String> hosts = ImmutableSet.of(HOST_A, HOST_B, HOST_C);
+
+    // All hosts are drained in one batch.
+    expect(storageUtil.taskStore.fetchTasks(Query.slaveScoped(hosts).active()))
+        .andReturn(ImmutableSet.of(taskA, taskB));
+    expect(storageUtil.attributeStore.getHostAttributes()).andReturn(ImmutableSet.of());
+    expectTaskDraining(taskA);
+    expectTaskDraining(taskB);
+    expectMaintenanceModeChange(HOST_C, DRAINED);
+    expectMaintenanceModeChange(HOST_A, DRAINING);
+    expectMaintenanceModeChange(HOST_B, DRAINING);
+    expect(storageUtil.attributeStore.getHostAttributes(HOST_A)).andReturn(Optional.of(
+        IHostAttributes.build(new HostAttributes().setHost(HOST_A).setMode(DRAINING))));
+    expectMaintenanceModeChange(HOST_A, DRAINED);
+
+    control.replay();
+
+    assertEquals(
+        ImmutableSet.of(
+            IHostStatus.build(new HostStatus(HOST_A, DRAINING)),
+            IHostStatus.build(new HostStatus(HOST_B, DRAINING)),
+            IHostStatus.build(new HostStatus(HOST_C, DRAINED))),
+        maintenance.drain(hosts));
+    assertEquals(1L, statsProvider.getLongValue(MaintenanceControllerImpl.DRAIN_REQUESTS));
+    assertEquals(2L, statsProvider.getLongValue(MaintenanceControllerImpl.DRAINING_HOSTS));
+
+    eventSink.post(TaskStateChange.transition(
+        IScheduledTask.build(taskA.newBuilder().setStatus(KILLED)), RUNNING));
+    assertEquals(1L, statsProvider.getLongValue(MaintenanceControllerImpl.HOSTS_DRAINED));
+    assertEquals(
+        0L,
+        statsProvider.getLongValue(MaintenanceControllerImpl.DRAIN_REQUESTS_COMPLETED));
+  }
+
+  @Test
+  public void testOverlappingDrainRequests() {
+    IScheduledTask taskA = makeTask(HOST_A, "taskA");
+    IScheduledTask taskB = makeTask(HOST_B, "taskB");
+    IHostAttributes drainingA =
+        IHostAttributes.build(new HostAttributes().setHost(HOST_A).setMode(DRAINING));
+    IHostAttributes drainingB =
+        IHostAttributes.build(new HostAttributes().setHost(HOST_B).setMode(DRAINING));
+
+    expect(storageUtil.taskStore.fetchTasks(
+        Query.slaveScoped(ImmutableSet.of(HOST_A, HOST_B)).active()))
+        .andReturn(ImmutableSet.of(taskA, taskB));
+    expect(storageUtil.attributeStore.getHostAttributes()).andReturn(ImmutableSet.of());
+    expectTaskDraining(taskA);
+    expectTaskDraining(taskB);
+    expectMaintenanceModeChange(HOST_A, DRAINING);
+    expectMaintenanceModeChange(HOST_B, DRAINING);
+
+    // The second request covers a host that is still being drained by the first one.
+    expectFetchTasksByHost(HOST_A, ImmutableSet.of(taskA));
+    expectTaskDraining(taskA);
+    expectMaintenanceModeChange(HOST_A, DRAINING);
+
+    expect(storageUtil.attributeStore.getHostAttributes(HOST_A)).andReturn(Optional.of(drainingA));
+    expectMaintenanceModeChange(HOST_A, DRAINED);
+    expect(storageUtil.attributeStore.getHostAttributes(HOST_B)).andReturn(Optional.of(drainingB));
+    expectMaintenanceModeChange(HOST_B, DRAINED);
+
+    control.replay();
+
+    maintenance.drain(ImmutableSet.of(HOST_A, HOST_B));
+    maintenance.drain(A);
+    assertEquals(2L, statsProvider.getLongValue(MaintenanceControllerImpl.DRAIN_REQUESTS));
+
+    eventSink.post(TaskStateChange.transition(
+        IScheduledTask.build(taskA.newBuilder().setStatus(KILLED)), RUNNING));
+    // Only the second request is complete, the first one is still waiting on the other host.
+    assertEquals(
+        1L,
+        statsProvider.getLongValue(MaintenanceControllerImpl.DRAIN_REQUESTS_COMPLETED));
+
+    eventSink.post(TaskStateChange.transition(
+        IScheduledTask.build(taskB.newBuilder().setStatus(KILLED)), RUNNING));
+    assertEquals(2L, statsProvider.getLongValue(MaintenanceControllerImpl.HOSTS_DRAINED));
+    assertEquals(
+        2L,
+        statsProvider.getLongValue(MaintenanceControllerImpl.DRAIN_REQUESTS_COMPLETED));
+  }
+
+  @Test
+  public void testDrainingHostsLoadedFromStorage() {
+    // The host was draining before the scheduler started.
+    IScheduledTask task1 = makeTask(HOST_A, "taskA");
+    IScheduledTask task2 = makeTask(HOST_A, "taskB");
+    IHostAttributes attributes =
+        IHostAttributes.build(new HostAttributes().setHost(HOST_A).setMode(DRAINING));
+    expect(storageUtil.attributeStore.getHostAttributes()).andReturn(ImmutableSet.of(attributes));
+    expectFetchTasksByHost(HOST_A, ImmutableSet.of(task2));
+    expect(storageUtil.attributeStore.getHostAttributes(HOST_A))
+        .andReturn(Optional.of(attributes));
+    expectMaintenanceModeChange(HOST_A, DRAINED);
+
+    control.replay();
+
+    eventSink.post(TaskStateChange.transition(
+        IScheduledTask.build(task1.newBuilder().setStatus(KILLED)), RUNNING));
+    assertEquals(1L, statsProvider.getLongValue(MaintenanceControllerImpl.DRAINING_TASKS));
+    eventSink.post(TaskStateChange.transition(
+        IScheduledTask.build(task2.newBuilder().setStatus(KILLED)), RUNNING));
+    assertEquals(1L, statsProvider.getLongValue(MaintenanceControllerImpl.HOSTS_DRAINED));
+  }
+
   @Test
   public void testUnknownHost() {
     expect(storageUtil.attributeStore.getHostAttributes("b"))
@@ -167,7 +288,7 @@ public class MaintenanceControllerImplTest extends EasyMockTest {
   public void testEndEarly() {
     expectMaintenanceModeChange(HOST_A, SCHEDULED);
     expectMaintenanceModeChange(HOST_A, NONE);
-    expect(storageUtil.attributeStore.getHostAttributes(HOST_A)).andReturn(Optional.of(
+    expect(storageUtil.attributeStore.getHostAttributes()).andReturn(ImmutableSet.of(
         IHostAttributes.build(new HostAttributes().setHost(HOST_A).setMode(NONE))));
 
     control.replay();
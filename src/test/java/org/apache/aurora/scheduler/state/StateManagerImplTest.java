@@ -46,6 +46,7 @@ import org.apache.aurora.scheduler.events.PubsubEvent;
 import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
 import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
 import org.apache.aurora.scheduler.mesos.Driver;
+import org.apache.aurora.scheduler.quota.ConsumptionCache;
 import org.apache.aurora.scheduler.resources.ResourceManager;
 import org.apache.aurora.scheduler.scheduling.RescheduleCalculator;
 import org.apache.aurora.scheduler.storage.AttributeStore;
@@ -56,6 +57,8 @@ import org.apache.aurora.scheduler.storage.entities.IAssignedTask;
 import org.apache.aurora.scheduler.storage.entities.IHostAttributes;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.storage.entities.ITaskConfig;
+import org.apache.aurora.scheduler.storage.entities.ITaskEvent;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.apache.mesos.Protos.SlaveID;
 import org.easymock.Capture;
 import org.easymock.EasyMock;
@@ -117,7 +120,9 @@ public class StateManagerImplTest extends EasyMockTest {
         driver,
         taskIdGenerator,
         eventSink,
-        rescheduleCalculator);
+        rescheduleCalculator,
+        50,
+        new ConsumptionCache(new FakeStatsProvider()));
     storage.write((NoResult.Quiet) storeProvider -> {
       AttributeStore.Mutable attributeStore = storeProvider.getAttributeStore();
       attributeStore.saveHostAttributes(HOST_A);
@@ -506,6 +511,31 @@ public class StateManagerImplTest extends EasyMockTest {
     assertEquals(HOST_A.getSlaveId(), change.getTask().getAssignedTask().getSlaveId());
   }
 
+  @Test
+  public void testAppendEventRetainsFirstAndNewest() {
+    control.replay();
+
+    ITaskEvent first = ITaskEvent.build(new TaskEvent(1L, INIT));
+    ITaskEvent second = ITaskEvent.build(new TaskEvent(2L, PENDING));
+    ITaskEvent third = ITaskEvent.build(new TaskEvent(3L, ASSIGNED));
+    ITaskEvent fourth = ITaskEvent.build(new TaskEvent(4L, RUNNING));
+    ITaskEvent fifth = ITaskEvent.build(new TaskEvent(5L, KILLING));
+
+    List<ITaskEvent> events = StateManagerImpl.appendEvent(ImmutableList.of(), first, 3);
+    events = StateManagerImpl.appendEvent(events, second, 3);
+    events = StateManagerImpl.appendEvent(events, third, 3);
+    assertEquals(ImmutableList.of(first, second, third), events);
+
+    events = StateManagerImpl.appendEvent(events, fourth, 3);
+    assertEquals(ImmutableList.of(first, third, fourth), events);
+    events = StateManagerImpl.appendEvent(events, fifth, 3);
+    assertEquals(ImmutableList.of(first, fourth, fifth), events);
+
+    assertEquals(
+        ImmutableList.of(first, fifth),
+        StateManagerImpl.appendEvent(ImmutableList.of(first, second, third, fourth), fifth, 2));
+  }
+
   private void expectStateTransitions(
       String taskId,
       ScheduleStatus initial,
@@ -17,8 +17,11 @@ import java.util.Map;
 import java.util.Set;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
 
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
 import org.apache.aurora.gen.AssignedTask;
@@ -63,15 +66,17 @@ import static org.apache.aurora.scheduler.base.TaskTestUtil.makeTask;
 import static org.apache.aurora.scheduler.filter.AttributeAggregate.empty;
 import static org.apache.aurora.scheduler.resources.ResourceManager.bagFromMesosResources;
 import static org.apache.aurora.scheduler.resources.ResourceTestUtil.mesosRange;
+import static org.apache.aurora.scheduler.resources.ResourceTestUtil.mesosScalar;
 import static org.apache.aurora.scheduler.resources.ResourceTestUtil.offer;
+import static org.apache.aurora.scheduler.resources.ResourceType.CPUS;
 import static org.apache.aurora.scheduler.resources.ResourceType.PORTS;
+import static org.apache.aurora.scheduler.resources.ResourceType.RAM_MB;
 import static org.apache.aurora.scheduler.state.TaskAssigner.TaskAssignerImpl.LAUNCH_FAILED_MSG;
 import static org.apache.aurora.scheduler.storage.Storage.MutableStoreProvider;
 import static org.apache.mesos.Protos.Offer;
 import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.eq;
 import static org.easymock.EasyMock.expect;
-import static org.easymock.EasyMock.expectLastCall;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
@@ -92,6 +97,10 @@ public class TaskAssignerImplTest extends EasyMockTest {
       .setTaskId(TaskID.newBuilder().setValue(Tasks.id(TASK)))
       .setSlaveId(MESOS_OFFER.getSlaveId())
       .build();
+  private static final IScheduledTask TASK_2 = makeTask("id2", JOB);
+  private static final TaskInfo TASK_INFO_2 = TASK_INFO.toBuilder()
+      .setTaskId(TaskID.newBuilder().setValue(Tasks.id(TASK_2)))
+      .build();
   private static final Map<String, TaskGroupKey> NO_RESERVATION = ImmutableMap.of();
   private static final UnusedResource UNUSED = new UnusedResource(
       bagFromMesosResources(MESOS_OFFER.getResourcesList()),
@@ -130,7 +139,8 @@ public class TaskAssignerImplTest extends EasyMockTest {
     stateManager = createMock(StateManager.class);
     offerManager = createMock(OfferManager.class);
     tierManager = createMock(TierManager.class);
-    assigner = new TaskAssignerImpl(stateManager, filter, taskFactory, offerManager, tierManager);
+    assigner =
+        new TaskAssignerImpl(stateManager, filter, taskFactory, offerManager, tierManager, 1);
     resourceRequest = new ResourceRequest(
         TASK.getAssignedTask().getTask(),
         ResourceBag.EMPTY,
@@ -149,7 +159,7 @@ public class TaskAssignerImplTest extends EasyMockTest {
   @Test
   public void testAssignPartialNoVetoes() throws Exception {
     expect(offerManager.getOffers(GROUP_KEY)).andReturn(ImmutableSet.of(OFFER));
-    offerManager.launchTask(MESOS_OFFER.getId(), TASK_INFO);
+    expectLaunch(MESOS_OFFER.getId(), TASK_INFO);
     expect(tierManager.getTier(TASK.getAssignedTask().getTask())).andReturn(DEV_TIER);
     expect(filter.filter(UNUSED, resourceRequest)).andReturn(ImmutableSet.of());
     expectAssignTask(MESOS_OFFER);
@@ -211,9 +221,9 @@ public class TaskAssignerImplTest extends EasyMockTest {
 
   @Test
   public void testAssignmentClearedOnError() throws Exception {
-    expect(offerManager.getOffers(GROUP_KEY)).andReturn(ImmutableSet.of(OFFER, OFFER_2));
-    offerManager.launchTask(MESOS_OFFER.getId(), TASK_INFO);
-    expectLastCall().andThrow(new OfferManager.LaunchException("expected"));
+    expect(offerManager.getOffers(GROUP_KEY)).andReturn(ImmutableSet.of(OFFER));
+    expect(offerManager.launchTasks(ImmutableListMultimap.of(MESOS_OFFER.getId(), TASK_INFO)))
+        .andThrow(new OfferManager.LaunchException("expected"));
     expect(tierManager.getTier(TASK.getAssignedTask().getTask())).andReturn(DEV_TIER);
     expect(filter.filter(UNUSED, resourceRequest)).andReturn(ImmutableSet.of());
     expectAssignTask(MESOS_OFFER);
@@ -229,7 +239,7 @@ public class TaskAssignerImplTest extends EasyMockTest {
 
     control.replay();
 
-    // Ensures scheduling loop terminates on the first launch failure.
+    // Ensures tasks are moved to LOST when their launch fails.
     assertEquals(
         NO_ASSIGNMENT,
         assigner.maybeAssign(
@@ -273,7 +283,7 @@ public class TaskAssignerImplTest extends EasyMockTest {
     expectAssignTask(OFFER_2.getOffer());
     expect(taskFactory.createFrom(TASK.getAssignedTask(), OFFER_2.getOffer()))
         .andReturn(TASK_INFO);
-    offerManager.launchTask(OFFER_2.getOffer().getId(), TASK_INFO);
+    expectLaunch(OFFER_2.getOffer().getId(), TASK_INFO);
 
     control.replay();
 
@@ -322,7 +332,7 @@ public class TaskAssignerImplTest extends EasyMockTest {
     expectAssignTask(MESOS_OFFER);
     expect(taskFactory.createFrom(TASK.getAssignedTask(), OFFER.getOffer()))
         .andReturn(TASK_INFO);
-    offerManager.launchTask(OFFER.getOffer().getId(), TASK_INFO);
+    expectLaunch(OFFER.getOffer().getId(), TASK_INFO);
 
     control.replay();
 
@@ -348,12 +358,171 @@ public class TaskAssignerImplTest extends EasyMockTest {
         assigner.mapAndAssignResources(MESOS_OFFER, IAssignedTask.build(builder)));
   }
 
+  @Test
+  public void testTasksLaunchedTogether() throws Exception {
+    expect(offerManager.getOffers(GROUP_KEY)).andReturn(ImmutableSet.of(OFFER, OFFER_2));
+    expect(tierManager.getTier(TASK.getAssignedTask().getTask())).andReturn(DEV_TIER);
+    expect(filter.filter(UNUSED, resourceRequest)).andReturn(ImmutableSet.of());
+    expectAssignTask(MESOS_OFFER);
+    expect(taskFactory.createFrom(TASK.getAssignedTask(), MESOS_OFFER)).andReturn(TASK_INFO);
+    expect(filter.filter(
+        new UnusedResource(
+            bagFromMesosResources(OFFER_2.getOffer().getResourcesList()),
+            OFFER_2.getAttributes()),
+        resourceRequest)).andReturn(ImmutableSet.of());
+    expectAssignTask(OFFER_2.getOffer(), TASK_2);
+    expect(taskFactory.createFrom(TASK_2.getAssignedTask(), OFFER_2.getOffer()))
+        .andReturn(TASK_INFO_2);
+
+    // The offer of the second task is gone by the time the tasks are launched.
+    expect(offerManager.launchTasks(ImmutableListMultimap.of(
+        MESOS_OFFER.getId(), TASK_INFO,
+        OFFER_2.getOffer().getId(), TASK_INFO_2)))
+        .andReturn(ImmutableSet.of(MESOS_OFFER.getId()));
+    expect(stateManager.changeState(
+        storeProvider,
+        Tasks.id(TASK_2),
+        Optional.of(PENDING),
+        LOST,
+        LAUNCH_FAILED_MSG))
+        .andReturn(StateChangeResult.SUCCESS);
+
+    control.replay();
+
+    assertEquals(
+        ImmutableSet.of(Tasks.id(TASK)),
+        assigner.maybeAssign(
+            storeProvider,
+            resourceRequest,
+            GROUP_KEY,
+            ImmutableList.of(Tasks.id(TASK), Tasks.id(TASK_2)),
+            NO_RESERVATION));
+  }
+
+  @Test
+  public void testOnlyTasksOfFailedOffersLost() throws Exception {
+    expect(offerManager.getOffers(GROUP_KEY)).andReturn(ImmutableSet.of(OFFER, OFFER_2));
+    expect(tierManager.getTier(TASK.getAssignedTask().getTask())).andReturn(DEV_TIER);
+    expect(filter.filter(UNUSED, resourceRequest)).andReturn(ImmutableSet.of());
+    expectAssignTask(MESOS_OFFER);
+    expect(taskFactory.createFrom(TASK.getAssignedTask(), MESOS_OFFER)).andReturn(TASK_INFO);
+    expect(filter.filter(
+        new UnusedResource(
+            bagFromMesosResources(OFFER_2.getOffer().getResourcesList()),
+            OFFER_2.getAttributes()),
+        resourceRequest)).andReturn(ImmutableSet.of());
+    expectAssignTask(OFFER_2.getOffer(), TASK_2);
+    expect(taskFactory.createFrom(TASK_2.getAssignedTask(), OFFER_2.getOffer()))
+        .andReturn(TASK_INFO_2);
+
+    // Accepting the first offer fails, the task launched on the second offer is kept.
+    expect(offerManager.launchTasks(ImmutableListMultimap.of(
+        MESOS_OFFER.getId(), TASK_INFO,
+        OFFER_2.getOffer().getId(), TASK_INFO_2)))
+        .andReturn(ImmutableSet.of(OFFER_2.getOffer().getId()));
+    expect(stateManager.changeState(
+        storeProvider,
+        Tasks.id(TASK),
+        Optional.of(PENDING),
+        LOST,
+        LAUNCH_FAILED_MSG))
+        .andReturn(StateChangeResult.SUCCESS);
+
+    control.replay();
+
+    assertEquals(
+        ImmutableSet.of(Tasks.id(TASK_2)),
+        assigner.maybeAssign(
+            storeProvider,
+            resourceRequest,
+            GROUP_KEY,
+            ImmutableList.of(Tasks.id(TASK), Tasks.id(TASK_2)),
+            NO_RESERVATION));
+  }
+
+  @Test
+  public void testTasksPackedOntoOffer() throws Exception {
+    Offer offer = offer(
+        mesosScalar(CPUS, 2.0),
+        mesosScalar(RAM_MB, 1024),
+        mesosRange(PORTS, PORT, PORT + 1));
+    HostOffer hostOffer = new HostOffer(offer, OFFER.getAttributes());
+    TaskInfo taskInfo = TASK_INFO.toBuilder()
+        .addResources(mesosScalar(CPUS, 1.0))
+        .addResources(mesosScalar(RAM_MB, 512))
+        .addResources(mesosRange(PORTS, PORT))
+        .build();
+    Offer remaining = offer(
+        mesosScalar(CPUS, 1.0),
+        mesosScalar(RAM_MB, 512),
+        mesosRange(PORTS, PORT + 1));
+    IScheduledTask task3 = makeTask("id3", JOB);
+    AttributeAggregate aggregate = empty();
+    ResourceRequest request =
+        new ResourceRequest(TASK.getAssignedTask().getTask(), ResourceBag.EMPTY, aggregate);
+
+    assigner =
+        new TaskAssignerImpl(stateManager, filter, taskFactory, offerManager, tierManager, 3);
+    expect(offerManager.getOffers(GROUP_KEY)).andReturn(ImmutableSet.of(hostOffer));
+    expect(tierManager.getTier(TASK.getAssignedTask().getTask())).andReturn(DEV_TIER);
+    expect(filter.filter(
+        new UnusedResource(bagFromMesosResources(offer.getResourcesList()), OFFER.getAttributes()),
+        request)).andReturn(ImmutableSet.of());
+    expectAssignTask(offer);
+    expect(taskFactory.createFrom(TASK.getAssignedTask(), offer)).andReturn(taskInfo);
+
+    // The second task is matched against the resources left by the first one.
+    expect(filter.filter(
+        new UnusedResource(
+            bagFromMesosResources(remaining.getResourcesList()),
+            OFFER.getAttributes()),
+        request)).andReturn(ImmutableSet.of());
+    expectAssignTask(remaining, TASK_2);
+    expect(taskFactory.createFrom(TASK_2.getAssignedTask(), remaining)).andReturn(TASK_INFO_2);
+
+    // The offer is used up for the third task, which is not banned from the offer.
+    expect(filter.filter(
+        new UnusedResource(
+            bagFromMesosResources(remaining.getResourcesList()),
+            OFFER.getAttributes()),
+        request)).andReturn(ImmutableSet.of(Veto.insufficientResources("ram", 1)));
+
+    expectLaunch(ImmutableListMultimap.of(offer.getId(), taskInfo, offer.getId(), TASK_INFO_2));
+
+    control.replay();
+
+    assertEquals(
+        ImmutableSet.of(Tasks.id(TASK), Tasks.id(TASK_2)),
+        assigner.maybeAssign(
+            storeProvider,
+            request,
+            GROUP_KEY,
+            ImmutableList.of(Tasks.id(TASK), Tasks.id(TASK_2), Tasks.id(task3)),
+            NO_RESERVATION));
+    assertEquals(
+        2L,
+        aggregate.getNumTasksWithAttribute("host", MESOS_OFFER.getHostname()));
+  }
+
+  private void expectLaunch(Multimap<OfferID, TaskInfo> launches) throws Exception {
+    expect(offerManager.launchTasks(launches)).andReturn(ImmutableSet.copyOf(launches.keySet()));
+  }
+
+  private void expectLaunch(OfferID offerId, TaskInfo taskInfo) throws Exception {
+    expect(offerManager.launchTasks(ImmutableListMultimap.of(offerId, taskInfo)))
+        .andReturn(ImmutableSet.of(offerId));
+  }
+
   private void expectAssignTask(Offer offer) {
+    expectAssignTask(offer, TASK);
+  }
+
+  private void expectAssignTask(Offer offer, IScheduledTask task) {
     expect(stateManager.assignTask(
         eq(storeProvider),
-        eq(Tasks.id(TASK)),
+        eq(Tasks.id(task)),
         eq(offer.getHostname()),
         eq(offer.getSlaveId()),
-        anyObject())).andReturn(TASK.getAssignedTask());
+        anyObject())).andReturn(task.getAssignedTask());
   }
 }
@@ -684,6 +684,8 @@ public abstract class AbstractTaskStoreTest extends TearDownTestCase {
     Iterable<IScheduledTask> result = fetchTasks(query);
     assertQueryHasNoDupes(result);
     assertEquals(tasks, ImmutableSet.copyOf(fetchTasks(query)));
+    assertEquals(tasks, storage.read(storeProvider ->
+        ImmutableSet.copyOf(storeProvider.getTaskStore().fetchTasksLazily(query))));
   }
 
   private void assertQueryHasNoDupes(Iterable<IScheduledTask> result) {
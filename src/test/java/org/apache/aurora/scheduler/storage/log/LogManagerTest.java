@@ -24,6 +24,7 @@ import java.util.concurrent.LinkedBlockingDeque;
 import java.util.function.Consumer;
 
 import com.google.common.base.Function;
+import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
@@ -40,7 +41,9 @@ import org.apache.aurora.common.testing.easymock.EasyMockTest;
 import org.apache.aurora.gen.AssignedTask;
 import org.apache.aurora.gen.Attribute;
 import org.apache.aurora.gen.HostAttributes;
+import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.gen.ScheduledTask;
+import org.apache.aurora.gen.storage.DeduplicatedScheduledTask;
 import org.apache.aurora.gen.storage.DeduplicatedSnapshot;
 import org.apache.aurora.gen.storage.Frame;
 import org.apache.aurora.gen.storage.FrameChunk;
@@ -50,6 +53,7 @@ import org.apache.aurora.gen.storage.Op;
 import org.apache.aurora.gen.storage.RemoveJob;
 import org.apache.aurora.gen.storage.RemoveTasks;
 import org.apache.aurora.gen.storage.SaveFrameworkId;
+import org.apache.aurora.gen.storage.SavePartialTasks;
 import org.apache.aurora.gen.storage.SaveTasks;
 import org.apache.aurora.gen.storage.Snapshot;
 import org.apache.aurora.gen.storage.Transaction;
@@ -59,6 +63,7 @@ import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.log.Log.Entry;
 import org.apache.aurora.scheduler.log.Log.Position;
 import org.apache.aurora.scheduler.log.Log.Stream;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.easymock.EasyMock;
 import org.easymock.IArgumentMatcher;
 import org.junit.Before;
@@ -257,6 +262,45 @@ public class LogManagerTest extends EasyMockTest {
     assertEquals(position1, streamTransaction.commit());
   }
 
+  private static DeduplicatedScheduledTask partialTask(IScheduledTask task, int configId) {
+    return new DeduplicatedScheduledTask(
+        task.withAssignedTask(task.getAssignedTask().withTask(null)).newBuilder(),
+        configId);
+  }
+
+  @Test
+  public void testCoalescePartialTasks() throws CodingException {
+    IScheduledTask a = TaskTestUtil.makeTask("a", TaskTestUtil.JOB);
+    IScheduledTask b = TaskTestUtil.makeTask("b", JobKeys.from("role", "env", "b"));
+    IScheduledTask c = TaskTestUtil.makeTask("c", JobKeys.from("role", "env", "c"));
+    IScheduledTask runningA =
+        IScheduledTask.build(a.newBuilder().setStatus(ScheduleStatus.RUNNING));
+
+    // The status change of task a retains the config it was saved with earlier in the
+    // transaction, and the config of task c is shifted past the configs of the prior operation.
+    SavePartialTasks coalesced = new SavePartialTasks()
+        .setPartialTasks(ImmutableList.of(
+            partialTask(runningA, 0),
+            partialTask(b, 1),
+            partialTask(c, 2)))
+        .setTaskConfigs(ImmutableList.of(
+            a.getAssignedTask().getTask().newBuilder(),
+            b.getAssignedTask().getTask().newBuilder(),
+            c.getAssignedTask().getTask().newBuilder()));
+    expectAppend(position1, createLogEntry(Op.savePartialTasks(coalesced)));
+
+    control.replay();
+
+    StreamTransaction streamTransaction = createNoMessagesStreamManager().startTransaction();
+    streamTransaction.add(Op.savePartialTasks(
+        WriteAheadStorage.partialTasks(ImmutableList.of(a, b), Predicates.alwaysFalse())));
+    streamTransaction.add(Op.savePartialTasks(WriteAheadStorage.partialTasks(
+        ImmutableList.of(runningA, c),
+        task -> task.getAssignedTask().getTaskId().equals("a"))));
+
+    assertEquals(position1, streamTransaction.commit());
+  }
+
   @Test
   public void testTransactionSnapshot() throws CodingException {
     Snapshot snapshot = createSnapshot();
@@ -56,6 +56,7 @@ import org.apache.aurora.gen.ResourceAggregate;
 import org.apache.aurora.gen.ScheduleStatus;
 import org.apache.aurora.gen.ScheduledTask;
 import org.apache.aurora.gen.TaskConfig;
+import org.apache.aurora.gen.storage.DeduplicatedScheduledTask;
 import org.apache.aurora.gen.storage.DeduplicatedSnapshot;
 import org.apache.aurora.gen.storage.LogEntry;
 import org.apache.aurora.gen.storage.Op;
@@ -72,6 +73,7 @@ import org.apache.aurora.gen.storage.SaveJobInstanceUpdateEvent;
 import org.apache.aurora.gen.storage.SaveJobUpdate;
 import org.apache.aurora.gen.storage.SaveJobUpdateEvent;
 import org.apache.aurora.gen.storage.SaveLock;
+import org.apache.aurora.gen.storage.SavePartialTasks;
 import org.apache.aurora.gen.storage.SaveQuota;
 import org.apache.aurora.gen.storage.SaveTasks;
 import org.apache.aurora.gen.storage.Snapshot;
@@ -172,6 +174,7 @@ public class LogStorageTest extends EasyMockTest {
         schedulingService,
         snapshotStore,
         SNAPSHOT_INTERVAL,
+        false,
         storageUtil.storage,
         storageUtil.schedulerStore,
         storageUtil.jobStore,
@@ -297,6 +300,28 @@ public class LogStorageTest extends EasyMockTest {
     builder.add(createTransaction(Op.saveTasks(saveTasks)));
     storageUtil.taskStore.saveTasks(ImmutableSet.of(expectedTask));
 
+    ScheduledTask partialTask = makeTask("id2", JOB_KEY).newBuilder();
+    partialTask.getAssignedTask().unsetTask();
+    ScheduledTask storedConfigTask = makeTask("id3", JOB_KEY).newBuilder();
+    storedConfigTask.getAssignedTask().unsetTask();
+    ScheduledTask missingConfigTask = makeTask("id4", JOB_KEY).newBuilder();
+    missingConfigTask.getAssignedTask().unsetTask();
+    SavePartialTasks savePartialTasks = new SavePartialTasks()
+        .setPartialTasks(ImmutableList.of(
+            new DeduplicatedScheduledTask(partialTask, 0),
+            new DeduplicatedScheduledTask(
+                storedConfigTask,
+                storageConstants.STORED_TASK_CONFIG_ID),
+            new DeduplicatedScheduledTask(
+                missingConfigTask,
+                storageConstants.STORED_TASK_CONFIG_ID)))
+        .setTaskConfigs(ImmutableList.of(nonBackfilledConfig()));
+    builder.add(createTransaction(Op.savePartialTasks(savePartialTasks)));
+    expect(storageUtil.taskStore.fetchTask("id3")).andReturn(Optional.of(makeTask("id3", JOB_KEY)));
+    expect(storageUtil.taskStore.fetchTask("id4")).andReturn(Optional.absent());
+    storageUtil.taskStore.saveTasks(
+        ImmutableSet.of(makeTask("id2", JOB_KEY), makeTask("id3", JOB_KEY)));
+
     RewriteTask rewriteTask = new RewriteTask("id1", new TaskConfig());
     builder.add(createTransaction(Op.rewriteTask(rewriteTask)));
     expect(storageUtil.taskStore.unsafeModifyInPlace(
@@ -509,6 +534,7 @@ public class LogStorageTest extends EasyMockTest {
         streamMatcher.expectTransaction(
             Op.saveCronJob(new SaveCronJob(jobConfig.newBuilder())))
             .andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(JOB_KEY.getRole()));
       }
 
       @Override
@@ -528,6 +554,7 @@ public class LogStorageTest extends EasyMockTest {
         streamMatcher.expectTransaction(
             Op.removeJob(new RemoveJob().setJobKey(JOB_KEY.newBuilder())))
             .andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(JOB_KEY.getRole()));
       }
 
       @Override
@@ -583,7 +610,7 @@ public class LogStorageTest extends EasyMockTest {
   public void testUnsafeModifyInPlace() throws Exception {
     String taskId = "wilma";
     String taskId2 = "barney";
-    ITaskConfig updatedConfig = task(taskId, ScheduleStatus.RUNNING).getAssignedTask().getTask();
+    ITaskConfig updatedConfig = ITaskConfig.build(new TaskConfig().setJob(JOB_KEY.newBuilder()));
     new AbstractMutationFixture() {
       @Override
       protected void setupExpectations() throws Exception {
@@ -593,6 +620,7 @@ public class LogStorageTest extends EasyMockTest {
         streamMatcher.expectTransaction(
             Op.rewriteTask(new RewriteTask(taskId, updatedConfig.newBuilder())))
             .andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(JOB_KEY.getRole()));
       }
 
       @Override
@@ -749,6 +777,7 @@ public class LogStorageTest extends EasyMockTest {
         storageUtil.quotaStore.saveQuota(role, quota);
         streamMatcher.expectTransaction(Op.saveQuota(new SaveQuota(role, quota.newBuilder())))
             .andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(role));
       }
 
       @Override
@@ -767,6 +796,7 @@ public class LogStorageTest extends EasyMockTest {
         storageUtil.expectWrite();
         storageUtil.quotaStore.removeQuota(role);
         streamMatcher.expectTransaction(Op.removeQuota(new RemoveQuota(role))).andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(role));
       }
 
       @Override
@@ -897,6 +927,7 @@ public class LogStorageTest extends EasyMockTest {
         streamMatcher.expectTransaction(
             Op.saveJobUpdate(new SaveJobUpdate(update.newBuilder(), lockToken.orNull())))
             .andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(JOB_KEY.getRole()));
       }
 
       @Override
@@ -920,6 +951,7 @@ public class LogStorageTest extends EasyMockTest {
         streamMatcher.expectTransaction(Op.saveJobUpdateEvent(new SaveJobUpdateEvent(
             event.newBuilder(),
             UPDATE_ID.newBuilder()))).andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(JOB_KEY.getRole()));
       }
 
       @Override
@@ -946,6 +978,7 @@ public class LogStorageTest extends EasyMockTest {
                 event.newBuilder(),
                 UPDATE_ID.newBuilder())))
             .andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(JOB_KEY.getRole()));
       }
 
       @Override
@@ -971,6 +1004,7 @@ public class LogStorageTest extends EasyMockTest {
             .andReturn(ImmutableSet.of(UPDATE_ID));
 
         streamMatcher.expectTransaction(Op.pruneJobUpdateHistory(pruneHistory)).andReturn(position);
+        eventSink.post(new PubsubEvent.RoleDataChanged(JOB_KEY.getRole()));
       }
 
       @Override
@@ -14,9 +14,12 @@
 package org.apache.aurora.scheduler.storage.log;
 
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
@@ -27,7 +30,9 @@ import org.apache.aurora.gen.MaintenanceMode;
 import org.apache.aurora.gen.storage.Op;
 import org.apache.aurora.gen.storage.PruneJobUpdateHistory;
 import org.apache.aurora.gen.storage.SaveHostAttributes;
+import org.apache.aurora.gen.storage.SavePartialTasks;
 import org.apache.aurora.gen.storage.SaveTasks;
+import org.apache.aurora.gen.storage.storageConstants;
 import org.apache.aurora.scheduler.base.JobKeys;
 import org.apache.aurora.scheduler.base.TaskTestUtil;
 import org.apache.aurora.scheduler.events.EventSink;
@@ -67,8 +72,11 @@ public class WriteAheadStorageTest extends EasyMockTest {
     attributeStore = createMock(AttributeStore.Mutable.class);
     jobUpdateStore = createMock(JobUpdateStore.Mutable.class);
     eventSink = createMock(EventSink.class);
+    storage = createStorage(false);
+  }
 
-    storage = new WriteAheadStorage(
+  private WriteAheadStorage createStorage(boolean writePartialTasks) {
+    return new WriteAheadStorage(
         transactionManager,
         createMock(SchedulerStore.Mutable.class),
         createMock(CronJobStore.Mutable.class),
@@ -78,7 +86,8 @@ public class WriteAheadStorageTest extends EasyMockTest {
         attributeStore,
         jobUpdateStore,
         LoggerFactory.getLogger(WriteAheadStorageTest.class),
-        eventSink);
+        eventSink,
+        writePartialTasks);
   }
 
   private void expectOp(Op op) {
@@ -94,6 +103,8 @@ public class WriteAheadStorageTest extends EasyMockTest {
             new JobUpdateKey(JobKeys.from("role", "env", "job").newBuilder(), "b")));
     expect(jobUpdateStore.pruneHistory(1, 1)).andReturn(pruned);
     expectOp(Op.pruneJobUpdateHistory(new PruneJobUpdateHistory(1, 1)));
+    // Both pruned updates belong to the same role.
+    eventSink.post(new PubsubEvent.RoleDataChanged("role"));
 
     control.replay();
 
@@ -124,6 +135,49 @@ public class WriteAheadStorageTest extends EasyMockTest {
     assertEquals(mutated, storage.mutateTask(taskId, mutator));
   }
 
+  @Test
+  public void testMutateWritePartialTasks() {
+    storage = createStorage(true);
+    String taskId = "a";
+    Function<IScheduledTask, IScheduledTask> mutator =
+        createMock(new Clazz<Function<IScheduledTask, IScheduledTask>>() { });
+    Optional<IScheduledTask> mutated = Optional.of(TaskTestUtil.makeTask(taskId, TaskTestUtil.JOB));
+
+    expect(taskStore.fetchTask(taskId)).andReturn(mutated);
+    expect(taskStore.mutateTask(taskId, mutator)).andReturn(mutated);
+    expectOp(Op.savePartialTasks(
+        WriteAheadStorage.partialTasks(mutated.asSet(), Predicates.alwaysTrue())));
+
+    control.replay();
+
+    assertEquals(mutated, storage.mutateTask(taskId, mutator));
+  }
+
+  @Test
+  public void testPartialTasks() {
+    control.replay();
+
+    IScheduledTask a = TaskTestUtil.makeTask("a", TaskTestUtil.JOB);
+    IScheduledTask b = TaskTestUtil.makeTask("b", TaskTestUtil.JOB);
+    IScheduledTask c = TaskTestUtil.makeTask("c", JobKeys.from("role", "env", "other"));
+    SavePartialTasks op = WriteAheadStorage.partialTasks(
+        ImmutableList.of(a, b, c),
+        task -> task.getAssignedTask().getTaskId().equals("b"));
+
+    assertEquals(
+        ImmutableList.of(
+            a.getAssignedTask().getTask().newBuilder(),
+            c.getAssignedTask().getTask().newBuilder()),
+        op.getTaskConfigs());
+    assertEquals(
+        ImmutableList.of(0, storageConstants.STORED_TASK_CONFIG_ID, 1),
+        op.getPartialTasks().stream()
+            .map(task -> task.getTaskConfigId())
+            .collect(Collectors.toList()));
+    assertFalse(
+        op.getPartialTasks().get(0).getPartialScheduledTask().getAssignedTask().isSetTask());
+  }
+
   @Test
   public void testSaveHostAttributes() {
     IHostAttributes attributes = IHostAttributes.build(
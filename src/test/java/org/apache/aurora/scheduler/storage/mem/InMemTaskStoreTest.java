@@ -13,8 +13,14 @@
  */
 package org.apache.aurora.scheduler.storage.mem;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import com.google.common.base.Optional;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.inject.AbstractModule;
 import com.google.inject.Module;
 import com.google.inject.util.Modules;
@@ -22,18 +28,27 @@ import com.google.inject.util.Modules;
 import org.apache.aurora.common.stats.SlidingStats;
 import org.apache.aurora.common.stats.StatsProvider;
 import org.apache.aurora.common.util.Clock;
+import org.apache.aurora.gen.ScheduleStatus;
+import org.apache.aurora.gen.ScheduledTask;
+import org.apache.aurora.gen.TaskEvent;
+import org.apache.aurora.scheduler.base.Query;
 import org.apache.aurora.scheduler.base.Tasks;
 import org.apache.aurora.scheduler.storage.AbstractTaskStoreTest;
 import org.apache.aurora.scheduler.storage.Storage.MutateWork.NoResult;
+import org.apache.aurora.scheduler.storage.Storage.Work;
 import org.apache.aurora.scheduler.storage.TaskStore;
 import org.apache.aurora.scheduler.storage.db.DbModule;
 import org.apache.aurora.scheduler.storage.db.InstrumentingInterceptor;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.apache.aurora.scheduler.testing.FakeStatsProvider;
 import org.junit.Test;
 
 import static org.apache.aurora.common.inject.Bindings.KeyFactory.PLAIN;
 import static org.easymock.EasyMock.createMock;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 public class InMemTaskStoreTest extends AbstractTaskStoreTest {
 
@@ -68,4 +83,203 @@ public class InMemTaskStoreTest extends AbstractTaskStoreTest {
       assertEquals(0L, statsProvider.getLongValue(MemTaskStore.getIndexSizeStatName("job")));
     });
   }
+
+  @Test
+  public void testLazyQueryReadsSnapshot() {
+    saveTasks(TASK_A, TASK_B);
+
+    FluentIterable<IScheduledTask> lazy = storage.read(storeProvider ->
+        storeProvider.getTaskStore().fetchTasksLazily(Query.jobScoped(Tasks.getJob(TASK_A))));
+    FluentIterable<IScheduledTask> lazyScan = storage.read(storeProvider ->
+        storeProvider.getTaskStore().fetchTasksLazily(Query.unscoped()));
+
+    // Writes that complete after the query must not be visible to it.
+    storage.write((NoResult.Quiet) storeProvider -> {
+      TaskStore.Mutable taskStore = storeProvider.getUnsafeTaskStore();
+      taskStore.saveTasks(ImmutableSet.of(TASK_C));
+      taskStore.mutateTask(Tasks.id(TASK_A), task -> task.withStatus(ScheduleStatus.RUNNING));
+      taskStore.deleteTasks(Tasks.ids(TASK_B));
+    });
+
+    assertEquals(ImmutableSet.of(TASK_A), lazy.toSet());
+    assertEquals(ImmutableSet.of(TASK_A, TASK_B), lazyScan.toSet());
+    assertEquals(
+        ScheduleStatus.RUNNING,
+        storage.read(storeProvider -> storeProvider.getTaskStore().fetchTask(Tasks.id(TASK_A)))
+            .get()
+            .getStatus());
+    assertEquals(2L, statsProvider.getLongValue(MemTaskStore.getIndexSizeStatName("job")));
+  }
+
+  private <T> T readInOtherThread(Work.Quiet<T> work) throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      return executor.submit(() -> storage.read(work)).get();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWriteOperationPublishedOnCompletion() throws Exception {
+    saveTasks(TASK_A);
+
+    storage.write((NoResult<Exception>) storeProvider -> {
+      TaskStore.Mutable taskStore = storeProvider.getUnsafeTaskStore();
+      taskStore.saveTasks(ImmutableSet.of(TASK_B));
+      taskStore.deleteTasks(Tasks.ids(TASK_A));
+
+      // The writing thread observes its own changes, other threads do not.
+      assertEquals(
+          ImmutableSet.of(TASK_B),
+          storeProvider.getTaskStore().fetchTasks(Query.unscoped()));
+      assertEquals(
+          ImmutableSet.of(TASK_A),
+          readInOtherThread(other -> other.getTaskStore().fetchTasks(Query.unscoped())));
+    });
+
+    assertEquals(
+        ImmutableSet.of(TASK_B),
+        readInOtherThread(other -> other.getTaskStore().fetchTasks(Query.unscoped())));
+  }
+
+  @Test
+  public void testReadOperationPinsView() throws Exception {
+    saveTasks(TASK_A);
+
+    storage.read((Work<Void, Exception>) storeProvider -> {
+      assertEquals(
+          ImmutableSet.of(TASK_A),
+          storeProvider.getTaskStore().fetchTasks(Query.unscoped()));
+
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+        executor.submit(() -> saveTasks(TASK_B)).get();
+      } finally {
+        executor.shutdownNow();
+      }
+
+      // Later queries of the same read operation see the same view as the first.
+      assertEquals(
+          ImmutableSet.of(TASK_A),
+          storeProvider.getTaskStore().fetchTasks(Query.unscoped()));
+      return null;
+    });
+
+    assertEquals(
+        ImmutableSet.of(TASK_A, TASK_B),
+        storage.read(storeProvider -> storeProvider.getTaskStore().fetchTasks(Query.unscoped())));
+  }
+
+  @Test
+  public void testQueryPlanStats() {
+    saveTasks(TASK_A, TASK_B, TASK_C);
+
+    storage.read(storeProvider -> storeProvider.getTaskStore().fetchTasks(
+        Query.jobScoped(Tasks.getJob(TASK_A)).byStatus(ScheduleStatus.RUNNING)));
+    assertEquals(
+        1L,
+        statsProvider.getLongValue(MemTaskStore.getQueryStatName("by_job", "rows_scanned")));
+    assertEquals(
+        0L,
+        statsProvider.getLongValue(MemTaskStore.getQueryStatName("by_job", "rows_returned")));
+
+    storage.read(storeProvider -> storeProvider.getTaskStore().fetchTasks(Query.unscoped()));
+    assertEquals(
+        3L,
+        statsProvider.getLongValue(MemTaskStore.getQueryStatName("all", "rows_scanned")));
+    assertEquals(
+        3L,
+        statsProvider.getLongValue(MemTaskStore.getQueryStatName("all", "rows_returned")));
+    assertEquals(
+        1L,
+        statsProvider.getLongValue(
+            MemTaskStore.getQueryStatName("all", "latency") + "_requests_events"));
+  }
+
+  @Test
+  public void testLazyQueryPlanStats() {
+    saveTasks(TASK_A, TASK_B, TASK_C);
+
+    int size = storage.read(storeProvider -> {
+      Iterable<IScheduledTask> tasks = storeProvider.getTaskStore().fetchTasksLazily(
+          Query.jobScoped(Tasks.getJob(TASK_A)).byStatus(ScheduleStatus.RUNNING));
+      assertEquals(
+          0L,
+          statsProvider.getLongValue(MemTaskStore.getQueryStatName("by_job", "rows_scanned")));
+      return Iterables.size(tasks);
+    });
+    assertEquals(0, size);
+    assertEquals(
+        1L,
+        statsProvider.getLongValue(MemTaskStore.getQueryStatName("by_job", "rows_scanned")));
+    assertEquals(
+        0L,
+        statsProvider.getLongValue(MemTaskStore.getQueryStatName("by_job", "rows_returned")));
+  }
+
+  @Test
+  public void testLazyQueryPartialIterationStats() {
+    saveTasks(TASK_A, TASK_B, TASK_C);
+
+    boolean empty = storage.read(storeProvider ->
+        Iterables.isEmpty(storeProvider.getTaskStore().fetchTasksLazily(Query.unscoped())));
+    assertFalse(empty);
+    assertEquals(
+        1L,
+        statsProvider.getLongValue(MemTaskStore.getQueryStatName("all", "rows_scanned")));
+    assertEquals(
+        1L,
+        statsProvider.getLongValue(MemTaskStore.getQueryStatName("all", "rows_returned")));
+  }
+
+  @Test
+  public void testEquivalentConfigsShared() {
+    ScheduledTask copy = TASK_A.newBuilder();
+    copy.getAssignedTask().setTaskId("a-copy");
+    IScheduledTask taskCopy = IScheduledTask.build(copy);
+    assertNotSame(TASK_A.getAssignedTask().getTask(), taskCopy.getAssignedTask().getTask());
+    saveTasks(TASK_A, taskCopy);
+
+    IScheduledTask storedA = fetchStored(Tasks.id(TASK_A));
+    IScheduledTask storedCopy = fetchStored(Tasks.id(taskCopy));
+    assertSame(storedA.getAssignedTask().getTask(), storedCopy.getAssignedTask().getTask());
+    assertEquals(1L, statsProvider.getLongValue(MemTaskStore.INTERNED_CONFIGS_STAT));
+    assertEquals(1L, statsProvider.getLongValue(MemTaskStore.SHARED_CONFIG_REFERENCES_STAT));
+    assertEquals(1L, statsProvider.getLongValue(MemTaskStore.CONFIG_INTERN_MISSES_STAT));
+    assertEquals(1L, statsProvider.getLongValue(MemTaskStore.CONFIG_INTERN_HITS_STAT));
+
+    // A status change should share the unmodified assignment with the previously stored task.
+    IScheduledTask mutated = storage.write(storeProvider -> storeProvider.getUnsafeTaskStore()
+        .mutateTask(Tasks.id(TASK_A), task -> task.withStatus(ScheduleStatus.RUNNING))
+        .get());
+    assertEquals(ScheduleStatus.RUNNING, mutated.getStatus());
+    assertSame(storedA.getAssignedTask(), fetchStored(Tasks.id(TASK_A)).getAssignedTask());
+    assertEquals(2L, statsProvider.getLongValue(MemTaskStore.CONFIG_INTERN_HITS_STAT));
+
+    deleteTasks(Tasks.id(TASK_A), Tasks.id(taskCopy));
+    assertEquals(0L, statsProvider.getLongValue(MemTaskStore.INTERNED_CONFIGS_STAT));
+    assertEquals(0L, statsProvider.getLongValue(MemTaskStore.SHARED_CONFIG_REFERENCES_STAT));
+  }
+
+  @Test
+  public void testEventStringsShared() {
+    ScheduledTask a = TASK_A.newBuilder();
+    a.setTaskEvents(ImmutableList.of(
+        new TaskEvent(1L, ScheduleStatus.PENDING)
+            .setScheduler(new String("scheduler".toCharArray()))));
+    ScheduledTask b = TASK_B.newBuilder();
+    b.setTaskEvents(ImmutableList.of(
+        new TaskEvent(2L, ScheduleStatus.PENDING)
+            .setScheduler(new String("scheduler".toCharArray()))));
+    saveTasks(IScheduledTask.build(a), IScheduledTask.build(b));
+
+    assertSame(
+        Iterables.getOnlyElement(fetchStored(Tasks.id(TASK_A)).getTaskEvents()).getScheduler(),
+        Iterables.getOnlyElement(fetchStored(Tasks.id(TASK_B)).getTaskEvents()).getScheduler());
+  }
+
+  private IScheduledTask fetchStored(String taskId) {
+    return storage.read(storeProvider -> storeProvider.getTaskStore().fetchTask(taskId)).get();
+  }
 }
@@ -13,7 +13,13 @@
  */
 package org.apache.aurora.scheduler.storage.mem;
 
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -96,6 +102,57 @@ public class InternerTest {
     assertFalse(interner.isInterned(JOAN));
   }
 
+  @Test
+  public void testAssociationCount() {
+    interner.addAssociation(JOAN, BOB);
+    interner.addAssociation(SAME_JOAN, BOB2);
+    interner.addAssociation(JOAN, BOB2);
+    interner.addAssociation(STEVE, BARRY);
+    assertEquals(2, interner.size());
+    assertEquals(3L, interner.getAssociationCount());
+
+    interner.removeAssociation(JOAN, BOB);
+    interner.removeAssociation(JOAN, BOB);
+    assertEquals(2, interner.size());
+    assertEquals(2L, interner.getAssociationCount());
+
+    interner.clear();
+    assertEquals(0, interner.size());
+    assertEquals(0L, interner.getAssociationCount());
+  }
+
+  @Test
+  public void testConcurrentAssociations() throws Exception {
+    int threads = 4;
+    int associationsPerThread = 1000;
+    // Interning JOAN first guarantees that it remains the canonical instance for all threads.
+    interner.addAssociation(JOAN, BOB);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = Lists.newArrayList();
+      for (int i = 0; i < threads; i++) {
+        String prefix = "thread-" + i;
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < associationsPerThread; j++) {
+            assertSame(JOAN, interner.addAssociation(new Internable("joan"), prefix + j));
+          }
+          for (int j = 0; j < associationsPerThread; j++) {
+            interner.removeAssociation(SAME_JOAN, prefix + j);
+          }
+          interner.addAssociation(JOAN, prefix);
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1, interner.size());
+    assertEquals(threads + 1L, interner.getAssociationCount());
+  }
+
   private static class Internable {
     private final String value;
 
@@ -0,0 +1,133 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.storage.mem;
+
+import java.util.Map;
+import java.util.Random;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentMapTest {
+
+  /**
+   * A key with a fixed hash code, to exercise hash collisions.
+   */
+  private static final class CollidingKey {
+    private final String name;
+
+    CollidingKey(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof CollidingKey && name.equals(((CollidingKey) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+  }
+
+  private static <K, V> void assertContents(Map<K, V> expected, PersistentMap<K, V> actual) {
+    assertEquals(expected.size(), actual.size());
+    assertEquals(expected.isEmpty(), actual.isEmpty());
+    Map<K, V> iterated = Maps.newHashMap();
+    for (Map.Entry<K, V> entry : actual) {
+      assertNull("Duplicate key " + entry.getKey(), iterated.put(entry.getKey(), entry.getValue()));
+    }
+    assertEquals(expected, iterated);
+    for (Map.Entry<K, V> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), actual.get(entry.getKey()));
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    PersistentMap<String, String> map = PersistentMap.empty();
+    assertContents(ImmutableMap.of(), map);
+    assertNull(map.get("a"));
+    assertSame(map, map.minus("a"));
+  }
+
+  @Test
+  public void testUpdatesPreserveOriginal() {
+    PersistentMap<String, String> empty = PersistentMap.empty();
+    PersistentMap<String, String> one = empty.plus("a", "1");
+    PersistentMap<String, String> two = one.plus("b", "2");
+    PersistentMap<String, String> replaced = two.plus("a", "3");
+    PersistentMap<String, String> removed = replaced.minus("b");
+
+    assertContents(ImmutableMap.of(), empty);
+    assertContents(ImmutableMap.of("a", "1"), one);
+    assertContents(ImmutableMap.of("a", "1", "b", "2"), two);
+    assertContents(ImmutableMap.of("a", "3", "b", "2"), replaced);
+    assertContents(ImmutableMap.of("a", "3"), removed);
+    assertContents(ImmutableMap.of(), removed.minus("a"));
+  }
+
+  @Test
+  public void testNoopUpdates() {
+    String value = "1";
+    PersistentMap<String, String> map = PersistentMap.<String, String>empty().plus("a", value);
+    assertSame(map, map.plus("a", value));
+    assertSame(map, map.minus("b"));
+  }
+
+  @Test
+  public void testHashCollisions() {
+    CollidingKey a = new CollidingKey("a");
+    CollidingKey b = new CollidingKey("b");
+    CollidingKey c = new CollidingKey("c");
+    PersistentMap<Object, String> map = PersistentMap.empty();
+    map = map.plus(a, "a").plus(b, "b").plus(c, "c").plus("d", "d");
+    assertContents(ImmutableMap.of(a, "a", b, "b", c, "c", "d", "d"), map);
+    assertNull(map.get(new CollidingKey("e")));
+
+    map = map.minus(b);
+    assertContents(ImmutableMap.of(a, "a", c, "c", "d", "d"), map);
+    map = map.minus(a).minus(c);
+    assertContents(ImmutableMap.of("d", "d"), map);
+  }
+
+  @Test
+  public void testRandomOperations() {
+    Random random = new Random(0);
+    Map<Integer, Integer> expected = Maps.newHashMap();
+    PersistentMap<Integer, Integer> map = PersistentMap.empty();
+    for (int i = 0; i < 20000; i++) {
+      Integer key = random.nextInt(2000);
+      if (random.nextInt(3) == 0) {
+        expected.remove(key);
+        map = map.minus(key);
+      } else {
+        expected.put(key, i);
+        map = map.plus(key, i);
+      }
+    }
+    assertContents(expected, map);
+    assertEquals(ImmutableSet.copyOf(expected.values()), ImmutableSet.copyOf(map.values()));
+    assertTrue(map.size() > 0);
+  }
+}
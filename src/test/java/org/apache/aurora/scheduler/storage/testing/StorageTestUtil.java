@@ -14,6 +14,7 @@
 package org.apache.aurora.scheduler.storage.testing;
 
 import com.google.common.base.Optional;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableSet;
 
 import org.apache.aurora.common.testing.easymock.EasyMockTest;
@@ -32,8 +33,10 @@ import org.apache.aurora.scheduler.storage.Storage.Work;
 import org.apache.aurora.scheduler.storage.TaskStore;
 import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
 import org.easymock.Capture;
+import org.easymock.EasyMock;
 import org.easymock.IExpectationSetters;
 
+import static org.easymock.EasyMock.anyObject;
 import static org.easymock.EasyMock.capture;
 import static org.easymock.EasyMock.expect;
 
@@ -106,6 +109,11 @@ public class StorageTestUtil {
     expect(mutableStoreProvider.getJobUpdateStore()).andReturn(jobUpdateStore).anyTimes();
     expectRead().anyTimes();
     expectWrite().anyTimes();
+    // Lazy fetches are answered by the eager fetch, so expectations on fetchTasks cover both.
+    expect(taskStore.fetchTasksLazily(anyObject()))
+        .andAnswer(() -> FluentIterable.from(
+            taskStore.fetchTasks((Query.Builder) EasyMock.getCurrentArguments()[0])))
+        .anyTimes();
   }
 
   public IExpectationSetters<?> expectTaskFetch(
@@ -134,6 +134,9 @@ public final class FakeScheduledExecutor extends FakeClock {
         .andAnswer(answerScheduleAtFixedRate(executor, maxInvocations))
         .times(maxSchedules);
 
+    mock.execute(EasyMock.anyObject());
+    expectLastCall().andAnswer(answerExecute()).anyTimes();
+
     return executor;
   }
 
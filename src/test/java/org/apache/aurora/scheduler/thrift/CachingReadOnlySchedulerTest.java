@@ -0,0 +1,192 @@
+/**
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.aurora.scheduler.thrift;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.apache.aurora.common.quantity.Amount;
+import org.apache.aurora.common.quantity.Time;
+import org.apache.aurora.common.testing.easymock.EasyMockTest;
+import org.apache.aurora.common.util.testing.FakeClock;
+import org.apache.aurora.gen.JobKey;
+import org.apache.aurora.gen.Response;
+import org.apache.aurora.gen.ResponseDetail;
+import org.apache.aurora.gen.Result;
+import org.apache.aurora.gen.RoleSummaryResult;
+import org.apache.aurora.gen.ScheduleStatus;
+import org.apache.aurora.gen.TaskQuery;
+import org.apache.aurora.scheduler.base.JobKeys;
+import org.apache.aurora.scheduler.base.TaskTestUtil;
+import org.apache.aurora.scheduler.events.PubsubEvent.RoleDataChanged;
+import org.apache.aurora.scheduler.events.PubsubEvent.TaskStateChange;
+import org.apache.aurora.scheduler.events.PubsubEvent.TasksDeleted;
+import org.apache.aurora.scheduler.storage.entities.IScheduledTask;
+import org.apache.aurora.scheduler.testing.FakeStatsProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.apache.aurora.scheduler.thrift.CachingReadOnlyScheduler.CACHE_HITS;
+import static org.apache.aurora.scheduler.thrift.CachingReadOnlyScheduler.CACHE_MISSES;
+import static org.apache.aurora.scheduler.thrift.CachingReadOnlyScheduler.CACHE_STALE;
+import static org.easymock.EasyMock.expect;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+
+public class CachingReadOnlySchedulerTest extends EasyMockTest {
+
+  private static final String ROLE = "role";
+  private static final String OTHER_ROLE = "other";
+  private static final Amount<Long, Time> MAX_AGE = Amount.of(5L, Time.SECONDS);
+
+  private ReadOnlySchedulerImpl delegate;
+  private FakeClock clock;
+  private FakeStatsProvider statsProvider;
+  private CachingReadOnlyScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    delegate = createMock(ReadOnlySchedulerImpl.class);
+    clock = new FakeClock();
+    statsProvider = new FakeStatsProvider();
+    scheduler = new CachingReadOnlyScheduler(
+        delegate,
+        clock,
+        statsProvider,
+        new CachingReadOnlyScheduler.Settings(MAX_AGE));
+  }
+
+  private static Response response(String detail) {
+    return Responses.ok(Result.roleSummaryResult(new RoleSummaryResult(ImmutableSet.of())))
+        .setDetails(ImmutableList.of(new ResponseDetail(detail)));
+  }
+
+  private static IScheduledTask task(String role) {
+    return TaskTestUtil.makeTask("id", JobKeys.from(role, "env", "job"));
+  }
+
+  private void assertStats(long hits, long misses, long stale) {
+    assertEquals(hits, statsProvider.getLongValue(CACHE_HITS));
+    assertEquals(misses, statsProvider.getLongValue(CACHE_MISSES));
+    assertEquals(stale, statsProvider.getLongValue(CACHE_STALE));
+  }
+
+  @Test
+  public void testCachedUntilRoleChanges() throws Exception {
+    expect(delegate.getJobSummary(ROLE)).andReturn(response("a"));
+    expect(delegate.getJobSummary(ROLE)).andReturn(response("b"));
+
+    control.replay();
+
+    assertEquals(response("a"), scheduler.getJobSummary(ROLE));
+    assertEquals(response("a"), scheduler.getJobSummary(ROLE));
+    scheduler.roleDataChanged(new RoleDataChanged(OTHER_ROLE));
+    assertEquals(response("a"), scheduler.getJobSummary(ROLE));
+    scheduler.taskChangedState(TaskStateChange.transition(task(ROLE), ScheduleStatus.PENDING));
+    assertEquals(response("b"), scheduler.getJobSummary(ROLE));
+    assertStats(2, 2, 1);
+  }
+
+  @Test
+  public void testInvalidatedByAnyChange() throws Exception {
+    expect(delegate.getRoleSummary()).andReturn(response("a"));
+    expect(delegate.getRoleSummary()).andReturn(response("b"));
+    expect(delegate.getJobs(null)).andReturn(response("c"));
+    expect(delegate.getJobs(null)).andReturn(response("d"));
+
+    control.replay();
+
+    assertEquals(response("a"), scheduler.getRoleSummary());
+    assertEquals(response("c"), scheduler.getJobs(null));
+    scheduler.tasksDeleted(new TasksDeleted(ImmutableSet.of(task(OTHER_ROLE))));
+    assertEquals(response("b"), scheduler.getRoleSummary());
+    assertEquals(response("d"), scheduler.getJobs(null));
+    assertStats(0, 4, 2);
+  }
+
+  @Test
+  public void testArgumentsCachedSeparately() throws Exception {
+    JobKey job = JobKeys.from(ROLE, "env", "job").newBuilder();
+    JobKey otherJob = JobKeys.from(ROLE, "env", "other").newBuilder();
+    expect(delegate.getQuota(ROLE)).andReturn(response("a"));
+    expect(delegate.getQuota(OTHER_ROLE)).andReturn(response("b"));
+    expect(delegate.getConfigSummary(job)).andReturn(response("c"));
+    expect(delegate.getConfigSummary(otherJob)).andReturn(response("d"));
+
+    control.replay();
+
+    assertEquals(response("a"), scheduler.getQuota(ROLE));
+    assertEquals(response("b"), scheduler.getQuota(OTHER_ROLE));
+    assertEquals(response("c"), scheduler.getConfigSummary(job));
+    assertEquals(response("d"), scheduler.getConfigSummary(otherJob));
+    assertEquals(response("a"), scheduler.getQuota(ROLE));
+    assertEquals(response("b"), scheduler.getQuota(OTHER_ROLE));
+    assertEquals(response("c"), scheduler.getConfigSummary(job));
+    assertEquals(response("d"), scheduler.getConfigSummary(otherJob));
+    assertStats(4, 4, 0);
+  }
+
+  @Test
+  public void testExpiresAfterMaxAge() throws Exception {
+    expect(delegate.getJobSummary(ROLE)).andReturn(response("a"));
+    expect(delegate.getJobSummary(ROLE)).andReturn(response("b"));
+
+    control.replay();
+
+    assertEquals(response("a"), scheduler.getJobSummary(ROLE));
+    clock.advance(MAX_AGE);
+    assertEquals(response("a"), scheduler.getJobSummary(ROLE));
+    clock.advance(Amount.of(1L, Time.MILLISECONDS));
+    assertEquals(response("b"), scheduler.getJobSummary(ROLE));
+    assertStats(1, 2, 1);
+  }
+
+  @Test
+  public void testResponsesCopied() throws Exception {
+    Response response = response("a");
+    expect(delegate.getRoleSummary()).andReturn(response);
+
+    control.replay();
+
+    Response first = scheduler.getRoleSummary();
+    first.setDetails(null);
+    Response second = scheduler.getRoleSummary();
+    assertEquals(response("a"), second);
+    assertNotSame(second, scheduler.getRoleSummary());
+  }
+
+  @Test
+  public void testErrorsNotCached() throws Exception {
+    expect(delegate.getJobs(ROLE)).andReturn(Responses.error("failed"));
+    expect(delegate.getJobs(ROLE)).andReturn(response("a"));
+
+    control.replay();
+
+    assertEquals(Responses.error("failed"), scheduler.getJobs(ROLE));
+    assertEquals(response("a"), scheduler.getJobs(ROLE));
+  }
+
+  @Test
+  public void testUncachedQueriesPassedThrough() throws Exception {
+    TaskQuery query = new TaskQuery();
+    expect(delegate.getTasksStatus(query)).andReturn(response("a"));
+    expect(delegate.getTasksStatus(query)).andReturn(response("b"));
+
+    control.replay();
+
+    assertEquals(response("a"), scheduler.getTasksStatus(query));
+    assertEquals(response("b"), scheduler.getTasksStatus(query));
+    assertStats(0, 0, 0);
+  }
+}
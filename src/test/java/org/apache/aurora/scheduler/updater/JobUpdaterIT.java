@@ -77,6 +77,7 @@ import org.apache.aurora.scheduler.state.LockManagerImpl;
 import org.apache.aurora.scheduler.state.StateChangeResult;
 import org.apache.aurora.scheduler.state.StateManager;
 import org.apache.aurora.scheduler.state.StateManagerImpl;
+import org.apache.aurora.scheduler.state.StateManagerImpl.MaxTaskEvents;
 import org.apache.aurora.scheduler.state.UUIDGenerator;
 import org.apache.aurora.scheduler.state.UUIDGenerator.UUIDGeneratorImpl;
 import org.apache.aurora.scheduler.storage.JobUpdateStore;
@@ -185,6 +186,7 @@ public class JobUpdaterIT extends EasyMockTest {
             bind(StatsProvider.class).toInstance(new FakeStatsProvider());
             bind(Clock.class).toInstance(clock);
             bind(StateManager.class).to(StateManagerImpl.class);
+            bind(Integer.class).annotatedWith(MaxTaskEvents.class).toInstance(50);
             bind(Driver.class).toInstance(driver);
             bind(TaskIdGenerator.class).to(TaskIdGeneratorImpl.class);
             bind(RescheduleCalculator.class).to(RescheduleCalculatorImpl.class);